@@ -56,6 +56,17 @@ public class AppManager {
     this.cacheStore = new CacheStore(newDbManager);
   }
 
+  /**
+   * Constructor with a cache evicting according to the given policy.
+   *
+   * @param newDbManager database manager
+   * @param evictionPolicy {@link EvictionPolicy}
+   */
+  public AppManager(final DbManager newDbManager, final EvictionPolicy evictionPolicy) {
+    this.dbManager = newDbManager;
+    this.cacheStore = new CacheStore(newDbManager, evictionPolicy);
+  }
+
   /**
    * Developer/Tester is able to choose whether the application should use MongoDB as its underlying
    * data storage or a simple Java data structure to (temporarily) store the data/objects during
@@ -78,6 +89,16 @@ public class AppManager {
     cacheStore.clearCache();
   }
 
+  /**
+   * Retune the cache capacity at runtime without dropping the working set. Under the write-behind
+   * policy the evicted entries are written to the DB.
+   *
+   * @param capacity int
+   */
+  public void resizeCache(final int capacity) {
+    cacheStore.initCapacity(capacity, cachingPolicy == CachingPolicy.BEHIND);
+  }
+
   /**
    * Find user account.
    *
@@ -0,0 +1,238 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adaptive Replacement Cache (ARC). Resident entries are split into a list of entries seen once
+ * recently (T1) and a list of entries seen at least twice (T2). The keys of entries evicted from
+ * either list are remembered in the ghost lists B1 and B2. A miss that hits a ghost list shows that
+ * the corresponding resident list was too small, so the target size of T1 is adapted accordingly.
+ * Scans of cold keys only churn T1 and leave the frequently used entries in T2 alone. All
+ * operations are synchronized.
+ */
+@Slf4j
+public class ArcCache implements Cache {
+  /** Capacity of Cache. */
+  private int capacity;
+
+  /** Target size of T1. */
+  private int target;
+
+  /** Entries seen once recently, least-recently-used first. */
+  private final LinkedHashMap<String, UserAccount> recent = new LinkedHashMap<>();
+
+  /** Entries seen at least twice recently, least-recently-used first. */
+  private final LinkedHashMap<String, UserAccount> frequent = new LinkedHashMap<>();
+
+  /** Keys recently evicted from T1. */
+  private final LinkedHashSet<String> recentGhosts = new LinkedHashSet<>();
+
+  /** Keys recently evicted from T2. */
+  private final LinkedHashSet<String> frequentGhosts = new LinkedHashSet<>();
+
+  /**
+   * Constructor.
+   *
+   * @param cap Integer.
+   */
+  public ArcCache(final int cap) {
+    this.capacity = cap;
+  }
+
+  @Override
+  public synchronized UserAccount get(final String userId) {
+    if (recent.containsKey(userId)) {
+      var account = recent.remove(userId);
+      frequent.putLast(userId, account);
+      return account;
+    }
+    if (frequent.containsKey(userId)) {
+      var account = frequent.get(userId);
+      frequent.putLast(userId, account);
+      return account;
+    }
+    return null;
+  }
+
+  @Override
+  public synchronized void set(final String userId, final UserAccount userAccount) {
+    if (recent.containsKey(userId) || frequent.containsKey(userId)) {
+      recent.remove(userId);
+      frequent.putLast(userId, userAccount);
+      return;
+    }
+    if (recentGhosts.contains(userId)) {
+      target =
+          Math.min(capacity, target + Math.max(frequentGhosts.size() / recentGhosts.size(), 1));
+      recentGhosts.remove(userId);
+      replaceIfFull(false);
+      frequent.putLast(userId, userAccount);
+      return;
+    }
+    if (frequentGhosts.contains(userId)) {
+      target = Math.max(0, target - Math.max(recentGhosts.size() / frequentGhosts.size(), 1));
+      frequentGhosts.remove(userId);
+      replaceIfFull(true);
+      frequent.putLast(userId, userAccount);
+      return;
+    }
+    if (recent.size() + recentGhosts.size() >= capacity) {
+      if (recent.size() < capacity) {
+        recentGhosts.removeFirst();
+        replaceIfFull(false);
+      } else if (!recent.isEmpty()) {
+        var victim = recent.pollFirstEntry();
+        LOGGER.info("# Cache is FULL! Removing {} from cache...", victim.getKey());
+      }
+    } else {
+      if (recent.size() + frequent.size() + recentGhosts.size() + frequentGhosts.size()
+          >= 2 * capacity) {
+        frequentGhosts.removeFirst();
+      }
+      replaceIfFull(false);
+    }
+    if (capacity > 0) {
+      recent.putLast(userId, userAccount);
+    }
+  }
+
+  @Override
+  public synchronized boolean contains(final String userId) {
+    return recent.containsKey(userId) || frequent.containsKey(userId);
+  }
+
+  @Override
+  public synchronized void invalidate(final String userId) {
+    if (contains(userId)) {
+      LOGGER.info("# {} has been updated! Removing older version from cache...", userId);
+      recent.remove(userId);
+      frequent.remove(userId);
+    }
+  }
+
+  @Override
+  public synchronized boolean isFull() {
+    return recent.size() + frequent.size() >= capacity;
+  }
+
+  /**
+   * Get the entry {@code REPLACE} would evict next.
+   *
+   * @return {@link UserAccount}
+   */
+  @Override
+  public synchronized UserAccount getLruData() {
+    if (evictFromRecent(false) || frequent.isEmpty()) {
+      return recent.isEmpty() ? null : recent.firstEntry().getValue();
+    }
+    return frequent.firstEntry().getValue();
+  }
+
+  @Override
+  public synchronized void clear() {
+    recent.clear();
+    frequent.clear();
+    recentGhosts.clear();
+    frequentGhosts.clear();
+    target = 0;
+  }
+
+  /**
+   * Returns cache data in list form: T1 followed by T2, each ordered most-recently-used first.
+   *
+   * @return {@link List}
+   */
+  @Override
+  public synchronized List<UserAccount> getCacheDataInListForm() {
+    var listOfCacheData = new ArrayList<UserAccount>(recent.size() + frequent.size());
+    listOfCacheData.addAll(recent.sequencedValues().reversed());
+    listOfCacheData.addAll(frequent.sequencedValues().reversed());
+    return listOfCacheData;
+  }
+
+  @Override
+  public synchronized List<UserAccount> setCapacity(final int newCapacity) {
+    capacity = newCapacity;
+    target = Math.min(target, capacity);
+    var evicted = new ArrayList<UserAccount>();
+    while (recent.size() + frequent.size() > capacity) {
+      evicted.add(replace(false));
+    }
+    while (!recentGhosts.isEmpty() && recent.size() + recentGhosts.size() > capacity) {
+      recentGhosts.removeFirst();
+    }
+    while (!frequentGhosts.isEmpty()
+        && recent.size() + frequent.size() + recentGhosts.size() + frequentGhosts.size()
+            > 2 * capacity) {
+      frequentGhosts.removeFirst();
+    }
+    return evicted;
+  }
+
+  /**
+   * Run {@code REPLACE} if there is no free slot for a new resident entry.
+   *
+   * @param hitFrequentGhost whether the missed key was found in B2
+   */
+  private void replaceIfFull(final boolean hitFrequentGhost) {
+    if (recent.size() + frequent.size() >= capacity) {
+      replace(hitFrequentGhost);
+    }
+  }
+
+  /**
+   * Evict the least-recently-used entry of T1 or T2, remembering its key in the matching ghost
+   * list.
+   *
+   * @param hitFrequentGhost whether the missed key was found in B2
+   * @return the evicted user account
+   */
+  private UserAccount replace(final boolean hitFrequentGhost) {
+    if (evictFromRecent(hitFrequentGhost) || frequent.isEmpty()) {
+      var victim = recent.pollFirstEntry();
+      if (victim == null) {
+        return null;
+      }
+      LOGGER.info("# Cache is FULL! Removing {} from cache...", victim.getKey());
+      recentGhosts.addLast(victim.getKey());
+      return victim.getValue();
+    }
+    var victim = frequent.pollFirstEntry();
+    LOGGER.info("# Cache is FULL! Removing {} from cache...", victim.getKey());
+    frequentGhosts.addLast(victim.getKey());
+    return victim.getValue();
+  }
+
+  private boolean evictFromRecent(final boolean hitFrequentGhost) {
+    return !recent.isEmpty()
+        && (recent.size() > target || hitFrequentGhost && recent.size() == target);
+  }
+}
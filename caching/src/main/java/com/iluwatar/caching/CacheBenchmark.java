@@ -0,0 +1,209 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the throughput of {@link LruCache} behind a single global lock and {@link
+ * ConcurrentLruCache} when many threads read and update randomly chosen entries. {@value
+ * #READ_PERCENT}% of the operations are reads. The caches are filled before measuring and only
+ * existing entries are updated, so that nothing is evicted and logged while measuring.
+ */
+@Slf4j
+public final class CacheBenchmark {
+
+  private static final int CAPACITY = 10_000;
+  private static final int READ_PERCENT = 90;
+  private static final long WARM_UP_MILLIS = 500;
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param cache name of the cache
+   * @param threads number of calling threads
+   * @param opsPerSecond operations per second, across all threads
+   */
+  public record Result(String cache, int threads, double opsPerSecond) {}
+
+  private CacheBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    for (int threads : List.of(1, 4, 16)) {
+      for (Result result : run(threads, 1000)) {
+        LOGGER.info(
+            "{} threads: {}, ops/sec: {}",
+            result.cache(),
+            result.threads(),
+            String.format("%.0f", result.opsPerSecond()));
+      }
+    }
+  }
+
+  /**
+   * Runs both caches with the given number of threads.
+   *
+   * @param threads number of calling threads
+   * @param durationMillis duration of every run
+   * @return the result of both caches
+   * @throws Exception if any run fails
+   */
+  public static List<Result> run(int threads, long durationMillis) throws Exception {
+    var accounts = new UserAccount[CAPACITY];
+    for (int i = 0; i < CAPACITY; i++) {
+      accounts[i] = new UserAccount(String.valueOf(i), "user" + i, "benchmark");
+    }
+    var lruCache = new LruCache(CAPACITY);
+    var concurrentCache = new ConcurrentLruCache(CAPACITY);
+    for (UserAccount account : accounts) {
+      lruCache.set(account.getUserId(), account);
+      concurrentCache.set(account.getUserId(), account);
+    }
+    Cache globalLock = synchronizedCache(lruCache);
+
+    measure(globalLock, accounts, threads, WARM_UP_MILLIS);
+    measure(concurrentCache, accounts, threads, WARM_UP_MILLIS);
+    return List.of(
+        new Result("LruCache", threads, measure(globalLock, accounts, threads, durationMillis)),
+        new Result(
+            "ConcurrentLruCache",
+            threads,
+            measure(concurrentCache, accounts, threads, durationMillis)));
+  }
+
+  private static double measure(
+      Cache cache, UserAccount[] accounts, int threads, long durationMillis) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder ops = new LongAdder();
+    LongAdder hits = new LongAdder();
+    CountDownLatch started = new CountDownLatch(threads);
+    try {
+      List<Future<?>> callers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        callers.add(
+            executor.submit(
+                (Callable<Void>)
+                    () -> {
+                      var random = ThreadLocalRandom.current();
+                      started.countDown();
+                      long count = 0;
+                      long found = 0;
+                      while (running.get()) {
+                        var account = accounts[random.nextInt(accounts.length)];
+                        if (random.nextInt(100) < READ_PERCENT) {
+                          if (cache.get(account.getUserId()) != null) {
+                            found++;
+                          }
+                        } else {
+                          cache.set(account.getUserId(), account);
+                        }
+                        count++;
+                      }
+                      ops.add(count);
+                      // keeps the reads from being optimized away
+                      hits.add(found);
+                      return null;
+                    }));
+      }
+      started.await();
+      long start = System.nanoTime();
+      Thread.sleep(durationMillis);
+      running.set(false);
+      for (Future<?> caller : callers) {
+        caller.get();
+      }
+      return ops.sum() / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Guards every call to the cache with the same lock, as a caller sharing a {@link LruCache}. */
+  private static Cache synchronizedCache(LruCache cache) {
+    return new Cache() {
+      @Override
+      public synchronized UserAccount get(String userId) {
+        return cache.get(userId);
+      }
+
+      @Override
+      public synchronized void set(String userId, UserAccount userAccount) {
+        cache.set(userId, userAccount);
+      }
+
+      @Override
+      public synchronized boolean contains(String userId) {
+        return cache.contains(userId);
+      }
+
+      @Override
+      public synchronized void invalidate(String userId) {
+        cache.invalidate(userId);
+      }
+
+      @Override
+      public synchronized boolean isFull() {
+        return cache.isFull();
+      }
+
+      @Override
+      public synchronized UserAccount getLruData() {
+        return cache.getLruData();
+      }
+
+      @Override
+      public synchronized void clear() {
+        cache.clear();
+      }
+
+      @Override
+      public synchronized List<UserAccount> getCacheDataInListForm() {
+        return cache.getCacheDataInListForm();
+      }
+
+      @Override
+      public synchronized List<UserAccount> setCapacity(int newCapacity) {
+        return cache.setCapacity(newCapacity);
+      }
+    };
+  }
+}
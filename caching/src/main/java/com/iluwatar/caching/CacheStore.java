@@ -27,6 +27,7 @@ package com.iluwatar.caching;
 import com.iluwatar.caching.database.DbManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,12 +37,24 @@ public class CacheStore {
   /** Cache capacity. */
   private static final int CAPACITY = 3;
 
-  /** Lru cache see {@link LruCache}. */
-  private LruCache cache;
+  /** Cache, see {@link LruCache} and {@link ConcurrentLruCache}. */
+  private Cache cache;
 
   /** DbManager. */
   private final DbManager dbManager;
 
+  /**
+   * Asynchronous write-behind, null while write-behind writes synchronously. Only changed while
+   * holding the store's lock.
+   */
+  private volatile WriteBehindFlusher writeBehindFlusher;
+
+  /** Number of reads served from the cache. */
+  private final LongAdder hits = new LongAdder();
+
+  /** Number of reads that missed the cache. */
+  private final LongAdder misses = new LongAdder();
+
   /**
    * Cache Store.
    *
@@ -52,19 +65,81 @@ public class CacheStore {
     initCapacity(CAPACITY);
   }
 
+  /**
+   * Cache Store backed by the given cache, e.g. a {@link ConcurrentLruCache} when the store is
+   * shared between request threads.
+   *
+   * @param dataBaseManager {@link DbManager}
+   * @param backingCache {@link Cache}
+   */
+  public CacheStore(final DbManager dataBaseManager, final Cache backingCache) {
+    this.dbManager = dataBaseManager;
+    this.cache = backingCache;
+  }
+
+  /**
+   * Cache Store whose cache evicts according to the given policy.
+   *
+   * @param dataBaseManager {@link DbManager}
+   * @param evictionPolicy {@link EvictionPolicy}
+   */
+  public CacheStore(final DbManager dataBaseManager, final EvictionPolicy evictionPolicy) {
+    this(dataBaseManager, evictionPolicy.createCache(CAPACITY));
+  }
+
   /**
    * Init cache capacity.
    *
    * @param capacity int
    */
   public void initCapacity(final int capacity) {
+    initCapacity(capacity, false);
+  }
+
+  /**
+   * Init or retune cache capacity at runtime. Shrinking evicts only the coldest entries that no
+   * longer fit, growing keeps the whole working set.
+   *
+   * @param capacity int
+   * @param flushEvicted whether evicted entries are dirty and have to be written to the DB, as
+   *     under a synchronous write-behind policy
+   */
+  public void initCapacity(final int capacity, final boolean flushEvicted) {
     if (cache == null) {
       cache = new LruCache(capacity);
-    } else {
-      cache.setCapacity(capacity);
+      return;
+    }
+    List<UserAccount> evicted = cache.setCapacity(capacity);
+    if (flushEvicted && writeBehindFlusher == null && !evicted.isEmpty()) {
+      LOGGER.info("# Cache capacity reduced! Writing {} evicted entries to DB...", evicted.size());
+      dbManager.batchUpsertDb(evicted);
+    }
+  }
+
+  /**
+   * Switch write-behind to asynchronous, batched writes, see {@link WriteBehindFlusher}.
+   *
+   * @param maxBatchSize maximum number of entries per DB batch
+   * @param maxLagMillis maximum time a write may stay queued
+   * @param maxPendingWrites maximum number of queued writes before callers are blocked
+   */
+  public synchronized void startWriteBehindFlusher(
+      final int maxBatchSize, final long maxLagMillis, final int maxPendingWrites) {
+    if (writeBehindFlusher == null) {
+      writeBehindFlusher =
+          new WriteBehindFlusher(dbManager, maxBatchSize, maxLagMillis, maxPendingWrites);
     }
   }
 
+  /**
+   * Get the asynchronous write-behind flusher.
+   *
+   * @return {@link WriteBehindFlusher} or null if write-behind is synchronous
+   */
+  public WriteBehindFlusher getWriteBehindFlusher() {
+    return writeBehindFlusher;
+  }
+
   /**
    * Get user account using read-through cache.
    *
@@ -72,11 +147,14 @@ public class CacheStore {
    * @return {@link UserAccount}
    */
   public UserAccount readThrough(final String userId) {
-    if (cache.contains(userId)) {
+    UserAccount cached = cache.get(userId);
+    if (cached != null) {
       LOGGER.info("# Found in Cache!");
-      return cache.get(userId);
+      hits.increment();
+      return cached;
     }
     LOGGER.info("# Not found in cache! Go to DB!!");
+    misses.increment();
     UserAccount userAccount = dbManager.readFromDb(userId);
     cache.set(userId, userAccount);
     return userAccount;
@@ -119,13 +197,24 @@ public class CacheStore {
    * @return {@link UserAccount}
    */
   public UserAccount readThroughWithWriteBackPolicy(final String userId) {
-    if (cache.contains(userId)) {
+    UserAccount cached = cache.get(userId);
+    if (cached != null) {
       LOGGER.info("# Found in cache!");
-      return cache.get(userId);
+      hits.increment();
+      return cached;
     }
     LOGGER.info("# Not found in Cache!");
+    misses.increment();
+    var flusher = writeBehindFlusher;
+    if (flusher != null) {
+      UserAccount pending = flusher.getPending(userId);
+      if (pending != null) {
+        cache.set(userId, pending);
+        return pending;
+      }
+    }
     UserAccount userAccount = dbManager.readFromDb(userId);
-    if (cache.isFull()) {
+    if (flusher == null && cache.isFull()) {
       LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
       UserAccount toBeWrittenToDb = cache.getLruData();
       dbManager.upsertDb(toBeWrittenToDb);
@@ -140,6 +229,12 @@ public class CacheStore {
    * @param userAccount {@link UserAccount}
    */
   public void writeBehind(final UserAccount userAccount) {
+    var flusher = writeBehindFlusher;
+    if (flusher != null) {
+      flusher.enqueue(userAccount);
+      cache.set(userAccount.getUserId(), userAccount);
+      return;
+    }
     if (cache.isFull() && !cache.contains(userAccount.getUserId())) {
       LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
       UserAccount toBeWrittenToDb = cache.getLruData();
@@ -156,12 +251,15 @@ public class CacheStore {
   }
 
   /** Writes remaining content in the cache into the DB. */
-  public void flushCache() {
+  public synchronized void flushCache() {
     LOGGER.info("# flushCache...");
-    Optional.ofNullable(cache)
-        .map(LruCache::getCacheDataInListForm)
-        .orElse(List.of())
-        .forEach(dbManager::updateDb);
+    if (writeBehindFlusher != null) {
+      writeBehindFlusher.close();
+      writeBehindFlusher = null;
+    } else {
+      dbManager.batchUpsertDb(
+          Optional.ofNullable(cache).map(Cache::getCacheDataInListForm).orElse(List.of()));
+    }
     dbManager.disconnect();
   }
 
@@ -171,10 +269,7 @@ public class CacheStore {
    * @return {@link String}
    */
   public String print() {
-    return Optional.ofNullable(cache)
-        .map(LruCache::getCacheDataInListForm)
-        .orElse(List.of())
-        .stream()
+    return Optional.ofNullable(cache).map(Cache::getCacheDataInListForm).orElse(List.of()).stream()
         .map(userAccount -> userAccount.toString() + "\n")
         .collect(Collectors.joining("", "\n--CACHE CONTENT--\n", "----"));
   }
@@ -186,7 +281,13 @@ public class CacheStore {
    * @return {@link UserAccount}
    */
   public UserAccount get(final String userId) {
-    return cache.get(userId);
+    UserAccount cached = cache.get(userId);
+    if (cached != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return cached;
   }
 
   /**
@@ -207,4 +308,33 @@ public class CacheStore {
   public void invalidate(final String userId) {
     cache.invalidate(userId);
   }
+
+  /**
+   * Number of reads served from the cache.
+   *
+   * @return long
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Number of reads that had to go to the DB.
+   *
+   * @return long
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Ratio of reads served from the cache.
+   *
+   * @return hit ratio between 0 and 1, or 0 if nothing has been read yet
+   */
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
 }
@@ -0,0 +1,393 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thread-safe LRU cache. Entries live in a {@link ConcurrentHashMap} so that lookups never block.
+ * The recency order is kept in a doubly linked-list that is only touched while holding the eviction
+ * lock. Instead of reordering the list on every hit, readers record the accessed node in one of
+ * several striped, lossy ring buffers and the buffered accesses are replayed in batches by
+ * whichever thread next acquires the lock. Dropping an access when a buffer is full only makes the
+ * recency order slightly less precise, it never corrupts the cache.
+ */
+@Slf4j
+public class ConcurrentLruCache implements Cache {
+  /** Number of striped read buffers, a power of two. */
+  private static final int READ_BUFFER_COUNT =
+      Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) * 2;
+
+  /** Mask used to select a read buffer. */
+  private static final int READ_BUFFER_MASK = READ_BUFFER_COUNT - 1;
+
+  /** Capacity of a single read buffer, a power of two. */
+  private static final int READ_BUFFER_SIZE = 16;
+
+  /** Number of pending reads in a buffer that triggers a drain attempt. */
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+  /** Static class Node. */
+  static final class Node {
+    /** user id. */
+    private final String userId;
+
+    /** User Account. */
+    private volatile UserAccount userAccount;
+
+    /** previous, guarded by the eviction lock. */
+    private Node previous;
+
+    /** next, guarded by the eviction lock. */
+    private Node next;
+
+    /** Whether the node is part of the linked list, guarded by the eviction lock. */
+    private boolean linked;
+
+    /**
+     * Node definition.
+     *
+     * @param id String
+     * @param account {@link UserAccount}
+     */
+    Node(final String id, final UserAccount account) {
+      this.userId = id;
+      this.userAccount = account;
+    }
+  }
+
+  /**
+   * Lossy multi-producer, single-consumer ring buffer of recently read nodes. Producers claim a
+   * slot with a single CAS and give up if the buffer is full or contended, the consumer drains it
+   * while holding the eviction lock.
+   */
+  static final class ReadBuffer {
+    /** Index of the next slot to drain. */
+    private final AtomicLong readCounter = new AtomicLong();
+
+    /** Index of the next slot to fill. */
+    private final AtomicLong writeCounter = new AtomicLong();
+
+    /** Buffered nodes. */
+    private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+    /**
+     * Try to record a read.
+     *
+     * @param node {@link Node}
+     * @return number of pending reads, including this one if it was recorded
+     */
+    int offer(final Node node) {
+      var head = readCounter.get();
+      var tail = writeCounter.get();
+      var size = (int) (tail - head);
+      if (size >= READ_BUFFER_SIZE) {
+        return size;
+      }
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        slots.lazySet((int) (tail & (READ_BUFFER_SIZE - 1)), node);
+        return size + 1;
+      }
+      return size;
+    }
+
+    /**
+     * Replay the buffered reads. Must be called while holding the eviction lock.
+     *
+     * @param cache owning {@link ConcurrentLruCache}
+     */
+    void drainTo(final ConcurrentLruCache cache) {
+      var head = readCounter.get();
+      var tail = writeCounter.get();
+      for (; head != tail; head++) {
+        var index = (int) (head & (READ_BUFFER_SIZE - 1));
+        var node = slots.get(index);
+        if (node == null) {
+          // the producer claimed the slot but has not published the node yet
+          break;
+        }
+        slots.lazySet(index, null);
+        cache.moveToHead(node);
+      }
+      readCounter.lazySet(head);
+    }
+  }
+
+  /** Capacity of Cache. */
+  private volatile int capacity;
+
+  /** Cache {@link ConcurrentHashMap}. */
+  private final Map<String, Node> cache = new ConcurrentHashMap<>();
+
+  /** Striped read buffers. */
+  private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_COUNT];
+
+  /** Guards the linked list and all structural changes of the cache. */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /** Head, guarded by the eviction lock. */
+  private Node head;
+
+  /** End, guarded by the eviction lock. */
+  private Node end;
+
+  /**
+   * Constructor.
+   *
+   * @param cap Integer.
+   */
+  public ConcurrentLruCache(final int cap) {
+    this.capacity = cap;
+    for (var i = 0; i < READ_BUFFER_COUNT; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+  }
+
+  @Override
+  public UserAccount get(final String userId) {
+    var node = cache.get(userId);
+    if (node == null) {
+      return null;
+    }
+    afterRead(node);
+    return node.userAccount;
+  }
+
+  @Override
+  public void set(final String userId, final UserAccount userAccount) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      var node = cache.get(userId);
+      if (node != null) {
+        node.userAccount = userAccount;
+        moveToHead(node);
+        return;
+      }
+      if (cache.size() >= capacity && end != null) {
+        LOGGER.info("# Cache is FULL! Removing {} from cache...", end.userId);
+        evict(end);
+      }
+      node = new Node(userId, userAccount);
+      linkHead(node);
+      cache.put(userId, node);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean contains(final String userId) {
+    return cache.containsKey(userId);
+  }
+
+  @Override
+  public void invalidate(final String userId) {
+    evictionLock.lock();
+    try {
+      var toBeRemoved = cache.remove(userId);
+      if (toBeRemoved != null) {
+        LOGGER.info("# {} has been updated! Removing older version from cache...", userId);
+        unlink(toBeRemoved);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean isFull() {
+    return cache.size() >= capacity;
+  }
+
+  @Override
+  public UserAccount getLruData() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      return end == null ? null : end.userAccount;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (var node = head; node != null; node = node.next) {
+        node.linked = false;
+      }
+      head = null;
+      end = null;
+      cache.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public List<UserAccount> getCacheDataInListForm() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      var listOfCacheData = new ArrayList<UserAccount>();
+      for (var node = head; node != null; node = node.next) {
+        listOfCacheData.add(node.userAccount);
+      }
+      return listOfCacheData;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Set cache capacity. Shrinking evicts the least-recently-used entries only.
+   *
+   * @param newCapacity int
+   * @return evicted user accounts, least-recently-used first
+   */
+  @Override
+  public List<UserAccount> setCapacity(final int newCapacity) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      capacity = newCapacity;
+      var evicted = new ArrayList<UserAccount>();
+      while (cache.size() > capacity && end != null) {
+        LOGGER.info("# Cache capacity reduced! Removing {} from cache...", end.userId);
+        evicted.add(end.userAccount);
+        evict(end);
+      }
+      return evicted;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Record a read and replay the buffered reads if enough of them are pending and the lock is free.
+   *
+   * @param node {@link Node}
+   */
+  private void afterRead(final Node node) {
+    var buffer = readBuffers[readBufferIndex()];
+    if (buffer.offer(node) >= READ_BUFFER_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+      try {
+        buffer.drainTo(this);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Select the read buffer of the current thread.
+   *
+   * @return index into the read buffers
+   */
+  private static int readBufferIndex() {
+    var id = Thread.currentThread().threadId();
+    var hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & READ_BUFFER_MASK;
+  }
+
+  /** Replay all buffered reads. Must be called while holding the eviction lock. */
+  private void drainReadBuffers() {
+    for (var buffer : readBuffers) {
+      buffer.drainTo(this);
+    }
+  }
+
+  /**
+   * Remove the node from both the map and the linked list.
+   *
+   * @param node {@link Node}
+   */
+  private void evict(final Node node) {
+    cache.remove(node.userId, node);
+    unlink(node);
+  }
+
+  /**
+   * Move a node to the front of the list, ignoring nodes that were already removed.
+   *
+   * @param node {@link Node}
+   */
+  private void moveToHead(final Node node) {
+    if (!node.linked || node == head) {
+      return;
+    }
+    unlink(node);
+    linkHead(node);
+  }
+
+  /**
+   * Remove node from linked list.
+   *
+   * @param node {@link Node}
+   */
+  private void unlink(final Node node) {
+    if (node.previous != null) {
+      node.previous.next = node.next;
+    } else {
+      head = node.next;
+    }
+    if (node.next != null) {
+      node.next.previous = node.previous;
+    } else {
+      end = node.previous;
+    }
+    node.previous = null;
+    node.next = null;
+    node.linked = false;
+  }
+
+  /**
+   * Insert node at the front of the list.
+   *
+   * @param node {@link Node}
+   */
+  private void linkHead(final Node node) {
+    node.next = head;
+    node.previous = null;
+    if (head != null) {
+      head.previous = node;
+    }
+    head = node;
+    if (end == null) {
+      end = head;
+    }
+    node.linked = true;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.function.IntFunction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Enum class containing the eviction policies a {@link CacheStore} can be configured with. Every
+ * policy creates a thread-safe {@link Cache}.
+ */
+@AllArgsConstructor
+public enum EvictionPolicy {
+  /** Least-recently-used, see {@link ConcurrentLruCache}. */
+  LRU("lru", ConcurrentLruCache::new),
+  /** Window TinyLFU, see {@link WindowTinyLfuCache}. */
+  W_TINY_LFU("w-tinylfu", WindowTinyLfuCache::new),
+  /** Adaptive replacement cache, see {@link ArcCache}. */
+  ARC("arc", ArcCache::new);
+
+  /** Policy value. */
+  @Getter private final String policy;
+
+  /** Cache factory. */
+  private final IntFunction<Cache> factory;
+
+  /**
+   * Create a cache that evicts according to this policy.
+   *
+   * @param capacity int
+   * @return {@link Cache}
+   */
+  public Cache createCache(final int capacity) {
+    return factory.apply(capacity);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a recorded trace of requested user ids against the available {@link EvictionPolicy}s, so
+ * that the policy with the best hit ratio for a given workload can be picked. Every request is
+ * served read-through: a miss loads the entry into the cache.
+ */
+public final class EvictionPolicySimulator {
+
+  private EvictionPolicySimulator() {}
+
+  /**
+   * Hit ratio of a single policy on the trace.
+   *
+   * @param policy {@link EvictionPolicy}
+   * @param capacity cache capacity
+   * @param trace requested user ids in order
+   * @return ratio of requests served from the cache, between 0 and 1
+   */
+  public static double hitRatio(
+      final EvictionPolicy policy, final int capacity, final List<String> trace) {
+    if (trace.isEmpty()) {
+      return 0;
+    }
+    var cache = policy.createCache(capacity);
+    var hits = 0;
+    for (var userId : trace) {
+      if (cache.get(userId) != null) {
+        hits++;
+      } else {
+        cache.set(userId, new UserAccount(userId, null, null));
+      }
+    }
+    return (double) hits / trace.size();
+  }
+
+  /**
+   * Hit ratios of all policies on the trace.
+   *
+   * @param capacity cache capacity
+   * @param trace requested user ids in order
+   * @return hit ratio per policy
+   */
+  public static Map<EvictionPolicy, Double> compare(final int capacity, final List<String> trace) {
+    var ratios = new EnumMap<EvictionPolicy, Double>(EvictionPolicy.class);
+    for (var policy : EvictionPolicy.values()) {
+      ratios.put(policy, hitRatio(policy, capacity, trace));
+    }
+    return ratios;
+  }
+}
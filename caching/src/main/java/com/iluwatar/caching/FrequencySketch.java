@@ -0,0 +1,130 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+/**
+ * Count-Min sketch with small saturating counters, used by {@link WindowTinyLfuCache} to estimate
+ * how often a key has been accessed recently. Once the number of recorded accesses reaches the
+ * sample size all counters are halved, so that the popularity of keys ages over time.
+ */
+class FrequencySketch {
+  /** Number of rows (hash functions) of the sketch. */
+  private static final int DEPTH = 4;
+
+  /** Largest value a counter can hold. */
+  private static final int MAX_COUNT = 15;
+
+  /** Seeds of the hash functions. */
+  private static final int[] SEEDS = {0x97cb3127, 0xb6a4f1c3, 0x4d5a2f1b, 0x7e39c5b1};
+
+  /** Counters. */
+  private byte[][] table;
+
+  /** Mask used to map a hash to a column. */
+  private int mask;
+
+  /** Number of accesses after which the counters are halved. */
+  private int sampleSize;
+
+  /** Number of accesses recorded since the last reset. */
+  private int size;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity expected number of cached entries
+   */
+  FrequencySketch(final int capacity) {
+    ensureCapacity(capacity);
+  }
+
+  /**
+   * Resize the sketch for a new cache capacity, dropping the collected statistics.
+   *
+   * @param capacity expected number of cached entries
+   */
+  void ensureCapacity(final int capacity) {
+    var width = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1);
+    table = new byte[DEPTH][width];
+    mask = width - 1;
+    sampleSize = Math.max(capacity, 1) * 10;
+    size = 0;
+  }
+
+  /**
+   * Estimated access frequency of the key.
+   *
+   * @param key String
+   * @return estimate between 0 and 15
+   */
+  int frequency(final String key) {
+    var hash = spread(key.hashCode());
+    var frequency = MAX_COUNT;
+    for (var i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, table[i][index(hash, i)]);
+    }
+    return frequency;
+  }
+
+  /**
+   * Record an access of the key.
+   *
+   * @param key String
+   */
+  void increment(final String key) {
+    var hash = spread(key.hashCode());
+    var added = false;
+    for (var i = 0; i < DEPTH; i++) {
+      var index = index(hash, i);
+      if (table[i][index] < MAX_COUNT) {
+        table[i][index]++;
+        added = true;
+      }
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  /** Halve all counters. */
+  private void reset() {
+    for (var row : table) {
+      for (var i = 0; i < row.length; i++) {
+        row[i] >>= 1;
+      }
+    }
+    size /= 2;
+  }
+
+  private int index(final int hash, final int row) {
+    var h = (hash ^ SEEDS[row]) * SEEDS[row];
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static int spread(final int hash) {
+    var h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
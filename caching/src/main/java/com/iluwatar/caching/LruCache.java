@@ -36,9 +36,12 @@ import lombok.extern.slf4j.Slf4j;
  * LRU data in the cache. When a data is queried (from the cache), added (to the cache), or updated,
  * the data is moved to the front of the list to depict itself as the most-recently-used data. The
  * LRU data is always at the end of the list.
+ *
+ * <p>This implementation is not thread-safe. Use {@link ConcurrentLruCache} when the cache is
+ * shared between request threads.
  */
 @Slf4j
-public class LruCache {
+public class LruCache implements Cache {
   /** Static class Node. */
   static class Node {
     /** user id. */
@@ -92,6 +95,7 @@ public class LruCache {
    * @param userId String
    * @return {@link UserAccount}
    */
+  @Override
   public UserAccount get(final String userId) {
     if (cache.containsKey(userId)) {
       var node = cache.get(userId);
@@ -143,6 +147,7 @@ public class LruCache {
    * @param userAccount {@link UserAccount}
    * @param userId {@link String}
    */
+  @Override
   public void set(final String userId, final UserAccount userAccount) {
     if (cache.containsKey(userId)) {
       var old = cache.get(userId);
@@ -169,6 +174,7 @@ public class LruCache {
    * @param userId {@link String}
    * @return boolean
    */
+  @Override
   public boolean contains(final String userId) {
     return cache.containsKey(userId);
   }
@@ -178,6 +184,7 @@ public class LruCache {
    *
    * @param userId {@link String}
    */
+  @Override
   public void invalidate(final String userId) {
     var toBeRemoved = cache.remove(userId);
     if (toBeRemoved != null) {
@@ -191,6 +198,7 @@ public class LruCache {
    *
    * @return boolean
    */
+  @Override
   public boolean isFull() {
     return cache.size() >= capacity;
   }
@@ -200,11 +208,13 @@ public class LruCache {
    *
    * @return {@link UserAccount}
    */
+  @Override
   public UserAccount getLruData() {
     return end.userAccount;
   }
 
   /** Clear cache. */
+  @Override
   public void clear() {
     head = null;
     end = null;
@@ -216,6 +226,7 @@ public class LruCache {
    *
    * @return {@link List}
    */
+  @Override
   public List<UserAccount> getCacheDataInListForm() {
     var listOfCacheData = new ArrayList<UserAccount>();
     var temp = head;
@@ -227,18 +238,22 @@ public class LruCache {
   }
 
   /**
-   * Set cache capacity.
+   * Set cache capacity. Shrinking evicts the least-recently-used entries that no longer fit, the
+   * rest of the working set stays cached.
    *
    * @param newCapacity int
+   * @return evicted user accounts, least-recently-used first
    */
-  public void setCapacity(final int newCapacity) {
-    if (capacity > newCapacity) {
-      // Behavior can be modified to accommodate
-      // for decrease in cache size. For now, we'll
-      clear();
-      // just clear the cache.
-    } else {
-      this.capacity = newCapacity;
+  @Override
+  public List<UserAccount> setCapacity(final int newCapacity) {
+    this.capacity = newCapacity;
+    var evicted = new ArrayList<UserAccount>();
+    while (cache.size() > capacity) {
+      LOGGER.info("# Cache capacity reduced! Removing {} from cache...", end.userId);
+      evicted.add(end.userAccount);
+      cache.remove(end.userId);
+      remove(end);
     }
+    return evicted;
   }
 }
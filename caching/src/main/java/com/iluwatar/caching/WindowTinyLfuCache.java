@@ -0,0 +1,272 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Window TinyLFU cache. New entries first enter a small LRU window (1% of the capacity). When an
+ * entry falls out of the window it has to compete for a place in the main area with the entry the
+ * main area would evict, and only the one that was accessed more often recently, according to a
+ * {@link FrequencySketch}, is kept. The main area is a segmented LRU: entries start in the
+ * probation segment and are promoted to the protected segment (80% of the main area) when accessed
+ * again. A one-off scan of cold keys therefore only churns the window and cannot flush the
+ * frequently used entries. All operations are synchronized.
+ */
+@Slf4j
+public class WindowTinyLfuCache implements Cache {
+  /** Capacity of Cache. */
+  private int capacity;
+
+  /** Capacity of the admission window. */
+  private int windowCapacity;
+
+  /** Capacity of the protected segment. */
+  private int protectedCapacity;
+
+  /** Admission window, least-recently-used first. */
+  private final LinkedHashMap<String, UserAccount> window = new LinkedHashMap<>();
+
+  /** Probation segment of the main area, least-recently-used first. */
+  private final LinkedHashMap<String, UserAccount> probation = new LinkedHashMap<>();
+
+  /** Protected segment of the main area, least-recently-used first. */
+  private final LinkedHashMap<String, UserAccount> protectedSegment = new LinkedHashMap<>();
+
+  /** Recent access frequencies. */
+  private final FrequencySketch sketch;
+
+  /**
+   * Constructor.
+   *
+   * @param cap Integer.
+   */
+  public WindowTinyLfuCache(final int cap) {
+    this.sketch = new FrequencySketch(cap);
+    resize(cap);
+  }
+
+  @Override
+  public synchronized UserAccount get(final String userId) {
+    if (!contains(userId)) {
+      return null;
+    }
+    sketch.increment(userId);
+    return touch(userId);
+  }
+
+  @Override
+  public synchronized void set(final String userId, final UserAccount userAccount) {
+    sketch.increment(userId);
+    if (window.containsKey(userId)) {
+      window.put(userId, userAccount);
+    } else if (probation.containsKey(userId)) {
+      probation.put(userId, userAccount);
+    } else if (protectedSegment.containsKey(userId)) {
+      protectedSegment.put(userId, userAccount);
+    } else {
+      window.putLast(userId, userAccount);
+      evict();
+      return;
+    }
+    touch(userId);
+  }
+
+  @Override
+  public synchronized boolean contains(final String userId) {
+    return window.containsKey(userId)
+        || probation.containsKey(userId)
+        || protectedSegment.containsKey(userId);
+  }
+
+  @Override
+  public synchronized void invalidate(final String userId) {
+    if (contains(userId)) {
+      LOGGER.info("# {} has been updated! Removing older version from cache...", userId);
+      window.remove(userId);
+      probation.remove(userId);
+      protectedSegment.remove(userId);
+    }
+  }
+
+  @Override
+  public synchronized boolean isFull() {
+    return size() >= capacity;
+  }
+
+  /**
+   * Get the entry that loses the next admission contest, i.e. the one evicted next.
+   *
+   * @return {@link UserAccount}
+   */
+  @Override
+  public synchronized UserAccount getLruData() {
+    var candidate = window.firstEntry();
+    var victim = mainVictim();
+    if (victim == null) {
+      return candidate == null ? null : candidate.getValue();
+    }
+    if (candidate == null) {
+      return victim.getValue();
+    }
+    return admits(candidate, victim) ? victim.getValue() : candidate.getValue();
+  }
+
+  @Override
+  public synchronized void clear() {
+    window.clear();
+    probation.clear();
+    protectedSegment.clear();
+  }
+
+  /**
+   * Returns cache data in list form: the window, the protected and the probation segment, each
+   * ordered most-recently-used first.
+   *
+   * @return {@link List}
+   */
+  @Override
+  public synchronized List<UserAccount> getCacheDataInListForm() {
+    var listOfCacheData = new ArrayList<UserAccount>(size());
+    listOfCacheData.addAll(window.sequencedValues().reversed());
+    listOfCacheData.addAll(protectedSegment.sequencedValues().reversed());
+    listOfCacheData.addAll(probation.sequencedValues().reversed());
+    return listOfCacheData;
+  }
+
+  @Override
+  public synchronized List<UserAccount> setCapacity(final int newCapacity) {
+    if (newCapacity > capacity) {
+      sketch.ensureCapacity(newCapacity);
+    }
+    resize(newCapacity);
+    return evict();
+  }
+
+  /**
+   * Split the capacity between the window and the segments of the main area.
+   *
+   * @param cap int
+   */
+  private void resize(final int cap) {
+    capacity = cap;
+    windowCapacity = cap == 0 ? 0 : Math.max(1, cap / 100);
+    protectedCapacity = (cap - windowCapacity) * 4 / 5;
+  }
+
+  /**
+   * Move a cached entry to the most-recently-used position of its segment, promoting it from
+   * probation to protected.
+   *
+   * @param userId String
+   * @return {@link UserAccount}
+   */
+  private UserAccount touch(final String userId) {
+    if (window.containsKey(userId)) {
+      var account = window.get(userId);
+      window.putLast(userId, account);
+      return account;
+    }
+    if (protectedSegment.containsKey(userId)) {
+      var account = protectedSegment.get(userId);
+      protectedSegment.putLast(userId, account);
+      return account;
+    }
+    var account = probation.remove(userId);
+    protectedSegment.putLast(userId, account);
+    demoteProtected();
+    return account;
+  }
+
+  /**
+   * Restore the size limits of all segments.
+   *
+   * @return evicted user accounts
+   */
+  private List<UserAccount> evict() {
+    var evicted = new ArrayList<UserAccount>();
+    while (window.size() > windowCapacity) {
+      evicted.add(admit(window.pollFirstEntry()));
+    }
+    demoteProtected();
+    while (probation.size() + protectedSegment.size() > capacity - windowCapacity) {
+      var victim =
+          probation.isEmpty() ? protectedSegment.pollFirstEntry() : probation.pollFirstEntry();
+      LOGGER.info("# Cache is FULL! Removing {} from cache...", victim.getKey());
+      evicted.add(victim.getValue());
+    }
+    evicted.removeIf(Objects::isNull);
+    return evicted;
+  }
+
+  /**
+   * Let an entry that left the window compete for a place in the main area.
+   *
+   * @param candidate entry evicted from the window
+   * @return the losing, evicted user account, or null if nothing was evicted
+   */
+  private UserAccount admit(final Map.Entry<String, UserAccount> candidate) {
+    if (probation.size() + protectedSegment.size() < capacity - windowCapacity) {
+      probation.putLast(candidate.getKey(), candidate.getValue());
+      return null;
+    }
+    var victim = mainVictim();
+    if (victim != null && admits(candidate, victim)) {
+      LOGGER.info("# Cache is FULL! Removing {} from cache...", victim.getKey());
+      probation.remove(victim.getKey());
+      protectedSegment.remove(victim.getKey());
+      probation.putLast(candidate.getKey(), candidate.getValue());
+      return victim.getValue();
+    }
+    LOGGER.info("# Cache is FULL! Removing {} from cache...", candidate.getKey());
+    return candidate.getValue();
+  }
+
+  /** Move the least-recently-used protected entries back to probation while over capacity. */
+  private void demoteProtected() {
+    while (protectedSegment.size() > protectedCapacity) {
+      var demoted = protectedSegment.pollFirstEntry();
+      probation.putLast(demoted.getKey(), demoted.getValue());
+    }
+  }
+
+  private Map.Entry<String, UserAccount> mainVictim() {
+    return probation.isEmpty() ? protectedSegment.firstEntry() : probation.firstEntry();
+  }
+
+  private boolean admits(
+      final Map.Entry<String, UserAccount> candidate, final Map.Entry<String, UserAccount> victim) {
+    return sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey());
+  }
+
+  private int size() {
+    return window.size() + probation.size() + protectedSegment.size();
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import com.iluwatar.caching.database.DbManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous write-behind of dirty user accounts. Writes are queued per user id, so repeated
+ * updates of a hot account are coalesced into a single DB write, and a background thread upserts
+ * them in batches of at most {@code maxBatchSize} entries. A batch is written as soon as it is full
+ * or when the oldest queued write has waited for {@code maxLagMillis}. When {@code
+ * maxPendingWrites} distinct accounts are waiting because the DB falls behind, callers block until
+ * the flusher catches up. A failed batch is retried in place with an exponential backoff, also
+ * while closing, and after {@value #MAX_ATTEMPTS} attempts its writes are kept aside as failed, see
+ * {@link #getFailedWrites()}.
+ */
+@Slf4j
+public class WriteBehindFlusher implements AutoCloseable {
+  /** Maximum number of attempts to write a batch. */
+  static final int MAX_ATTEMPTS = 5;
+
+  /** Wait before the first retry, doubled for every further one. */
+  private static final long INITIAL_BACKOFF_MILLIS = 20;
+
+  /** DbManager. */
+  private final DbManager dbManager;
+
+  /** Maximum number of entries written in a single batch. */
+  private final int maxBatchSize;
+
+  /** Maximum time a queued write waits before it is flushed. */
+  private final long maxLagNanos;
+
+  /** Maximum number of queued writes before callers are blocked. */
+  private final int maxPendingWrites;
+
+  /** Queued writes in arrival order, guarded by the lock. */
+  private final LinkedHashMap<String, UserAccount> dirty = new LinkedHashMap<>();
+
+  /** Writes of the batch currently being flushed, guarded by the lock. */
+  private final Map<String, UserAccount> inFlight = new HashMap<>();
+
+  /** Guards the queue. */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** Signalled when queued writes have been taken by the flusher. */
+  private final Condition notFull = lock.newCondition();
+
+  /** Signalled when a batch should be flushed. */
+  private final Condition flushNeeded = lock.newCondition();
+
+  /** Writes given up after {@link #MAX_ATTEMPTS} failed attempts, guarded by the lock. */
+  private final List<UserAccount> failedWrites = new ArrayList<>();
+
+  /** Time the oldest queued write was queued, guarded by the lock. */
+  private long oldestDirtyNanos;
+
+  /** Whether new writes are accepted, guarded by the lock. */
+  private boolean running = true;
+
+  /** Background flusher thread. */
+  private final Thread flusherThread;
+
+  /** Number of writes merged into an already queued write. */
+  private final AtomicLong coalescedWrites = new AtomicLong();
+
+  /** Number of entries written to the DB. */
+  private final AtomicLong flushedWrites = new AtomicLong();
+
+  /** Number of batches written to the DB. */
+  private final AtomicLong flushedBatches = new AtomicLong();
+
+  /**
+   * Constructor, starts the flusher thread.
+   *
+   * @param dataBaseManager {@link DbManager}
+   * @param maxBatchSize maximum number of entries per batch
+   * @param maxLagMillis maximum time a write may stay queued
+   * @param maxPendingWrites maximum number of queued writes
+   */
+  public WriteBehindFlusher(
+      final DbManager dataBaseManager,
+      final int maxBatchSize,
+      final long maxLagMillis,
+      final int maxPendingWrites) {
+    if (maxBatchSize <= 0 || maxLagMillis < 0 || maxPendingWrites < maxBatchSize) {
+      throw new IllegalArgumentException(
+          "Expected 0 < maxBatchSize <= maxPendingWrites and maxLagMillis >= 0");
+    }
+    this.dbManager = dataBaseManager;
+    this.maxBatchSize = maxBatchSize;
+    this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+    this.maxPendingWrites = maxPendingWrites;
+    this.flusherThread = new Thread(this::run, "write-behind-flusher");
+    this.flusherThread.setDaemon(true);
+    this.flusherThread.start();
+  }
+
+  /**
+   * Queue a write. Blocks while the queue is full. If the flusher has been closed, or the caller is
+   * interrupted while waiting, the account is written synchronously instead.
+   *
+   * @param userAccount {@link UserAccount}
+   */
+  public void enqueue(final UserAccount userAccount) {
+    boolean queued;
+    lock.lock();
+    try {
+      queued = offer(userAccount);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queued = false;
+    } finally {
+      lock.unlock();
+    }
+    if (!queued) {
+      dbManager.upsertDb(userAccount);
+    }
+  }
+
+  /**
+   * Get the latest queued, not yet persisted version of an account.
+   *
+   * @param userId {@link String}
+   * @return {@link UserAccount} or null if nothing is pending for the user
+   */
+  public UserAccount getPending(final String userId) {
+    lock.lock();
+    try {
+      var pending = dirty.get(userId);
+      return pending != null ? pending : inFlight.get(userId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of queued writes.
+   *
+   * @return int
+   */
+  public int getPendingCount() {
+    lock.lock();
+    try {
+      return dirty.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of writes merged into an already queued write of the same user.
+   *
+   * @return long
+   */
+  public long getCoalescedCount() {
+    return coalescedWrites.get();
+  }
+
+  /**
+   * Number of entries written to the DB.
+   *
+   * @return long
+   */
+  public long getFlushedCount() {
+    return flushedWrites.get();
+  }
+
+  /**
+   * Number of batches written to the DB.
+   *
+   * @return long
+   */
+  public long getBatchCount() {
+    return flushedBatches.get();
+  }
+
+  /**
+   * Writes that could not be persisted after {@link #MAX_ATTEMPTS} attempts, for the caller to
+   * recover or report.
+   *
+   * @return the failed writes, oldest first
+   */
+  public List<UserAccount> getFailedWrites() {
+    lock.lock();
+    try {
+      return List.copyOf(failedWrites);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stop accepting writes, flush everything still queued and stop the flusher thread. Writes that
+   * still fail are left in {@link #getFailedWrites()}.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      running = false;
+      flushNeeded.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      flusherThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Queue a write while holding the lock.
+   *
+   * @param userAccount {@link UserAccount}
+   * @return false if the flusher no longer accepts writes
+   * @throws InterruptedException if interrupted while waiting for space
+   */
+  private boolean offer(final UserAccount userAccount) throws InterruptedException {
+    var userId = userAccount.getUserId();
+    while (running && !dirty.containsKey(userId) && dirty.size() >= maxPendingWrites) {
+      LOGGER.info("# Write-behind queue is FULL! Waiting for the DB...");
+      notFull.await();
+    }
+    if (!running) {
+      return false;
+    }
+    if (dirty.isEmpty()) {
+      oldestDirtyNanos = System.nanoTime();
+    }
+    if (dirty.put(userId, userAccount) != null) {
+      coalescedWrites.incrementAndGet();
+    }
+    if (dirty.size() >= maxBatchSize) {
+      flushNeeded.signal();
+    }
+    return true;
+  }
+
+  /** Flusher loop. */
+  private void run() {
+    while (true) {
+      List<UserAccount> batch;
+      lock.lock();
+      try {
+        while (running && !batchReady()) {
+          if (dirty.isEmpty()) {
+            flushNeeded.await();
+          } else {
+            flushNeeded.awaitNanos(oldestDirtyNanos + maxLagNanos - System.nanoTime());
+          }
+        }
+        if (dirty.isEmpty()) {
+          return;
+        }
+        batch = takeBatch();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        lock.unlock();
+      }
+      write(batch);
+    }
+  }
+
+  private boolean batchReady() {
+    return dirty.size() >= maxBatchSize
+        || !dirty.isEmpty() && System.nanoTime() - oldestDirtyNanos >= maxLagNanos;
+  }
+
+  /**
+   * Move up to {@code maxBatchSize} of the oldest queued writes in flight, while holding the lock.
+   * The remaining writes keep the timestamp of the oldest one so that they are flushed right away.
+   *
+   * @return batch to write
+   */
+  private List<UserAccount> takeBatch() {
+    var batch = new ArrayList<UserAccount>(Math.min(maxBatchSize, dirty.size()));
+    var iterator = dirty.values().iterator();
+    while (iterator.hasNext() && batch.size() < maxBatchSize) {
+      var userAccount = iterator.next();
+      iterator.remove();
+      batch.add(userAccount);
+      inFlight.put(userAccount.getUserId(), userAccount);
+    }
+    notFull.signalAll();
+    return batch;
+  }
+
+  /**
+   * Write a batch to the DB, retrying a failed batch with an exponential backoff. The batch stays
+   * in flight meanwhile, so it is neither re-queued past {@code maxPendingWrites} nor lost while
+   * the flusher is shutting down. After {@link #MAX_ATTEMPTS} attempts the batch is given up and
+   * kept in the failed writes.
+   *
+   * @param batch accounts to upsert
+   */
+  private void write(final List<UserAccount> batch) {
+    var written = false;
+    var backoffMillis = INITIAL_BACKOFF_MILLIS;
+    for (var attempt = 1; !written && attempt <= MAX_ATTEMPTS; attempt++) {
+      try {
+        dbManager.batchUpsertDb(batch);
+        flushedWrites.addAndGet(batch.size());
+        flushedBatches.incrementAndGet();
+        written = true;
+      } catch (RuntimeException e) {
+        LOGGER.error(
+            "# Write-behind of {} entries failed, attempt {} of {}",
+            batch.size(),
+            attempt,
+            MAX_ATTEMPTS,
+            e);
+        if (attempt < MAX_ATTEMPTS && !sleep(backoffMillis)) {
+          break;
+        }
+        backoffMillis *= 2;
+      }
+    }
+    lock.lock();
+    try {
+      inFlight.clear();
+      if (!written) {
+        LOGGER.error("# Write-behind gave up on {} entries", batch.size());
+        failedWrites.addAll(batch);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait before retrying.
+   *
+   * @param millis time to wait
+   * @return false if interrupted
+   */
+  private static boolean sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
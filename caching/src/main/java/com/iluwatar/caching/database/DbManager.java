@@ -25,6 +25,7 @@
 package com.iluwatar.caching.database;
 
 import com.iluwatar.caching.UserAccount;
+import java.util.List;
 
 /**
  * DBManager handles the communication with the underlying data store i.e. Database. It contains the
@@ -69,4 +70,13 @@ public interface DbManager {
    * @return {@link UserAccount}
    */
   UserAccount upsertDb(UserAccount userAccount);
+
+  /**
+   * Update records or Insert those that do not exist, in as few round trips as the DB allows.
+   *
+   * @param userAccounts list of {@link UserAccount}
+   */
+  default void batchUpsertDb(List<UserAccount> userAccounts) {
+    userAccounts.forEach(this::upsertDb);
+  }
 }
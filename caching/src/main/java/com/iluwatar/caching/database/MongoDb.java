@@ -36,7 +36,9 @@ import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 
@@ -145,4 +147,30 @@ public class MongoDb implements DbManager {
             new UpdateOptions().upsert(true));
     return userAccount;
   }
+
+  /**
+   * Upsert all records with a single bulk write.
+   *
+   * @param userAccounts list of {@link UserAccount}
+   */
+  @Override
+  public void batchUpsertDb(final List<UserAccount> userAccounts) {
+    if (userAccounts.isEmpty()) {
+      return;
+    }
+    var updates =
+        userAccounts.stream()
+            .map(
+                userAccount ->
+                    new UpdateOneModel<Document>(
+                        new Document(USER_ID, userAccount.getUserId()),
+                        new Document(
+                            "$set",
+                            new Document(USER_ID, userAccount.getUserId())
+                                .append(USER_NAME, userAccount.getUserName())
+                                .append(ADD_INFO, userAccount.getAdditionalInfo())),
+                        new UpdateOptions().upsert(true)))
+            .toList();
+    db.getCollection(CachingConstants.USER_ACCOUNT).bulkWrite(updates);
+  }
 }
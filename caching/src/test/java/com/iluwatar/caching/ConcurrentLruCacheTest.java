@@ -0,0 +1,119 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ConcurrentLruCache}. */
+class ConcurrentLruCacheTest {
+
+  private static UserAccount account(String id) {
+    return new UserAccount(id, "user" + id, "info");
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    var cache = new ConcurrentLruCache(2);
+    cache.set("1", account("1"));
+    cache.set("2", account("2"));
+    cache.get("1");
+    cache.set("3", account("3"));
+
+    assertTrue(cache.contains("1"));
+    assertFalse(cache.contains("2"));
+    assertTrue(cache.contains("3"));
+    assertEquals("1", cache.getLruData().getUserId());
+    assertEquals(
+        List.of("3", "1"),
+        cache.getCacheDataInListForm().stream().map(UserAccount::getUserId).toList());
+  }
+
+  @Test
+  void invalidateAndClear() {
+    var cache = new ConcurrentLruCache(3);
+    cache.set("1", account("1"));
+    cache.set("2", account("2"));
+    cache.invalidate("1");
+    assertNull(cache.get("1"));
+    assertEquals("2", cache.getLruData().getUserId());
+
+    cache.clear();
+    assertNull(cache.getLruData());
+    assertTrue(cache.getCacheDataInListForm().isEmpty());
+  }
+
+  @Test
+  void shrinkingKeepsMostRecentlyUsed() {
+    var cache = new ConcurrentLruCache(3);
+    cache.set("1", account("1"));
+    cache.set("2", account("2"));
+    cache.set("3", account("3"));
+    cache.setCapacity(1);
+
+    assertEquals(
+        List.of("3"), cache.getCacheDataInListForm().stream().map(UserAccount::getUserId).toList());
+  }
+
+  @Test
+  void staysConsistentUnderConcurrentAccess() throws Exception {
+    var capacity = 64;
+    var cache = new ConcurrentLruCache(capacity);
+    var threads = 8;
+    var executor = Executors.newFixedThreadPool(threads);
+    var done = new CountDownLatch(threads);
+    for (var t = 0; t < threads; t++) {
+      var seed = t;
+      executor.execute(
+          () -> {
+            for (var i = 0; i < 20_000; i++) {
+              var id = String.valueOf((i * 31 + seed) % 256);
+              if (i % 4 == 0) {
+                cache.set(id, account(id));
+              } else if (i % 97 == 0) {
+                cache.invalidate(id);
+              } else {
+                cache.get(id);
+              }
+            }
+            done.countDown();
+          });
+    }
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    executor.shutdown();
+
+    var content = cache.getCacheDataInListForm();
+    assertTrue(content.size() <= capacity);
+    content.forEach(account -> assertTrue(cache.contains(account.getUserId())));
+  }
+}
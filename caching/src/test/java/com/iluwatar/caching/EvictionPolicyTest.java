@@ -0,0 +1,125 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.caching.database.VirtualDb;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the {@link EvictionPolicy} caches and the {@link EvictionPolicySimulator}. */
+class EvictionPolicyTest {
+
+  private static UserAccount account(String id) {
+    return new UserAccount(id, "user" + id, "info");
+  }
+
+  @Test
+  void everyPolicyRespectsCapacity() {
+    for (var policy : EvictionPolicy.values()) {
+      var cache = policy.createCache(10);
+      for (var i = 0; i < 100; i++) {
+        var id = String.valueOf(i % 37);
+        if (cache.get(id) == null) {
+          cache.set(id, account(id));
+        }
+        assertTrue(cache.getCacheDataInListForm().size() <= 10, policy.getPolicy());
+      }
+      assertTrue(cache.isFull(), policy.getPolicy());
+      assertTrue(cache.getLruData() != null, policy.getPolicy());
+    }
+  }
+
+  @Test
+  void everyPolicySupportsInvalidateAndClear() {
+    for (var policy : EvictionPolicy.values()) {
+      var cache = policy.createCache(3);
+      cache.set("1", account("1"));
+      cache.set("2", account("2"));
+      assertEquals("1", cache.get("1").getUserId(), policy.getPolicy());
+
+      cache.invalidate("1");
+      assertFalse(cache.contains("1"), policy.getPolicy());
+      assertNull(cache.get("1"), policy.getPolicy());
+
+      cache.clear();
+      assertTrue(cache.getCacheDataInListForm().isEmpty(), policy.getPolicy());
+    }
+  }
+
+  @Test
+  void everyPolicyShrinksToNewCapacity() {
+    for (var policy : EvictionPolicy.values()) {
+      var cache = policy.createCache(20);
+      for (var i = 0; i < 20; i++) {
+        cache.set(String.valueOf(i), account(String.valueOf(i)));
+      }
+      cache.setCapacity(5);
+      assertEquals(5, cache.getCacheDataInListForm().size(), policy.getPolicy());
+    }
+  }
+
+  @Test
+  void frequencyAwarePoliciesResistScans() {
+    var trace = new ArrayList<String>();
+    var cold = 1_000;
+    for (var round = 0; round < 50; round++) {
+      for (var i = 0; i < 40; i++) {
+        trace.add("hot" + i % 20);
+      }
+      for (var i = 0; i < 40; i++) {
+        trace.add("cold" + cold++);
+      }
+    }
+
+    var ratios = EvictionPolicySimulator.compare(40, trace);
+
+    assertTrue(ratios.get(EvictionPolicy.W_TINY_LFU) > ratios.get(EvictionPolicy.LRU));
+    assertTrue(ratios.get(EvictionPolicy.ARC) > ratios.get(EvictionPolicy.LRU));
+  }
+
+  @Test
+  void reportsHitRatio() {
+    var db = new VirtualDb();
+    db.connect();
+    db.writeToDb(account("1"));
+    var store = new CacheStore(db, EvictionPolicy.W_TINY_LFU);
+
+    store.readThrough("1");
+    store.readThrough("1");
+    store.readThrough("1");
+    store.readThrough("1");
+
+    assertEquals(3, store.getHitCount());
+    assertEquals(1, store.getMissCount());
+    assertEquals(0.75, store.getHitRatio());
+    assertEquals(0, EvictionPolicySimulator.hitRatio(EvictionPolicy.ARC, 1, List.of()));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.caching.database.VirtualDb;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for resizing {@link LruCache} and {@link CacheStore}. */
+class LruCacheTest {
+
+  private static UserAccount account(String id) {
+    return new UserAccount(id, "user" + id, "info");
+  }
+
+  private static List<String> ids(List<UserAccount> accounts) {
+    return accounts.stream().map(UserAccount::getUserId).toList();
+  }
+
+  @Test
+  void shrinkingEvictsOnlyColdestEntries() {
+    var cache = new LruCache(4);
+    for (var i = 1; i <= 4; i++) {
+      cache.set(String.valueOf(i), account(String.valueOf(i)));
+    }
+    cache.get("1");
+
+    var evicted = cache.setCapacity(2);
+
+    assertEquals(List.of("2", "3"), ids(evicted));
+    assertEquals(List.of("1", "4"), ids(cache.getCacheDataInListForm()));
+    assertTrue(cache.isFull());
+  }
+
+  @Test
+  void growingKeepsEntries() {
+    var cache = new LruCache(2);
+    cache.set("1", account("1"));
+    cache.set("2", account("2"));
+
+    assertTrue(cache.setCapacity(3).isEmpty());
+    cache.set("3", account("3"));
+
+    assertEquals(List.of("3", "2", "1"), ids(cache.getCacheDataInListForm()));
+  }
+
+  @Test
+  void cacheStoreFlushesEvictedEntriesUnderWriteBehind() {
+    var db = new VirtualDb();
+    db.connect();
+    var store = new CacheStore(db);
+    store.writeBehind(account("1"));
+    store.writeBehind(account("2"));
+    store.writeBehind(account("3"));
+
+    store.initCapacity(1, true);
+
+    assertNotNull(db.readFromDb("1"));
+    assertNotNull(db.readFromDb("2"));
+    assertNull(db.readFromDb("3"));
+    assertNotNull(store.get("3"));
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.caching.database.VirtualDb;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link WriteBehindFlusher}. */
+class WriteBehindFlusherTest {
+
+  /** Records the size of every batch written. */
+  private static class RecordingDb extends VirtualDb {
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @Override
+    public synchronized void batchUpsertDb(List<UserAccount> userAccounts) {
+      batchSizes.add(userAccounts.size());
+      super.batchUpsertDb(userAccounts);
+    }
+
+    synchronized List<Integer> getBatchSizes() {
+      return List.copyOf(batchSizes);
+    }
+  }
+
+  private RecordingDb db;
+
+  @BeforeEach
+  void setUp() {
+    db = new RecordingDb();
+    db.connect();
+  }
+
+  @Test
+  void coalescesWritesPerUser() {
+    var flusher = new WriteBehindFlusher(db, 20, TimeUnit.MINUTES.toMillis(1), 100);
+    for (var i = 0; i < 100; i++) {
+      var id = String.valueOf(i % 10);
+      flusher.enqueue(new UserAccount(id, "name" + i, "info"));
+    }
+    flusher.close();
+
+    assertEquals(10, flusher.getFlushedCount());
+    assertEquals(90, flusher.getCoalescedCount());
+    assertEquals(List.of(10), db.getBatchSizes());
+    assertEquals("name99", db.readFromDb("9").getUserName());
+  }
+
+  @Test
+  void flushesInBatchesOfMaxBatchSize() {
+    var flusher = new WriteBehindFlusher(db, 4, TimeUnit.MINUTES.toMillis(1), 100);
+    for (var i = 0; i < 10; i++) {
+      flusher.enqueue(new UserAccount(String.valueOf(i), "name", "info"));
+    }
+    flusher.close();
+
+    assertEquals(10, db.getBatchSizes().stream().mapToInt(Integer::intValue).sum());
+    db.getBatchSizes().forEach(size -> assertTrue(size <= 4));
+  }
+
+  @Test
+  void flushesAfterMaxLag() throws InterruptedException {
+    var flusher = new WriteBehindFlusher(db, 100, 20, 100);
+    flusher.enqueue(new UserAccount("1", "John", "info"));
+    assertEquals("John", flusher.getPending("1").getUserName());
+
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (db.readFromDb("1") == null && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals("John", db.readFromDb("1").getUserName());
+    assertEquals(0, flusher.getPendingCount());
+    flusher.close();
+  }
+
+  @Test
+  void blocksCallersWhenDbFallsBehind() throws InterruptedException {
+    var release = new CountDownLatch(1);
+    var slowDb =
+        new VirtualDb() {
+          @Override
+          public void batchUpsertDb(List<UserAccount> userAccounts) {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.batchUpsertDb(userAccounts);
+          }
+        };
+    slowDb.connect();
+    var flusher = new WriteBehindFlusher(slowDb, 1, 0, 1);
+    flusher.enqueue(new UserAccount("1", "a", "info"));
+    flusher.enqueue(new UserAccount("2", "b", "info"));
+
+    var producer = new Thread(() -> flusher.enqueue(new UserAccount("3", "c", "info")));
+    producer.start();
+    producer.join(200);
+    assertTrue(producer.isAlive());
+
+    release.countDown();
+    producer.join(5_000);
+    flusher.close();
+    assertEquals(3, flusher.getFlushedCount());
+  }
+
+  @Test
+  void retriesFailedBatchWhileClosing() {
+    var failures = new AtomicInteger(2);
+    var flakyDb =
+        new VirtualDb() {
+          @Override
+          public void batchUpsertDb(List<UserAccount> userAccounts) {
+            if (failures.getAndDecrement() > 0) {
+              throw new IllegalStateException("DB unavailable");
+            }
+            super.batchUpsertDb(userAccounts);
+          }
+        };
+    flakyDb.connect();
+    var flusher = new WriteBehindFlusher(flakyDb, 10, TimeUnit.MINUTES.toMillis(1), 100);
+    flusher.enqueue(new UserAccount("1", "John", "info"));
+    flusher.close();
+
+    assertEquals("John", flakyDb.readFromDb("1").getUserName());
+    assertEquals(1, flusher.getFlushedCount());
+    assertTrue(flusher.getFailedWrites().isEmpty());
+  }
+
+  @Test
+  void keepsWritesGivenUpAfterMaxAttempts() {
+    var attempts = new AtomicInteger();
+    var downDb =
+        new VirtualDb() {
+          @Override
+          public void batchUpsertDb(List<UserAccount> userAccounts) {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("DB unavailable");
+          }
+        };
+    downDb.connect();
+    var flusher = new WriteBehindFlusher(downDb, 10, TimeUnit.MINUTES.toMillis(1), 100);
+    var account = new UserAccount("1", "John", "info");
+    flusher.enqueue(account);
+    flusher.close();
+
+    assertEquals(WriteBehindFlusher.MAX_ATTEMPTS, attempts.get());
+    assertEquals(List.of(account), flusher.getFailedWrites());
+    assertEquals(0, flusher.getFlushedCount());
+  }
+
+  @Test
+  void servesPendingWritesThroughCacheStore() {
+    var store = new CacheStore(db);
+    store.startWriteBehindFlusher(10, TimeUnit.MINUTES.toMillis(1), 100);
+    for (var i = 0; i < 5; i++) {
+      store.writeBehind(new UserAccount(String.valueOf(i), "name" + i, "info"));
+    }
+    assertEquals("name0", store.readThroughWithWriteBackPolicy("0").getUserName());
+
+    var flusher = store.getWriteBehindFlusher();
+    store.flushCache();
+    assertEquals(5, flusher.getFlushedCount());
+  }
+
+  @Test
+  void rejectsInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new WriteBehindFlusher(db, 0, 10, 10));
+    assertThrows(IllegalArgumentException.class, () -> new WriteBehindFlusher(db, 10, 10, 5));
+  }
+}
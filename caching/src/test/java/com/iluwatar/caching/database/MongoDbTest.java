@@ -36,6 +36,7 @@ import com.iluwatar.caching.constants.CachingConstants;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import java.util.List;
 import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -107,4 +108,15 @@ class MongoDbTest {
           mongoDb.upsertDb(userAccount);
         });
   }
+
+  @Test
+  void batchUpsertDb() {
+    MongoCollection<Document> mongoCollection = mock(MongoCollection.class);
+    when(db.getCollection(CachingConstants.USER_ACCOUNT)).thenReturn(mongoCollection);
+    assertDoesNotThrow(
+        () -> {
+          mongoDb.batchUpsertDb(List.of(userAccount));
+        });
+    verify(mongoCollection).bulkWrite(anyList());
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the overhead a circuit breaker adds to {@link CircuitBreaker#attemptRequest()} when many
+ * threads call a healthy service through the same breaker, against calling the service directly.
+ * The {@link DefaultCircuitBreaker} is included for reference even though it is not thread safe.
+ */
+@Slf4j
+public final class CircuitBreakerBenchmark {
+
+  private static final long WARM_UP_MILLIS = 500;
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param breaker name of the circuit breaker
+   * @param threads number of calling threads
+   * @param nanosPerCall average wall clock time per call, across all threads
+   */
+  public record Result(String breaker, int threads, double nanosPerCall) {}
+
+  private CircuitBreakerBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    for (int threads : List.of(1, 32)) {
+      for (Result result : run(threads, 1000)) {
+        LOGGER.info(
+            "{} threads: {}, ns/call: {}",
+            result.breaker(),
+            result.threads(),
+            String.format("%.1f", result.nanosPerCall()));
+      }
+    }
+  }
+
+  /**
+   * Runs every circuit breaker with the given number of threads.
+   *
+   * @param threads number of calling threads
+   * @param durationMillis duration of every run
+   * @return the result of every circuit breaker
+   * @throws Exception if any run fails
+   */
+  public static List<Result> run(int threads, long durationMillis) throws Exception {
+    RemoteService service = new QuickRemoteService();
+    Map<String, Supplier<CircuitBreaker>> breakers = new LinkedHashMap<>();
+    breakers.put("None", () -> null);
+    breakers.put("Default", () -> new DefaultCircuitBreaker(service, 3000, 5, 1_000_000_000L));
+    breakers.put(
+        "SlidingWindowCountBased",
+        () ->
+            new SlidingWindowCircuitBreaker(
+                service,
+                CircuitBreakerConfig.builder()
+                    .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                    .build()));
+    breakers.put(
+        "SlidingWindowTimeBased",
+        () ->
+            new SlidingWindowCircuitBreaker(
+                service,
+                CircuitBreakerConfig.builder()
+                    .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
+                    .slidingWindowSize(10)
+                    .build()));
+
+    List<Result> results = new ArrayList<>();
+    for (Map.Entry<String, Supplier<CircuitBreaker>> entry : breakers.entrySet()) {
+      measure(service, entry.getValue().get(), threads, WARM_UP_MILLIS);
+      double nanos = measure(service, entry.getValue().get(), threads, durationMillis);
+      results.add(new Result(entry.getKey(), threads, nanos));
+    }
+    return results;
+  }
+
+  private static double measure(
+      RemoteService service, CircuitBreaker breaker, int threads, long durationMillis)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder calls = new LongAdder();
+    CountDownLatch started = new CountDownLatch(threads);
+    try {
+      List<Future<?>> callers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        callers.add(
+            executor.submit(
+                () -> {
+                  started.countDown();
+                  long count = 0;
+                  while (running.get()) {
+                    if (breaker == null) {
+                      service.call();
+                    } else {
+                      breaker.attemptRequest();
+                    }
+                    count++;
+                  }
+                  calls.add(count);
+                  return null;
+                }));
+      }
+      started.await();
+      long start = System.nanoTime();
+      Thread.sleep(durationMillis);
+      running.set(false);
+      for (Future<?> caller : callers) {
+        caller.get();
+      }
+      return (double) (System.nanoTime() - start) / calls.sum();
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
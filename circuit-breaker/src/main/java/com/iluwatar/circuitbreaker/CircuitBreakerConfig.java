@@ -0,0 +1,67 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Settings of a {@link SlidingWindowCircuitBreaker}. */
+@Getter
+@Builder
+public class CircuitBreakerConfig {
+
+  /** How the sliding window of recent calls is bounded. */
+  public enum SlidingWindowType {
+    /** The window holds the last {@code slidingWindowSize} calls. */
+    COUNT_BASED,
+    /** The window holds the calls of the last {@code slidingWindowSize} seconds. */
+    TIME_BASED
+  }
+
+  @Builder.Default
+  private final SlidingWindowType slidingWindowType = SlidingWindowType.COUNT_BASED;
+
+  // Number of calls, or seconds, the failure and slow call rates are computed over
+  @Builder.Default private final int slidingWindowSize = 100;
+
+  // Rates are not computed before the window holds this many calls
+  @Builder.Default private final int minimumNumberOfCalls = 10;
+
+  // Failure rate, in percent, at which the circuit opens
+  @Builder.Default private final float failureRateThreshold = 50;
+
+  // Slow call rate, in percent, at which the circuit opens
+  @Builder.Default private final float slowCallRateThreshold = 100;
+
+  // Calls taking at least this long count as slow
+  @Builder.Default private final Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+
+  // Time after which an open circuit lets trial calls through
+  @Builder.Default private final Duration waitDurationInOpenState = Duration.ofSeconds(5);
+
+  // Number of trial calls that decide whether a half open circuit closes again
+  @Builder.Default private final int permittedCallsInHalfOpenState = 5;
+}
@@ -0,0 +1,82 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the calls made through a circuit breaker since it was created, unlike its sliding
+ * window, which only holds the recent calls and is cleared on every state change.
+ */
+public class CircuitBreakerMetrics {
+
+  private final LongAdder successfulCalls = new LongAdder();
+  private final LongAdder failedCalls = new LongAdder();
+  private final LongAdder slowCalls = new LongAdder();
+  private final LongAdder notPermittedCalls = new LongAdder();
+  private final LatencyHistogram successLatencies = new LatencyHistogram();
+  private final LatencyHistogram failureLatencies = new LatencyHistogram();
+
+  void onCall(long latencyNanos, boolean failed, boolean slow) {
+    if (failed) {
+      failedCalls.increment();
+      failureLatencies.record(latencyNanos);
+    } else {
+      successfulCalls.increment();
+      successLatencies.record(latencyNanos);
+    }
+    if (slow) {
+      slowCalls.increment();
+    }
+  }
+
+  void onNotPermitted() {
+    notPermittedCalls.increment();
+  }
+
+  public long getSuccessfulCalls() {
+    return successfulCalls.sum();
+  }
+
+  public long getFailedCalls() {
+    return failedCalls.sum();
+  }
+
+  public long getSlowCalls() {
+    return slowCalls.sum();
+  }
+
+  public long getNotPermittedCalls() {
+    return notPermittedCalls.sum();
+  }
+
+  public LatencyHistogram getSuccessLatencies() {
+    return successLatencies;
+  }
+
+  public LatencyHistogram getFailureLatencies() {
+    return failureLatencies;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding window over the last {@code size} calls. Every call claims the next slot of a ring and
+ * swaps its outcome in, then adds the difference to the totals. The three totals are packed into a
+ * single long, so a snapshot is always taken from one consistent value.
+ *
+ * <p>Two calls a full ring apart may swap the same slot and add their differences out of order,
+ * leaving a total briefly negative. Every field is therefore decoded as a signed number, which
+ * keeps the other fields intact, and the totals are exact again once both additions are done.
+ */
+final class CountBasedWindow implements SlidingWindow {
+
+  private static final int FIELD_BITS = 21;
+  private static final int SHIFT = Long.SIZE - FIELD_BITS;
+  private static final long FAILED_CALL = 1L << FIELD_BITS;
+  private static final long SLOW_CALL = 1L << (2 * FIELD_BITS);
+
+  /** Largest window, leaving room for a field to go negative without overflowing. */
+  static final int MAX_SIZE = (1 << (FIELD_BITS - 1)) - 1;
+
+  private final int size;
+  private final AtomicLongArray slots;
+  private final AtomicLong next = new AtomicLong();
+  private final AtomicLong totals = new AtomicLong();
+
+  CountBasedWindow(int size) {
+    if (size < 1 || size > MAX_SIZE) {
+      throw new IllegalArgumentException("window size must be between 1 and " + MAX_SIZE);
+    }
+    this.size = size;
+    this.slots = new AtomicLongArray(size);
+  }
+
+  @Override
+  public void record(long now, int outcome) {
+    long value = 1;
+    if ((outcome & FAILED) != 0) {
+      value += FAILED_CALL;
+    }
+    if ((outcome & SLOW) != 0) {
+      value += SLOW_CALL;
+    }
+    int slot = (int) (next.getAndIncrement() % size);
+    long previous = slots.getAndSet(slot, value);
+    if (previous != value) {
+      totals.addAndGet(value - previous);
+    }
+  }
+
+  @Override
+  public Snapshot snapshot(long now) {
+    long packed = totals.get();
+    long calls = packed << SHIFT >> SHIFT;
+    packed = (packed - calls) >> FIELD_BITS;
+    long failed = packed << SHIFT >> SHIFT;
+    long slow = (packed - failed) >> FIELD_BITS;
+    return new Snapshot(Math.max(calls, 0), Math.max(failed, 0), Math.max(slow, 0));
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of call latencies in nanoseconds. Every power of two is split into eight buckets, so a
+ * recorded latency is known to within 12.5%, and the whole range of a long fits in 488 buckets. The
+ * counts are striped by thread to keep concurrent callers from updating the same counter.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+  private static final int MAX_STRIPES = 16;
+
+  private final int stripeMask;
+  private final AtomicLongArray counts;
+
+  /** Creates a histogram with a stripe per processor, up to sixteen. */
+  public LatencyHistogram() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(processors - 1) << 1);
+    this.stripeMask = Math.max(stripes, 1) - 1;
+    this.counts = new AtomicLongArray((stripeMask + 1) * BUCKETS);
+  }
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos latency in nanoseconds, negative values count as zero
+   */
+  public void record(long nanos) {
+    int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+    counts.getAndIncrement(stripe * BUCKETS + bucketOf(Math.max(nanos, 0)));
+  }
+
+  /**
+   * Counts the recorded latencies.
+   *
+   * @return number of recorded latencies
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Finds the latency that the given share of the calls did not exceed.
+   *
+   * @param percentile share of the calls, from 0 to 100
+   * @return the highest latency of the bucket holding the percentile, or zero if nothing has been
+   *     recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+    long[] merged = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      long count = counts.get(i);
+      merged[i % BUCKETS] += count;
+      total += count;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += merged[bucket];
+      if (seen >= rank) {
+        return highestValueOf(bucket);
+      }
+    }
+    return highestValueOf(BUCKETS - 1);
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  static long highestValueOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+    long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+/**
+ * The outcomes of the calls in a sliding window. The recording of every call is a few atomic
+ * updates without any lock, and a snapshot is only taken when a failed or slow call may have pushed
+ * a rate over its threshold.
+ */
+interface SlidingWindow {
+
+  int FAILED = 1;
+
+  int SLOW = 2;
+
+  /**
+   * Records the outcome of a call.
+   *
+   * @param now time the call completed, in nanoseconds
+   * @param outcome {@link #FAILED} and {@link #SLOW} flags, zero for a quick success
+   */
+  void record(long now, int outcome);
+
+  /**
+   * Counts the calls currently in the window.
+   *
+   * @param now current time, in nanoseconds
+   * @return number of calls, failed calls and slow calls
+   */
+  Snapshot snapshot(long now);
+
+  /**
+   * Numbers of calls in a sliding window.
+   *
+   * @param calls number of calls
+   * @param failedCalls number of failed calls
+   * @param slowCalls number of slow calls
+   */
+  record Snapshot(long calls, long failedCalls, long slowCalls) {
+
+    float failureRate() {
+      return calls == 0 ? 0 : failedCalls * 100f / calls;
+    }
+
+    float slowCallRate() {
+      return calls == 0 ? 0 : slowCalls * 100f / calls;
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread safe circuit breaker that opens on the rate of failed or slow calls within a sliding
+ * window of recent calls, rather than on a number of consecutive failures. After waiting in the
+ * OPEN state, it lets a limited number of trial calls through in the HALF_OPEN state, and their
+ * outcome decides whether it closes again or goes back to OPEN.
+ *
+ * <p>The state, the time it was entered, the sliding window and the trial call permits form a
+ * single immutable phase, and every state change swaps the phase with a compare-and-set. Calls
+ * never wait for a lock: a call records its outcome in the window of the phase it started in, and
+ * whichever call first finds a threshold crossed makes the change.
+ */
+public class SlidingWindowCircuitBreaker implements CircuitBreaker {
+
+  private final RemoteService service;
+  private final CircuitBreakerConfig config;
+  private final long slowCallNanos;
+  private final long waitInOpenNanos;
+  private final int closedMinimumCalls;
+  private final LongSupplier nanoClock;
+  private final AtomicReference<Phase> phase = new AtomicReference<>();
+  private final CircuitBreakerMetrics metrics = new CircuitBreakerMetrics();
+  private volatile String lastFailureResponse;
+
+  /**
+   * Constructor to create an instance of the circuit breaker.
+   *
+   * @param serviceToCall remote service the calls are made to
+   * @param config thresholds and sizes of the circuit breaker
+   */
+  public SlidingWindowCircuitBreaker(RemoteService serviceToCall, CircuitBreakerConfig config) {
+    this(serviceToCall, config, System::nanoTime);
+  }
+
+  SlidingWindowCircuitBreaker(
+      RemoteService serviceToCall, CircuitBreakerConfig config, LongSupplier nanoClock) {
+    if (config.getMinimumNumberOfCalls() < 1 || config.getPermittedCallsInHalfOpenState() < 1) {
+      throw new IllegalArgumentException("minimum and permitted numbers of calls must be positive");
+    }
+    if (!isPercentage(config.getFailureRateThreshold())
+        || !isPercentage(config.getSlowCallRateThreshold())) {
+      throw new IllegalArgumentException("rate thresholds must be between 0 and 100 percent");
+    }
+    this.service = serviceToCall;
+    this.config = config;
+    this.slowCallNanos = config.getSlowCallDurationThreshold().toNanos();
+    this.waitInOpenNanos = config.getWaitDurationInOpenState().toNanos();
+    // a count based window never holds more calls than its size
+    this.closedMinimumCalls =
+        config.getSlidingWindowType() == CircuitBreakerConfig.SlidingWindowType.COUNT_BASED
+            ? Math.min(config.getMinimumNumberOfCalls(), config.getSlidingWindowSize())
+            : config.getMinimumNumberOfCalls();
+    this.nanoClock = nanoClock;
+    // We start in a closed state hoping that everything is fine
+    this.phase.set(newPhase(State.CLOSED, nanoClock.getAsLong()));
+  }
+
+  private static boolean isPercentage(float rate) {
+    return rate > 0 && rate <= 100;
+  }
+
+  @Override
+  public void recordSuccess() {
+    long now = nanoClock.getAsLong();
+    onResult(phase.get(), now, now, false);
+  }
+
+  @Override
+  public void recordFailure(String response) {
+    this.lastFailureResponse = response;
+    long now = nanoClock.getAsLong();
+    onResult(phase.get(), now, now, true);
+  }
+
+  @Override
+  public String getState() {
+    Phase current = phase.get();
+    if (current.state == State.OPEN) {
+      current = leaveOpenIfWaited(current, nanoClock.getAsLong());
+    }
+    return current.state.name();
+  }
+
+  /**
+   * Break the circuit beforehand if it is known service is down Or connect the circuit manually if
+   * service comes online before expected. The sliding window starts over.
+   *
+   * @param state State at which circuit is in
+   */
+  @Override
+  public void setState(State state) {
+    phase.set(newPhase(state, nanoClock.getAsLong()));
+  }
+
+  /**
+   * Executes service call.
+   *
+   * @return Value from the remote resource, stale response or a custom exception
+   */
+  @Override
+  public String attemptRequest() throws RemoteServiceException {
+    long start = nanoClock.getAsLong();
+    Phase permitted = acquirePermission(start);
+    if (permitted == null) {
+      metrics.onNotPermitted();
+      // return cached response if the circuit does not let the call through
+      return lastFailureResponse;
+    }
+    try {
+      var response = service.call();
+      onResult(permitted, start, nanoClock.getAsLong(), false);
+      return response;
+    } catch (RemoteServiceException ex) {
+      lastFailureResponse = ex.getMessage();
+      onResult(permitted, start, nanoClock.getAsLong(), true);
+      throw ex;
+    } catch (RuntimeException | Error ex) {
+      // an unexpected failure has used up the permit too, so it must be recorded as well
+      onResult(permitted, start, nanoClock.getAsLong(), true);
+      throw ex;
+    }
+  }
+
+  /**
+   * Counters and latency histograms of all calls so far.
+   *
+   * @return metrics of this circuit breaker
+   */
+  public CircuitBreakerMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Failure rate within the sliding window.
+   *
+   * @return percentage of failed calls, or -1 while the window holds too few calls or the circuit
+   *     is open
+   */
+  public float getFailureRate() {
+    SlidingWindow.Snapshot snapshot = currentSnapshot();
+    return snapshot == null ? -1 : snapshot.failureRate();
+  }
+
+  /**
+   * Slow call rate within the sliding window.
+   *
+   * @return percentage of slow calls, or -1 while the window holds too few calls or the circuit is
+   *     open
+   */
+  public float getSlowCallRate() {
+    SlidingWindow.Snapshot snapshot = currentSnapshot();
+    return snapshot == null ? -1 : snapshot.slowCallRate();
+  }
+
+  private SlidingWindow.Snapshot currentSnapshot() {
+    Phase current = phase.get();
+    if (current.window == null) {
+      return null;
+    }
+    SlidingWindow.Snapshot snapshot = current.window.snapshot(nanoClock.getAsLong());
+    return snapshot.calls() < minimumCalls(current) ? null : snapshot;
+  }
+
+  private Phase acquirePermission(long now) {
+    Phase current = phase.get();
+    while (true) {
+      switch (current.state) {
+        case CLOSED -> {
+          return current;
+        }
+        case HALF_OPEN -> {
+          // checked first so that rejected calls do not keep counting down
+          return current.permits.get() > 0 && current.permits.getAndDecrement() > 0
+              ? current
+              : null;
+        }
+        default -> {
+          Phase next = leaveOpenIfWaited(current, now);
+          if (next == current) {
+            return null;
+          }
+          current = next;
+        }
+      }
+    }
+  }
+
+  private Phase leaveOpenIfWaited(Phase open, long now) {
+    if (now - open.since < waitInOpenNanos) {
+      return open;
+    }
+    // We have waited long enough and should try checking if service is up
+    Phase halfOpen = newPhase(State.HALF_OPEN, now);
+    return phase.compareAndSet(open, halfOpen) ? halfOpen : phase.get();
+  }
+
+  private void onResult(Phase current, long start, long end, boolean failed) {
+    long latency = end - start;
+    boolean slow = latency >= slowCallNanos;
+    metrics.onCall(latency, failed, slow);
+    if (current.window == null) {
+      return;
+    }
+    current.window.record(
+        end, (failed ? SlidingWindow.FAILED : 0) | (slow ? SlidingWindow.SLOW : 0));
+
+    // once the window holds enough calls, a successful quick call cannot push a closed circuit
+    // over its thresholds
+    if (current.state == State.CLOSED && !failed && !slow && current.warmedUp.get()) {
+      return;
+    }
+    SlidingWindow.Snapshot snapshot = current.window.snapshot(end);
+    if (snapshot.calls() < minimumCalls(current)) {
+      return;
+    }
+    if (!current.warmedUp.get()) {
+      current.warmedUp.set(true);
+    }
+    boolean exceeded =
+        snapshot.failureRate() >= config.getFailureRateThreshold()
+            || snapshot.slowCallRate() >= config.getSlowCallRateThreshold();
+    if (exceeded) {
+      phase.compareAndSet(current, newPhase(State.OPEN, end));
+    } else if (current.state == State.HALF_OPEN) {
+      // all trial calls went well, the service is back
+      phase.compareAndSet(current, newPhase(State.CLOSED, end));
+    }
+  }
+
+  private int minimumCalls(Phase current) {
+    return current.state == State.HALF_OPEN
+        ? config.getPermittedCallsInHalfOpenState()
+        : closedMinimumCalls;
+  }
+
+  private Phase newPhase(State state, long now) {
+    return switch (state) {
+      case CLOSED -> new Phase(state, now, newClosedWindow(), null, new AtomicBoolean());
+      case HALF_OPEN -> {
+        int permitted = config.getPermittedCallsInHalfOpenState();
+        yield new Phase(
+            state,
+            now,
+            new CountBasedWindow(permitted),
+            new AtomicInteger(permitted),
+            new AtomicBoolean());
+      }
+      case OPEN -> new Phase(state, now, null, null, null);
+    };
+  }
+
+  private SlidingWindow newClosedWindow() {
+    return switch (config.getSlidingWindowType()) {
+      case COUNT_BASED -> new CountBasedWindow(config.getSlidingWindowSize());
+      case TIME_BASED -> new TimeBasedWindow(config.getSlidingWindowSize());
+    };
+  }
+
+  /** State of the circuit breaker together with everything that is reset when it changes. */
+  private record Phase(
+      State state,
+      long since,
+      SlidingWindow window,
+      AtomicInteger permits,
+      AtomicBoolean warmedUp) {}
+}
@@ -0,0 +1,106 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding window over the calls of the last {@code seconds} seconds, kept in one bucket per second.
+ * A bucket is reused by replacing it once its second has passed, and its counters are {@link
+ * LongAdder}s, so that any number of calls per second can be counted without contention. A snapshot
+ * adds up the buckets, which is why it is only taken when a rate may have changed for the worse.
+ */
+final class TimeBasedWindow implements SlidingWindow {
+
+  private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final int seconds;
+  private final AtomicReferenceArray<Bucket> buckets;
+
+  TimeBasedWindow(int seconds) {
+    if (seconds < 1) {
+      throw new IllegalArgumentException("window size must be positive");
+    }
+    this.seconds = seconds;
+    this.buckets = new AtomicReferenceArray<>(seconds);
+  }
+
+  @Override
+  public void record(long now, int outcome) {
+    long epoch = Math.floorDiv(now, BUCKET_NANOS);
+    int index = (int) Math.floorMod(epoch, seconds);
+    Bucket bucket = buckets.get(index);
+    while (bucket == null || bucket.epoch < epoch) {
+      Bucket fresh = new Bucket(epoch);
+      if (buckets.compareAndSet(index, bucket, fresh)) {
+        bucket = fresh;
+      } else {
+        bucket = buckets.get(index);
+      }
+    }
+    if (bucket.epoch != epoch) {
+      // a call that completed long ago, its second has already left the window
+      return;
+    }
+    bucket.calls.increment();
+    if ((outcome & FAILED) != 0) {
+      bucket.failedCalls.increment();
+    }
+    if ((outcome & SLOW) != 0) {
+      bucket.slowCalls.increment();
+    }
+  }
+
+  @Override
+  public Snapshot snapshot(long now) {
+    long oldest = Math.floorDiv(now, BUCKET_NANOS) - seconds;
+    long calls = 0;
+    long failed = 0;
+    long slow = 0;
+    for (int i = 0; i < seconds; i++) {
+      Bucket bucket = buckets.get(i);
+      if (bucket != null && bucket.epoch > oldest) {
+        calls += bucket.calls.sum();
+        failed += bucket.failedCalls.sum();
+        slow += bucket.slowCalls.sum();
+      }
+    }
+    return new Snapshot(calls, failed, slow);
+  }
+
+  /** Calls completed within one second. */
+  private static final class Bucket {
+    private final long epoch;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+
+    Bucket(long epoch) {
+      this.epoch = epoch;
+    }
+  }
+}
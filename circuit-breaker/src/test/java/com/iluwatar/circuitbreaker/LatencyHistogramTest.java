@@ -0,0 +1,68 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Latency histogram test */
+class LatencyHistogramTest {
+
+  @Test
+  void testBucketsCoverEveryValueInOrder() {
+    long previousHighest = -1;
+    for (int bucket = 0; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE) + 1; bucket++) {
+      long highest = LatencyHistogram.highestValueOf(bucket);
+      assertEquals(bucket, LatencyHistogram.bucketOf(previousHighest + 1));
+      assertEquals(bucket, LatencyHistogram.bucketOf(highest));
+      previousHighest = highest;
+    }
+    assertEquals(Long.MAX_VALUE, previousHighest);
+  }
+
+  @Test
+  void testPercentilesWithinBucketPrecision() {
+    var histogram = new LatencyHistogram();
+    for (long latency = 1; latency <= 1000; latency++) {
+      histogram.record(latency * 1000);
+    }
+    assertEquals(1000, histogram.getCount());
+    for (double percentile : new double[] {1, 50, 90, 99, 100}) {
+      long expected = (long) (percentile * 10) * 1000;
+      long actual = histogram.getValueAtPercentile(percentile);
+      assertTrue(actual >= expected && actual <= expected * 1.125, percentile + ": " + actual);
+    }
+  }
+
+  @Test
+  void testEmptyHistogram() {
+    var histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    histogram.record(-5);
+    assertEquals(0, histogram.getValueAtPercentile(100));
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.circuitbreaker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Sliding window circuit breaker test */
+class SlidingWindowCircuitBreakerTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicBoolean failing = new AtomicBoolean();
+  private final RemoteService service =
+      () -> {
+        if (failing.get()) {
+          throw new RemoteServiceException("Service is down");
+        }
+        return "Service is working";
+      };
+
+  private SlidingWindowCircuitBreaker breaker(CircuitBreakerConfig config) {
+    return new SlidingWindowCircuitBreaker(service, config, clock::get);
+  }
+
+  private static CircuitBreakerConfig.CircuitBreakerConfigBuilder config() {
+    return CircuitBreakerConfig.builder()
+        .slidingWindowSize(10)
+        .minimumNumberOfCalls(4)
+        .failureRateThreshold(50)
+        .waitDurationInOpenState(Duration.ofSeconds(5))
+        .permittedCallsInHalfOpenState(2);
+  }
+
+  private static void attempt(CircuitBreaker breaker) {
+    try {
+      breaker.attemptRequest();
+    } catch (RemoteServiceException e) {
+      // the breaker records it
+    }
+  }
+
+  @Test
+  void testOpensOnFailureRateOnlyAfterMinimumCalls() throws RemoteServiceException {
+    var circuitBreaker = breaker(config().build());
+    failing.set(true);
+    for (int i = 0; i < 3; i++) {
+      attempt(circuitBreaker);
+    }
+    // three failures in a row would have opened the default breaker
+    assertEquals("CLOSED", circuitBreaker.getState());
+    assertEquals(-1, circuitBreaker.getFailureRate());
+
+    // the fourth call brings the window to its minimum size, succeeding does not help
+    failing.set(false);
+    circuitBreaker.attemptRequest();
+    assertEquals("OPEN", circuitBreaker.getState());
+  }
+
+  @Test
+  void testOpensWhenFailuresReachThreshold() throws RemoteServiceException {
+    var circuitBreaker = breaker(config().build());
+    circuitBreaker.attemptRequest();
+    circuitBreaker.attemptRequest();
+    failing.set(true);
+    attempt(circuitBreaker);
+    assertEquals("CLOSED", circuitBreaker.getState());
+    attempt(circuitBreaker);
+    assertEquals("OPEN", circuitBreaker.getState());
+
+    // an open circuit returns the cached failure without calling the service
+    failing.set(false);
+    assertEquals("Service is down", circuitBreaker.attemptRequest());
+    assertEquals(1, circuitBreaker.getMetrics().getNotPermittedCalls());
+    assertEquals(2, circuitBreaker.getMetrics().getSuccessfulCalls());
+  }
+
+  @Test
+  void testOldCallsLeaveCountBasedWindow() throws RemoteServiceException {
+    var circuitBreaker = breaker(config().slidingWindowSize(4).build());
+    failing.set(true);
+    attempt(circuitBreaker);
+    failing.set(false);
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.attemptRequest();
+    }
+    assertEquals(25, circuitBreaker.getFailureRate());
+    circuitBreaker.attemptRequest();
+    assertEquals(0, circuitBreaker.getFailureRate());
+  }
+
+  @Test
+  void testOldCallsLeaveTimeBasedWindow() throws RemoteServiceException {
+    var circuitBreaker =
+        breaker(
+            config()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
+                .slidingWindowSize(3)
+                .failureRateThreshold(60)
+                .build());
+    failing.set(true);
+    attempt(circuitBreaker);
+    attempt(circuitBreaker);
+    clock.addAndGet(SECOND);
+    failing.set(false);
+    circuitBreaker.attemptRequest();
+    circuitBreaker.attemptRequest();
+    assertEquals(50, circuitBreaker.getFailureRate());
+
+    // the second with the failures has left the window
+    clock.addAndGet(2 * SECOND);
+    circuitBreaker.attemptRequest();
+    circuitBreaker.attemptRequest();
+    assertEquals(0, circuitBreaker.getFailureRate());
+    assertEquals("CLOSED", circuitBreaker.getState());
+  }
+
+  @Test
+  void testOpensOnSlowCallRate() throws RemoteServiceException {
+    RemoteService slowService =
+        () -> {
+          clock.addAndGet(SECOND);
+          return "Slow service is working";
+        };
+    var circuitBreaker =
+        new SlidingWindowCircuitBreaker(
+            slowService,
+            config()
+                .slowCallDurationThreshold(Duration.ofMillis(500))
+                .slowCallRateThreshold(75)
+                .build(),
+            clock::get);
+    for (int i = 0; i < 4; i++) {
+      assertEquals("Slow service is working", circuitBreaker.attemptRequest());
+    }
+    assertEquals("OPEN", circuitBreaker.getState());
+    assertEquals(4, circuitBreaker.getMetrics().getSlowCalls());
+    assertEquals(
+        SECOND,
+        circuitBreaker.getMetrics().getSuccessLatencies().getValueAtPercentile(50),
+        0.125 * SECOND);
+  }
+
+  @Test
+  void testHalfOpenClosesAfterPermittedCallsSucceed() throws RemoteServiceException {
+    var circuitBreaker = breaker(config().build());
+    circuitBreaker.setState(State.OPEN);
+    clock.addAndGet(5 * SECOND);
+    assertEquals("HALF_OPEN", circuitBreaker.getState());
+
+    circuitBreaker.attemptRequest();
+    assertEquals("HALF_OPEN", circuitBreaker.getState());
+    circuitBreaker.attemptRequest();
+    assertEquals("CLOSED", circuitBreaker.getState());
+  }
+
+  @Test
+  void testHalfOpenReopensWhenTrialCallsFail() throws Exception {
+    CountDownLatch inCall = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    RemoteService blockingService =
+        () -> {
+          inCall.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          throw new RemoteServiceException("Still down");
+        };
+    var circuitBreaker =
+        new SlidingWindowCircuitBreaker(blockingService, config().build(), clock::get);
+    circuitBreaker.setState(State.HALF_OPEN);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int i = 0; i < 2; i++) {
+        executor.submit(() -> attempt(circuitBreaker));
+      }
+      inCall.await();
+      // both trial calls are in flight, so further calls are not permitted
+      assertEquals(null, circuitBreaker.attemptRequest());
+      release.countDown();
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals("OPEN", circuitBreaker.getState());
+    assertEquals("Still down", circuitBreaker.attemptRequest());
+  }
+
+  @Test
+  void testUncheckedExceptionsAreRecordedAsFailures() {
+    RemoteService brokenService =
+        () -> {
+          throw new IllegalStateException("Unexpected");
+        };
+    var circuitBreaker =
+        new SlidingWindowCircuitBreaker(brokenService, config().build(), clock::get);
+    circuitBreaker.setState(State.HALF_OPEN);
+
+    for (int i = 0; i < 2; i++) {
+      assertThrows(IllegalStateException.class, circuitBreaker::attemptRequest);
+    }
+    // both trial calls failed instead of leaving the breaker half open without permits
+    assertEquals("OPEN", circuitBreaker.getState());
+    assertEquals(2, circuitBreaker.getMetrics().getFailedCalls());
+  }
+
+  @Test
+  void testCountsEveryCallUnderContention() throws Exception {
+    var circuitBreaker =
+        breaker(config().slidingWindowSize(1000).minimumNumberOfCalls(1000).build());
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch done = new CountDownLatch(threads);
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        executor.submit(
+            () -> {
+              for (int i = 0; i < 1000; i++) {
+                if (thread % 2 == 0) {
+                  circuitBreaker.recordFailure("Service is down");
+                } else {
+                  circuitBreaker.recordSuccess();
+                }
+              }
+              done.countDown();
+            });
+      }
+      done.await();
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(4000, circuitBreaker.getMetrics().getFailedCalls());
+    assertEquals(4000, circuitBreaker.getMetrics().getSuccessfulCalls());
+    assertEquals(4000, circuitBreaker.getMetrics().getSuccessLatencies().getCount());
+  }
+
+  @Test
+  void testRejectsInvalidThresholds() {
+    assertThrows(
+        IllegalArgumentException.class, () -> breaker(config().failureRateThreshold(0).build()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> breaker(config().slidingWindowSize(CountBasedWindow.MAX_SIZE + 1).build()));
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.app;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.processor.BinaryFileJournal;
+import com.iluwatar.event.sourcing.processor.DomainEventProcessor;
+import com.iluwatar.event.sourcing.processor.SnapshotStore;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how long recovery takes depending on the length of the journal, once by replaying the
+ * whole journal and once by restoring the latest snapshot and replaying the events after it. The
+ * full replay grows with the journal while recovery from a snapshot stays bounded by the snapshot
+ * interval.
+ */
+@Slf4j
+public class RecoveryBenchmark {
+
+  private static final int ACCOUNTS = 100;
+
+  private final int snapshotInterval;
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param journalLength number of journaled events.
+   * @param fullReplayMillis recovery time replaying the whole journal.
+   * @param snapshotRecoveryMillis recovery time from the latest snapshot.
+   */
+  public record Result(
+      long journalLength, double fullReplayMillis, double snapshotRecoveryMillis) {}
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param snapshotInterval number of processed events between snapshots.
+   */
+  public RecoveryBenchmark(int snapshotInterval) {
+    this.snapshotInterval = snapshotInterval;
+  }
+
+  /**
+   * Benchmark entry.
+   *
+   * @throws IOException if the journal cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    var benchmark = new RecoveryBenchmark(10_000);
+    for (var journalLength : List.of(100_000, 500_000, 1_000_000, 2_000_000)) {
+      var result = benchmark.run(journalLength);
+      LOGGER.info(
+          "journal length: {}, full replay: {} ms, from snapshot: {} ms",
+          result.journalLength(),
+          String.format("%.1f", result.fullReplayMillis()),
+          String.format("%.1f", result.snapshotRecoveryMillis()));
+    }
+  }
+
+  /**
+   * Journals the given number of events, then recovers from the journal with and without snapshots.
+   *
+   * @param journalLength number of events to journal.
+   * @return the measured result.
+   * @throws IOException if the journal cannot be written.
+   */
+  public Result run(int journalLength) throws IOException {
+    var directory = Files.createTempDirectory("recovery-benchmark");
+    try {
+      var journalDirectory = directory.resolve("journal");
+      var snapshots = new SnapshotStore(directory.resolve("snapshots"));
+      AccountAggregate.resetState();
+      try (var journal =
+          new BinaryFileJournal(journalDirectory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, false)) {
+        var processor = new DomainEventProcessor(journal, snapshots, snapshotInterval);
+        for (var i = 0; i < journalLength; i++) {
+          processor.process(event(i));
+        }
+      }
+
+      AccountAggregate.resetState();
+      var fullReplay =
+          recover(
+              new BinaryFileJournal(
+                  journalDirectory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, false),
+              null);
+      AccountAggregate.resetState();
+      var fromSnapshot =
+          recover(
+              new BinaryFileJournal(
+                  journalDirectory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, false),
+              snapshots);
+      return new Result(journalLength, fullReplay, fromSnapshot);
+    } finally {
+      try (var paths = Files.walk(directory)) {
+        for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  private double recover(BinaryFileJournal journal, SnapshotStore snapshots) throws IOException {
+    try (journal) {
+      var processor =
+          snapshots == null
+              ? new DomainEventProcessor(journal)
+              : new DomainEventProcessor(journal, snapshots, snapshotInterval);
+      var start = System.nanoTime();
+      processor.recover();
+      return (System.nanoTime() - start) / 1e6;
+    }
+  }
+
+  private static DomainEvent event(int sequenceId) {
+    DomainEvent event =
+        sequenceId < ACCOUNTS
+            ? new AccountCreateEvent(sequenceId, sequenceId, sequenceId, "Owner " + sequenceId)
+            : new MoneyDepositEvent(sequenceId, sequenceId, sequenceId % ACCOUNTS, BigDecimal.ONE);
+    // keep the simulated external calls of realtime events out of the measurement
+    event.setRealTime(false);
+    return event;
+  }
+}
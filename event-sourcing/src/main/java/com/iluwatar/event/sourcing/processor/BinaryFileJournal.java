@@ -0,0 +1,468 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Event journal that appends the events as length prefixed binary records to a directory of segment
+ * files. Unlike {@link JsonFileJournal} neither opening the journal nor writing to it depends on
+ * the size of the journal:
+ *
+ * <ul>
+ *   <li>Every record is {@code [payload length][CRC32C of payload][payload]}, the payload being the
+ *       event type followed by its fields. A segment is rolled over once it would exceed the
+ *       segment size.
+ *   <li>Writes are appended to the open segment and fsynced with group commit: a writer waits until
+ *       a single fsync covers its record, so concurrent writers share fsyncs instead of queueing
+ *       for one each.
+ *   <li>{@link #readNext()} streams the events from memory mapped segments one at a time, it never
+ *       materializes the whole journal.
+ *   <li>A record torn by a crash fails its length or CRC check. Reading stops there and the next
+ *       writer truncates the segment to its last complete record.
+ * </ul>
+ */
+@Slf4j
+public class BinaryFileJournal extends EventJournal implements AutoCloseable {
+
+  /** Default maximum size of a segment file. */
+  public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final byte ACCOUNT_CREATE = 1;
+  private static final byte MONEY_DEPOSIT = 2;
+  private static final byte MONEY_TRANSFER = 3;
+
+  private final Path directory;
+  private final long segmentSize;
+  private final boolean syncOnWrite;
+  private final UnaryOperator<FileChannel> channelDecorator;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition synced = lock.newCondition();
+  private FileChannel segment;
+  private int segmentIndex;
+  private long appendedRecords;
+  private long syncedRecords;
+  private boolean syncing;
+  private IOException syncFailure;
+  private long failedAfter;
+  private long failedRecords;
+
+  private int readSegmentIndex;
+  private long readPosition;
+  private MappedByteBuffer readBuffer;
+
+  /** Instantiates a binary journal in the journal directory of the working directory. */
+  public BinaryFileJournal() {
+    this(Path.of("journal"), DEFAULT_SEGMENT_SIZE, true);
+  }
+
+  /**
+   * Instantiates a binary journal.
+   *
+   * @param directory the directory of the segment files, created if missing.
+   * @param segmentSize maximum size of a segment file in bytes.
+   * @param syncOnWrite whether {@link #write(DomainEvent)} returns only after the event is fsynced.
+   *     Otherwise segments are fsynced when they are rolled over and when the journal is closed.
+   */
+  public BinaryFileJournal(Path directory, long segmentSize, boolean syncOnWrite) {
+    this(directory, segmentSize, syncOnWrite, UnaryOperator.identity());
+  }
+
+  /*
+   * Instantiates a binary journal whose segment channels are wrapped, for tests injecting I/O
+   * failures.
+   */
+  BinaryFileJournal(
+      Path directory,
+      long segmentSize,
+      boolean syncOnWrite,
+      UnaryOperator<FileChannel> channelDecorator) {
+    if (segmentSize <= HEADER_SIZE || segmentSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.syncOnWrite = syncOnWrite;
+    this.channelDecorator = channelDecorator;
+    this.file = directory.toFile();
+    try {
+      Files.createDirectories(directory);
+      openLastSegment();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Appends the event to the journal.
+   *
+   * @param domainEvent the domain event
+   */
+  @Override
+  public void write(DomainEvent domainEvent) {
+    var record = encode(domainEvent);
+    lock.lock();
+    try {
+      if (segment.position() + record.remaining() > segmentSize && segment.position() > 0) {
+        rollSegment();
+      }
+      while (record.hasRemaining()) {
+        segment.write(record);
+      }
+      var recordNo = ++appendedRecords;
+      if (syncOnWrite) {
+        awaitSync(recordNo);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Group commit. The first waiting writer fsyncs everything appended so far without holding the
+   * lock, other writers append meanwhile and are covered by the next fsync. A failed fsync does not
+   * advance the synced records, its failure is thrown to every writer whose record it covered.
+   */
+  private void awaitSync(long recordNo) throws IOException {
+    while (syncedRecords < recordNo) {
+      if (syncFailure != null && recordNo > failedAfter && recordNo <= failedRecords) {
+        throw syncFailure;
+      }
+      if (syncing) {
+        synced.awaitUninterruptibly();
+        continue;
+      }
+      syncing = true;
+      var from = syncedRecords;
+      var target = appendedRecords;
+      var channel = segment;
+      IOException failure = null;
+      var forced = false;
+      lock.unlock();
+      try {
+        channel.force(false);
+        forced = true;
+      } catch (IOException e) {
+        failure = e;
+        throw e;
+      } finally {
+        lock.lock();
+        syncing = false;
+        if (forced) {
+          syncedRecords = Math.max(syncedRecords, target);
+        } else if (failure != null) {
+          syncFailure = failure;
+          failedAfter = from;
+          failedRecords = target;
+        }
+        synced.signalAll();
+      }
+    }
+  }
+
+  /**
+   * Read the next domain event, mapping the segments one after another.
+   *
+   * @return the domain event, or null when the end of the journal is reached
+   */
+  @Override
+  public DomainEvent readNext() {
+    try {
+      while (true) {
+        if (readBuffer == null) {
+          var path = segmentPath(readSegmentIndex);
+          if (!Files.exists(path)) {
+            return null;
+          }
+          try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readBuffer =
+                channel.map(
+                    FileChannel.MapMode.READ_ONLY, readPosition, channel.size() - readPosition);
+          }
+        }
+        var start = readBuffer.position();
+        var event = readRecord(readBuffer);
+        if (event != null) {
+          readPosition += readBuffer.position() - start;
+          event.setRealTime(false);
+          return event;
+        }
+        var corrupt = readBuffer.hasRemaining();
+        readBuffer = null;
+        if (!Files.exists(segmentPath(readSegmentIndex + 1))) {
+          // the end of the journal, events appended later are mapped by the next call
+          return null;
+        }
+        if (corrupt) {
+          LOGGER.warn("Skipping corrupt records at the end of segment {}", readSegmentIndex);
+        }
+        readSegmentIndex++;
+        readPosition = 0;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The index of the open segment in the upper and the offset within it in the lower 32 bits.
+   *
+   * @return the end position of the journal.
+   */
+  @Override
+  long getEndPosition() {
+    lock.lock();
+    try {
+      return (long) segmentIndex << 32 | segment.position();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Fsyncs the records appended to the open segment, joining a group commit in progress. */
+  @Override
+  void sync() {
+    lock.lock();
+    try {
+      awaitSync(appendedRecords);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  void seek(long position) {
+    readSegmentIndex = (int) (position >>> 32);
+    readPosition = position & 0xFFFFFFFFL;
+    readBuffer = null;
+  }
+
+  /** Deletes all segments and starts an empty journal. */
+  @Override
+  void reset() {
+    lock.lock();
+    try {
+      segment.close();
+      try (var paths = Files.list(directory)) {
+        for (var path : paths.filter(BinaryFileJournal::isSegment).toList()) {
+          Files.delete(path);
+        }
+      }
+      readSegmentIndex = 0;
+      readPosition = 0;
+      readBuffer = null;
+      openLastSegment();
+      LOGGER.info("Journal cleared successfully............");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Fsyncs and closes the open segment.
+   *
+   * @throws IOException if the segment cannot be fsynced.
+   */
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (segment.isOpen()) {
+        segment.force(false);
+        segment.close();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void rollSegment() throws IOException {
+    while (syncing) {
+      // the channel must not be closed while a group commit fsyncs it
+      synced.awaitUninterruptibly();
+    }
+    segment.force(false);
+    segment.close();
+    syncedRecords = appendedRecords;
+    segmentIndex++;
+    segment = openSegment(segmentPath(segmentIndex));
+  }
+
+  /*
+   * Opens the last segment for appending, cutting off a record torn by a crash.
+   */
+  private void openLastSegment() throws IOException {
+    segmentIndex = 0;
+    while (Files.exists(segmentPath(segmentIndex + 1))) {
+      segmentIndex++;
+    }
+    var path = segmentPath(segmentIndex);
+    segment = openSegment(path);
+    if (segment.size() > 0) {
+      var buffer = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+      while (readRecord(buffer) != null) {
+        // skip the complete records
+      }
+      if (buffer.position() < segment.size()) {
+        LOGGER.warn("Truncating torn record at the end of {}", path);
+        segment.truncate(buffer.position());
+      }
+    }
+    segment.position(segment.size());
+  }
+
+  private FileChannel openSegment(Path path) throws IOException {
+    return channelDecorator.apply(
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+  }
+
+  private Path segmentPath(int index) {
+    return directory.resolve(String.format("%010d.journal", index));
+  }
+
+  private static boolean isSegment(Path path) {
+    return path.getFileName().toString().endsWith(".journal");
+  }
+
+  /*
+   * Decodes the record at the position of the buffer and moves past it. Returns null and leaves the
+   * position at the record if it is incomplete or corrupt.
+   */
+  private static DomainEvent readRecord(ByteBuffer buffer) {
+    var start = buffer.position();
+    if (buffer.remaining() < HEADER_SIZE) {
+      return null;
+    }
+    var length = buffer.getInt(start);
+    var crc = buffer.getInt(start + Integer.BYTES);
+    if (length <= 0 || length > buffer.remaining() - HEADER_SIZE) {
+      return null;
+    }
+    var payload = buffer.slice(start + HEADER_SIZE, length);
+    var checksum = new CRC32C();
+    checksum.update(payload.duplicate());
+    if ((int) checksum.getValue() != crc) {
+      return null;
+    }
+    buffer.position(start + HEADER_SIZE + length);
+    return decode(payload);
+  }
+
+  private static ByteBuffer encode(DomainEvent event) {
+    ByteBuffer payload;
+    switch (event) {
+      case AccountCreateEvent e -> {
+        var owner = e.getOwner().getBytes(StandardCharsets.UTF_8);
+        payload = ByteBuffer.allocate(1 + 2 * Long.BYTES + 2 * Integer.BYTES + owner.length);
+        payload.put(ACCOUNT_CREATE).putLong(e.getSequenceId()).putLong(e.getCreatedTime());
+        payload.putInt(e.getAccountNo()).putInt(owner.length).put(owner);
+      }
+      case MoneyDepositEvent e -> {
+        var money = e.getMoney().unscaledValue().toByteArray();
+        payload = ByteBuffer.allocate(1 + 2 * Long.BYTES + 3 * Integer.BYTES + money.length);
+        payload.put(MONEY_DEPOSIT).putLong(e.getSequenceId()).putLong(e.getCreatedTime());
+        payload.putInt(e.getAccountNo()).putInt(e.getMoney().scale());
+        payload.putInt(money.length).put(money);
+      }
+      case MoneyTransferEvent e -> {
+        var money = e.getMoney().unscaledValue().toByteArray();
+        payload = ByteBuffer.allocate(1 + 2 * Long.BYTES + 4 * Integer.BYTES + money.length);
+        payload.put(MONEY_TRANSFER).putLong(e.getSequenceId()).putLong(e.getCreatedTime());
+        payload.putInt(e.getAccountNoFrom()).putInt(e.getAccountNoTo());
+        payload.putInt(e.getMoney().scale()).putInt(money.length).put(money);
+      }
+      default -> throw new RuntimeException("Journal Event not recognized");
+    }
+    payload.flip();
+    var checksum = new CRC32C();
+    checksum.update(payload.duplicate());
+    var record = ByteBuffer.allocate(HEADER_SIZE + payload.remaining());
+    record.putInt(payload.remaining()).putInt((int) checksum.getValue()).put(payload).flip();
+    return record;
+  }
+
+  private static DomainEvent decode(ByteBuffer payload) {
+    var type = payload.get();
+    var sequenceId = payload.getLong();
+    var createdTime = payload.getLong();
+    return switch (type) {
+      case ACCOUNT_CREATE -> {
+        var accountNo = payload.getInt();
+        var owner = new byte[payload.getInt()];
+        payload.get(owner);
+        yield new AccountCreateEvent(
+            sequenceId, createdTime, accountNo, new String(owner, StandardCharsets.UTF_8));
+      }
+      case MONEY_DEPOSIT -> {
+        var accountNo = payload.getInt();
+        yield new MoneyDepositEvent(sequenceId, createdTime, accountNo, readMoney(payload));
+      }
+      case MONEY_TRANSFER -> {
+        var accountNoFrom = payload.getInt();
+        var accountNoTo = payload.getInt();
+        yield new MoneyTransferEvent(
+            sequenceId, createdTime, readMoney(payload), accountNoFrom, accountNoTo);
+      }
+      default -> throw new RuntimeException("Journal Event not recognized");
+    };
+  }
+
+  private static BigDecimal readMoney(ByteBuffer payload) {
+    var scale = payload.getInt();
+    var unscaled = new byte[payload.getInt()];
+    payload.get(unscaled);
+    return new BigDecimal(new BigInteger(unscaled), scale);
+  }
+}
@@ -25,19 +25,44 @@
 package com.iluwatar.event.sourcing.processor;
 
 import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
 
 /**
  * This is the implementation of event processor. All events are processed by this class. This
  * processor uses eventJournal to persist and recover events.
  *
+ * <p>With a {@link SnapshotStore} the processor snapshots the account state every given number of
+ * processed events. Recovery then restores the latest snapshot and replays only the events
+ * journaled after it.
+ *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class DomainEventProcessor {
 
   private final EventJournal eventJournal;
+  private final SnapshotStore snapshotStore;
+  private final int snapshotInterval;
+  private int eventsSinceSnapshot;
 
   public DomainEventProcessor(EventJournal eventJournal) {
+    this(eventJournal, null, 0);
+  }
+
+  /**
+   * Instantiates a processor that snapshots the account state.
+   *
+   * @param eventJournal the event journal
+   * @param snapshotStore the snapshot store
+   * @param snapshotInterval number of processed events between snapshots
+   */
+  public DomainEventProcessor(
+      EventJournal eventJournal, SnapshotStore snapshotStore, int snapshotInterval) {
+    if (snapshotStore != null && snapshotInterval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval must be positive");
+    }
     this.eventJournal = eventJournal;
+    this.snapshotStore = snapshotStore;
+    this.snapshotInterval = snapshotInterval;
   }
 
   /**
@@ -48,15 +73,46 @@ public class DomainEventProcessor {
   public void process(DomainEvent domainEvent) {
     domainEvent.process();
     eventJournal.write(domainEvent);
+    if (snapshotStore != null && ++eventsSinceSnapshot >= snapshotInterval) {
+      snapshot();
+    }
+  }
+
+  /**
+   * Snapshots the account state, tagged with the end position of the journal. The journal is
+   * fsynced first, a snapshot must never be durable ahead of the events it includes.
+   */
+  public void snapshot() {
+    if (snapshotStore == null) {
+      throw new IllegalStateException("No snapshot store configured");
+    }
+    var journalPosition = eventJournal.getEndPosition();
+    eventJournal.sync();
+    snapshotStore.save(journalPosition, AccountAggregate.getAccounts());
+    eventsSinceSnapshot = 0;
   }
 
   /** Reset. */
   public void reset() {
     eventJournal.reset();
+    if (snapshotStore != null) {
+      snapshotStore.reset();
+    }
+    eventsSinceSnapshot = 0;
   }
 
   /** Recover. */
   public void recover() {
+    if (snapshotStore != null) {
+      snapshotStore
+          .loadLatest()
+          .ifPresent(
+              snapshot -> {
+                AccountAggregate.resetState();
+                snapshot.accounts().forEach(AccountAggregate::putAccount);
+                eventJournal.seek(snapshot.journalPosition());
+              });
+    }
     DomainEvent domainEvent;
     while ((domainEvent = eventJournal.readNext()) != null) {
       domainEvent.process();
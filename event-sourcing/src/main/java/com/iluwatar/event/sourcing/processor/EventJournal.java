@@ -54,4 +54,22 @@ public abstract class EventJournal {
    * @return the domain event.
    */
   abstract DomainEvent readNext();
+
+  /**
+   * Position right after the last written event, used to tag snapshots.
+   *
+   * @return the end position of the journal.
+   */
+  abstract long getEndPosition();
+
+  /** Fsyncs the journal, so that every event written so far survives a crash. */
+  abstract void sync();
+
+  /**
+   * Moves the read position, so that {@link #readNext()} continues with the event written right
+   * after the given end position.
+   *
+   * @param position a position returned by {@link #getEndPosition()}.
+   */
+  abstract void seek(long position);
 }
@@ -38,7 +38,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -52,6 +54,7 @@ public class JsonFileJournal extends EventJournal {
 
   private final List<String> events = new ArrayList<>();
   private int index = 0;
+  private long endPosition;
 
   /** Instantiates a new Json file journal. */
   public JsonFileJournal() {
@@ -70,6 +73,7 @@ public class JsonFileJournal extends EventJournal {
     } else {
       reset();
     }
+    endPosition = events.size();
   }
 
   /**
@@ -85,11 +89,43 @@ public class JsonFileJournal extends EventJournal {
             new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
       var eventString = mapper.writeValueAsString(domainEvent);
       output.write(eventString + "\r\n");
+      endPosition++;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /** Deletes the journal file and forgets the events read from it. */
+  @Override
+  void reset() {
+    super.reset();
+    events.clear();
+    index = 0;
+    endPosition = 0;
+  }
+
+  /** The number of lines in the journal file. */
+  @Override
+  long getEndPosition() {
+    return endPosition;
+  }
+
+  /** Fsyncs the journal file, which each write appends to without fsyncing. */
+  @Override
+  void sync() {
+    try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Continues reading at the given line, which must have been read at construction. */
+  @Override
+  void seek(long position) {
+    index = (int) position;
+  }
+
   /**
    * Read the next domain event.
    *
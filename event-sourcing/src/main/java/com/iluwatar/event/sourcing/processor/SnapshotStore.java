@@ -0,0 +1,221 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores snapshots of the account state, each tagged with the journal position it is consistent
+ * with. Recovery loads the latest snapshot and replays only the events journaled after it, so
+ * restart time is bounded by the snapshot interval rather than by the length of the journal.
+ *
+ * <p>A snapshot is written to a temporary file, fsynced and atomically renamed, then the directory
+ * is fsynced, so a crash leaves either the complete snapshot or none. Snapshots also carry a CRC32C
+ * and a snapshot failing it is skipped in favour of the previous one. Only the latest {@value
+ * #RETAINED_SNAPSHOTS} snapshots are kept.
+ */
+@Slf4j
+public class SnapshotStore {
+
+  static final int RETAINED_SNAPSHOTS = 2;
+
+  private static final String SUFFIX = ".snapshot";
+
+  private final Path directory;
+
+  /**
+   * A snapshot of the account state.
+   *
+   * @param journalPosition the end position of the journal when the snapshot was taken.
+   * @param accounts the accounts.
+   */
+  public record Snapshot(long journalPosition, List<Account> accounts) {}
+
+  /**
+   * Instantiates a snapshot store.
+   *
+   * @param directory the directory of the snapshot files, created if missing.
+   */
+  public SnapshotStore(Path directory) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Saves a snapshot and deletes the snapshots that are no longer retained.
+   *
+   * @param journalPosition the end position of the journal the accounts are consistent with.
+   * @param accounts the accounts.
+   */
+  public void save(long journalPosition, Collection<Account> accounts) {
+    try {
+      var bytes = new ByteArrayOutputStream();
+      var output = new DataOutputStream(bytes);
+      output.writeLong(journalPosition);
+      output.writeInt(accounts.size());
+      for (var account : accounts) {
+        output.writeInt(account.getAccountNo());
+        output.writeUTF(account.getOwner());
+        output.writeInt(account.getMoney().scale());
+        var unscaled = account.getMoney().unscaledValue().toByteArray();
+        output.writeInt(unscaled.length);
+        output.write(unscaled);
+      }
+      var checksum = new CRC32C();
+      checksum.update(bytes.toByteArray());
+      output.writeInt((int) checksum.getValue());
+
+      var path = directory.resolve(String.format("%020d%s", journalPosition, SUFFIX));
+      var temporary = directory.resolve(path.getFileName() + ".tmp");
+      try (var channel =
+          FileChannel.open(
+              temporary,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE)) {
+        var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+      Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+      syncDirectory();
+
+      var snapshots = list();
+      for (var i = RETAINED_SNAPSHOTS; i < snapshots.size(); i++) {
+        Files.delete(snapshots.get(i));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads the latest intact snapshot.
+   *
+   * @return the snapshot, or empty if there is none.
+   */
+  public Optional<Snapshot> loadLatest() {
+    try {
+      for (var path : list()) {
+        var snapshot = load(path);
+        if (snapshot.isPresent()) {
+          return snapshot;
+        }
+        LOGGER.warn("Skipping corrupt snapshot {}", path);
+      }
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Deletes all snapshots. */
+  public void reset() {
+    try {
+      for (var path : list()) {
+        Files.delete(path);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /*
+   * Fsyncs the directory, so that the rename survives a crash. Windows cannot open a directory as a
+   * channel and persists the rename with the file.
+   */
+  private void syncDirectory() throws IOException {
+    if (System.getProperty("os.name").startsWith("Windows")) {
+      return;
+    }
+    try (var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+  }
+
+  /*
+   * The snapshot files, latest first.
+   */
+  private List<Path> list() throws IOException {
+    try (var paths = Files.list(directory)) {
+      return paths
+          .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+          .sorted(Comparator.comparing(Path::getFileName).reversed())
+          .toList();
+    }
+  }
+
+  private static Optional<Snapshot> load(Path path) throws IOException {
+    var bytes = Files.readAllBytes(path);
+    if (bytes.length < Long.BYTES + 2 * Integer.BYTES) {
+      return Optional.empty();
+    }
+    var checksum = new CRC32C();
+    checksum.update(bytes, 0, bytes.length - Integer.BYTES);
+    if ((int) checksum.getValue() != ByteBuffer.wrap(bytes).getInt(bytes.length - Integer.BYTES)) {
+      return Optional.empty();
+    }
+    var input = new DataInputStream(new ByteArrayInputStream(bytes));
+    var journalPosition = input.readLong();
+    var count = input.readInt();
+    var accounts = new ArrayList<Account>(count);
+    for (var i = 0; i < count; i++) {
+      var account = new Account(input.readInt(), input.readUTF());
+      var scale = input.readInt();
+      var unscaled = new byte[input.readInt()];
+      input.readFully(unscaled);
+      account.setMoney(new BigDecimal(new BigInteger(unscaled), scale));
+      accounts.add(account);
+    }
+    return Optional.of(new Snapshot(journalPosition, accounts));
+  }
+}
@@ -26,6 +26,7 @@ package com.iluwatar.event.sourcing.state;
 
 import com.iluwatar.event.sourcing.domain.Account;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -59,6 +60,15 @@ public class AccountAggregate {
     return Optional.of(accountNo).map(accounts::get).map(Account::copy).orElse(null);
   }
 
+  /**
+   * Gets all accounts.
+   *
+   * @return the copies of the accounts
+   */
+  public static List<Account> getAccounts() {
+    return accounts.values().stream().map(Account::copy).toList();
+  }
+
   /** Reset state. */
   public static void resetState() {
     accounts = new HashMap<>();
@@ -30,13 +30,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import com.iluwatar.event.sourcing.event.AccountCreateEvent;
 import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
 import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.processor.BinaryFileJournal;
 import com.iluwatar.event.sourcing.processor.DomainEventProcessor;
 import com.iluwatar.event.sourcing.processor.JsonFileJournal;
+import com.iluwatar.event.sourcing.processor.SnapshotStore;
 import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.Date;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Integration Test for Event-Sourcing state recovery
@@ -91,4 +96,97 @@ class IntegrationTest {
         accountOfDaenerysBeforeShotDown.getMoney(), accountOfDaenerysAfterShotDown.getMoney());
     assertEquals(accountOfJonBeforeShotDown.getMoney(), accountOfJonAfterShotDown.getMoney());
   }
+
+  /** Test state recovery from a binary journal. */
+  @Test
+  void testStateRecoveryWithBinaryJournal(@TempDir Path directory) throws IOException {
+    try (var journal =
+        new BinaryFileJournal(directory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, true)) {
+      eventProcessor = new DomainEventProcessor(journal);
+      eventProcessor.reset();
+      AccountAggregate.resetState();
+
+      eventProcessor.process(
+          new AccountCreateEvent(
+              0, new Date().getTime(), ACCOUNT_OF_DAENERYS, "Daenerys Targaryen"));
+      eventProcessor.process(
+          new AccountCreateEvent(1, new Date().getTime(), ACCOUNT_OF_JON, "Jon Snow"));
+      eventProcessor.process(
+          new MoneyDepositEvent(
+              2, new Date().getTime(), ACCOUNT_OF_DAENERYS, new BigDecimal("100000")));
+      eventProcessor.process(
+          new MoneyTransferEvent(
+              3,
+              new Date().getTime(),
+              new BigDecimal("10000"),
+              ACCOUNT_OF_DAENERYS,
+              ACCOUNT_OF_JON));
+    }
+
+    var accountOfDaenerysBeforeShotDown = AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS);
+    var accountOfJonBeforeShotDown = AccountAggregate.getAccount(ACCOUNT_OF_JON);
+
+    AccountAggregate.resetState();
+
+    try (var journal =
+        new BinaryFileJournal(directory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, true)) {
+      new DomainEventProcessor(journal).recover();
+    }
+
+    assertEquals(
+        accountOfDaenerysBeforeShotDown.getMoney(),
+        AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS).getMoney());
+    assertEquals(
+        accountOfJonBeforeShotDown.getMoney(),
+        AccountAggregate.getAccount(ACCOUNT_OF_JON).getMoney());
+  }
+
+  /** Test state recovery from a snapshot followed by the events journaled after it. */
+  @Test
+  void testStateRecoveryFromSnapshot(@TempDir Path directory) throws IOException {
+    var journalDirectory = directory.resolve("journal");
+    var snapshots = new SnapshotStore(directory.resolve("snapshots"));
+    try (var journal =
+        new BinaryFileJournal(journalDirectory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, true)) {
+      eventProcessor = new DomainEventProcessor(journal, snapshots, 3);
+      eventProcessor.reset();
+      AccountAggregate.resetState();
+
+      eventProcessor.process(
+          new AccountCreateEvent(
+              0, new Date().getTime(), ACCOUNT_OF_DAENERYS, "Daenerys Targaryen"));
+      eventProcessor.process(
+          new AccountCreateEvent(1, new Date().getTime(), ACCOUNT_OF_JON, "Jon Snow"));
+      eventProcessor.process(
+          new MoneyDepositEvent(
+              2, new Date().getTime(), ACCOUNT_OF_DAENERYS, new BigDecimal("100000")));
+      // the snapshot taken here is followed by a tail of two events
+      eventProcessor.process(
+          new MoneyDepositEvent(3, new Date().getTime(), ACCOUNT_OF_JON, new BigDecimal("100")));
+      eventProcessor.process(
+          new MoneyTransferEvent(
+              4,
+              new Date().getTime(),
+              new BigDecimal("10000"),
+              ACCOUNT_OF_DAENERYS,
+              ACCOUNT_OF_JON));
+    }
+
+    var accountOfDaenerysBeforeShotDown = AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS);
+    var accountOfJonBeforeShotDown = AccountAggregate.getAccount(ACCOUNT_OF_JON);
+
+    AccountAggregate.resetState();
+
+    try (var journal =
+        new BinaryFileJournal(journalDirectory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, true)) {
+      new DomainEventProcessor(journal, snapshots, 3).recover();
+    }
+
+    assertEquals(
+        accountOfDaenerysBeforeShotDown.getMoney(),
+        AccountAggregate.getAccount(ACCOUNT_OF_DAENERYS).getMoney());
+    assertEquals(
+        accountOfJonBeforeShotDown.getMoney(),
+        AccountAggregate.getAccount(ACCOUNT_OF_JON).getMoney());
+  }
 }
@@ -0,0 +1,398 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link BinaryFileJournal}. */
+@Slf4j
+class BinaryFileJournalTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void eventsSurviveReopeningAcrossSegments() throws IOException {
+    try (var journal = new BinaryFileJournal(directory, 128, true)) {
+      for (var i = 0; i < 20; i++) {
+        journal.write(new MoneyDepositEvent(i, 1000 + i, 7, new BigDecimal("12.50")));
+      }
+      journal.write(new AccountCreateEvent(20, 2000, 8, "Jon Snow"));
+      journal.write(new MoneyTransferEvent(21, 2001, new BigDecimal("-0.001"), 7, 8));
+    }
+    try (var paths = Files.list(directory)) {
+      assertTrue(paths.count() > 1);
+    }
+
+    try (var journal = new BinaryFileJournal(directory, 128, true)) {
+      for (var i = 0; i < 20; i++) {
+        var deposit = assertInstanceOf(MoneyDepositEvent.class, journal.readNext());
+        assertEquals(i, deposit.getSequenceId());
+        assertEquals(1000 + i, deposit.getCreatedTime());
+        assertEquals(new BigDecimal("12.50"), deposit.getMoney());
+      }
+      var create = assertInstanceOf(AccountCreateEvent.class, journal.readNext());
+      assertEquals("Jon Snow", create.getOwner());
+      assertEquals(8, create.getAccountNo());
+      var transfer = assertInstanceOf(MoneyTransferEvent.class, journal.readNext());
+      assertEquals(new BigDecimal("-0.001"), transfer.getMoney());
+      assertEquals(7, transfer.getAccountNoFrom());
+      assertEquals(8, transfer.getAccountNoTo());
+      assertNull(journal.readNext());
+    }
+  }
+
+  @Test
+  void eventsAppendedAfterReachingTheEndAreRead() throws IOException {
+    try (var journal = new BinaryFileJournal(directory, 1024, false)) {
+      journal.write(new AccountCreateEvent(0, 0, 1, "Daenerys Targaryen"));
+      assertEquals(0, journal.readNext().getSequenceId());
+      assertNull(journal.readNext());
+
+      journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.TEN));
+      assertEquals(1, journal.readNext().getSequenceId());
+    }
+  }
+
+  @Test
+  void tornRecordIsTruncatedOnReopen() throws IOException {
+    try (var journal = new BinaryFileJournal(directory, 1024, true)) {
+      journal.write(new AccountCreateEvent(0, 0, 1, "Daenerys Targaryen"));
+      journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.TEN));
+    }
+    // simulate a crash in the middle of appending a record
+    var segment = directory.resolve("0000000000.journal");
+    try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    try (var journal = new BinaryFileJournal(directory, 1024, true)) {
+      assertEquals(0, journal.readNext().getSequenceId());
+      assertNull(journal.readNext());
+      journal.write(new MoneyDepositEvent(2, 0, 1, BigDecimal.ONE));
+      assertEquals(2, journal.readNext().getSequenceId());
+    }
+  }
+
+  @Test
+  void corruptRecordFailsChecksum() throws IOException {
+    try (var journal = new BinaryFileJournal(directory, 1024, true)) {
+      journal.write(new AccountCreateEvent(0, 0, 1, "Daenerys Targaryen"));
+      journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.TEN));
+    }
+    var segment = directory.resolve("0000000000.journal");
+    try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {42}), channel.size() - 1);
+    }
+
+    try (var journal = new BinaryFileJournal(directory, 1024, true)) {
+      assertEquals(0, journal.readNext().getSequenceId());
+      assertNull(journal.readNext());
+    }
+  }
+
+  @Test
+  void concurrentWritersShareGroupCommits() throws Exception {
+    var writers = 8;
+    var eventsPerWriter = 200;
+    var executor = Executors.newFixedThreadPool(writers);
+    try (var journal = new BinaryFileJournal(directory, 16 * 1024, true)) {
+      var futures = new ArrayList<Future<?>>();
+      for (var w = 0; w < writers; w++) {
+        var writer = w;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (var i = 0; i < eventsPerWriter; i++) {
+                    journal.write(
+                        new MoneyDepositEvent(
+                            writer * eventsPerWriter + i, 0, writer, BigDecimal.ONE));
+                  }
+                }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (var journal = new BinaryFileJournal(directory, 16 * 1024, true)) {
+      var seen = new boolean[writers * eventsPerWriter];
+      var event = journal.readNext();
+      for (; event != null; event = journal.readNext()) {
+        seen[(int) event.getSequenceId()] = true;
+      }
+      for (var isSeen : seen) {
+        assertTrue(isSeen);
+      }
+    }
+  }
+
+  @Test
+  void recoversManyEventsQuickly() throws IOException {
+    var events = 500_000;
+    try (var journal =
+        new BinaryFileJournal(directory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, false)) {
+      for (var i = 0; i < events; i++) {
+        journal.write(new MoneyDepositEvent(i, i, i % 100, BigDecimal.valueOf(i, 2)));
+      }
+    }
+
+    var start = System.nanoTime();
+    try (var journal =
+        new BinaryFileJournal(directory, BinaryFileJournal.DEFAULT_SEGMENT_SIZE, false)) {
+      var read = 0;
+      while (journal.readNext() != null) {
+        read++;
+      }
+      assertEquals(events, read);
+    }
+    LOGGER.info("Recovered {} events in {} ms", events, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Test
+  void failedSyncIsThrownToEveryWriterItCovers() throws Exception {
+    var firstForce = new CountDownLatch(1);
+    var releaseFirstForce = new CountDownLatch(1);
+    var forces = new AtomicInteger();
+    var failForce = new AtomicBoolean(true);
+    var executor = Executors.newFixedThreadPool(3);
+    try (var journal =
+        new BinaryFileJournal(
+            directory,
+            1024,
+            true,
+            channel ->
+                new FailingChannel(channel) {
+                  @Override
+                  public void force(boolean metaData) throws IOException {
+                    var force = forces.incrementAndGet();
+                    if (force == 1) {
+                      firstForce.countDown();
+                      awaitUninterruptibly(releaseFirstForce);
+                    } else if (force == 2 && failForce.get()) {
+                      throw new IOException("fsync failed");
+                    }
+                    super.force(metaData);
+                  }
+                })) {
+      var first =
+          executor.submit(() -> journal.write(new MoneyDepositEvent(0, 0, 1, BigDecimal.ONE)));
+      assertTrue(firstForce.await(5, TimeUnit.SECONDS));
+      // the first record is appended, the others have the same size
+      var recordSize = journal.getEndPosition();
+      var second =
+          executor.submit(() -> journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.ONE)));
+      var third =
+          executor.submit(() -> journal.write(new MoneyDepositEvent(2, 0, 1, BigDecimal.ONE)));
+      // both writers appended their records and wait for the fsync in progress
+      while (journal.getEndPosition() < 3 * recordSize) {
+        Thread.sleep(1);
+      }
+      releaseFirstForce.countDown();
+
+      first.get();
+      var secondFailure = assertThrows(ExecutionException.class, second::get).getCause();
+      var thirdFailure = assertThrows(ExecutionException.class, third::get).getCause();
+      assertInstanceOf(UncheckedIOException.class, secondFailure);
+      assertEquals("fsync failed", secondFailure.getCause().getMessage());
+      assertSame(secondFailure.getCause(), thirdFailure.getCause());
+      assertEquals(2, forces.get());
+
+      // records appended after the failed fsync are synced again
+      failForce.set(false);
+      journal.write(new MoneyDepositEvent(3, 0, 1, BigDecimal.ONE));
+      assertEquals(3, forces.get());
+    } finally {
+      releaseFirstForce.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void syncFsyncsWritesThatDidNotSync() throws IOException {
+    var forces = new AtomicInteger();
+    try (var journal =
+        new BinaryFileJournal(
+            directory,
+            1024,
+            false,
+            channel ->
+                new FailingChannel(channel) {
+                  @Override
+                  public void force(boolean metaData) throws IOException {
+                    forces.incrementAndGet();
+                    super.force(metaData);
+                  }
+                })) {
+      journal.write(new MoneyDepositEvent(0, 0, 1, BigDecimal.ONE));
+      journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.ONE));
+      assertEquals(0, forces.get());
+
+      journal.sync();
+      assertEquals(1, forces.get());
+      journal.sync();
+      assertEquals(1, forces.get());
+    }
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /* A file channel delegating to another, which tests override to inject failures. */
+  private static class FailingChannel extends FileChannel {
+    private final FileChannel delegate;
+
+    FailingChannel(FileChannel delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return delegate.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      return delegate.read(dsts, offset, length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      return delegate.write(src);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      return delegate.write(srcs, offset, length);
+    }
+
+    @Override
+    public long position() throws IOException {
+      return delegate.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      delegate.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return delegate.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      delegate.truncate(size);
+      return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      delegate.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+        throws IOException {
+      return delegate.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count)
+        throws IOException {
+      return delegate.transferFrom(src, position, count);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return delegate.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+      return delegate.write(src, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      return delegate.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      return delegate.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      return delegate.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      delegate.close();
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link SnapshotStore}. */
+class SnapshotStoreTest {
+
+  @TempDir Path directory;
+
+  @Test
+  void latestSnapshotIsLoaded() {
+    var store = new SnapshotStore(directory);
+    assertTrue(store.loadLatest().isEmpty());
+
+    store.save(10, List.of(account(1, "1.5")));
+    store.save(20, List.of(account(1, "2.5"), account(2, "-3")));
+
+    var snapshot = store.loadLatest().orElseThrow();
+    assertEquals(20, snapshot.journalPosition());
+    assertEquals(2, snapshot.accounts().size());
+    assertEquals("Owner 2", snapshot.accounts().get(1).getOwner());
+    assertEquals(new BigDecimal("2.5"), snapshot.accounts().get(0).getMoney());
+  }
+
+  @Test
+  void onlyLatestSnapshotsAreRetained() throws IOException {
+    var store = new SnapshotStore(directory);
+    for (var position = 1; position <= 5; position++) {
+      store.save(position, List.of(account(1, "1")));
+    }
+    try (var paths = Files.list(directory)) {
+      assertEquals(SnapshotStore.RETAINED_SNAPSHOTS, paths.count());
+    }
+  }
+
+  @Test
+  void corruptSnapshotFallsBackToPreviousOne() throws IOException {
+    var store = new SnapshotStore(directory);
+    store.save(10, List.of(account(1, "1")));
+    store.save(20, List.of(account(1, "2")));
+    var latest = directory.resolve(String.format("%020d.snapshot", 20));
+    var bytes = Files.readAllBytes(latest);
+    bytes[bytes.length / 2] ^= 1;
+    Files.write(latest, bytes);
+
+    assertEquals(10, store.loadLatest().orElseThrow().journalPosition());
+  }
+
+  private static Account account(int accountNo, String money) {
+    var account = new Account(accountNo, "Owner " + accountNo);
+    account.setMoney(new BigDecimal(money));
+    return account;
+  }
+}
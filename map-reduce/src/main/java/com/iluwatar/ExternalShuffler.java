@@ -0,0 +1,268 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * The ExternalShuffler class groups word counts like {@link Shuffler} but keeps its heap usage
+ * bounded. Counts are combined in an in-memory buffer, and whenever the buffer holds the maximum
+ * number of words it is sorted and spilled to a run file. {@link #merge(List, BiConsumer)} then
+ * merge-sorts the runs, summing the counts of every word over all runs like a combiner and handing
+ * the total to the reducer in word order. With more than {@value #MERGE_FAN_IN} runs it merges in
+ * several passes, so the number of open files stays bounded.
+ *
+ * <p>A run file holds the words in ascending order, each as its length in UTF-8 bytes, the bytes
+ * and its count, and ends with a length of -1. Words are not limited in length.
+ */
+public class ExternalShuffler {
+
+  /** Maximum number of runs merged at a time. */
+  static final int MERGE_FAN_IN = 64;
+
+  private static final int END_OF_RUN = -1;
+
+  private final Path workDir;
+  private final int maxBufferedWords;
+  private final Map<String, int[]> buffer = new HashMap<>();
+  private final List<Path> runs = new ArrayList<>();
+
+  /**
+   * Creates a shuffler.
+   *
+   * @param workDir Directory the runs are spilled to.
+   * @param maxBufferedWords Number of distinct words buffered before they are spilled.
+   */
+  public ExternalShuffler(Path workDir, int maxBufferedWords) {
+    if (maxBufferedWords <= 0) {
+      throw new IllegalArgumentException("Buffer must hold at least one word: " + maxBufferedWords);
+    }
+    this.workDir = workDir;
+    this.maxBufferedWords = maxBufferedWords;
+  }
+
+  /**
+   * Adds occurrences of a word, spilling the buffer when it is full.
+   *
+   * @param word The word.
+   * @param count Number of occurrences.
+   * @throws IOException If the buffer cannot be spilled.
+   */
+  public void add(String word, int count) throws IOException {
+    int[] buffered = buffer.get(word);
+    if (buffered != null) {
+      buffered[0] += count;
+      return;
+    }
+    if (buffer.size() >= maxBufferedWords) {
+      spill();
+    }
+    buffer.put(word, new int[] {count});
+  }
+
+  /**
+   * Spills the remaining buffered words.
+   *
+   * @return The runs spilled by this shuffler.
+   * @throws IOException If the buffer cannot be spilled.
+   */
+  public List<Path> finish() throws IOException {
+    if (!buffer.isEmpty()) {
+      spill();
+    }
+    return runs;
+  }
+
+  /**
+   * Deletes the runs spilled so far and drops the buffered words, for a split that failed.
+   *
+   * @throws IOException If a run cannot be deleted.
+   */
+  public void discard() throws IOException {
+    buffer.clear();
+    for (Path run : runs) {
+      Files.deleteIfExists(run);
+    }
+    runs.clear();
+  }
+
+  private void spill() throws IOException {
+    List<String> words = new ArrayList<>(buffer.keySet());
+    words.sort(Comparator.naturalOrder());
+    Path run = Files.createTempFile(workDir, "run", ".bin");
+    try (DataOutputStream output = openRun(run)) {
+      for (String word : words) {
+        writeEntry(output, word, buffer.get(word)[0]);
+      }
+      output.writeInt(END_OF_RUN);
+    }
+    runs.add(run);
+    buffer.clear();
+  }
+
+  /**
+   * Merge-sorts the runs and deletes them afterward. At most {@value #MERGE_FAN_IN} runs are read
+   * at a time and only one word per run is held in memory.
+   *
+   * @param runs The runs to merge.
+   * @param reducer Receives every word in ascending order with its total count over the runs.
+   * @throws IOException If a run cannot be read.
+   */
+  public static void merge(List<Path> runs, BiConsumer<String, Integer> reducer)
+      throws IOException {
+    merge(runs, MERGE_FAN_IN, reducer);
+  }
+
+  /**
+   * Merge-sorts the runs in passes of at most {@code fanIn} runs each. While there are more runs,
+   * every group of {@code fanIn} runs is merged into an intermediate run next to them, which holds
+   * the total count of every word over the runs of the group.
+   *
+   * @param runs The runs to merge.
+   * @param fanIn Maximum number of runs read at a time.
+   * @param reducer Receives every word in ascending order with its total count over the runs.
+   * @throws IOException If a run cannot be read or an intermediate run cannot be written.
+   */
+  static void merge(List<Path> runs, int fanIn, BiConsumer<String, Integer> reducer)
+      throws IOException {
+    if (fanIn < 2) {
+      throw new IllegalArgumentException("Fan-in must be at least two runs: " + fanIn);
+    }
+    List<Path> pending = new ArrayList<>(runs);
+    List<Path> merged = new ArrayList<>();
+    try {
+      while (pending.size() > fanIn) {
+        for (int i = 0; i < pending.size(); i += fanIn) {
+          List<Path> group = pending.subList(i, Math.min(i + fanIn, pending.size()));
+          Path run = Files.createTempFile(group.get(0).toAbsolutePath().getParent(), "run", ".bin");
+          merged.add(run);
+          try (DataOutputStream output = openRun(run)) {
+            mergeRuns(group, (word, count) -> writeEntry(output, word, count));
+            output.writeInt(END_OF_RUN);
+          }
+        }
+        pending = merged;
+        merged = new ArrayList<>();
+      }
+      mergeRuns(pending, reducer::accept);
+    } finally {
+      for (Path run : pending) {
+        Files.deleteIfExists(run);
+      }
+      for (Path run : merged) {
+        Files.deleteIfExists(run);
+      }
+    }
+  }
+
+  /* Merges the runs in a single pass, summing the counts of every word, and deletes them. */
+  private static void mergeRuns(List<Path> runs, RunConsumer consumer) throws IOException {
+    PriorityQueue<RunReader> queue =
+        new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparing(r -> r.word));
+    List<RunReader> readers = new ArrayList<>();
+    try {
+      for (Path run : runs) {
+        RunReader reader = new RunReader(run);
+        readers.add(reader);
+        if (reader.advance()) {
+          queue.add(reader);
+        }
+      }
+      while (!queue.isEmpty()) {
+        String word = queue.peek().word;
+        int total = 0;
+        while (!queue.isEmpty() && queue.peek().word.equals(word)) {
+          RunReader reader = queue.poll();
+          total += reader.count;
+          if (reader.advance()) {
+            queue.add(reader);
+          }
+        }
+        consumer.accept(word, total);
+      }
+    } finally {
+      for (RunReader reader : readers) {
+        reader.input.close();
+      }
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+    }
+  }
+
+  private static DataOutputStream openRun(Path run) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)));
+  }
+
+  private static void writeEntry(DataOutputStream output, String word, int count)
+      throws IOException {
+    byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+    output.writeInt(count);
+  }
+
+  /** Receives the merged words, possibly writing them to an intermediate run. */
+  private interface RunConsumer {
+    void accept(String word, int count) throws IOException;
+  }
+
+  /** Reads the words of a run one at a time. */
+  private static class RunReader {
+    private final DataInputStream input;
+    private String word;
+    private int count;
+
+    RunReader(Path run) throws IOException {
+      this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+    }
+
+    boolean advance() throws IOException {
+      int length = input.readInt();
+      if (length == END_OF_RUN) {
+        return false;
+      }
+      byte[] bytes = new byte[length];
+      input.readFully(bytes);
+      word = new String(bytes, StandardCharsets.UTF_8);
+      count = input.readInt();
+      return true;
+    }
+  }
+}
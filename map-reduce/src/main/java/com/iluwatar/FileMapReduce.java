@@ -0,0 +1,258 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * The FileMapReduce class runs the word count over a file that does not have to fit in the heap:
+ *
+ * <ul>
+ *   <li>The file is cut into {@link FileSplit}s aligned on line boundaries, which are mapped in
+ *       parallel from memory-mapped regions of the file.
+ *   <li>Every split counts its words into an {@link ExternalShuffler}, which spills sorted runs to
+ *       disk whenever its buffer fills.
+ *   <li>The runs of all splits are merge-sorted and every word is reduced to its total count.
+ * </ul>
+ *
+ * <p>Heap usage is bounded by the number of splits mapped concurrently times the buffer size of the
+ * shuffler, regardless of the size of the file.
+ */
+public class FileMapReduce {
+
+  /** Default size of a split in bytes. */
+  public static final long DEFAULT_SPLIT_SIZE = 64L * 1024 * 1024;
+
+  private FileMapReduce() {
+    throw new UnsupportedOperationException(
+        "FileMapReduce is a utility class and cannot be instantiated.");
+  }
+
+  /**
+   * A region of a file starting at the beginning of a line and ending after a line break or at the
+   * end of the file.
+   *
+   * @param file The file.
+   * @param start Offset of the first byte.
+   * @param end Offset after the last byte.
+   */
+  public record FileSplit(Path file, long start, long end) {}
+
+  /**
+   * Executes the MapReduce process on the lines of a file and collects the word counts.
+   *
+   * @param input The text file to be processed.
+   * @param workDir Directory the shuffle spills to.
+   * @param maxBufferedWords Number of distinct words a split buffers before spilling.
+   * @return A list of word counts sorted in descending order, ties sorted by word.
+   * @throws IOException If the file cannot be read or the shuffle cannot spill.
+   */
+  public static List<Map.Entry<String, Integer>> mapReduce(
+      Path input, Path workDir, int maxBufferedWords) throws IOException {
+    List<Map.Entry<String, Integer>> result = new ArrayList<>();
+    mapReduce(
+        input,
+        workDir,
+        DEFAULT_SPLIT_SIZE,
+        maxBufferedWords,
+        ForkJoinPool.commonPool(),
+        (word, count) -> result.add(Map.entry(word, count)));
+    result.sort(
+        Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+    return result;
+  }
+
+  /**
+   * Executes the MapReduce process on the lines of a file, streaming the word counts to the output
+   * in word order so that not even the result has to fit in the heap.
+   *
+   * @param input The text file to be processed.
+   * @param workDir Directory the shuffle spills to.
+   * @param splitSize Approximate size of a split in bytes.
+   * @param maxBufferedWords Number of distinct words a split buffers before spilling.
+   * @param pool The pool mapping the splits.
+   * @param output Receives every word in ascending order with its total count.
+   * @throws IOException If the file cannot be read or the shuffle cannot spill.
+   */
+  public static void mapReduce(
+      Path input,
+      Path workDir,
+      long splitSize,
+      int maxBufferedWords,
+      ForkJoinPool pool,
+      BiConsumer<String, Integer> output)
+      throws IOException {
+    List<Future<List<Path>>> mapped = new ArrayList<>();
+    for (FileSplit split : split(input, splitSize)) {
+      mapped.add(
+          pool.submit(
+              () -> {
+                ExternalShuffler shuffler = new ExternalShuffler(workDir, maxBufferedWords);
+                try {
+                  map(split, shuffler);
+                  return shuffler.finish();
+                } catch (IOException | RuntimeException e) {
+                  shuffler.discard();
+                  throw e;
+                }
+              }));
+    }
+    // every split is waited for, so that no split still spills when the runs are deleted
+    List<Path> runs = new ArrayList<>();
+    Exception failure = null;
+    for (Future<List<Path>> future : mapped) {
+      try {
+        runs.addAll(join(future));
+      } catch (IOException | RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+      if (failure instanceof IOException io) {
+        throw io;
+      }
+      throw (RuntimeException) failure;
+    }
+    ExternalShuffler.merge(runs, output);
+  }
+
+  /**
+   * Cuts a file into splits of about the given size, moving every boundary forward to the start of
+   * the next line.
+   *
+   * @param file The file.
+   * @param splitSize Approximate size of a split in bytes, at most {@link Integer#MAX_VALUE}.
+   * @return The splits, covering the whole file.
+   * @throws IOException If the file cannot be read.
+   */
+  public static List<FileSplit> split(Path file, long splitSize) throws IOException {
+    if (splitSize <= 0 || splitSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid split size: " + splitSize);
+    }
+    List<FileSplit> splits = new ArrayList<>();
+    ByteBuffer window = ByteBuffer.allocate(8 * 1024);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = 0;
+      while (start < size) {
+        // the split ends after the line break at or following its nominal end
+        long end = Math.min(size, start + splitSize) - 1;
+        boolean lineBreak = false;
+        while (!lineBreak && end < size) {
+          window.clear();
+          channel.read(window, end);
+          window.flip();
+          while (!lineBreak && window.hasRemaining()) {
+            lineBreak = window.get() == '\n';
+            end++;
+          }
+        }
+        splits.add(new FileSplit(file, start, end));
+        start = end;
+      }
+    }
+    return splits;
+  }
+
+  /**
+   * Counts the words of a split into the shuffler. Words are tokenized like {@link
+   * Mapper#map(String)} does, directly on the bytes: whitespace separates words and only ASCII
+   * letters are kept, lowercased.
+   *
+   * @param split The split.
+   * @param shuffler The shuffler receiving the words.
+   * @throws IOException If the split cannot be read or the shuffle cannot spill.
+   */
+  public static void map(FileSplit split, ExternalShuffler shuffler) throws IOException {
+    try (FileChannel channel = FileChannel.open(split.file(), StandardOpenOption.READ)) {
+      MappedByteBuffer bytes =
+          channel.map(FileChannel.MapMode.READ_ONLY, split.start(), split.end() - split.start());
+      byte[] word = new byte[64];
+      int length = 0;
+      while (true) {
+        byte b = bytes.hasRemaining() ? bytes.get() : (byte) ' ';
+        if (b == ' ' || (b >= '\t' && b <= '\r')) {
+          if (length > 0) {
+            shuffler.add(new String(word, 0, length, StandardCharsets.US_ASCII), 1);
+            length = 0;
+          }
+          if (!bytes.hasRemaining()) {
+            return;
+          }
+          continue;
+        }
+        if (b >= 'A' && b <= 'Z') {
+          b += 'a' - 'A';
+        }
+        if (b >= 'a' && b <= 'z') {
+          if (length == word.length) {
+            word = Arrays.copyOf(word, length * 2);
+          }
+          word[length++] = b;
+        }
+      }
+    }
+  }
+
+  private static List<Path> join(Future<List<Path>> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while mapping", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      if (e.getCause() instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
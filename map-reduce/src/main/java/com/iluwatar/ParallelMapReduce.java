@@ -0,0 +1,318 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The ParallelMapReduce class runs the same word count as {@link MapReduce} on a {@link
+ * ForkJoinPool}:
+ *
+ * <ul>
+ *   <li>Map: the inputs are split recursively into chunks of similar character count, a large input
+ *       at whitespace within itself. Every chunk is mapped by a single task, which combines the
+ *       counts of its words right away (map-side combiner) and keeps them in hash partitions.
+ *   <li>Shuffle: partition {@code p} of every chunk holds the words that hash to {@code p}, so a
+ *       word is counted in the same partition by every chunk.
+ *   <li>Reduce: the partitions are reduced in parallel, each by summing the counts of its words
+ *       over all chunks.
+ * </ul>
+ *
+ * <p>Counts are kept in mutable {@code int[1]} cells, so neither the map nor the reduce phase boxes
+ * a count per word occurrence.
+ */
+public class ParallelMapReduce {
+
+  /** Chunks of fewer characters are not split any further. */
+  static final int MIN_CHUNK_CHARS = 64 * 1024;
+
+  private ParallelMapReduce() {
+    throw new UnsupportedOperationException(
+        "ParallelMapReduce is a utility class and cannot be instantiated.");
+  }
+
+  /**
+   * Executes the MapReduce process on the common pool.
+   *
+   * @param inputs List of input strings to be processed.
+   * @return A list of word counts sorted in descending order.
+   */
+  public static List<Map.Entry<String, Integer>> mapReduce(List<String> inputs) {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    return mapReduce(inputs, pool, pool.getParallelism());
+  }
+
+  /**
+   * Executes the MapReduce process on the given pool.
+   *
+   * @param inputs List of input strings to be processed.
+   * @param pool The pool running the map and reduce tasks.
+   * @param partitions Number of hash partitions reduced in parallel.
+   * @return A list of word counts sorted in descending order, ties sorted by word.
+   */
+  public static List<Map.Entry<String, Integer>> mapReduce(
+      List<String> inputs, ForkJoinPool pool, int partitions) {
+    if (partitions <= 0) {
+      throw new IllegalArgumentException("Number of partitions must be positive: " + partitions);
+    }
+    long[] offsets = new long[inputs.size() + 1];
+    for (int i = 0; i < inputs.size(); i++) {
+      offsets[i + 1] = offsets[i] + inputs.get(i).length();
+    }
+    List<Map<String, int[]>[]> chunks =
+        pool.invoke(new MapTask(inputs, offsets, 0, inputs.size(), partitions));
+
+    List<Map.Entry<String, Integer>> result = new ArrayList<>();
+    pool.invoke(new ReduceTask(chunks, 0, partitions, result));
+    result.sort(
+        Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+    return result;
+  }
+
+  /**
+   * Counts the words of the inputs into hash partitions, with the same tokenization as {@link
+   * Mapper#map(String)} but without regular expressions or intermediate strings per token.
+   *
+   * @param inputs The input strings.
+   * @param from Index of the first input.
+   * @param to Index after the last input.
+   * @param partitions Number of hash partitions.
+   * @return The partitions, mapping every word to its count.
+   */
+  static Map<String, int[]>[] map(List<String> inputs, int from, int to, int partitions) {
+    Map<String, int[]>[] counts = newPartitions(partitions);
+    for (int i = from; i < to; i++) {
+      String input = inputs.get(i);
+      map(input, 0, input.length(), counts);
+    }
+    return counts;
+  }
+
+  /**
+   * Counts the words of a range of an input into hash partitions. The range must start and end at
+   * whitespace or at the ends of the input, so that no word is cut in two.
+   *
+   * @param input The input string.
+   * @param begin Index of the first character.
+   * @param end Index after the last character.
+   * @param counts The partitions the counts are added to.
+   */
+  static void map(String input, int begin, int end, Map<String, int[]>[] counts) {
+    StringBuilder word = new StringBuilder();
+    for (int c = begin; c <= end; c++) {
+      char ch = c < end ? input.charAt(c) : ' ';
+      if (isWhitespace(ch)) {
+        if (!word.isEmpty()) {
+          String key = word.toString();
+          counts[partition(key, counts.length)].computeIfAbsent(key, k -> new int[1])[0]++;
+          word.setLength(0);
+        }
+        continue;
+      }
+      char lower = Character.toLowerCase(ch);
+      if (lower >= 'a' && lower <= 'z') {
+        word.append(lower);
+      }
+    }
+  }
+
+  private static Map<String, int[]>[] newPartitions(int partitions) {
+    @SuppressWarnings("unchecked")
+    Map<String, int[]>[] counts = new Map[partitions];
+    for (int p = 0; p < partitions; p++) {
+      counts[p] = new HashMap<>();
+    }
+    return counts;
+  }
+
+  static int partition(String word, int partitions) {
+    int hash = word.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), partitions);
+  }
+
+  /* The characters matched by the \s regular expression Mapper splits on. */
+  private static boolean isWhitespace(char ch) {
+    return ch == ' ' || (ch >= '\t' && ch <= '\r');
+  }
+
+  /**
+   * Splits the inputs into chunks of similar character count and maps every chunk. A single input
+   * longer than {@link #MIN_CHUNK_CHARS} is split further by an {@link InputTask}.
+   */
+  private static class MapTask extends RecursiveTask<List<Map<String, int[]>[]>> {
+
+    private final List<String> inputs;
+    private final long[] offsets;
+    private final int from;
+    private final int to;
+    private final int partitions;
+
+    MapTask(List<String> inputs, long[] offsets, int from, int to, int partitions) {
+      this.inputs = inputs;
+      this.offsets = offsets;
+      this.from = from;
+      this.to = to;
+      this.partitions = partitions;
+    }
+
+    @Override
+    protected List<Map<String, int[]>[]> compute() {
+      if (to - from == 1 && offsets[to] - offsets[from] > MIN_CHUNK_CHARS) {
+        // a single oversized input is split within itself
+        String input = inputs.get(from);
+        return new InputTask(input, 0, input.length(), partitions).compute();
+      }
+      if (to - from <= 1 || offsets[to] - offsets[from] <= MIN_CHUNK_CHARS) {
+        List<Map<String, int[]>[]> chunks = new ArrayList<>();
+        chunks.add(map(inputs, from, to, partitions));
+        return chunks;
+      }
+      // split where half of the characters are on either side
+      long middle = (offsets[from] + offsets[to]) / 2;
+      int split = from + 1;
+      int low = from + 1;
+      int high = to - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (offsets[mid] <= middle) {
+          split = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      MapTask left = new MapTask(inputs, offsets, from, split, partitions);
+      MapTask right = new MapTask(inputs, offsets, split, to, partitions);
+      left.fork();
+      List<Map<String, int[]>[]> chunks = right.compute();
+      chunks.addAll(left.join());
+      return chunks;
+    }
+  }
+
+  /** Splits an input at whitespace into chunks of at most about {@link #MIN_CHUNK_CHARS}. */
+  private static class InputTask extends RecursiveTask<List<Map<String, int[]>[]>> {
+
+    private final String input;
+    private final int begin;
+    private final int end;
+    private final int partitions;
+
+    InputTask(String input, int begin, int end, int partitions) {
+      this.input = input;
+      this.begin = begin;
+      this.end = end;
+      this.partitions = partitions;
+    }
+
+    @Override
+    protected List<Map<String, int[]>[]> compute() {
+      int split = end - begin <= MIN_CHUNK_CHARS ? -1 : whitespaceNear((begin + end) >>> 1);
+      if (split < 0) {
+        Map<String, int[]>[] counts = newPartitions(partitions);
+        map(input, begin, end, counts);
+        List<Map<String, int[]>[]> chunks = new ArrayList<>();
+        chunks.add(counts);
+        return chunks;
+      }
+      InputTask left = new InputTask(input, begin, split, partitions);
+      InputTask right = new InputTask(input, split, end, partitions);
+      left.fork();
+      List<Map<String, int[]>[]> chunks = right.compute();
+      chunks.addAll(left.join());
+      return chunks;
+    }
+
+    /* The whitespace closest after, or else before, the index, -1 if the range has none. */
+    private int whitespaceNear(int index) {
+      for (int c = index; c < end; c++) {
+        if (isWhitespace(input.charAt(c))) {
+          return c;
+        }
+      }
+      for (int c = index - 1; c > begin; c--) {
+        if (isWhitespace(input.charAt(c))) {
+          return c;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /** Reduces a range of partitions, splitting it until every task reduces a single partition. */
+  private static class ReduceTask extends RecursiveAction {
+
+    private final List<Map<String, int[]>[]> chunks;
+    private final int from;
+    private final int to;
+    private final List<Map.Entry<String, Integer>> result;
+
+    ReduceTask(
+        List<Map<String, int[]>[]> chunks,
+        int from,
+        int to,
+        List<Map.Entry<String, Integer>> result) {
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+      this.result = result;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new ReduceTask(chunks, from, middle, result),
+            new ReduceTask(chunks, middle, to, result));
+        return;
+      }
+      Map<String, int[]> reduced = new HashMap<>();
+      for (Map<String, int[]>[] chunk : chunks) {
+        for (Map.Entry<String, int[]> entry : chunk[from].entrySet()) {
+          int[] count = reduced.putIfAbsent(entry.getKey(), entry.getValue());
+          if (count != null) {
+            count[0] += entry.getValue()[0];
+          }
+        }
+      }
+      List<Map.Entry<String, Integer>> entries = new ArrayList<>(reduced.size());
+      for (Map.Entry<String, int[]> entry : reduced.entrySet()) {
+        entries.add(Map.entry(entry.getKey(), entry.getValue()[0]));
+      }
+      synchronized (result) {
+        result.addAll(entries);
+      }
+    }
+  }
+}
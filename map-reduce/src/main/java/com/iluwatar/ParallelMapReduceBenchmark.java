@@ -0,0 +1,124 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+/**
+ * Compares {@link MapReduce} with {@link ParallelMapReduce} on a generated text corpus, running the
+ * parallel engine on pools of increasing parallelism to show how it scales with the number of
+ * cores.
+ */
+public class ParallelMapReduceBenchmark {
+  private static final Logger logger = Logger.getLogger(ParallelMapReduceBenchmark.class.getName());
+
+  private static final int WARMUP_RUNS = 2;
+  private static final int MEASURED_RUNS = 3;
+
+  private ParallelMapReduceBenchmark() {
+    throw new UnsupportedOperationException(
+        "ParallelMapReduceBenchmark is a utility class and cannot be instantiated.");
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args Optionally the number of corpus lines, one million by default.
+   */
+  public static void main(String[] args) {
+    int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    List<String> corpus = corpus(lines, 50_000, 12, 42);
+    long chars = corpus.stream().mapToLong(String::length).sum();
+    logger.info("Corpus of " + lines + " lines, " + chars / (1024 * 1024) + " MiB");
+
+    double sequential = measure(() -> MapReduce.mapReduce(corpus));
+    logger.info(String.format("sequential: %.0f ms", sequential));
+    for (int parallelism = 1;
+        parallelism <= Math.max(16, Runtime.getRuntime().availableProcessors());
+        parallelism *= 2) {
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      int partitions = parallelism * 4;
+      try {
+        double parallel = measure(() -> ParallelMapReduce.mapReduce(corpus, pool, partitions));
+        logger.info(
+            String.format(
+                "parallelism %d: %.0f ms, %.1fx faster than sequential",
+                parallelism, parallel, sequential / parallel));
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Generates lines of words drawn from a vocabulary with a skewed, Zipf like distribution.
+   *
+   * @param lines Number of lines.
+   * @param vocabulary Number of distinct words.
+   * @param wordsPerLine Number of words per line.
+   * @param seed Seed of the random generator.
+   * @return The lines.
+   */
+  static List<String> corpus(int lines, int vocabulary, int wordsPerLine, long seed) {
+    Random random = new Random(seed);
+    String[] words = new String[vocabulary];
+    for (int i = 0; i < vocabulary; i++) {
+      StringBuilder word = new StringBuilder();
+      for (int n = i; word.isEmpty() || n > 0; n /= 26) {
+        word.append((char) ('a' + n % 26));
+      }
+      words[i] = word.toString();
+    }
+    List<String> corpus = new ArrayList<>(lines);
+    StringBuilder line = new StringBuilder();
+    for (int l = 0; l < lines; l++) {
+      line.setLength(0);
+      for (int w = 0; w < wordsPerLine; w++) {
+        // squaring a uniform number skews the draws towards the frequent words at the start
+        double skewed = random.nextDouble() * random.nextDouble();
+        String word = words[(int) (skewed * vocabulary)];
+        line.append(w % 5 == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        line.append(w == wordsPerLine - 1 ? "." : " ");
+      }
+      corpus.add(line.toString());
+    }
+    return corpus;
+  }
+
+  private static double measure(Runnable run) {
+    for (int i = 0; i < WARMUP_RUNS; i++) {
+      run.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_RUNS; i++) {
+      run.run();
+    }
+    return (System.nanoTime() - start) / 1e6 / MEASURED_RUNS;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExternalShufflerTest {
+
+  @TempDir Path workDir;
+
+  @Test
+  void testSpillAndMerge() throws IOException {
+    ExternalShuffler shuffler = new ExternalShuffler(workDir, 2);
+    shuffler.add("hello", 1);
+    shuffler.add("world", 2);
+    shuffler.add("hello", 1); // combined in the buffer
+    shuffler.add("java", 1); // spills hello and world
+    shuffler.add("hello", 3);
+    List<Path> runs = shuffler.finish();
+    assertEquals(2, runs.size());
+
+    Map<String, Integer> totals = new LinkedHashMap<>();
+    ExternalShuffler.merge(runs, totals::put);
+
+    assertEquals(List.of("hello", "java", "world"), new ArrayList<>(totals.keySet()));
+    assertEquals(5, totals.get("hello")); // summed over both runs
+    assertEquals(1, totals.get("java"));
+    assertEquals(2, totals.get("world"));
+    for (Path run : runs) {
+      assertFalse(Files.exists(run));
+    }
+  }
+
+  @Test
+  void testMergeInSeveralPasses() throws IOException {
+    ExternalShuffler shuffler = new ExternalShuffler(workDir, 1);
+    for (int i = 0; i < 20; i++) {
+      shuffler.add(i % 2 == 0 ? "even" : "odd", i);
+    }
+    List<Path> runs = shuffler.finish();
+    assertEquals(20, runs.size());
+
+    Map<String, Integer> totals = new LinkedHashMap<>();
+    ExternalShuffler.merge(runs, 3, totals::put);
+
+    assertEquals(List.of("even", "odd"), new ArrayList<>(totals.keySet()));
+    assertEquals(90, totals.get("even")); // 0 + 2 + ... + 18
+    assertEquals(100, totals.get("odd")); // 1 + 3 + ... + 19
+    try (var files = Files.list(workDir)) {
+      assertEquals(0, files.count()); // intermediate runs are deleted as well
+    }
+  }
+
+  @Test
+  void testWordsLongerThanModifiedUtf8Limit() throws IOException {
+    String word = "ab".repeat(40_000);
+    ExternalShuffler shuffler = new ExternalShuffler(workDir, 1);
+    shuffler.add(word, 2);
+    shuffler.add("short", 1);
+
+    Map<String, Integer> totals = new HashMap<>();
+    ExternalShuffler.merge(shuffler.finish(), totals::put);
+
+    assertEquals(2, totals.get(word));
+    assertEquals(1, totals.get("short"));
+  }
+
+  @Test
+  void testDiscardDeletesSpilledRuns() throws IOException {
+    ExternalShuffler shuffler = new ExternalShuffler(workDir, 1);
+    shuffler.add("hello", 1);
+    shuffler.add("world", 1); // spills hello
+    shuffler.discard();
+
+    try (var files = Files.list(workDir)) {
+      assertEquals(0, files.count());
+    }
+    assertTrue(shuffler.finish().isEmpty());
+  }
+}
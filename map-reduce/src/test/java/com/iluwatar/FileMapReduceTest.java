@@ -0,0 +1,94 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileMapReduceTest {
+
+  @TempDir Path workDir;
+
+  @Test
+  void testSplitsAreAlignedOnLines() throws IOException {
+    Path file = workDir.resolve("input.txt");
+    Files.writeString(file, "aaaa bbbb\ncc\n\ndddddddd\nlast line without break");
+
+    List<FileMapReduce.FileSplit> splits = FileMapReduce.split(file, 4);
+
+    assertEquals(0, splits.get(0).start());
+    assertEquals(Files.size(file), splits.get(splits.size() - 1).end());
+    for (int i = 1; i < splits.size(); i++) {
+      assertEquals(splits.get(i - 1).end(), splits.get(i).start());
+      byte[] bytes = Files.readAllBytes(file);
+      assertEquals('\n', bytes[(int) splits.get(i).start() - 1]);
+    }
+  }
+
+  @Test
+  void testSameCountsAsInMemoryMapReduce() throws IOException {
+    List<String> lines = ParallelMapReduceBenchmark.corpus(5_000, 500, 12, 3);
+    lines.set(0, "  Don't\tstop\r me NOW 42 times ");
+    Path file = workDir.resolve("corpus.txt");
+    Files.write(file, lines);
+
+    Map<String, Integer> counts = new HashMap<>();
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      // small splits and buffers force many spilled runs
+      FileMapReduce.mapReduce(file, workDir, 4 * 1024, 50, pool, counts::put);
+    } finally {
+      pool.shutdown();
+    }
+
+    Map<String, Integer> expected = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : MapReduce.mapReduce(lines)) {
+      expected.put(entry.getKey(), entry.getValue());
+    }
+    assertEquals(expected, counts);
+    try (var files = Files.list(workDir)) {
+      assertEquals(1, files.count()); // only the corpus, the runs are deleted
+    }
+  }
+
+  @Test
+  void testMapReduceSortsByCount() throws IOException {
+    Path file = workDir.resolve("input.txt");
+    Files.write(
+        file, List.of("Hello world hello", "MapReduce is fun", "Hello from the other side"));
+
+    List<Map.Entry<String, Integer>> result = FileMapReduce.mapReduce(file, workDir, 2);
+
+    assertEquals(Map.entry("hello", 3), result.get(0));
+    assertEquals(Map.entry("from", 1), result.get(1));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class ParallelMapReduceTest {
+
+  @Test
+  void testParallelMapReduce() {
+    List<String> inputs =
+        Arrays.asList("Hello world hello", "MapReduce is fun", "Hello from the other side");
+
+    List<Map.Entry<String, Integer>> result = ParallelMapReduce.mapReduce(inputs);
+
+    assertEquals("hello", result.get(0).getKey()); // hello = 3
+    assertEquals(3, result.get(0).getValue());
+    assertEquals(Map.entry("from", 1), result.get(1)); // ties sorted by word
+  }
+
+  @Test
+  void testSameCountsAsSequentialMapReduce() {
+    List<String> inputs = ParallelMapReduceBenchmark.corpus(20_000, 2_000, 12, 7);
+    inputs.set(0, "  Don't\tstop\r\nme NOW 42 times ");
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<Map.Entry<String, Integer>> parallel = ParallelMapReduce.mapReduce(inputs, pool, 7);
+      List<Map.Entry<String, Integer>> sequential = MapReduce.mapReduce(inputs);
+
+      assertEquals(toMap(sequential), toMap(parallel));
+      assertEquals(sequential.get(0).getValue(), parallel.get(0).getValue());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testSingleLargeInputIsSplit() {
+    String input =
+        String.join(" \n", ParallelMapReduceBenchmark.corpus(20_000, 2_000, 12, 3))
+            + " Don't\tstop";
+    assertTrue(input.length() > 4 * ParallelMapReduce.MIN_CHUNK_CHARS);
+    List<String> inputs = List.of(input);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<Map.Entry<String, Integer>> parallel = ParallelMapReduce.mapReduce(inputs, pool, 7);
+      List<Map.Entry<String, Integer>> sequential = MapReduce.mapReduce(inputs);
+
+      assertEquals(toMap(sequential), toMap(parallel));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void testInvalidPartitions() {
+    List<String> inputs = List.of("hello");
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    assertThrows(
+        IllegalArgumentException.class, () -> ParallelMapReduce.mapReduce(inputs, pool, 0));
+  }
+
+  private static Map<String, Integer> toMap(List<Map.Entry<String, Integer>> entries) {
+    Map<String, Integer> map = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : entries) {
+      map.put(entry.getKey(), entry.getValue());
+    }
+    return map;
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.object.pool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded object pool for many concurrent threads, built like the connection bag of HikariCP.
+ *
+ * <ul>
+ *   <li>Every thread remembers the objects it returned last and tries to borrow those again first,
+ *       which usually succeeds without touching any shared state but the object's own.
+ *   <li>Otherwise it scans the list of all pooled objects and claims a free one with a
+ *       compare-and-set. The list only changes when objects are created or evicted.
+ *   <li>If none is free and the pool is not full, the borrower creates a new object, outside of any
+ *       lock.
+ *   <li>Otherwise it waits, for as long as it allows, for a returning thread to hand an object over
+ *       directly.
+ * </ul>
+ *
+ * <p>Objects are validated before they are handed out, and objects that have been idle for too long
+ * can be evicted. Unlike {@link ObjectPool}, no {@code hashCode} or {@code equals} of the pooled
+ * objects is ever called, since a borrower returns the {@link PooledObject} it got.
+ *
+ * <p>The state of an object is a stamp counting its borrows and returns: odd while it is in use,
+ * even while it is free, and {@value #REMOVED} once it is removed. A borrower's {@link
+ * PooledObject} remembers the stamp of its borrow, so returning it a second time is ignored even
+ * after the object has been borrowed again.
+ *
+ * @param <T> Type T of Object in the Pool
+ */
+public abstract class ConcurrentObjectPool<T> {
+
+  private static final int MAX_THREAD_LOCAL_OBJECTS = 16;
+  private static final long REMOVED = -1;
+
+  private final int maxSize;
+  private final long idleTimeoutNanos;
+  private final LongSupplier nanoClock;
+  private final CopyOnWriteArrayList<Entry<T>> all = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<List<Entry<T>>> recentlyReturned =
+      ThreadLocal.withInitial(ArrayList::new);
+  private final SynchronousQueue<Entry<T>> handoff = new SynchronousQueue<>(true);
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * Constructor.
+   *
+   * @param maxSize largest number of objects the pool holds
+   * @param idleTimeout time after which an unused object may be evicted
+   */
+  protected ConcurrentObjectPool(int maxSize, Duration idleTimeout) {
+    this(maxSize, idleTimeout, System::nanoTime);
+  }
+
+  ConcurrentObjectPool(int maxSize, Duration idleTimeout, LongSupplier nanoClock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.maxSize = maxSize;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  protected abstract T create();
+
+  /**
+   * Checks if a pooled object can still be used, before it is handed out.
+   *
+   * @param instance pooled object
+   * @return false to destroy the object and look for another one
+   */
+  protected boolean validate(T instance) {
+    return true;
+  }
+
+  /**
+   * Releases a pooled object that failed validation or has been evicted.
+   *
+   * @param instance pooled object
+   */
+  protected void destroy(T instance) {}
+
+  /**
+   * Checkout object from pool, waiting for as long as it takes if the pool is exhausted.
+   *
+   * @return the borrowed object, to be closed when done with it
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public PooledObject<T> checkOut() throws InterruptedException {
+    while (true) {
+      try {
+        return checkOut(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        // waited for the best part of three centuries, keep waiting
+      }
+    }
+  }
+
+  /**
+   * Checkout object from pool, waiting at most the given time if the pool is exhausted.
+   *
+   * @param timeout longest time to wait
+   * @param unit time unit of the timeout
+   * @return the borrowed object, to be closed when done with it
+   * @throws InterruptedException if interrupted while waiting
+   * @throws TimeoutException if no object became available in time
+   */
+  public PooledObject<T> checkOut(long timeout, TimeUnit unit)
+      throws InterruptedException, TimeoutException {
+    var local = recentlyReturned.get();
+    for (int i = local.size() - 1; i >= 0; i--) {
+      var pooled = claim(local.remove(i));
+      if (pooled != null) {
+        return pooled;
+      }
+    }
+
+    long start = nanoClock.getAsLong();
+    long remaining = unit.toNanos(timeout);
+    while (true) {
+      var pooled = claimAny();
+      if (pooled == null) {
+        pooled = tryCreate();
+      }
+      if (pooled != null) {
+        return pooled;
+      }
+      // returning threads hand their objects over from now on, but one may have been returned
+      // just before, so look once more before waiting
+      waiters.incrementAndGet();
+      try {
+        pooled = claimAny();
+        if (pooled != null) {
+          return pooled;
+        }
+        var entry = handoff.poll(remaining, TimeUnit.NANOSECONDS);
+        pooled = entry == null ? null : claim(entry);
+        if (pooled != null) {
+          return pooled;
+        }
+      } finally {
+        waiters.decrementAndGet();
+      }
+      remaining = unit.toNanos(timeout) - (nanoClock.getAsLong() - start);
+      if (remaining <= 0) {
+        throw new TimeoutException("No object available within " + timeout + " " + unit);
+      }
+    }
+  }
+
+  /**
+   * Returns a borrowed object to the pool. Returning it twice has no effect, even once the object
+   * has been borrowed again.
+   *
+   * @param pooled borrowed object
+   */
+  public void checkIn(PooledObject<T> pooled) {
+    var entry = pooled.entry;
+    long free = pooled.stamp + 1;
+    if (!entry.state.compareAndSet(pooled.stamp, free)) {
+      return;
+    }
+    entry.lastReturned = nanoClock.getAsLong();
+    // hand the object straight to a waiting thread, unless someone else claims it first
+    while (waiters.get() > 0) {
+      if (entry.state.get() != free || handoff.offer(entry)) {
+        return;
+      }
+      Thread.yield();
+    }
+    var local = recentlyReturned.get();
+    if (local.size() < MAX_THREAD_LOCAL_OBJECTS) {
+      local.add(entry);
+    }
+  }
+
+  /**
+   * Destroys the objects that have not been used for longer than the idle timeout. Meant to be
+   * called periodically, for instance from a {@link java.util.concurrent.ScheduledExecutorService}.
+   *
+   * @return number of evicted objects
+   */
+  public int evictIdle() {
+    long now = nanoClock.getAsLong();
+    int evicted = 0;
+    for (var entry : all) {
+      long stamp = entry.state.get();
+      if (isFree(stamp)
+          && now - entry.lastReturned >= idleTimeoutNanos
+          && entry.state.compareAndSet(stamp, REMOVED)) {
+        remove(entry);
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  private PooledObject<T> claimAny() {
+    for (var entry : all) {
+      var pooled = claim(entry);
+      if (pooled != null) {
+        return pooled;
+      }
+    }
+    return null;
+  }
+
+  /* Borrows the object if it is free and valid, returning the handle of the borrow. */
+  private PooledObject<T> claim(Entry<T> entry) {
+    long stamp = entry.state.get();
+    if (!isFree(stamp) || !entry.state.compareAndSet(stamp, stamp + 1)) {
+      return null;
+    }
+    if (validate(entry.object)) {
+      return new PooledObject<>(this, entry, stamp + 1);
+    }
+    entry.state.set(REMOVED);
+    remove(entry);
+    return null;
+  }
+
+  private static boolean isFree(long stamp) {
+    return stamp >= 0 && (stamp & 1) == 0;
+  }
+
+  private PooledObject<T> tryCreate() {
+    int current;
+    do {
+      current = size.get();
+      if (current >= maxSize) {
+        return null;
+      }
+    } while (!size.compareAndSet(current, current + 1));
+
+    try {
+      // created in use by its first borrow
+      var entry = new Entry<>(create(), 1);
+      all.add(entry);
+      return new PooledObject<>(this, entry, 1);
+    } catch (RuntimeException e) {
+      size.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void remove(Entry<T> entry) {
+    all.remove(entry);
+    size.decrementAndGet();
+    destroy(entry.object);
+  }
+
+  @Override
+  public String toString() {
+    int inUse = 0;
+    int available = 0;
+    for (var entry : all) {
+      long stamp = entry.state.get();
+      if (isFree(stamp)) {
+        available++;
+      } else if (stamp != REMOVED) {
+        inUse++;
+      }
+    }
+    return String.format("Pool available=%d inUse=%d", available, inUse);
+  }
+
+  /**
+   * An object held by the pool, with its stamp and the time it was last returned.
+   *
+   * @param <T> Type T of Object in the Pool
+   */
+  static final class Entry<T> {
+    final T object;
+    final AtomicLong state;
+    volatile long lastReturned;
+
+    Entry(T object, long stamp) {
+      this.object = object;
+      this.state = new AtomicLong(stamp);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.object.pool;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the throughput of {@link OliphauntPool} and {@link ConcurrentOliphauntPool} when many
+ * threads check out an oliphaunt and check it in again right away. Both pools are filled before
+ * measuring, so that only the pooling itself is measured, not the creation of oliphaunts. Filling
+ * the synchronized pool takes a second per oliphaunt, since it creates them while holding its lock.
+ */
+@Slf4j
+public final class ObjectPoolBenchmark {
+
+  private static final int POOL_SIZE = 32;
+  private static final long WARM_UP_MILLIS = 500;
+
+  /** A check out followed by a check in. */
+  private interface Borrow {
+    int run() throws Exception;
+  }
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param pool name of the pool
+   * @param threads number of borrowing threads
+   * @param borrowsPerSecond check outs per second, across all threads
+   */
+  public record Result(String pool, int threads, double borrowsPerSecond) {}
+
+  private ObjectPoolBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    LOGGER.info("Filling both pools with {} oliphaunts", POOL_SIZE);
+    var synchronizedPool = new OliphauntPool();
+    var concurrentPool = new ConcurrentOliphauntPool(POOL_SIZE, Duration.ofMinutes(10));
+    fill(synchronizedPool, concurrentPool);
+
+    for (int threads : List.of(1, 8, 32)) {
+      for (Result result : run(synchronizedPool, concurrentPool, threads, 1000)) {
+        LOGGER.info(
+            "{} threads: {}, borrows/sec: {}",
+            result.pool(),
+            result.threads(),
+            String.format("%.0f", result.borrowsPerSecond()));
+      }
+    }
+  }
+
+  /**
+   * Fills both pools to the size of the benchmark.
+   *
+   * @param synchronizedPool pool with synchronized methods
+   * @param concurrentPool concurrent pool
+   * @throws Exception if filling fails
+   */
+  public static void fill(OliphauntPool synchronizedPool, ConcurrentOliphauntPool concurrentPool)
+      throws Exception {
+    var oliphaunts = new ArrayList<Oliphaunt>();
+    for (int i = 0; i < POOL_SIZE; i++) {
+      oliphaunts.add(synchronizedPool.checkOut());
+    }
+    oliphaunts.forEach(synchronizedPool::checkIn);
+
+    // the concurrent pool creates them in parallel, each borrower holds on until all are created
+    var executor = Executors.newFixedThreadPool(POOL_SIZE);
+    var created = new CountDownLatch(POOL_SIZE);
+    try {
+      var borrowers = new ArrayList<Future<?>>();
+      for (int i = 0; i < POOL_SIZE; i++) {
+        borrowers.add(
+            executor.submit(
+                () -> {
+                  try (var pooled = concurrentPool.checkOut()) {
+                    created.countDown();
+                    created.await();
+                  }
+                  return null;
+                }));
+      }
+      for (var borrower : borrowers) {
+        borrower.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Runs both pools with the given number of threads.
+   *
+   * @param synchronizedPool filled pool with synchronized methods
+   * @param concurrentPool filled concurrent pool
+   * @param threads number of borrowing threads, at most the pool size
+   * @param durationMillis duration of every run
+   * @return the result of both pools
+   * @throws Exception if any run fails
+   */
+  public static List<Result> run(
+      OliphauntPool synchronizedPool,
+      ConcurrentOliphauntPool concurrentPool,
+      int threads,
+      long durationMillis)
+      throws Exception {
+    Borrow fromSynchronized =
+        () -> {
+          var oliphaunt = synchronizedPool.checkOut();
+          int id = oliphaunt.getId();
+          synchronizedPool.checkIn(oliphaunt);
+          return id;
+        };
+    Borrow fromConcurrent =
+        () -> {
+          try (var pooled = concurrentPool.checkOut()) {
+            return pooled.getObject().getId();
+          }
+        };
+    measure(fromSynchronized, threads, WARM_UP_MILLIS);
+    measure(fromConcurrent, threads, WARM_UP_MILLIS);
+    return List.of(
+        new Result("ObjectPool", threads, measure(fromSynchronized, threads, durationMillis)),
+        new Result(
+            "ConcurrentObjectPool", threads, measure(fromConcurrent, threads, durationMillis)));
+  }
+
+  private static double measure(Borrow borrow, int threads, long durationMillis) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder borrows = new LongAdder();
+    LongAdder ids = new LongAdder();
+    CountDownLatch started = new CountDownLatch(threads);
+    try {
+      List<Future<?>> borrowers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        borrowers.add(
+            executor.submit(
+                (Callable<Void>)
+                    () -> {
+                      started.countDown();
+                      long count = 0;
+                      long idSum = 0;
+                      while (running.get()) {
+                        idSum += borrow.run();
+                        count++;
+                      }
+                      borrows.add(count);
+                      // keeps the borrowed oliphaunts from being optimized away
+                      ids.add(idSum);
+                      return null;
+                    }));
+      }
+      started.await();
+      long start = System.nanoTime();
+      Thread.sleep(durationMillis);
+      running.set(false);
+      for (Future<?> borrower : borrowers) {
+        borrower.get();
+      }
+      return borrows.sum() / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
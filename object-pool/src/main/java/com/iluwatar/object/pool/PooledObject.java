@@ -0,0 +1,59 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.object.pool;
+
+/**
+ * Object borrowed from a {@link ConcurrentObjectPool}, a handle of a single borrow. Closing it
+ * returns the object to the pool, after which neither this handle nor the object may be used any
+ * more. Closing it again has no effect, even once another borrower holds the object.
+ *
+ * @param <T> Type T of Object in the Pool
+ */
+public final class PooledObject<T> implements AutoCloseable {
+
+  private final ConcurrentObjectPool<T> pool;
+  final ConcurrentObjectPool.Entry<T> entry;
+  final long stamp;
+
+  PooledObject(ConcurrentObjectPool<T> pool, ConcurrentObjectPool.Entry<T> entry, long stamp) {
+    this.pool = pool;
+    this.entry = entry;
+    this.stamp = stamp;
+  }
+
+  public T getObject() {
+    return entry.object;
+  }
+
+  @Override
+  public void close() {
+    pool.checkIn(this);
+  }
+
+  @Override
+  public String toString() {
+    return "Pooled " + entry.object;
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.object.pool;
+
+import static java.time.Duration.ofMillis;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** ConcurrentObjectPoolTest. */
+class ConcurrentObjectPoolTest {
+
+  /** Cheap pooled object that notices being used by two threads at once. */
+  private static final class Resource {
+    private final int id;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile boolean broken;
+
+    Resource(int id) {
+      this.id = id;
+    }
+  }
+
+  private static final class ResourcePool extends ConcurrentObjectPool<Resource> {
+    private final AtomicInteger created = new AtomicInteger();
+    private final List<Resource> destroyed = new CopyOnWriteArrayList<>();
+
+    ResourcePool(int maxSize, AtomicLong clock) {
+      super(maxSize, Duration.ofSeconds(10), clock::get);
+    }
+
+    ResourcePool(int maxSize) {
+      super(maxSize, Duration.ofSeconds(10));
+    }
+
+    @Override
+    protected Resource create() {
+      return new Resource(created.incrementAndGet());
+    }
+
+    @Override
+    protected boolean validate(Resource instance) {
+      return !instance.broken;
+    }
+
+    @Override
+    protected void destroy(Resource instance) {
+      destroyed.add(instance);
+    }
+  }
+
+  @Test
+  void testReturnedObjectIsBorrowedAgain() throws Exception {
+    var pool = new ResourcePool(4);
+    var first = pool.checkOut();
+    var second = pool.checkOut();
+    assertNotSame(first.getObject(), second.getObject());
+    assertEquals("Pool available=0 inUse=2", pool.toString());
+
+    second.close();
+    assertEquals("Pool available=1 inUse=1", pool.toString());
+    try (var again = pool.checkOut()) {
+      assertSame(second.getObject(), again.getObject());
+    }
+    first.close();
+    // closing twice has no effect
+    first.close();
+    assertEquals("Pool available=2 inUse=0", pool.toString());
+    assertEquals(2, pool.created.get());
+  }
+
+  @Test
+  void testStaleCloseDoesNotReturnAnotherBorrowersObject() throws Exception {
+    var pool = new ResourcePool(1);
+    var first = pool.checkOut();
+    first.close();
+    var second = pool.checkOut();
+    assertSame(first.getObject(), second.getObject());
+
+    // a late second close of the earlier borrow must not take the object from its new borrower
+    first.close();
+    assertEquals("Pool available=0 inUse=1", pool.toString());
+    assertThrows(TimeoutException.class, () -> pool.checkOut(10, TimeUnit.MILLISECONDS));
+    second.close();
+    assertEquals("Pool available=1 inUse=0", pool.toString());
+  }
+
+  @Test
+  void testTimesOutWhenExhausted() throws Exception {
+    var pool = new ResourcePool(1);
+    try (var only = pool.checkOut()) {
+      assertThrows(TimeoutException.class, () -> pool.checkOut(50, TimeUnit.MILLISECONDS));
+    }
+    assertEquals(1, pool.created.get());
+  }
+
+  @Test
+  void testWaitingBorrowerGetsReturnedObject() {
+    assertTimeout(
+        ofMillis(5000),
+        () -> {
+          var pool = new ResourcePool(1);
+          var executor = Executors.newSingleThreadExecutor();
+          try {
+            var borrowed = pool.checkOut();
+            Future<Resource> waiting =
+                executor.submit(
+                    () -> {
+                      try (var pooled = pool.checkOut(5, TimeUnit.SECONDS)) {
+                        return pooled.getObject();
+                      }
+                    });
+            Thread.sleep(50);
+            assertFalse(waiting.isDone());
+            borrowed.close();
+            assertSame(borrowed.getObject(), waiting.get());
+          } finally {
+            executor.shutdownNow();
+          }
+        });
+  }
+
+  @Test
+  void testInvalidObjectIsReplaced() throws Exception {
+    var pool = new ResourcePool(1);
+    var broken = pool.checkOut();
+    broken.getObject().broken = true;
+    broken.close();
+
+    try (var replacement = pool.checkOut()) {
+      assertNotSame(broken.getObject(), replacement.getObject());
+      assertEquals(List.of(broken.getObject()), pool.destroyed);
+    }
+  }
+
+  @Test
+  void testIdleObjectsAreEvicted() throws Exception {
+    var clock = new AtomicLong();
+    var pool = new ResourcePool(4, clock);
+    var first = pool.checkOut();
+    var second = pool.checkOut();
+    first.close();
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    second.close();
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+    assertEquals(1, pool.evictIdle());
+    assertEquals(List.of(first.getObject()), pool.destroyed);
+    assertEquals("Pool available=1 inUse=0", pool.toString());
+
+    // the evicted object is gone from the thread's recently returned objects as well
+    try (var pooled = pool.checkOut()) {
+      assertSame(second.getObject(), pooled.getObject());
+    }
+  }
+
+  @Test
+  void testNeverLendsObjectTwiceOrExceedsMaxSize() {
+    assertTimeout(
+        ofMillis(10000),
+        () -> {
+          var pool = new ResourcePool(4);
+          int threads = 16;
+          var executor = Executors.newFixedThreadPool(threads);
+          var overlaps = new AtomicInteger();
+          try {
+            var borrowers = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+              borrowers.add(
+                  executor.submit(
+                      () -> {
+                        for (int i = 0; i < 2000; i++) {
+                          try (var pooled = pool.checkOut()) {
+                            var resource = pooled.getObject();
+                            if (!resource.busy.compareAndSet(false, true)) {
+                              overlaps.incrementAndGet();
+                            }
+                            Thread.yield();
+                            resource.busy.set(false);
+                          }
+                        }
+                        return null;
+                      }));
+            }
+            for (var borrower : borrowers) {
+              borrower.get();
+            }
+          } finally {
+            executor.shutdown();
+          }
+          assertEquals(0, overlaps.get());
+          assertTrue(pool.created.get() <= 4);
+          assertEquals("Pool available=" + pool.created.get() + " inUse=0", pool.toString());
+        });
+  }
+
+  @Test
+  void testConcurrentOliphauntPool() throws Exception {
+    var pool = new ConcurrentOliphauntPool(2, Duration.ofMinutes(1));
+    try (var oliphaunt = pool.checkOut()) {
+      assertTrue(oliphaunt.getObject().getId() > 0);
+    }
+    assertThrows(
+        IllegalArgumentException.class, () -> new ConcurrentOliphauntPool(0, Duration.ZERO));
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.poison.pill;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the throughput of {@link SimpleMessageQueue} and {@link RingBufferMessageQueue} with 1
+ * to 16 producers and {@value #CONSUMERS} consumers, putting messages one at a time or in batches.
+ * Every producer puts the same message over and over, so that only the queue is measured, and the
+ * consumers stop at the {@link Message#POISON_PILL}: one per consumer for the simple queue, and for
+ * the ring buffer the one it hands out once closed and drained.
+ */
+@Slf4j
+public final class MessageQueueBenchmark {
+
+  private static final int BOUND = 1024;
+  private static final int MESSAGES = 1_000_000;
+  private static final int CONSUMERS = 4;
+  private static final int BATCH_SIZE = 32;
+
+  /** Puts messages into a queue. */
+  private interface Publisher {
+    void publish(MessageQueue queue, List<Message> batch) throws InterruptedException;
+  }
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param queue name of the queue
+   * @param producers number of producing threads
+   * @param batchSize number of messages put at once
+   * @param messagesPerSecond messages handed over per second
+   */
+  public record Result(String queue, int producers, int batchSize, double messagesPerSecond) {}
+
+  private MessageQueueBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    for (Result result : run(4, MESSAGES / 4)) {
+      LOGGER.debug("warm-up {}", result);
+    }
+    for (int producers : List.of(1, 2, 4, 8, 16)) {
+      for (Result result : run(producers, MESSAGES)) {
+        LOGGER.info(
+            "{} producers: {}, batch: {}, messages/sec: {}",
+            result.queue(),
+            result.producers(),
+            result.batchSize(),
+            String.format("%.0f", result.messagesPerSecond()));
+      }
+    }
+  }
+
+  /**
+   * Runs all queues with the given number of producers.
+   *
+   * @param producers number of producing threads
+   * @param messages number of messages to hand over
+   * @return the results of all queues
+   * @throws Exception if any run fails
+   */
+  public static List<Result> run(int producers, int messages) throws Exception {
+    Publisher single =
+        (queue, batch) -> {
+          for (Message msg : batch) {
+            queue.put(msg);
+          }
+        };
+    Publisher batched = MqPublishPoint::putAll;
+    var results = new ArrayList<Result>();
+    for (int batchSize : List.of(1, BATCH_SIZE)) {
+      var publisher = batchSize == 1 ? single : batched;
+      results.add(
+          measure(
+              "SimpleMessageQueue",
+              () -> new SimpleMessageQueue(BOUND),
+              publisher,
+              producers,
+              batchSize,
+              messages));
+      for (WaitStrategy waitStrategy : List.of(WaitStrategy.YIELD, WaitStrategy.PARK)) {
+        results.add(
+            measure(
+                "RingBufferMessageQueue " + waitStrategy,
+                () -> new RingBufferMessageQueue(BOUND, waitStrategy),
+                publisher,
+                producers,
+                batchSize,
+                messages));
+      }
+    }
+    return results;
+  }
+
+  private static Result measure(
+      String name,
+      Supplier<MessageQueue> queueFactory,
+      Publisher publisher,
+      int producers,
+      int batchSize,
+      int messages)
+      throws Exception {
+    var queue = queueFactory.get();
+    var msg = new SimpleMessage();
+    msg.addHeader(Message.Headers.SENDER, name);
+    msg.setBody("benchmark");
+    var batch = Collections.nCopies(batchSize, (Message) msg);
+    var batchesPerProducer = messages / producers / batchSize;
+
+    ExecutorService executor = Executors.newFixedThreadPool(producers + CONSUMERS);
+    var started = new CountDownLatch(producers + CONSUMERS);
+    try {
+      List<Future<Long>> consumers = new ArrayList<>();
+      for (int c = 0; c < CONSUMERS; c++) {
+        consumers.add(
+            executor.submit(
+                () -> {
+                  started.countDown();
+                  long count = 0;
+                  while (queue.take() != Message.POISON_PILL) {
+                    count++;
+                  }
+                  return count;
+                }));
+      }
+      List<Future<?>> publishers = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        publishers.add(
+            executor.submit(
+                (Callable<Void>)
+                    () -> {
+                      started.countDown();
+                      started.await();
+                      for (int i = 0; i < batchesPerProducer; i++) {
+                        publisher.publish(queue, batch);
+                      }
+                      return null;
+                    }));
+      }
+      started.await();
+      long start = System.nanoTime();
+      for (Future<?> p : publishers) {
+        p.get();
+      }
+      if (queue instanceof RingBufferMessageQueue ringBuffer) {
+        ringBuffer.close();
+      } else {
+        for (int c = 0; c < CONSUMERS; c++) {
+          queue.put(Message.POISON_PILL);
+        }
+      }
+      long consumed = 0;
+      for (Future<Long> c : consumers) {
+        consumed += c.get();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      return new Result(name, producers, batchSize, consumed / seconds);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
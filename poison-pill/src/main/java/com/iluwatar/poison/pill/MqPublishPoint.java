@@ -24,8 +24,22 @@
  */
 package com.iluwatar.poison.pill;
 
+import java.util.Collection;
+
 /** Endpoint to publish {@link Message} to queue. */
 public interface MqPublishPoint {
 
   void put(Message msg) throws InterruptedException;
+
+  /**
+   * Publishes several messages in order. Queues that can publish a batch at once override this.
+   *
+   * @param msgs the messages
+   * @throws InterruptedException if interrupted while waiting for space
+   */
+  default void putAll(Collection<? extends Message> msgs) throws InterruptedException {
+    for (var msg : msgs) {
+      put(msg);
+    }
+  }
 }
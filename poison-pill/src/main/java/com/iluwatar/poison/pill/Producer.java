@@ -25,6 +25,8 @@
 package com.iluwatar.poison.pill;
 
 import com.iluwatar.poison.pill.Message.Headers;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import lombok.extern.slf4j.Slf4j;
 
@@ -48,24 +50,56 @@ public class Producer {
 
   /** Send message to queue. */
   public void send(String body) {
-    if (isStopped) {
-      throw new IllegalStateException(
-          String.format(
-              "Producer %s was stopped and fail to deliver requested message [%s].", body, name));
+    checkNotStopped(body);
+    try {
+      queue.put(createMessage(body));
+    } catch (InterruptedException e) {
+      // allow thread to exit
+      LOGGER.error("Exception caught.", e);
     }
-    var msg = new SimpleMessage();
-    msg.addHeader(Headers.DATE, new Date().toString());
-    msg.addHeader(Headers.SENDER, name);
-    msg.setBody(body);
+  }
 
+  /** Send messages to queue in a single batch. */
+  public void sendAll(Collection<String> bodies) {
+    checkNotStopped(bodies);
+    var msgs = new ArrayList<Message>(bodies.size());
+    for (var body : bodies) {
+      msgs.add(createMessage(body));
+    }
     try {
-      queue.put(msg);
+      queue.putAll(msgs);
     } catch (InterruptedException e) {
       // allow thread to exit
       LOGGER.error("Exception caught.", e);
     }
   }
 
+  private void checkNotStopped(String body) {
+    if (isStopped) {
+      throw stopped(body);
+    }
+  }
+
+  private void checkNotStopped(Collection<String> bodies) {
+    if (isStopped) {
+      throw stopped(String.join(", ", bodies));
+    }
+  }
+
+  private IllegalStateException stopped(String body) {
+    return new IllegalStateException(
+        String.format(
+            "Producer %s was stopped and fail to deliver requested message [%s].", body, name));
+  }
+
+  private Message createMessage(String body) {
+    var msg = new SimpleMessage();
+    msg.addHeader(Headers.DATE, new Date().toString());
+    msg.addHeader(Headers.SENDER, name);
+    msg.setBody(body);
+    return msg;
+  }
+
   /** Stop system by sending poison pill. */
   public void stop() {
     isStopped = true;
@@ -0,0 +1,246 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.poison.pill;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded {@link MessageQueue} for many producers and consumers, backed by a ring buffer without
+ * any lock. Every slot has a sequence number telling whether it is free for the position a producer
+ * claims, or holds the message for the position a consumer claims. Producers and consumers claim
+ * positions by advancing the tail and the head with a compare-and-set, so they never contend on a
+ * single lock as with an {@link java.util.concurrent.ArrayBlockingQueue}. The head and the tail are
+ * padded, so that producers and consumers do not invalidate each other's cache line.
+ *
+ * <p>{@link #putAll} claims a whole run of free slots with a single compare-and-set. {@link #close}
+ * marks the tail as closed, so that no more messages are accepted. Consumers still take the
+ * messages published before, including those a producer had claimed a slot for but not written yet,
+ * and then receive the {@link Message#POISON_PILL}, without a pill being put for every one of them.
+ */
+public class RingBufferMessageQueue implements MessageQueue {
+
+  private static final long CLOSED = Long.MIN_VALUE;
+
+  private final int mask;
+  private final AtomicLongArray sequences;
+  private final AtomicReferenceArray<Message> messages;
+  private final WaitStrategy waitStrategy;
+  private final PaddedAtomicLong head = new PaddedAtomicLong();
+  private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+  public RingBufferMessageQueue(int bound) {
+    this(bound, WaitStrategy.PARK);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param bound minimum number of messages in the queue, rounded up to a power of two
+   * @param waitStrategy how to wait for space or messages
+   */
+  public RingBufferMessageQueue(int bound, WaitStrategy waitStrategy) {
+    if (bound < 1 || bound > 1 << 30) {
+      throw new IllegalArgumentException("bound must be between 1 and " + (1 << 30));
+    }
+    int size = Integer.highestOneBit(Math.max(1, bound - 1)) << 1;
+    this.mask = size - 1;
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.messages = new AtomicReferenceArray<>(size);
+    this.waitStrategy = waitStrategy;
+  }
+
+  /**
+   * Puts a message if there is space.
+   *
+   * @param msg the message
+   * @return whether it was put
+   * @throws IllegalStateException if the queue is closed
+   */
+  public boolean offer(Message msg) {
+    Objects.requireNonNull(msg);
+    while (true) {
+      long pos = tail.get();
+      if (pos < 0) {
+        throw new IllegalStateException("Queue is closed");
+      }
+      int index = (int) pos & mask;
+      long sequence = sequences.get(index);
+      if (sequence == pos) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          messages.lazySet(index, msg);
+          // publishes the message written above to the consumers
+          sequences.lazySet(index, pos + 1);
+          return true;
+        }
+      } else if (sequence < pos) {
+        // the consumer of the previous round has not freed the slot yet
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public void put(Message msg) throws InterruptedException {
+    for (int attempt = 0; !offer(msg); attempt++) {
+      waitStrategy.idle(attempt);
+    }
+  }
+
+  /**
+   * Puts the messages in order, claiming as many free slots at once as there are.
+   *
+   * @throws IllegalStateException if the queue is closed, the messages put so far stay in it
+   * @throws NullPointerException if a message is null, none of the messages is put
+   */
+  @Override
+  public void putAll(Collection<? extends Message> msgs) throws InterruptedException {
+    List<? extends Message> list =
+        msgs instanceof List<? extends Message> l ? l : List.copyOf(msgs);
+    // a null slot reads as empty, so nulls are rejected before any message is put
+    for (Message msg : list) {
+      Objects.requireNonNull(msg);
+    }
+    int from = 0;
+    for (int attempt = 0; from < list.size(); attempt++) {
+      int put = offer(list, from);
+      if (put > 0) {
+        from += put;
+        attempt = -1;
+      } else {
+        waitStrategy.idle(attempt);
+      }
+    }
+  }
+
+  private int offer(List<? extends Message> msgs, int from) {
+    while (true) {
+      long pos = tail.get();
+      if (pos < 0) {
+        throw new IllegalStateException("Queue is closed");
+      }
+      // the run of slots free for the positions from the tail on
+      int free = 0;
+      int wanted = msgs.size() - from;
+      while (free < wanted && sequences.get((int) (pos + free) & mask) == pos + free) {
+        free++;
+      }
+      if (free == 0) {
+        if (sequences.get((int) pos & mask) < pos) {
+          return 0;
+        }
+        // another producer claimed the position meanwhile
+        continue;
+      }
+      if (tail.compareAndSet(pos, pos + free)) {
+        for (int i = 0; i < free; i++) {
+          int index = (int) (pos + i) & mask;
+          messages.lazySet(index, msgs.get(from + i));
+          sequences.lazySet(index, pos + i + 1);
+        }
+        return free;
+      }
+    }
+  }
+
+  /**
+   * Takes a message if there is one.
+   *
+   * @return the message, the {@link Message#POISON_PILL} once closed and drained, or null
+   */
+  public Message poll() {
+    while (true) {
+      long pos = head.get();
+      int index = (int) pos & mask;
+      long sequence = sequences.get(index);
+      if (sequence == pos + 1) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          Message msg = messages.get(index);
+          messages.lazySet(index, null);
+          // frees the slot for the producer coming round the ring
+          sequences.lazySet(index, pos + mask + 1);
+          return msg;
+        }
+      } else if (sequence <= pos) {
+        long end = tail.get();
+        // a slot claimed before closing is still to be written
+        return end < 0 && (end & ~CLOSED) == pos ? Message.POISON_PILL : null;
+      }
+    }
+  }
+
+  @Override
+  public Message take() throws InterruptedException {
+    Message msg;
+    for (int attempt = 0; (msg = poll()) == null; attempt++) {
+      waitStrategy.idle(attempt);
+    }
+    return msg;
+  }
+
+  /**
+   * Stops accepting messages. Consumers receive the {@link Message#POISON_PILL} once they have
+   * taken all messages put before.
+   */
+  public void close() {
+    long pos;
+    do {
+      pos = tail.get();
+    } while (pos >= 0 && !tail.compareAndSet(pos, pos | CLOSED));
+  }
+
+  public boolean isClosed() {
+    return tail.get() < 0;
+  }
+
+  /**
+   * Gets the number of messages in the queue, including those still being written.
+   *
+   * @return the number of messages
+   */
+  public int size() {
+    long h = head.get();
+    return (int) Math.max(0, (tail.get() & ~CLOSED) - h);
+  }
+
+  /** Counter on a cache line of its own, as far as the padding after it goes. */
+  @SuppressWarnings("unused")
+  private static final class PaddedAtomicLong extends AtomicLong {
+    private long p1;
+    private long p2;
+    private long p3;
+    private long p4;
+    private long p5;
+    private long p6;
+    private long p7;
+  }
+}
@@ -25,13 +25,13 @@
 package com.iluwatar.poison.pill;
 
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /** {@link Message} basic implementation. */
 public class SimpleMessage implements Message {
 
-  private final Map<Headers, String> headers = new HashMap<>();
+  private final Map<Headers, String> headers = new EnumMap<>(Headers.class);
   private String body;
 
   @Override
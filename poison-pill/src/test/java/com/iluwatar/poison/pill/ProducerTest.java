@@ -32,6 +32,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.util.Collection;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -58,6 +60,26 @@ class ProducerTest {
     verifyNoMoreInteractions(publishPoint);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void testSendAll() throws Exception {
+    final var publishPoint = mock(MqPublishPoint.class);
+    final var producer = new Producer("producer", publishPoint);
+
+    producer.sendAll(List.of("Hello!", "Bye!"));
+
+    final var messagesCaptor = ArgumentCaptor.forClass(Collection.class);
+    verify(publishPoint).putAll(messagesCaptor.capture());
+
+    final var messages = List.copyOf((Collection<Message>) messagesCaptor.getValue());
+    assertEquals(2, messages.size());
+    assertEquals("producer", messages.get(0).getHeader(Message.Headers.SENDER));
+    assertEquals("Hello!", messages.get(0).getBody());
+    assertEquals("Bye!", messages.get(1).getBody());
+
+    verifyNoMoreInteractions(publishPoint);
+  }
+
   @Test
   void testStop() throws Exception {
     final var publishPoint = mock(MqPublishPoint.class);
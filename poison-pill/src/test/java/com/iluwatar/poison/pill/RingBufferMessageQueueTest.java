@@ -0,0 +1,177 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.poison.pill;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** RingBufferMessageQueueTest */
+class RingBufferMessageQueueTest {
+
+  @Test
+  void testTakeInOrder() throws Exception {
+    final var queue = new RingBufferMessageQueue(4);
+    final var messages = createMessages(4);
+    for (final var message : messages) {
+      queue.put(message);
+    }
+    assertFalse(queue.offer(createMessage(4)));
+    assertEquals(4, queue.size());
+
+    for (final var message : messages) {
+      assertSame(message, queue.take());
+    }
+    assertNull(queue.poll());
+  }
+
+  @Test
+  void testPutAllWrapsAround() throws Exception {
+    final var queue = new RingBufferMessageQueue(8, WaitStrategy.YIELD);
+    final var messages = createMessages(20);
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      final var producer =
+          executor.submit(
+              () -> {
+                queue.putAll(messages);
+                return null;
+              });
+
+      for (final var message : messages) {
+        assertSame(message, queue.take());
+      }
+      producer.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testNullMessagesAreRejected() throws Exception {
+    final var queue = new RingBufferMessageQueue(4);
+    final var messages = new ArrayList<Message>();
+    messages.add(new SimpleMessage());
+    messages.add(null);
+
+    assertThrows(NullPointerException.class, () -> queue.offer(null));
+    assertThrows(NullPointerException.class, () -> queue.putAll(messages));
+    assertNull(queue.poll());
+  }
+
+  @Test
+  void testCloseDrainsBeforePoisonPill() throws Exception {
+    final var queue = new RingBufferMessageQueue(4);
+    final var messages = createMessages(2);
+    queue.putAll(messages);
+    queue.close();
+
+    assertTrue(queue.isClosed());
+    assertThrows(IllegalStateException.class, () -> queue.put(createMessage(2)));
+    assertSame(messages.get(0), queue.take());
+    assertSame(messages.get(1), queue.take());
+    // every consumer is told to stop
+    assertSame(Message.POISON_PILL, queue.take());
+    assertSame(Message.POISON_PILL, queue.take());
+  }
+
+  @Test
+  void testConsumersTakeEveryMessageOnce() throws Exception {
+    final var queue = new RingBufferMessageQueue(16);
+    final var taken = ConcurrentHashMap.<Message>newKeySet();
+    final var executor = Executors.newFixedThreadPool(8);
+    try {
+      final var consumers = new ArrayList<Future<Integer>>();
+      for (var c = 0; c < 4; c++) {
+        consumers.add(
+            executor.submit(
+                () -> {
+                  var count = 0;
+                  Message message;
+                  while ((message = queue.take()) != Message.POISON_PILL) {
+                    assertTrue(taken.add(message), "message taken twice");
+                    count++;
+                  }
+                  return count;
+                }));
+      }
+      final var producers = new ArrayList<Future<?>>();
+      for (var p = 0; p < 4; p++) {
+        final var batched = p % 2 == 0;
+        producers.add(
+            executor.submit(
+                () -> {
+                  for (var i = 0; i < 1000; i++) {
+                    final var messages = createMessages(5);
+                    if (batched) {
+                      queue.putAll(messages);
+                    } else {
+                      for (final var message : messages) {
+                        queue.put(message);
+                      }
+                    }
+                  }
+                  return null;
+                }));
+      }
+      for (final var producer : producers) {
+        producer.get(30, TimeUnit.SECONDS);
+      }
+      queue.close();
+
+      var total = 0;
+      for (final var consumer : consumers) {
+        total += consumer.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(20_000, total);
+      assertEquals(20_000, taken.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<Message> createMessages(int count) {
+    return IntStream.range(0, count).mapToObj(RingBufferMessageQueueTest::createMessage).toList();
+  }
+
+  private static Message createMessage(int id) {
+    final var msg = new SimpleMessage();
+    msg.addHeader(Message.Headers.SENDER, "producer");
+    msg.setBody(String.valueOf(id));
+    return msg;
+  }
+}
@@ -24,6 +24,9 @@
  */
 package com.iluwatar.producer.consumer;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 
 /** Class responsible for consume the {@link Item} produced by {@link Producer}. */
@@ -34,6 +37,8 @@ public class Consumer {
 
   private final String name;
 
+  private final List<Item> batch = new ArrayList<>();
+
   public Consumer(String name, ItemQueue queue) {
     this.name = name;
     this.queue = queue;
@@ -45,4 +50,24 @@ public class Consumer {
     LOGGER.info(
         "Consumer [{}] consume item [{}] produced by [{}]", name, item.id(), item.producer());
   }
+
+  /**
+   * Consume a batch of items from the queue.
+   *
+   * @param maxItems maximum number of items in the batch
+   * @param maxLatency maximum time to wait for further items after the first one
+   * @param unit maximum latency time unit
+   * @return the number of items consumed
+   */
+  public int consumeBatch(int maxItems, long maxLatency, TimeUnit unit)
+      throws InterruptedException {
+    batch.clear();
+    var count = queue.takeBatch(batch, maxItems, maxLatency, unit);
+    LOGGER.info("Consumer [{}] consume batch of [{}] items", name, count);
+    for (var item : batch) {
+      LOGGER.debug(
+          "Consumer [{}] consume item [{}] produced by [{}]", name, item.id(), item.producer());
+    }
+    return count;
+  }
 }
@@ -24,8 +24,9 @@
  */
 package com.iluwatar.producer.consumer;
 
+import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /** Class as a channel for {@link Producer}-{@link Consumer} exchange. */
 public class ItemQueue {
@@ -34,7 +35,18 @@ public class ItemQueue {
 
   public ItemQueue() {
 
-    queue = new LinkedBlockingQueue<>(5);
+    this(QueueType.LINKED_BLOCKING, 5);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param type implementation of the queue
+   * @param capacity maximum number of items in the queue, ignored by unbounded types
+   */
+  public ItemQueue(QueueType type, int capacity) {
+
+    queue = type.create(capacity);
   }
 
   public void put(Item item) throws InterruptedException {
@@ -46,4 +58,39 @@ public class ItemQueue {
 
     return queue.take();
   }
+
+  /**
+   * Takes a batch of items, so that a consumer pays the cost of waiting and handing over once per
+   * batch instead of once per item. Waits for the first item as long as needed, and for further
+   * ones until the batch is full or the maximum latency has passed since the first one.
+   *
+   * @param batch collection the items are added to
+   * @param maxItems maximum number of items to take
+   * @param maxLatency maximum time to wait for further items after the first one
+   * @param unit maximum latency time unit
+   * @return the number of items taken, at least one
+   * @throws InterruptedException if interrupted while waiting for the first item
+   */
+  public int takeBatch(Collection<? super Item> batch, int maxItems, long maxLatency, TimeUnit unit)
+      throws InterruptedException {
+
+    batch.add(queue.take());
+    var taken = 1;
+    var deadline = System.nanoTime() + unit.toNanos(maxLatency);
+    while (taken < maxItems) {
+      var drained = queue.drainTo(batch, maxItems - taken);
+      if (drained > 0) {
+        taken += drained;
+        continue;
+      }
+      var remaining = deadline - System.nanoTime();
+      var item = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+      if (item == null) {
+        break;
+      }
+      batch.add(item);
+      taken++;
+    }
+    return taken;
+  }
 }
@@ -0,0 +1,200 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the throughput and latency of the {@link QueueType}s behind an {@link ItemQueue} for
+ * several numbers of producers and consumers, with consumers taking one item at a time or batches
+ * of items. The {@link QueueType#SPMC_RING_BUFFER} is only run with a single producer. Items are
+ * not logged, so that only the hand over is measured. The latency is the time from putting an item
+ * until a consumer has it, sampled for every {@value #SAMPLE_EVERY}th item.
+ */
+@Slf4j
+public final class ProducerConsumerBenchmark {
+
+  private static final int CAPACITY = 1024;
+  private static final int ITEMS = 1_000_000;
+  private static final int BATCH_SIZE = 64;
+  private static final int SAMPLE_EVERY = 16;
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param queueType queue implementation
+   * @param producers number of producing threads
+   * @param consumers number of consuming threads
+   * @param batchSize maximum number of items a consumer takes at once
+   * @param itemsPerSecond items handed over per second
+   * @param p50LatencyMicros median latency in microseconds
+   * @param p99LatencyMicros 99th percentile latency in microseconds
+   */
+  public record Result(
+      QueueType queueType,
+      int producers,
+      int consumers,
+      int batchSize,
+      double itemsPerSecond,
+      double p50LatencyMicros,
+      double p99LatencyMicros) {}
+
+  private ProducerConsumerBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    for (QueueType queueType : QueueType.values()) {
+      run(queueType, 1, 1, BATCH_SIZE, ITEMS / 4);
+    }
+    for (int[] threads : new int[][] {{1, 1}, {1, 4}, {4, 4}}) {
+      for (QueueType queueType : QueueType.values()) {
+        if (queueType == QueueType.SPMC_RING_BUFFER && threads[0] > 1) {
+          continue;
+        }
+        for (int batchSize : List.of(1, BATCH_SIZE)) {
+          var result = run(queueType, threads[0], threads[1], batchSize, ITEMS);
+          LOGGER.info(
+              "{} producers: {}, consumers: {}, batch: {}, items/sec: {}, p50: {} us, p99: {} us",
+              result.queueType(),
+              result.producers(),
+              result.consumers(),
+              result.batchSize(),
+              String.format("%.0f", result.itemsPerSecond()),
+              String.format("%.1f", result.p50LatencyMicros()),
+              String.format("%.1f", result.p99LatencyMicros()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Hands over items from the producers to the consumers.
+   *
+   * @param queueType queue implementation
+   * @param producers number of producing threads
+   * @param consumers number of consuming threads
+   * @param batchSize maximum number of items a consumer takes at once, one to take single items
+   * @param items number of items to hand over
+   * @return the result of the run
+   * @throws Exception if the run fails
+   */
+  public static Result run(
+      QueueType queueType, int producers, int consumers, int batchSize, int items)
+      throws Exception {
+    var queue = new ItemQueue(queueType, CAPACITY);
+    var itemsPerProducer = items / producers;
+    var total = (long) itemsPerProducer * producers;
+    var putNanos = new long[producers][itemsPerProducer];
+    var latencies = new long[(int) (total / SAMPLE_EVERY) + producers];
+    var sampled = new AtomicInteger();
+    var consumed = new AtomicLong();
+    var done = new CountDownLatch(1);
+    var started = new CountDownLatch(producers + consumers);
+
+    ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+    try {
+      for (int c = 0; c < consumers; c++) {
+        executor.submit(
+            () -> {
+              var batch = new ArrayList<Item>(batchSize);
+              started.countDown();
+              while (true) {
+                if (batchSize == 1) {
+                  batch.add(queue.take());
+                } else {
+                  queue.takeBatch(batch, batchSize, 1, TimeUnit.MILLISECONDS);
+                }
+                long now = System.nanoTime();
+                for (Item item : batch) {
+                  if (item.id() % SAMPLE_EVERY == 0) {
+                    int producer = Integer.parseInt(item.producer());
+                    latencies[sampled.getAndIncrement()] = now - putNanos[producer][item.id()];
+                  }
+                }
+                if (consumed.addAndGet(batch.size()) == total) {
+                  done.countDown();
+                }
+                batch.clear();
+              }
+            });
+      }
+      for (int p = 0; p < producers; p++) {
+        var name = String.valueOf(p);
+        var producerPutNanos = putNanos[p];
+        executor.submit(
+            () -> {
+              started.countDown();
+              started.await();
+              for (int id = 0; id < itemsPerProducer; id++) {
+                if (id % SAMPLE_EVERY == 0) {
+                  producerPutNanos[id] = System.nanoTime();
+                }
+                queue.put(new Item(name, id));
+              }
+              return null;
+            });
+      }
+      started.await();
+      long start = System.nanoTime();
+      done.await();
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      var sorted = Arrays.copyOf(latencies, sampled.get());
+      Arrays.sort(sorted);
+      return new Result(
+          queueType,
+          producers,
+          consumers,
+          batchSize,
+          total / seconds,
+          percentile(sorted, 0.5) / 1e3,
+          percentile(sorted, 0.99) / 1e3);
+    } finally {
+      // the consumers wait for more items until interrupted
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted.length == 0
+        ? 0
+        : sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)];
+  }
+}
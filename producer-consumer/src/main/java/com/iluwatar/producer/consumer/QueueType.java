@@ -0,0 +1,58 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+
+/** Implementations of the {@link BlockingQueue} an {@link ItemQueue} may be backed by. */
+public enum QueueType {
+  /** Linked nodes with separate locks for putting and taking. */
+  LINKED_BLOCKING,
+  /** Array with a single lock for putting and taking. */
+  ARRAY_BLOCKING,
+  /** Lock-free linked nodes, which is unbounded and ignores the capacity. */
+  LINKED_TRANSFER,
+  /** Lock-free {@link SpmcRingBuffer}, which allows only a single producer. */
+  SPMC_RING_BUFFER;
+
+  /**
+   * Creates a queue of this type.
+   *
+   * @param capacity maximum number of elements in the queue
+   * @param <E> type of the elements
+   * @return the new queue
+   */
+  public <E> BlockingQueue<E> create(int capacity) {
+    return switch (this) {
+      case LINKED_BLOCKING -> new LinkedBlockingQueue<>(capacity);
+      case ARRAY_BLOCKING -> new ArrayBlockingQueue<>(capacity);
+      case LINKED_TRANSFER -> new LinkedTransferQueue<>();
+      case SPMC_RING_BUFFER -> new SpmcRingBuffer<>(capacity);
+    };
+  }
+}
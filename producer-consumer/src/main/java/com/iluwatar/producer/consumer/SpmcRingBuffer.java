@@ -0,0 +1,240 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue for a single producer and many consumers, backed by a ring buffer without any lock.
+ * The producer publishes an element by writing it to its slot before advancing the tail, and the
+ * consumers claim elements by advancing the head with a compare-and-set. Since the producer never
+ * writes a slot the head has not yet passed, a consumer can read a batch of elements before
+ * claiming all of them with a single compare-and-set.
+ *
+ * <p>Only a single thread may put elements: the first thread to put an element becomes the producer
+ * and any other thread putting one gets an {@link IllegalStateException}. Waiting for space or
+ * elements spins, yields and then parks briefly instead of being signalled, so neither side ever
+ * takes a lock. The slots keep the elements already taken until the producer overwrites them.
+ *
+ * @param <E> type of the elements
+ */
+public class SpmcRingBuffer<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+  private static final int SPINS = 100;
+  private static final int YIELDS = 200;
+  private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final int capacity;
+  private final int mask;
+  private final AtomicReferenceArray<E> slots;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicReference<Thread> producer = new AtomicReference<>();
+
+  /**
+   * Constructor.
+   *
+   * @param capacity maximum number of elements in the queue
+   */
+  public SpmcRingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be between 1 and " + (1 << 30));
+    }
+    this.capacity = capacity;
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.mask = size - 1;
+    this.slots = new AtomicReferenceArray<>(size);
+  }
+
+  /**
+   * Adds an element if there is space.
+   *
+   * @throws IllegalStateException if called by another thread than the one that put the first
+   *     element.
+   */
+  @Override
+  public boolean offer(E e) {
+    Objects.requireNonNull(e);
+    Thread current = Thread.currentThread();
+    if (producer.get() != current && !producer.compareAndSet(null, current)) {
+      throw new IllegalStateException(
+          "Only " + producer.get().getName() + " may put elements, not " + current.getName());
+    }
+    long t = tail.get();
+    if (t - head.get() >= capacity) {
+      return false;
+    }
+    slots.lazySet((int) t & mask, e);
+    // publishes the slot written above to the consumers
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  @Override
+  public void put(E e) throws InterruptedException {
+    for (int attempt = 0; !offer(e); attempt++) {
+      idle(attempt, MAX_PARK_NANOS);
+    }
+  }
+
+  @Override
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (int attempt = 0; !offer(e); attempt++) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      idle(attempt, remaining);
+    }
+    return true;
+  }
+
+  @Override
+  public E poll() {
+    while (true) {
+      long h = head.get();
+      if (h >= tail.get()) {
+        return null;
+      }
+      E e = slots.get((int) h & mask);
+      if (head.compareAndSet(h, h + 1)) {
+        return e;
+      }
+    }
+  }
+
+  @Override
+  public E take() throws InterruptedException {
+    E e;
+    for (int attempt = 0; (e = poll()) == null; attempt++) {
+      idle(attempt, MAX_PARK_NANOS);
+    }
+    return e;
+  }
+
+  @Override
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    E e;
+    for (int attempt = 0; (e = poll()) == null; attempt++) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      idle(attempt, remaining);
+    }
+    return e;
+  }
+
+  @Override
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == this) {
+      throw new IllegalArgumentException("cannot drain a queue to itself");
+    }
+    while (true) {
+      long h = head.get();
+      int n = (int) Math.min(tail.get() - h, maxElements);
+      if (n <= 0) {
+        return 0;
+      }
+      // the slots are read before claiming them, as the producer may reuse them right after
+      var claimed = new Object[n];
+      for (int i = 0; i < n; i++) {
+        claimed[i] = slots.get((int) (h + i) & mask);
+      }
+      if (head.compareAndSet(h, h + n)) {
+        for (Object e : claimed) {
+          c.add((E) e);
+        }
+        return n;
+      }
+    }
+  }
+
+  @Override
+  public E peek() {
+    long h = head.get();
+    return h < tail.get() ? slots.get((int) h & mask) : null;
+  }
+
+  @Override
+  public int size() {
+    long h = head.get();
+    return (int) Math.max(0, Math.min(capacity, tail.get() - h));
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return capacity - size();
+  }
+
+  /** Returns an iterator over a snapshot of the elements, which does not support removal. */
+  @Override
+  public Iterator<E> iterator() {
+    while (true) {
+      var snapshot = new ArrayList<E>();
+      long h = head.get();
+      long t = tail.get();
+      for (long i = h; i < t; i++) {
+        snapshot.add(slots.get((int) i & mask));
+      }
+      // elements taken while copying may have been overwritten, so the copy is only kept if intact
+      if (head.get() == h) {
+        return Collections.unmodifiableList(snapshot).iterator();
+      }
+    }
+  }
+
+  private static void idle(int attempt, long maxParkNanos) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    if (attempt < SPINS) {
+      Thread.onSpinWait();
+    } else if (attempt < YIELDS) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(Math.min(maxParkNanos, MAX_PARK_NANOS));
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/** ItemQueueTest */
+class ItemQueueTest {
+
+  @ParameterizedTest
+  @EnumSource(QueueType.class)
+  void testTakeInOrder(QueueType type) throws Exception {
+    final var queue = new ItemQueue(type, 5);
+    for (var id = 0; id < 5; id++) {
+      queue.put(new Item("producer", id));
+    }
+
+    for (var id = 0; id < 5; id++) {
+      assertEquals(new Item("producer", id), queue.take());
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(QueueType.class)
+  void testTakeBatchUpToMaxItems(QueueType type) throws Exception {
+    final var queue = new ItemQueue(type, 5);
+    for (var id = 0; id < 5; id++) {
+      queue.put(new Item("producer", id));
+    }
+
+    final var batch = new ArrayList<Item>();
+    assertEquals(3, queue.takeBatch(batch, 3, 1, TimeUnit.SECONDS));
+    assertEquals(2, queue.takeBatch(batch, 3, 10, TimeUnit.MILLISECONDS));
+    assertEquals(IntStream.range(0, 5).mapToObj(id -> new Item("producer", id)).toList(), batch);
+  }
+
+  @ParameterizedTest
+  @EnumSource(QueueType.class)
+  void testTakeBatchWaitsForLateItems(QueueType type) throws Exception {
+    final var queue = new ItemQueue(type, 5);
+    // both items are put by the same thread, as the SPMC ring buffer requires
+    final var producer =
+        new Thread(
+            () -> {
+              try {
+                queue.put(new Item("producer", 0));
+                Thread.sleep(20);
+                queue.put(new Item("producer", 1));
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    producer.start();
+
+    final var batch = new ArrayList<Item>();
+    assertEquals(2, queue.takeBatch(batch, 2, 5, TimeUnit.SECONDS));
+    assertEquals(List.of(new Item("producer", 0), new Item("producer", 1)), batch);
+    producer.join();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.producer.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** SpmcRingBufferTest */
+class SpmcRingBufferTest {
+
+  @Test
+  void testBoundedCapacity() throws Exception {
+    final var buffer = new SpmcRingBuffer<Integer>(3);
+    for (var i = 0; i < 3; i++) {
+      assertTrue(buffer.offer(i));
+    }
+    assertFalse(buffer.offer(3));
+    assertFalse(buffer.offer(3, 10, TimeUnit.MILLISECONDS));
+    assertEquals(3, buffer.size());
+    assertEquals(0, buffer.remainingCapacity());
+    assertEquals(List.of(0, 1, 2), new ArrayList<>(buffer));
+
+    assertEquals(0, buffer.poll());
+    assertTrue(buffer.offer(3));
+    assertEquals(1, buffer.peek());
+  }
+
+  @Test
+  void testOnlyFirstProducerMayPut() throws Exception {
+    final var buffer = new SpmcRingBuffer<Integer>(4);
+    assertTrue(buffer.offer(0));
+
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      final var other = executor.submit(() -> buffer.offer(1));
+      final var thrown = assertThrows(ExecutionException.class, other::get);
+      assertInstanceOf(IllegalStateException.class, thrown.getCause());
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(buffer.offer(2));
+    assertEquals(List.of(0, 2), new ArrayList<>(buffer));
+  }
+
+  @Test
+  void testDrainToWrapsAround() {
+    final var buffer = new SpmcRingBuffer<Integer>(4);
+    final var drained = new ArrayList<Integer>();
+    for (var i = 0; i < 10; i++) {
+      buffer.offer(i);
+      buffer.offer(i + 100);
+      assertEquals(2, buffer.drainTo(drained, 5));
+    }
+    assertEquals(20, drained.size());
+    assertEquals(0, buffer.drainTo(drained));
+    assertNull(buffer.poll());
+    assertThrows(IllegalArgumentException.class, () -> buffer.drainTo(buffer));
+  }
+
+  @Test
+  void testConsumersTakeEveryItemOnce() throws Exception {
+    final var buffer = new SpmcRingBuffer<Integer>(16);
+    final var items = 100_000;
+    final var taken = ConcurrentHashMap.<Integer>newKeySet();
+    final var executor = Executors.newFixedThreadPool(4);
+    try {
+      final var consumers = new ArrayList<Future<Integer>>();
+      for (var c = 0; c < 4; c++) {
+        final var drainInBatches = c % 2 == 0;
+        consumers.add(
+            executor.submit(
+                () -> {
+                  var count = 0;
+                  final var batch = new ArrayList<Integer>();
+                  while (taken.size() < items) {
+                    batch.clear();
+                    final var item = buffer.poll(10, TimeUnit.MILLISECONDS);
+                    if (item == null) {
+                      continue;
+                    }
+                    batch.add(item);
+                    if (drainInBatches) {
+                      buffer.drainTo(batch, 7);
+                    }
+                    for (var each : batch) {
+                      assertTrue(taken.add(each), "item taken twice");
+                      count++;
+                    }
+                  }
+                  return count;
+                }));
+      }
+      for (var i = 0; i < items; i++) {
+        buffer.put(i);
+      }
+      var total = 0;
+      for (var consumer : consumers) {
+        total += consumer.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(items, total);
+      assertEquals(items, taken.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
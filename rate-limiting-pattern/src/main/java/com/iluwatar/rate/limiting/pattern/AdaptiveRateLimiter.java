@@ -2,16 +2,28 @@ package com.iluwatar.rate.limiting.pattern;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-/** Adaptive rate limiter that adjusts limits based on system health. */
+/**
+ * Adaptive rate limiter that adjusts limits based on system health. Every service-operation gets a
+ * token bucket sized to the limit in effect when it was first used. The buckets refill lazily, so
+ * the health checker is the only background task, and it also evicts the buckets that have been
+ * full for a while.
+ */
 public class AdaptiveRateLimiter implements RateLimiter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveRateLimiter.class);
+
+  // a recreated bucket takes the current limit, so only long idle keys are dropped
+  private static final int IDLE_CHECKS = 10;
+
   private final int initialLimit;
   private final int maxLimit;
   private final AtomicInteger currentLimit;
-  private final ConcurrentHashMap<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, TokenBucketRateLimiter.TokenBucket> buckets =
+      new ConcurrentHashMap<>();
   private final ScheduledExecutorService healthChecker = Executors.newScheduledThreadPool(1);
-  private final long checkInterval;
-  private final TimeUnit timeUnit;
+  private final long checkIntervalNanos;
 
   public AdaptiveRateLimiter(int initialLimit, int maxLimit) {
     this(initialLimit, maxLimit, 10, TimeUnit.SECONDS);
@@ -29,8 +41,7 @@ public class AdaptiveRateLimiter implements RateLimiter {
     this.initialLimit = initialLimit;
     this.maxLimit = maxLimit;
     this.currentLimit = new AtomicInteger(initialLimit);
-    this.checkInterval = interval;
-    this.timeUnit = timeUnit;
+    this.checkIntervalNanos = timeUnit.toNanos(interval);
     healthChecker.scheduleAtFixedRate(this::adjustLimits, interval, interval, timeUnit);
   }
 
@@ -39,41 +50,44 @@ public class AdaptiveRateLimiter implements RateLimiter {
     String key = serviceName + ":" + operationName;
     int current = currentLimit.get();
 
-    // Reuse or create TokenBucket for this key using currentLimit and checkInterval
-    RateLimiter limiter =
-        limiters.computeIfAbsent(
-            key, k -> new TokenBucketRateLimiter(current, current, checkInterval, timeUnit));
+    // Reuse or create a bucket refilled with currentLimit tokens every checkInterval
+    long now = System.nanoTime();
+    long waitNanos;
+    do {
+      TokenBucketRateLimiter.TokenBucket bucket =
+          buckets.computeIfAbsent(
+              key,
+              k ->
+                  new TokenBucketRateLimiter.TokenBucket(
+                      current, Math.max(1, checkIntervalNanos / Math.max(1, current)), now));
+      waitNanos = bucket.tryConsume(1, now);
+    } while (waitNanos == TokenBucketRateLimiter.TokenBucket.EVICTED);
 
-    try {
-      limiter.check(serviceName, operationName);
-      System.out.printf(
-          "[Adaptive] Allowed %s.%s - CurrentLimit: %d%n", serviceName, operationName, current);
-    } catch (RateLimitException e) {
+    if (waitNanos > 0) {
       // On throttling, reduce system limit to reduce load
-      currentLimit.updateAndGet(curr -> Math.max(initialLimit, curr / 2));
-      System.out.printf(
-          "[Adaptive] Throttled %s.%s - Decreasing limit to %d%n",
-          serviceName, operationName, currentLimit.get());
-      throw e;
+      int decreased = currentLimit.updateAndGet(curr -> Math.max(initialLimit, curr / 2));
+      LOGGER.debug(
+          "[Adaptive] Throttled {}.{} - Decreasing limit to {}",
+          serviceName,
+          operationName,
+          decreased);
+      throw new ThrottlingException(
+          serviceName, operationName, TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
     }
+    LOGGER.debug(
+        "[Adaptive] Allowed {}.{} - CurrentLimit: {}", serviceName, operationName, current);
   }
 
   // Periodic recovery mechanism to raise limits when the system is under control
   private void adjustLimits() {
     int updated = currentLimit.updateAndGet(curr -> Math.min(maxLimit, curr + (initialLimit / 2)));
-    System.out.printf("[Adaptive] Health check passed - Increasing limit to %d%n", updated);
+    LOGGER.debug("[Adaptive] Health check passed - Increasing limit to {}", updated);
+    TokenBucketRateLimiter.evictIdleBuckets(
+        buckets, System.nanoTime(), IDLE_CHECKS * checkIntervalNanos);
   }
 
-  /** Gracefully shut down the health checker executor and child limiters. */
+  /** Gracefully shut down the health checker executor. */
   public void shutdown() {
     healthChecker.shutdown();
-    limiters
-        .values()
-        .forEach(
-            limiter -> {
-              if (limiter instanceof TokenBucketRateLimiter) {
-                ((TokenBucketRateLimiter) limiter).shutdown();
-              }
-            });
   }
 }
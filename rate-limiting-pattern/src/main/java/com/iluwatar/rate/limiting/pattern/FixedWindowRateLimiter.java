@@ -2,12 +2,16 @@ package com.iluwatar.rate.limiting.pattern;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Implements a fixed window rate limiter. It allows up to 'limit' number of requests within a time
  * window of fixed size.
  */
 public class FixedWindowRateLimiter implements RateLimiter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FixedWindowRateLimiter.class);
+
   private final int limit;
   private final long windowMillis;
   private final ConcurrentHashMap<String, WindowCounter> counters = new ConcurrentHashMap<>();
@@ -24,13 +28,14 @@ public class FixedWindowRateLimiter implements RateLimiter {
     WindowCounter counter = counters.computeIfAbsent(key, k -> new WindowCounter());
 
     if (!counter.tryIncrement()) {
-      System.out.printf(
-          "[FixedWindow] Throttled %s.%s - Limit %d reached in window%n",
-          serviceName, operationName, limit);
+      LOGGER.debug(
+          "[FixedWindow] Throttled {}.{} - Limit {} reached in window",
+          serviceName,
+          operationName,
+          limit);
       throw new RateLimitException("Rate limit exceeded for " + key, windowMillis);
     } else {
-      System.out.printf(
-          "[FixedWindow] Allowed %s.%s - Count within window%n", serviceName, operationName);
+      LOGGER.debug("[FixedWindow] Allowed {}.{} - Count within window", serviceName, operationName);
     }
   }
 
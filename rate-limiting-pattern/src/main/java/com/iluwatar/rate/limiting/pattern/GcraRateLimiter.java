@@ -0,0 +1,110 @@
+package com.iluwatar.rate.limiting.pattern;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Implements the generic cell rate algorithm (GCRA). Requests are meant to arrive one emission
+ * interval (window / limit) apart. For every key the limiter only keeps the theoretical arrival
+ * time of the next request, which every allowed request pushes one interval further. A request is
+ * allowed as long as that time is less than the burst tolerance ahead of now, so up to {@code
+ * limit} requests may arrive at once, after which they are spaced evenly instead of being allowed
+ * in a burst at the start of every window.
+ *
+ * <p>The theoretical arrival time is a single long, so a check is a single compare-and-set without
+ * any lock. A key whose theoretical arrival time has passed starts over from now and is no
+ * different from a new one, so such keys are evicted once in a while by a caller, which keeps the
+ * memory bound to the recently active keys.
+ */
+public class GcraRateLimiter implements RateLimiter {
+  /* The theoretical arrival time of an evicted key, which must be replaced. */
+  private static final long EVICTED = Long.MIN_VALUE;
+
+  private final long emissionIntervalNanos;
+  private final long toleranceNanos;
+  private final LongSupplier nanoClock;
+  private final long sweepIntervalNanos;
+  private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweep;
+
+  public GcraRateLimiter(int limit, long windowSeconds) {
+    this(limit, windowSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Constructor with custom window unit.
+   *
+   * @param limit number of requests allowed per window, also the largest burst
+   * @param window window length
+   * @param timeUnit window length time unit
+   */
+  public GcraRateLimiter(int limit, long window, TimeUnit timeUnit) {
+    this(limit, timeUnit.toNanos(window), System::nanoTime);
+  }
+
+  GcraRateLimiter(int limit, long windowNanos, LongSupplier nanoClock) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    if (windowNanos < limit) {
+      throw new IllegalArgumentException("window must be at least one nanosecond per request");
+    }
+    this.emissionIntervalNanos = windowNanos / limit;
+    this.toleranceNanos = emissionIntervalNanos * (limit - 1);
+    this.nanoClock = nanoClock;
+    this.sweepIntervalNanos = Math.max(windowNanos, TimeUnit.SECONDS.toNanos(1));
+    this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  @Override
+  public void check(String serviceName, String operationName) throws RateLimitException {
+    String key = serviceName + ":" + operationName;
+    AtomicLong arrival = arrivals.get(key);
+    if (arrival == null) {
+      long now = nanoClock.getAsLong();
+      arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long theoreticalArrival = arrival.get();
+      if (theoreticalArrival == EVICTED) {
+        arrival = arrivals.computeIfAbsent(key, k -> new AtomicLong(now));
+        continue;
+      }
+      long earliest = theoreticalArrival - toleranceNanos;
+      if (now - earliest < 0) {
+        throw new ThrottlingException(
+            serviceName, operationName, TimeUnit.NANOSECONDS.toMillis(earliest - now) + 1);
+      }
+      // an idle key starts over from now instead of saving up for a larger burst
+      long next = (theoreticalArrival - now > 0 ? theoreticalArrival : now) + emissionIntervalNanos;
+      if (arrival.compareAndSet(theoreticalArrival, next)) {
+        evictIdleKeys(now);
+        return;
+      }
+    }
+  }
+
+  private void evictIdleKeys(long now) {
+    long last = lastSweep.get();
+    // a single caller per interval pays for the sweep
+    if (now - last >= sweepIntervalNanos && lastSweep.compareAndSet(last, now)) {
+      arrivals.values().removeIf(arrival -> evictIfIdle(arrival, now));
+    }
+  }
+
+  /* Evicts a key whose theoretical arrival time has passed. */
+  private static boolean evictIfIdle(AtomicLong arrival, long now) {
+    long theoreticalArrival = arrival.get();
+    return theoreticalArrival != EVICTED
+        && theoreticalArrival - now <= 0
+        && arrival.compareAndSet(theoreticalArrival, EVICTED);
+  }
+
+  int keyCount() {
+    return arrivals.size();
+  }
+}
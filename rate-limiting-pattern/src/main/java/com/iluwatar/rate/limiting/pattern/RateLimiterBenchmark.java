@@ -0,0 +1,118 @@
+package com.iluwatar.rate.limiting.pattern;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the throughput of the rate limiters under high contention: many threads check a few hot
+ * keys as fast as they can, so that most checks are throttled. The limiters log every check at
+ * debug level, which is disabled by the bundled logging configuration.
+ */
+public final class RateLimiterBenchmark {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiterBenchmark.class);
+
+  private static final String[] KEYS = {"GetObject", "PutObject", "Query", "Invoke"};
+  private static final int LIMIT = 10_000;
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param limiter name of the rate limiter
+   * @param threads number of client threads
+   * @param checksPerSecond checks per second, allowed or throttled
+   * @param allowed number of allowed checks
+   */
+  public record Result(String limiter, int threads, double checksPerSecond, long allowed) {}
+
+  private RateLimiterBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    for (int threads : List.of(1, 4, 16, 32)) {
+      for (Result result : run(threads, 1000)) {
+        LOGGER.info(
+            "{} threads: {}, checks/sec: {}, allowed: {}",
+            result.limiter(),
+            result.threads(),
+            String.format("%.0f", result.checksPerSecond()),
+            result.allowed());
+      }
+    }
+  }
+
+  /**
+   * Runs every rate limiter with the given number of threads.
+   *
+   * @param threads number of client threads
+   * @param durationMillis duration of every run
+   * @return the result of every rate limiter
+   * @throws Exception if any run fails
+   */
+  public static List<Result> run(int threads, long durationMillis) throws Exception {
+    Map<String, Supplier<RateLimiter>> limiters = new LinkedHashMap<>();
+    limiters.put("FixedWindow", () -> new FixedWindowRateLimiter(LIMIT, 1));
+    limiters.put("TokenBucket", () -> new TokenBucketRateLimiter(LIMIT, LIMIT));
+    limiters.put("SlidingWindowCounter", () -> new SlidingWindowCounterRateLimiter(LIMIT, 1));
+    limiters.put("Gcra", () -> new GcraRateLimiter(LIMIT, 1));
+
+    List<Result> results = new ArrayList<>();
+    for (Map.Entry<String, Supplier<RateLimiter>> entry : limiters.entrySet()) {
+      results.add(measure(entry.getKey(), entry.getValue().get(), threads, durationMillis));
+    }
+    return results;
+  }
+
+  private static Result measure(String name, RateLimiter limiter, int threads, long durationMillis)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder checks = new LongAdder();
+    LongAdder allowed = new LongAdder();
+    CountDownLatch started = new CountDownLatch(threads);
+    try {
+      List<Future<?>> clients = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int client = t;
+        clients.add(
+            executor.submit(
+                () -> {
+                  started.countDown();
+                  int i = client;
+                  while (running.get()) {
+                    try {
+                      limiter.check("s3", KEYS[i++ % KEYS.length]);
+                      allowed.increment();
+                    } catch (RateLimitException e) {
+                      // throttled checks count as well
+                    }
+                    checks.increment();
+                  }
+                }));
+      }
+      started.await();
+      long start = System.nanoTime();
+      Thread.sleep(durationMillis);
+      running.set(false);
+      for (Future<?> future : clients) {
+        future.get();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      return new Result(name, threads, checks.sum() / seconds, allowed.sum());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
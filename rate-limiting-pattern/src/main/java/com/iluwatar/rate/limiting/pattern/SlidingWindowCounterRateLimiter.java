@@ -0,0 +1,147 @@
+package com.iluwatar.rate.limiting.pattern;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Implements a sliding window counter rate limiter. Like a fixed window it counts the requests of
+ * the current window, but it also weighs in the count of the previous window by the share of the
+ * previous window that still overlaps the sliding window ending now. This avoids the twofold burst
+ * a fixed window allows around the boundary of two windows.
+ *
+ * <p>The state of a key is a single long packing the index of the current window with the counts of
+ * the current and the previous window, so a check is a single compare-and-set without any lock. As
+ * a count takes 16 bits, the limit is at most {@value #MAX_LIMIT} per window.
+ *
+ * <p>A key whose last request is more than a window old has no counts left and is no different from
+ * a new one, so such keys are evicted once in a while by a caller, which keeps the memory bound to
+ * the recently active keys.
+ */
+public class SlidingWindowCounterRateLimiter implements RateLimiter {
+  static final int MAX_LIMIT = 0xFFFF;
+
+  /* The state of an evicted key, which must be replaced. Windows are never negative. */
+  private static final long EVICTED = Long.MIN_VALUE;
+
+  private final int limit;
+  private final long windowNanos;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private final long sweepIntervalNanos;
+  private final ConcurrentHashMap<String, AtomicLong> windows = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweep;
+
+  public SlidingWindowCounterRateLimiter(int limit, long windowSeconds) {
+    this(limit, windowSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Constructor with custom window unit.
+   *
+   * @param limit maximum number of requests within any window
+   * @param window window length
+   * @param timeUnit window length time unit
+   */
+  public SlidingWindowCounterRateLimiter(int limit, long window, TimeUnit timeUnit) {
+    this(limit, timeUnit.toNanos(window), System::nanoTime);
+  }
+
+  SlidingWindowCounterRateLimiter(int limit, long windowNanos, LongSupplier nanoClock) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    }
+    if (windowNanos <= 0) {
+      throw new IllegalArgumentException("window must be positive");
+    }
+    this.limit = limit;
+    this.windowNanos = windowNanos;
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+    this.sweepIntervalNanos = Math.max(2 * windowNanos, TimeUnit.SECONDS.toNanos(1));
+    this.lastSweep = new AtomicLong(startNanos);
+  }
+
+  @Override
+  public void check(String serviceName, String operationName) throws RateLimitException {
+    String key = serviceName + ":" + operationName;
+    AtomicLong state = windows.get(key);
+    if (state == null) {
+      state = windows.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long elapsed = now - startNanos;
+      int window = (int) (elapsed / windowNanos);
+      long sinceWindowStart = elapsed % windowNanos;
+
+      long current = state.get();
+      if (current == EVICTED) {
+        state = windows.computeIfAbsent(key, k -> new AtomicLong());
+        continue;
+      }
+      int count;
+      int previousCount;
+      if (windowOf(current) == window) {
+        count = countOf(current);
+        previousCount = previousCountOf(current);
+      } else if (windowOf(current) == window - 1) {
+        count = 0;
+        previousCount = countOf(current);
+      } else {
+        count = 0;
+        previousCount = 0;
+      }
+
+      // the share of the previous window still covered by the window sliding up to now
+      double overlap = (double) (windowNanos - sinceWindowStart) / windowNanos;
+      if (previousCount * overlap + count + 1 > limit) {
+        long retryAfterNanos = windowNanos - sinceWindowStart;
+        throw new ThrottlingException(
+            serviceName, operationName, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos) + 1);
+      }
+      if (state.compareAndSet(current, pack(window, previousCount, count + 1))) {
+        evictIdleKeys(now, window);
+        return;
+      }
+    }
+  }
+
+  private void evictIdleKeys(long now, int window) {
+    long last = lastSweep.get();
+    // a single caller per interval pays for the sweep
+    if (now - last >= sweepIntervalNanos && lastSweep.compareAndSet(last, now)) {
+      windows.values().removeIf(state -> evictIfIdle(state, window));
+    }
+  }
+
+  /* Evicts a key whose counts are all older than the previous window. */
+  private static boolean evictIfIdle(AtomicLong state, int window) {
+    long current = state.get();
+    return current != EVICTED
+        && windowOf(current) < window - 1
+        && state.compareAndSet(current, EVICTED);
+  }
+
+  int keyCount() {
+    return windows.size();
+  }
+
+  private static long pack(int window, int previousCount, int count) {
+    return (long) window << 32 | (long) previousCount << 16 | count;
+  }
+
+  private static int windowOf(long state) {
+    return (int) (state >>> 32);
+  }
+
+  private static int previousCountOf(long state) {
+    return (int) (state >>> 16) & MAX_LIMIT;
+  }
+
+  private static int countOf(long state) {
+    return (int) state & MAX_LIMIT;
+  }
+}
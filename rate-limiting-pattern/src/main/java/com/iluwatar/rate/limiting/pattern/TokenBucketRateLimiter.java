@@ -1,19 +1,32 @@
 package com.iluwatar.rate.limiting.pattern;
 
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Token Bucket rate limiter implementation. Allows requests to proceed as long as there are tokens
- * available in the bucket. Tokens are added at a fixed interval up to a defined capacity.
+ * available in the bucket. Tokens are added at a steady, possibly fractional, rate up to a defined
+ * capacity.
+ *
+ * <p>The buckets are refilled lazily: instead of a background task topping up every bucket, a check
+ * computes the tokens added since the last one from the elapsed time. Buckets that have filled up
+ * again are no different from new ones, so they are evicted once in a while by a caller, which
+ * keeps the memory bound to the recently active keys.
  */
 public class TokenBucketRateLimiter implements RateLimiter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
   private final int capacity;
-  private final int refillRate;
+  private final long nanosPerToken;
+  private final long sweepIntervalNanos;
+  private final LongSupplier nanoClock;
   private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
-  private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+  private final AtomicLong lastSweep;
 
-  public TokenBucketRateLimiter(int capacity, int refillRate) {
+  public TokenBucketRateLimiter(int capacity, double refillRate) {
     this(capacity, refillRate, 1, TimeUnit.SECONDS);
   }
 
@@ -21,60 +34,148 @@ public class TokenBucketRateLimiter implements RateLimiter {
    * Constructor with custom refill interval.
    *
    * @param capacity token bucket capacity
-   * @param refillRate token refill rate
+   * @param refillRate tokens added per refill interval, may be fractional
    * @param refillInterval refill interval value
    * @param timeUnit refill interval time unit
    */
   public TokenBucketRateLimiter(
-      int capacity, int refillRate, long refillInterval, TimeUnit timeUnit) {
+      int capacity, double refillRate, long refillInterval, TimeUnit timeUnit) {
+    this(capacity, refillRate, timeUnit.toNanos(refillInterval), System::nanoTime);
+  }
+
+  TokenBucketRateLimiter(
+      int capacity, double refillRate, long refillIntervalNanos, LongSupplier nanoClock) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative");
+    }
+    if (capacity > 0 && !(refillRate > 0)) {
+      throw new IllegalArgumentException("refill rate must be positive");
+    }
     this.capacity = capacity;
-    this.refillRate = refillRate;
-    scheduler.scheduleAtFixedRate(this::refillBuckets, refillInterval, refillInterval, timeUnit);
+    this.nanosPerToken =
+        capacity == 0 ? 0 : Math.max(1, Math.round(refillIntervalNanos / refillRate));
+    this.sweepIntervalNanos =
+        Math.max(Math.multiplyExact(capacity, nanosPerToken), TimeUnit.SECONDS.toNanos(1));
+    this.nanoClock = nanoClock;
+    this.lastSweep = new AtomicLong(nanoClock.getAsLong());
   }
 
   @Override
   public void check(String serviceName, String operationName) throws RateLimitException {
-    String key = serviceName + ":" + operationName;
-    TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity));
+    check(serviceName, operationName, 1);
+  }
 
-    if (!bucket.tryConsume()) {
-      System.out.printf(
-          "[TokenBucket] Throttled %s.%s - No tokens available%n", serviceName, operationName);
+  /**
+   * Checks if a request taking several permits, such as a batch, is allowed. Either all permits are
+   * taken or none.
+   *
+   * @param serviceName Service being called
+   * @param operationName Operation being performed
+   * @param permits number of tokens the request takes
+   * @throws RateLimitException if there are not enough tokens, or never can be
+   */
+  public void check(String serviceName, String operationName, int permits)
+      throws RateLimitException {
+    if (permits < 1) {
+      throw new IllegalArgumentException("permits must be positive");
+    }
+    String key = serviceName + ":" + operationName;
+    if (permits > capacity) {
+      LOGGER.debug("[TokenBucket] Throttled {}.{} - Exceeds capacity", serviceName, operationName);
       throw new ThrottlingException(serviceName, operationName, 1000);
+    }
+
+    long now = nanoClock.getAsLong();
+    long waitNanos;
+    do {
+      TokenBucket bucket =
+          buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, nanosPerToken, now));
+      waitNanos = bucket.tryConsume(permits, now);
+    } while (waitNanos == TokenBucket.EVICTED);
+    evictIdleBuckets(now);
+
+    if (waitNanos > 0) {
+      LOGGER.debug(
+          "[TokenBucket] Throttled {}.{} - No tokens available", serviceName, operationName);
+      throw new ThrottlingException(
+          serviceName, operationName, TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
     } else {
-      System.out.printf(
-          "[TokenBucket] Allowed %s.%s - Tokens remaining%n", serviceName, operationName);
+      LOGGER.debug("[TokenBucket] Allowed {}.{} - Tokens remaining", serviceName, operationName);
     }
   }
 
-  private void refillBuckets() {
-    buckets.forEach((k, b) -> b.refill(refillRate));
+  private void evictIdleBuckets(long now) {
+    long last = lastSweep.get();
+    // a single caller per interval pays for the sweep
+    if (now - last >= sweepIntervalNanos && lastSweep.compareAndSet(last, now)) {
+      evictIdleBuckets(buckets, now, 0);
+    }
   }
 
-  /** Inner class that represents the bucket holding tokens for each service-operation. */
-  private static class TokenBucket {
-    private final int capacity;
-    private final AtomicInteger tokens;
+  static void evictIdleBuckets(
+      ConcurrentHashMap<String, TokenBucket> buckets, long now, long idleNanos) {
+    buckets.values().removeIf(bucket -> bucket.evictIfIdle(now, idleNanos));
+  }
 
-    TokenBucket(int capacity) {
-      this.capacity = capacity;
-      this.tokens = new AtomicInteger(capacity);
+  int bucketCount() {
+    return buckets.size();
+  }
+
+  /** Nothing to release, the buckets are refilled without a background task. */
+  public void shutdown() {}
+
+  /**
+   * Bucket holding the tokens for a service-operation. Instead of the tokens it keeps the time at
+   * which the bucket was, or will be, empty, so that refilling and taking tokens is a single
+   * compare-and-set.
+   */
+  static final class TokenBucket {
+    /** Returned by {@link #tryConsume} once the bucket has been evicted and must be replaced. */
+    static final long EVICTED = -1;
+
+    private static final long EVICTED_AT = Long.MIN_VALUE;
+
+    private final long nanosPerToken;
+    private final long fillNanos;
+    private final AtomicLong emptyAt;
+
+    TokenBucket(int capacity, long nanosPerToken, long now) {
+      this.nanosPerToken = nanosPerToken;
+      this.fillNanos = capacity * nanosPerToken;
+      this.emptyAt = new AtomicLong(now - fillNanos);
     }
 
-    boolean tryConsume() {
+    /**
+     * Takes tokens if there are enough of them.
+     *
+     * @param permits number of tokens, at most the capacity
+     * @param now current time in nanoseconds
+     * @return zero if taken, the nanoseconds until there are enough tokens otherwise, or {@link
+     *     #EVICTED}
+     */
+    long tryConsume(int permits, long now) {
       while (true) {
-        int current = tokens.get();
-        if (current <= 0) return false;
-        if (tokens.compareAndSet(current, current - 1)) return true;
+        long empty = emptyAt.get();
+        if (empty == EVICTED_AT) {
+          return EVICTED;
+        }
+        // a full bucket does not keep filling up
+        long base = now - empty > fillNanos ? now - fillNanos : empty;
+        long next = base + permits * nanosPerToken;
+        if (next - now > 0) {
+          return next - now;
+        }
+        if (emptyAt.compareAndSet(empty, next)) {
+          return 0;
+        }
       }
     }
 
-    void refill(int amount) {
-      tokens.getAndUpdate(current -> Math.min(current + amount, capacity));
+    boolean evictIfIdle(long now, long idleNanos) {
+      long empty = emptyAt.get();
+      return empty != EVICTED_AT
+          && now - empty - fillNanos >= idleNanos
+          && emptyAt.compareAndSet(empty, EVICTED_AT);
     }
   }
-
-  public void shutdown() {
-    scheduler.shutdown();
-  }
 }
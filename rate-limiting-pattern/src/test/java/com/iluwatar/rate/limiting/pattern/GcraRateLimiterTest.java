@@ -0,0 +1,94 @@
+package com.iluwatar.rate.limiting.pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class GcraRateLimiterTest extends RateLimiterTest {
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+  @Override
+  protected RateLimiter createRateLimiter(int limit, long windowMillis) {
+    return new GcraRateLimiter(limit, windowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void shouldSpaceRequestsEvenlyAfterBurst() throws Exception {
+    AtomicLong clock = new AtomicLong(5 * WINDOW);
+    GcraRateLimiter limiter = new GcraRateLimiter(10, WINDOW, clock::get);
+    for (int i = 0; i < 10; i++) {
+      limiter.check("test", "op");
+    }
+    RateLimitException e =
+        assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+    assertEquals(101, e.getRetryAfterMillis());
+
+    // one emission interval later exactly one more request is allowed
+    clock.addAndGet(WINDOW / 10);
+    limiter.check("test", "op");
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+  }
+
+  @Test
+  void shouldNotSaveUpBurstWhileIdle() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    GcraRateLimiter limiter = new GcraRateLimiter(3, WINDOW, clock::get);
+    limiter.check("test", "op");
+
+    clock.addAndGet(10 * WINDOW);
+    for (int i = 0; i < 3; i++) {
+      limiter.check("test", "op");
+    }
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+  }
+
+  @Test
+  void shouldAllowExactlyTheBurstUnderContention() throws Exception {
+    int threadCount = 16;
+    RateLimiter limiter = new GcraRateLimiter(1000, 1, TimeUnit.HOURS);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      AtomicInteger successCount = new AtomicInteger();
+      CountDownLatch done = new CountDownLatch(threadCount);
+      for (int t = 0; t < threadCount; t++) {
+        executor.submit(
+            () -> {
+              for (int i = 0; i < 200; i++) {
+                try {
+                  limiter.check("test", "op");
+                  successCount.incrementAndGet();
+                } catch (RateLimitException ignored) {
+                }
+              }
+              done.countDown();
+            });
+      }
+      done.await();
+      assertEquals(1000, successCount.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldEvictKeysWhoseArrivalTimeHasPassed() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    GcraRateLimiter limiter = new GcraRateLimiter(2, WINDOW, clock::get);
+    for (int i = 0; i < 100; i++) {
+      limiter.check("tenant" + i, "op");
+    }
+    assertEquals(100, limiter.keyCount());
+
+    clock.addAndGet(WINDOW);
+    limiter.check("active", "op");
+    assertEquals(1, limiter.keyCount());
+
+    // an evicted key comes back with the full burst, exactly as it would have had
+    limiter.check("tenant0", "op");
+    limiter.check("tenant0", "op");
+    assertThrows(RateLimitException.class, () -> limiter.check("tenant0", "op"));
+  }
+}
@@ -0,0 +1,112 @@
+package com.iluwatar.rate.limiting.pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowCounterRateLimiterTest extends RateLimiterTest {
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+  @Override
+  protected RateLimiter createRateLimiter(int limit, long windowMillis) {
+    return new SlidingWindowCounterRateLimiter(limit, windowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void shouldNotAllowTwiceTheLimitAroundWindowBoundary() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    SlidingWindowCounterRateLimiter limiter =
+        new SlidingWindowCounterRateLimiter(10, WINDOW, clock::get);
+
+    clock.set(WINDOW - 1);
+    for (int i = 0; i < 10; i++) {
+      limiter.check("test", "op");
+    }
+    // a fixed window would allow another 10 right after the boundary
+    clock.set(WINDOW + 1);
+    assertThrows(ThrottlingException.class, () -> limiter.check("test", "op"));
+
+    // half way through the window, half of the previous requests still count
+    clock.set(WINDOW + WINDOW / 2);
+    for (int i = 0; i < 5; i++) {
+      limiter.check("test", "op");
+    }
+    assertThrows(ThrottlingException.class, () -> limiter.check("test", "op"));
+  }
+
+  @Test
+  void shouldForgetRequestsOlderThanTwoWindows() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    SlidingWindowCounterRateLimiter limiter =
+        new SlidingWindowCounterRateLimiter(2, WINDOW, clock::get);
+    limiter.check("test", "op");
+    limiter.check("test", "op");
+    RateLimitException e =
+        assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+    assertEquals(1001, e.getRetryAfterMillis());
+
+    clock.set(2 * WINDOW);
+    limiter.check("test", "op");
+    limiter.check("test", "op");
+  }
+
+  @Test
+  void shouldRejectLimitsThatDoNotFitTheCounters() {
+    assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounterRateLimiter(0, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new SlidingWindowCounterRateLimiter(SlidingWindowCounterRateLimiter.MAX_LIMIT + 1, 1));
+  }
+
+  @Test
+  void shouldAllowExactlyTheLimitUnderContention() throws Exception {
+    int threadCount = 16;
+    RateLimiter limiter = new SlidingWindowCounterRateLimiter(1000, 1, TimeUnit.HOURS);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      AtomicInteger successCount = new AtomicInteger();
+      CountDownLatch done = new CountDownLatch(threadCount);
+      for (int t = 0; t < threadCount; t++) {
+        executor.submit(
+            () -> {
+              for (int i = 0; i < 200; i++) {
+                try {
+                  limiter.check("test", "op");
+                  successCount.incrementAndGet();
+                } catch (RateLimitException ignored) {
+                }
+              }
+              done.countDown();
+            });
+      }
+      done.await();
+      assertEquals(1000, successCount.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldEvictKeysWithoutRecentRequests() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    SlidingWindowCounterRateLimiter limiter =
+        new SlidingWindowCounterRateLimiter(2, WINDOW, clock::get);
+    for (int i = 0; i < 100; i++) {
+      limiter.check("tenant" + i, "op");
+    }
+    assertEquals(100, limiter.keyCount());
+
+    clock.addAndGet(2 * WINDOW);
+    limiter.check("active", "op");
+    assertEquals(1, limiter.keyCount());
+
+    // an evicted key comes back with the full limit, exactly as it would have had
+    limiter.check("tenant0", "op");
+    limiter.check("tenant0", "op");
+    assertThrows(RateLimitException.class, () -> limiter.check("tenant0", "op"));
+  }
+}
@@ -3,9 +3,12 @@ package com.iluwatar.rate.limiting.pattern;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
 
 class TokenBucketRateLimiterTest extends RateLimiterTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
   @Override
   protected RateLimiter createRateLimiter(int limit, long windowMillis) {
     return new TokenBucketRateLimiter(limit, (int) (limit * 1000 / windowMillis));
@@ -36,4 +39,64 @@ class TokenBucketRateLimiterTest extends RateLimiterTest {
     limiter.check("service2", "op");
     assertThrows(RateLimitException.class, () -> limiter.check("service1", "op"));
   }
+
+  @Test
+  void shouldRefillFractionalRateLazily() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 0.5, SECOND, clock::get);
+    limiter.check("test", "op");
+    limiter.check("test", "op");
+    RateLimitException e =
+        assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+    assertEquals(2001, e.getRetryAfterMillis());
+
+    clock.addAndGet(SECOND);
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+    clock.addAndGet(SECOND);
+    limiter.check("test", "op");
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+  }
+
+  @Test
+  void shouldTakeWeightedPermitsAtOnce() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 10, SECOND, clock::get);
+    limiter.check("test", "batch", 7);
+    // not enough tokens for the batch, and none of them are taken
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "batch", 4));
+    limiter.check("test", "batch", 3);
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "batch", 11));
+    assertThrows(IllegalArgumentException.class, () -> limiter.check("test", "batch", 0));
+
+    clock.addAndGet(SECOND / 2);
+    limiter.check("test", "batch", 5);
+  }
+
+  @Test
+  void shouldNotExceedCapacityAfterIdling() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1, SECOND, clock::get);
+    limiter.check("test", "op");
+    clock.addAndGet(100 * SECOND);
+    limiter.check("test", "op", 3);
+    assertThrows(RateLimitException.class, () -> limiter.check("test", "op"));
+  }
+
+  @Test
+  void shouldEvictBucketsThatFilledUp() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, SECOND, clock::get);
+    for (int i = 0; i < 100; i++) {
+      limiter.check("tenant" + i, "op", 2);
+    }
+    assertEquals(100, limiter.bucketCount());
+
+    clock.addAndGet(2 * SECOND);
+    limiter.check("active", "op", 2);
+    assertEquals(1, limiter.bucketCount());
+
+    // an evicted bucket comes back full, exactly as it would have been
+    limiter.check("tenant0", "op", 2);
+    assertThrows(RateLimitException.class, () -> limiter.check("active", "op"));
+  }
 }
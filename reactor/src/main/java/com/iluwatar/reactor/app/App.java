@@ -25,6 +25,7 @@
 package com.iluwatar.reactor.app;
 
 import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.ByteBufferPool;
 import com.iluwatar.reactor.framework.ChannelHandler;
 import com.iluwatar.reactor.framework.Dispatcher;
 import com.iluwatar.reactor.framework.NioDatagramChannel;
@@ -82,6 +83,8 @@ public class App {
   private NioReactor reactor;
   private final List<AbstractNioChannel> channels = new ArrayList<>();
   private final Dispatcher dispatcher;
+  private final int workerReactors;
+  private final ByteBufferPool bufferPool = new ByteBufferPool(1024, 64, 1);
 
   /**
    * Creates an instance of App which will use provided dispatcher for dispatching events on
@@ -90,7 +93,18 @@ public class App {
    * @param dispatcher the dispatcher that will be used to dispatch events.
    */
   public App(Dispatcher dispatcher) {
+    this(dispatcher, 0);
+  }
+
+  /**
+   * Creates an instance of App whose reactor hands accepted TCP connections to worker reactors.
+   *
+   * @param dispatcher the dispatcher that will be used to dispatch events.
+   * @param workerReactors number of worker reactors, zero to use a single reactor.
+   */
+  public App(Dispatcher dispatcher, int workerReactors) {
     this.dispatcher = dispatcher;
+    this.workerReactors = workerReactors;
   }
 
   /** App entry. */
@@ -107,7 +121,7 @@ public class App {
     /*
      * The application can customize its event dispatching mechanism.
      */
-    reactor = new NioReactor(dispatcher);
+    reactor = new NioReactor(dispatcher, workerReactors);
 
     /*
      * This represents application specific business logic that dispatcher will call on appropriate
@@ -142,7 +156,7 @@ public class App {
   }
 
   private AbstractNioChannel tcpChannel(int port, ChannelHandler handler) throws IOException {
-    var channel = new NioServerSocketChannel(port, handler);
+    var channel = new NioServerSocketChannel(port, handler, bufferPool);
     channel.bind();
     channels.add(channel);
     return channel;
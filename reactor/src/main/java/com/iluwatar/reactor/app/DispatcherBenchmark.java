@@ -0,0 +1,221 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.app;
+
+import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.ChannelHandler;
+import com.iluwatar.reactor.framework.Dispatcher;
+import com.iluwatar.reactor.framework.NioReactor;
+import com.iluwatar.reactor.framework.NioServerSocketChannel;
+import com.iluwatar.reactor.framework.SameThreadDispatcher;
+import com.iluwatar.reactor.framework.ThreadPoolDispatcher;
+import com.iluwatar.reactor.framework.VirtualThreadDispatcher;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the dispatchers of the reactor when handlers block. Every request is handled by a
+ * handler that sleeps for a while, simulating a database call, before echoing the request. Many
+ * connections send requests concurrently and the benchmark reports the requests per second and the
+ * 99th percentile latency for each dispatcher.
+ *
+ * <p>The {@link SameThreadDispatcher} serializes all requests on the reactor thread and the {@link
+ * ThreadPoolDispatcher} handles at most as many requests as it has threads, while the {@link
+ * VirtualThreadDispatcher} keeps up with the number of connections.
+ */
+@Slf4j
+public class DispatcherBenchmark {
+
+  private static final int BASE_PORT = 16700;
+  private static final int MESSAGE_SIZE = 64;
+
+  private final int connections;
+  private final int requestsPerConnection;
+  private final long blockingMillis;
+
+  /** The dispatchers being compared. */
+  public enum DispatcherType {
+    SAME_THREAD,
+    THREAD_POOL,
+    VIRTUAL_THREAD;
+
+    Dispatcher create(int poolSize) {
+      return switch (this) {
+        case SAME_THREAD -> new SameThreadDispatcher();
+        case THREAD_POOL -> new ThreadPoolDispatcher(poolSize);
+        case VIRTUAL_THREAD -> new VirtualThreadDispatcher(true);
+      };
+    }
+  }
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param dispatcher the dispatcher used.
+   * @param requestsPerSecond requests handled per second.
+   * @param p99LatencyMillis 99th percentile request latency in milliseconds.
+   */
+  public record Result(
+      DispatcherType dispatcher, double requestsPerSecond, double p99LatencyMillis) {}
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param connections number of concurrent connections.
+   * @param requestsPerConnection requests sent one after another over every connection.
+   * @param blockingMillis time the handler blocks for every request.
+   */
+  public DispatcherBenchmark(int connections, int requestsPerConnection, long blockingMillis) {
+    this.connections = connections;
+    this.requestsPerConnection = requestsPerConnection;
+    this.blockingMillis = blockingMillis;
+  }
+
+  /**
+   * Benchmark entry.
+   *
+   * @throws Exception if any run fails.
+   */
+  public static void main(String[] args) throws Exception {
+    var benchmark = new DispatcherBenchmark(200, 10, 20);
+    for (var type : DispatcherType.values()) {
+      var result = benchmark.run(type, 16);
+      LOGGER.info(
+          "dispatcher: {}, requests/sec: {}, p99 latency: {} ms",
+          result.dispatcher(),
+          String.format("%.0f", result.requestsPerSecond()),
+          String.format("%.1f", result.p99LatencyMillis()));
+    }
+  }
+
+  /**
+   * Runs the benchmark against a server using the given dispatcher.
+   *
+   * @param type the dispatcher to use.
+   * @param poolSize number of threads of the {@link ThreadPoolDispatcher}, ignored otherwise.
+   * @return the measured result.
+   * @throws IOException if the server fails to start.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  public Result run(DispatcherType type, int poolSize)
+      throws IOException, InterruptedException, ExecutionException {
+    var port = BASE_PORT + type.ordinal();
+    var dispatcher = type.create(poolSize);
+    var reactor = new NioReactor(dispatcher);
+    var channel = new NioServerSocketChannel(port, new BlockingEchoHandler(blockingMillis));
+    channel.bind();
+    reactor.registerChannel(channel).start();
+    // a virtual thread per connection, so that the clients never limit the concurrency
+    var executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      var connected = new CountDownLatch(connections);
+      var startSignal = new CountDownLatch(1);
+      var futures = new ArrayList<Future<long[]>>();
+      for (var i = 0; i < connections; i++) {
+        futures.add(executor.submit(() -> sendRequests(port, connected, startSignal)));
+      }
+      // a blocked reactor thread cannot accept connections, so connect them all before measuring
+      connected.await();
+      var start = System.nanoTime();
+      startSignal.countDown();
+      var latencies = new long[connections * requestsPerConnection];
+      var offset = 0;
+      for (var future : futures) {
+        var connectionLatencies = future.get();
+        System.arraycopy(connectionLatencies, 0, latencies, offset, connectionLatencies.length);
+        offset += connectionLatencies.length;
+      }
+      var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+      Arrays.sort(latencies);
+      var p99 = latencies[Math.max(0, (int) Math.ceil(latencies.length * 0.99) - 1)];
+      return new Result(type, latencies.length / elapsedSeconds, p99 / 1e6);
+    } finally {
+      executor.shutdownNow();
+      reactor.stop();
+      dispatcher.stop();
+      channel.getJavaChannel().close();
+    }
+  }
+
+  private long[] sendRequests(int port, CountDownLatch connected, CountDownLatch startSignal)
+      throws IOException, InterruptedException {
+    var latencies = new long[requestsPerConnection];
+    var request = new byte[MESSAGE_SIZE];
+    var reply = new byte[MESSAGE_SIZE];
+    try (var socket = new Socket(InetAddress.getLocalHost(), port)) {
+      socket.setTcpNoDelay(true);
+      var out = socket.getOutputStream();
+      var in = socket.getInputStream();
+      connected.countDown();
+      startSignal.await();
+      for (var r = 0; r < requestsPerConnection; r++) {
+        var start = System.nanoTime();
+        out.write(request);
+        out.flush();
+        var read = 0;
+        while (read < MESSAGE_SIZE) {
+          var n = in.read(reply, read, MESSAGE_SIZE - read);
+          if (n == -1) {
+            throw new IOException("Connection closed by server");
+          }
+          read += n;
+        }
+        latencies[r] = System.nanoTime() - start;
+      }
+    }
+    return latencies;
+  }
+
+  /** Blocks for a while, as a database call would, before echoing the received buffer. */
+  static class BlockingEchoHandler implements ChannelHandler {
+
+    private final long blockingMillis;
+
+    BlockingEchoHandler(long blockingMillis) {
+      this.blockingMillis = blockingMillis;
+    }
+
+    @Override
+    public void handleChannelRead(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+      try {
+        Thread.sleep(blockingMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      channel.write(readObject, key);
+    }
+  }
+}
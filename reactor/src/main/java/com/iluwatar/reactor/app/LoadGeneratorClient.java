@@ -0,0 +1,221 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.app;
+
+import com.iluwatar.reactor.framework.AbstractNioChannel;
+import com.iluwatar.reactor.framework.ByteBufferPool;
+import com.iluwatar.reactor.framework.ChannelHandler;
+import com.iluwatar.reactor.framework.NioReactor;
+import com.iluwatar.reactor.framework.NioServerSocketChannel;
+import com.iluwatar.reactor.framework.SameThreadDispatcher;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Load generator for the reactor. Where {@link AppClient} sends a handful of logging requests, this
+ * client measures how the reactor scales with the number of worker reactors. For every worker count
+ * it starts an echo server, lets several client threads open connections and send echo requests
+ * over them, and reports the connections per second and the 99th percentile echo latency. Runs can
+ * read into a {@link ByteBufferPool} instead of allocating a heap buffer per read, and report the
+ * heap bytes the JVM allocated per echo request.
+ */
+@Slf4j
+public class LoadGeneratorClient {
+
+  private static final int BASE_PORT = 16670;
+  private static final int MESSAGE_SIZE = 64;
+
+  private final int clientThreads;
+  private final int connectionsPerThread;
+  private final int requestsPerConnection;
+
+  /**
+   * Result of a single load run.
+   *
+   * @param workerReactors number of worker reactors, zero for a single reactor.
+   * @param connectionsPerSecond connections opened and served per second.
+   * @param p99LatencyMicros 99th percentile echo latency in microseconds.
+   * @param allocatedBytesPerRequest heap bytes allocated by the JVM per echo request.
+   */
+  public record Result(
+      int workerReactors,
+      double connectionsPerSecond,
+      double p99LatencyMicros,
+      double allocatedBytesPerRequest) {}
+
+  /**
+   * Creates a load generator.
+   *
+   * @param clientThreads number of concurrent client threads.
+   * @param connectionsPerThread connections opened one after another by every client thread.
+   * @param requestsPerConnection echo requests sent over every connection.
+   */
+  public LoadGeneratorClient(
+      int clientThreads, int connectionsPerThread, int requestsPerConnection) {
+    this.clientThreads = clientThreads;
+    this.connectionsPerThread = connectionsPerThread;
+    this.requestsPerConnection = requestsPerConnection;
+  }
+
+  /**
+   * Load generator entry.
+   *
+   * @throws Exception if any run fails.
+   */
+  public static void main(String[] args) throws Exception {
+    var client = new LoadGeneratorClient(16, 50, 20);
+    for (var pooled : List.of(false, true)) {
+      for (var workerReactors : List.of(0, 1, 2, 4, 8)) {
+        var result = client.run(workerReactors, pooled);
+        LOGGER.info(
+            "pooled buffers: {}, worker reactors: {}, connections/sec: {}, p99 echo latency: {} us,"
+                + " allocated: {} bytes/request",
+            pooled,
+            result.workerReactors(),
+            String.format("%.0f", result.connectionsPerSecond()),
+            String.format("%.1f", result.p99LatencyMicros()),
+            String.format("%.0f", result.allocatedBytesPerRequest()));
+      }
+    }
+  }
+
+  /**
+   * Runs the load against an echo server using the given number of worker reactors.
+   *
+   * @param workerReactors number of worker reactors, zero for a single reactor.
+   * @return the measured result.
+   * @throws IOException if the server fails to start.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  public Result run(int workerReactors)
+      throws IOException, InterruptedException, ExecutionException {
+    return run(workerReactors, false);
+  }
+
+  /**
+   * Runs the load against an echo server using the given number of worker reactors, optionally
+   * reading into pooled direct buffers.
+   *
+   * @param workerReactors number of worker reactors, zero for a single reactor.
+   * @param pooledBuffers whether the server reads into a {@link ByteBufferPool}.
+   * @return the measured result.
+   * @throws IOException if the server fails to start.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  public Result run(int workerReactors, boolean pooledBuffers)
+      throws IOException, InterruptedException, ExecutionException {
+    var port = BASE_PORT + workerReactors;
+    var dispatcher = new SameThreadDispatcher();
+    var reactor = new NioReactor(dispatcher, workerReactors);
+    var bufferPool = pooledBuffers ? new ByteBufferPool(1024, clientThreads * 4, 1) : null;
+    var channel = new NioServerSocketChannel(port, new EchoHandler(), bufferPool);
+    channel.bind();
+    reactor.registerChannel(channel).start();
+    var executor = Executors.newFixedThreadPool(clientThreads);
+    try {
+      var allocatedBefore = allocatedBytes();
+      var start = System.nanoTime();
+      var futures = new ArrayList<Future<long[]>>();
+      for (var i = 0; i < clientThreads; i++) {
+        futures.add(executor.submit(() -> sendEchoRequests(port)));
+      }
+      var latencies = new long[clientThreads * connectionsPerThread * requestsPerConnection];
+      var offset = 0;
+      for (var future : futures) {
+        var threadLatencies = future.get();
+        System.arraycopy(threadLatencies, 0, latencies, offset, threadLatencies.length);
+        offset += threadLatencies.length;
+      }
+      var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+      var allocated = allocatedBytes() - allocatedBefore;
+      Arrays.sort(latencies);
+      var p99 = latencies[Math.max(0, (int) Math.ceil(latencies.length * 0.99) - 1)];
+      return new Result(
+          workerReactors,
+          clientThreads * connectionsPerThread / elapsedSeconds,
+          p99 / 1e3,
+          (double) allocated / latencies.length);
+    } finally {
+      executor.shutdownNow();
+      reactor.stop();
+      dispatcher.stop();
+      channel.getJavaChannel().close();
+    }
+  }
+
+  private static long allocatedBytes() {
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    return threads.getTotalThreadAllocatedBytes();
+  }
+
+  private long[] sendEchoRequests(int port) throws IOException {
+    var latencies = new long[connectionsPerThread * requestsPerConnection];
+    var request = new byte[MESSAGE_SIZE];
+    var reply = new byte[MESSAGE_SIZE];
+    var index = 0;
+    for (var c = 0; c < connectionsPerThread; c++) {
+      try (var socket = new Socket(InetAddress.getLocalHost(), port)) {
+        socket.setTcpNoDelay(true);
+        var out = socket.getOutputStream();
+        var in = socket.getInputStream();
+        for (var r = 0; r < requestsPerConnection; r++) {
+          var start = System.nanoTime();
+          out.write(request);
+          out.flush();
+          var read = 0;
+          while (read < MESSAGE_SIZE) {
+            var n = in.read(reply, read, MESSAGE_SIZE - read);
+            if (n == -1) {
+              throw new IOException("Connection closed by server");
+            }
+            read += n;
+          }
+          latencies[index++] = System.nanoTime() - start;
+        }
+      }
+    }
+    return latencies;
+  }
+
+  /** Writes every received buffer back to the sender. */
+  static class EchoHandler implements ChannelHandler {
+    @Override
+    public void handleChannelRead(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+      channel.write(readObject, key);
+    }
+  }
+}
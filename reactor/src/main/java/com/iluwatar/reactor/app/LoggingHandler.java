@@ -27,8 +27,10 @@ package com.iluwatar.reactor.app;
 import com.iluwatar.reactor.framework.AbstractNioChannel;
 import com.iluwatar.reactor.framework.ChannelHandler;
 import com.iluwatar.reactor.framework.NioDatagramChannel.DatagramPacket;
+import com.iluwatar.reactor.framework.PooledByteBuffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -50,6 +52,17 @@ public class LoggingHandler implements ChannelHandler {
     if (readObject instanceof ByteBuffer) {
       doLogging((ByteBuffer) readObject);
       sendReply(channel, key);
+    } else if (readObject instanceof PooledByteBuffer pooled) {
+      /*
+       * The TCP channel reads into pooled, or without a pool unpooled, buffers. The handler owns the
+       * buffer and has to release it once the data has been logged.
+       */
+      try {
+        doLogging(pooled.getBuffer());
+      } finally {
+        pooled.release();
+      }
+      sendReply(channel, key);
     } else if (readObject instanceof DatagramPacket datagram) {
       doLogging(datagram.getData());
       sendReply(channel, datagram, key);
@@ -77,6 +90,6 @@ public class LoggingHandler implements ChannelHandler {
 
   private static void doLogging(ByteBuffer data) {
     // assuming UTF-8 :(
-    LOGGER.info(new String(data.array(), 0, data.limit()));
+    LOGGER.info(StandardCharsets.UTF_8.decode(data.duplicate()).toString());
   }
 }
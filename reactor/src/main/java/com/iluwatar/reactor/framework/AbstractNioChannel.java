@@ -25,13 +25,18 @@
 package com.iluwatar.reactor.framework;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
 
 /**
@@ -43,13 +48,42 @@ import lombok.Getter;
  * the concrete implementation. It provides a block writing mechanism wherein when any {@link
  * ChannelHandler} wants to write data back, it queues the data in pending write queue and clears it
  * in block manner. This provides better throughput.
+ *
+ * <p>A flush hands up to {@value #MAX_WRITE_BATCH} pending writes at once to {@link #doWrite(List,
+ * SelectionKey)}, so that concrete channels can write them with a single gathering write. Data the
+ * channel could not take stays queued, in order, until the channel becomes writable again. {@link
+ * PooledByteBuffer}s are released once they have been written completely.
+ *
+ * <p>The pending writes of every connection can be bounded with {@link
+ * #setWriteBufferWaterMarks(long, long, boolean)}. Once more than the high water mark of bytes is
+ * queued the connection turns unwritable, which is reported to {@link
+ * ChannelHandler#handleChannelWritabilityChanged(AbstractNioChannel, SelectionKey, boolean)}, and
+ * it turns writable again when the queue has drained to the low water mark. Optionally the channel
+ * stops reading from an unwritable connection, so that a slow peer cannot make the server buffer an
+ * unbounded amount of replies.
  */
 public abstract class AbstractNioChannel {
 
+  /** Maximum number of pending writes handed to a single {@link #doWrite(List, SelectionKey)}. */
+  static final int MAX_WRITE_BATCH = 64;
+
   private final SelectableChannel channel;
   @Getter private final ChannelHandler handler;
-  private final Map<SelectableChannel, Queue<Object>> channelToPendingWrites;
+  private final Map<SelectableChannel, PendingWrites> channelToPendingWrites;
   private NioReactor reactor;
+  private volatile long lowWaterMark = Long.MAX_VALUE;
+  private volatile long highWaterMark = Long.MAX_VALUE;
+  private volatile boolean pauseReadsWhenUnwritable;
+
+  /** Data queued for writing together with its size in bytes at the time it was queued. */
+  private record PendingWrite(Object data, int size) {}
+
+  /** Pending writes and writability of a single connection. */
+  private static final class PendingWrites {
+    private final Deque<PendingWrite> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicBoolean writable = new AtomicBoolean(true);
+  }
 
   /**
    * Creates a new channel.
@@ -68,6 +102,48 @@ public abstract class AbstractNioChannel {
     this.reactor = reactor;
   }
 
+  /**
+   * Bounds the data queued for writing on every connection of this channel. By default the queue is
+   * unbounded.
+   *
+   * @param lowWaterMark a connection turns writable again when at most this many bytes are queued.
+   * @param highWaterMark a connection turns unwritable when more than this many bytes are queued.
+   * @param pauseReads whether to stop reading from a connection while it is unwritable. As all
+   *     peers of a datagram channel share a single key, this pauses the whole datagram channel.
+   */
+  public void setWriteBufferWaterMarks(long lowWaterMark, long highWaterMark, boolean pauseReads) {
+    if (lowWaterMark < 0 || lowWaterMark > highWaterMark) {
+      throw new IllegalArgumentException("Expected 0 <= lowWaterMark <= highWaterMark");
+    }
+    this.lowWaterMark = lowWaterMark;
+    this.highWaterMark = highWaterMark;
+    this.pauseReadsWhenUnwritable = pauseReads;
+  }
+
+  /**
+   * Tells whether the connection of the key accepts more data without exceeding the high water
+   * mark. Handlers should stop producing data for an unwritable connection until they are notified
+   * that it is writable again.
+   *
+   * @param key the key of the connection.
+   * @return true if fewer than the high water mark bytes are queued.
+   */
+  public boolean isWritable(SelectionKey key) {
+    var pendingWrites = channelToPendingWrites.get(key.channel());
+    return pendingWrites == null || pendingWrites.writable.get();
+  }
+
+  /**
+   * Get the number of bytes queued for writing on the connection of the key.
+   *
+   * @param key the key of the connection.
+   * @return queued bytes.
+   */
+  public long getPendingWriteBytes(SelectionKey key) {
+    var pendingWrites = channelToPendingWrites.get(key.channel());
+    return pendingWrites == null ? 0 : pendingWrites.bytes.get();
+  }
+
   /**
    * Get channel.
    *
@@ -105,17 +181,125 @@ public abstract class AbstractNioChannel {
 
   /*
    * Called from the context of reactor thread when the key becomes writable. The channel writes the
-   * whole pending block of data at once.
+   * whole pending block of data at once, in batches of at most MAX_WRITE_BATCH writes.
    */
   void flush(SelectionKey key) throws IOException {
     var pendingWrites = channelToPendingWrites.get(key.channel());
-    Object pendingWrite;
-    while ((pendingWrite = pendingWrites.poll()) != null) {
+    if (pendingWrites == null) {
+      reactor.refreshOps(key);
+      return;
+    }
+    var batch = new ArrayList<PendingWrite>(MAX_WRITE_BATCH);
+    var data = new ArrayList<Object>(MAX_WRITE_BATCH);
+    while (true) {
+      PendingWrite pendingWrite;
+      while (batch.size() < MAX_WRITE_BATCH
+          && (pendingWrite = pendingWrites.queue.poll()) != null) {
+        batch.add(pendingWrite);
+        data.add(pendingWrite.data());
+      }
+      if (batch.isEmpty()) {
+        break;
+      }
       // ask the concrete channel to make sense of data and write it to java channel
+      var written = doWrite(data, key);
+      var writtenBytes = 0L;
+      for (var i = 0; i < written; i++) {
+        writtenBytes += batch.get(i).size();
+        if (batch.get(i).data() instanceof PooledByteBuffer pooled) {
+          pooled.release();
+        }
+      }
+      onWritten(pendingWrites, writtenBytes, key);
+      if (written < batch.size()) {
+        // the socket buffer is full, keep the rest in order and wait until it is writable again
+        for (var i = batch.size() - 1; i >= written; i--) {
+          pendingWrites.queue.addFirst(batch.get(i));
+        }
+        break;
+      }
+      batch.clear();
+      data.clear();
+    }
+    // once nothing is left to write the channel is only interested in reading more data
+    reactor.refreshOps(key);
+  }
+
+  /*
+   * Accounts for written bytes and turns the connection writable again once the queue has drained
+   * to the low water mark.
+   */
+  private void onWritten(PendingWrites pendingWrites, long writtenBytes, SelectionKey key) {
+    var remaining = pendingWrites.bytes.addAndGet(-writtenBytes);
+    if (remaining <= lowWaterMark && pendingWrites.writable.compareAndSet(false, true)) {
+      handler.handleChannelWritabilityChanged(this, key, true);
+    }
+  }
+
+  /*
+   * The operations the connection of the key is interested in, evaluated in the reactor thread.
+   */
+  int interestOps(SelectionKey key) {
+    var pendingWrites = channelToPendingWrites.get(key.channel());
+    if (pendingWrites == null) {
+      return SelectionKey.OP_READ;
+    }
+    var ops = pendingWrites.queue.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+    if (pendingWrites.writable.get() || !pauseReadsWhenUnwritable) {
+      ops |= SelectionKey.OP_READ;
+    }
+    return ops;
+  }
+
+  /*
+   * Drops the pending writes of a closed connection, releasing any pooled buffers.
+   */
+  void discardPendingWrites(SelectionKey key) {
+    var pendingWrites = channelToPendingWrites.remove(key.channel());
+    if (pendingWrites == null) {
+      return;
+    }
+    PendingWrite pendingWrite;
+    while ((pendingWrite = pendingWrites.queue.poll()) != null) {
+      if (pendingWrite.data() instanceof PooledByteBuffer pooled) {
+        pooled.release();
+      }
+    }
+  }
+
+  /**
+   * Size in bytes of data queued for writing, used for the write buffer water marks. Channels
+   * writing other types than {@link ByteBuffer} and {@link PooledByteBuffer} should override this.
+   *
+   * @param data the data to be written on channel.
+   * @return number of bytes the data occupies.
+   */
+  protected int sizeOf(Object data) {
+    if (data instanceof ByteBuffer buffer) {
+      return buffer.remaining();
+    }
+    if (data instanceof PooledByteBuffer pooled) {
+      return pooled.getBuffer().remaining();
+    }
+    return 0;
+  }
+
+  /**
+   * Writes a batch of pending data to the channel. The default implementation writes the items one
+   * by one using {@link #doWrite(Object, SelectionKey)}. Channels that support it should override
+   * this with a single gathering write.
+   *
+   * @param pendingWrites the data to be written on channel, in order.
+   * @param key the key which is writable.
+   * @return number of leading items that have been written completely; the remaining items stay
+   *     queued.
+   * @throws IOException if any I/O error occurs.
+   */
+  protected int doWrite(List<Object> pendingWrites, SelectionKey key) throws IOException {
+    for (var pendingWrite : pendingWrites) {
       doWrite(pendingWrite, key);
     }
-    // We don't have anything more to write so channel is interested in reading more data
-    reactor.changeOps(key, SelectionKey.OP_READ);
+    return pendingWrites.size();
   }
 
   /**
@@ -129,7 +313,8 @@ public abstract class AbstractNioChannel {
 
   /**
    * Queues the data for writing. The data is not guaranteed to be written on underlying channel
-   * when this method returns. It will be written when the channel is flushed.
+   * when this method returns. It will be written when the channel is flushed. Writing more than the
+   * high water mark turns the connection unwritable, see {@link #isWritable(SelectionKey)}.
    *
    * <p>This method is used by the {@link ChannelHandler} to send reply back to the client. <br>
    * Example:
@@ -145,19 +330,31 @@ public abstract class AbstractNioChannel {
    * </code>
    * </pre>
    *
-   * @param data the data to be written on underlying channel.
+   * @param data the data to be written on underlying channel, released right away if the connection
+   *     has already been closed.
    * @param key the key which is writable.
    */
   public void write(Object data, SelectionKey key) {
-    var pendingWrites = this.channelToPendingWrites.get(key.channel());
-    if (pendingWrites == null) {
-      synchronized (this.channelToPendingWrites) {
-        pendingWrites =
-            this.channelToPendingWrites.computeIfAbsent(
-                key.channel(), k -> new ConcurrentLinkedQueue<>());
+    if (!key.isValid()) {
+      // the connection has been closed, so the data would never be written nor released
+      if (data instanceof PooledByteBuffer pooled) {
+        pooled.release();
       }
+      return;
+    }
+    var pendingWrites =
+        this.channelToPendingWrites.computeIfAbsent(key.channel(), k -> new PendingWrites());
+    var size = sizeOf(data);
+    pendingWrites.queue.add(new PendingWrite(data, size));
+    if (!key.isValid()) {
+      // closed while queueing, after the reactor discarded the pending writes
+      discardPendingWrites(key);
+      return;
+    }
+    if (pendingWrites.bytes.addAndGet(size) > highWaterMark
+        && pendingWrites.writable.compareAndSet(true, false)) {
+      handler.handleChannelWritabilityChanged(this, key, false);
     }
-    pendingWrites.add(data);
-    reactor.changeOps(key, SelectionKey.OP_WRITE);
+    reactor.refreshOps(key);
   }
 }
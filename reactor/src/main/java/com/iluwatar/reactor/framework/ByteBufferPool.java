@@ -0,0 +1,104 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of fixed size direct {@link ByteBuffer}s. The buffers are sliced out of a few large direct
+ * slabs allocated up front, so reading from a channel neither allocates on the heap nor pays for an
+ * extra copy between heap and native memory. Buffers are handed out as {@link PooledByteBuffer}s
+ * and return to the pool when their reference count drops to zero.
+ *
+ * <p>When the pool is exhausted it hands out unpooled heap buffers instead of growing, which keeps
+ * the native memory used by the pool bounded.
+ */
+public class ByteBufferPool {
+
+  private final int bufferSize;
+  private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+  private final AtomicLong unpooledAllocations = new AtomicLong();
+
+  /**
+   * Creates a pool and allocates its slabs.
+   *
+   * @param bufferSize capacity of every buffer in bytes.
+   * @param buffersPerSlab number of buffers sliced out of one slab.
+   * @param slabs number of slabs to allocate.
+   */
+  public ByteBufferPool(int bufferSize, int buffersPerSlab, int slabs) {
+    if (bufferSize <= 0 || buffersPerSlab <= 0 || slabs <= 0) {
+      throw new IllegalArgumentException("Pool dimensions must be positive");
+    }
+    this.bufferSize = bufferSize;
+    for (var s = 0; s < slabs; s++) {
+      var slab = ByteBuffer.allocateDirect(bufferSize * buffersPerSlab);
+      for (var i = 0; i < buffersPerSlab; i++) {
+        freeBuffers.add(slab.slice(i * bufferSize, bufferSize));
+      }
+    }
+  }
+
+  /**
+   * Takes a cleared buffer out of the pool. The caller owns the only reference to it.
+   *
+   * @return a buffer with a reference count of one.
+   */
+  public PooledByteBuffer acquire() {
+    var buffer = freeBuffers.poll();
+    if (buffer == null) {
+      unpooledAllocations.incrementAndGet();
+      return new PooledByteBuffer(ByteBuffer.allocate(bufferSize), null);
+    }
+    buffer.clear();
+    return new PooledByteBuffer(buffer, this);
+  }
+
+  /**
+   * Number of buffers currently available in the pool.
+   *
+   * @return free buffer count.
+   */
+  public int getFreeBufferCount() {
+    return freeBuffers.size();
+  }
+
+  /**
+   * Number of times the pool was exhausted and an unpooled buffer was allocated instead.
+   *
+   * @return unpooled allocation count.
+   */
+  public long getUnpooledAllocationCount() {
+    return unpooledAllocations.get();
+  }
+
+  /** Returns a buffer whose reference count dropped to zero. */
+  void recycle(ByteBuffer buffer) {
+    freeBuffers.add(buffer);
+  }
+}
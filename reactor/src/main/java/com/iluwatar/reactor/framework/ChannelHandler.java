@@ -43,4 +43,19 @@ public interface ChannelHandler {
    * @param key the key on which read event occurred.
    */
   void handleChannelRead(AbstractNioChannel channel, Object readObject, SelectionKey key);
+
+  /**
+   * Called when the connection of {@code key} crosses a write buffer water mark, see {@link
+   * AbstractNioChannel#setWriteBufferWaterMarks(long, long, boolean)}. It turns unwritable in the
+   * thread writing past the high water mark and writable again in the reactor thread once the
+   * pending data has drained to the low water mark. The default implementation ignores it.
+   *
+   * @param channel the channel of the connection.
+   * @param key the key of the connection.
+   * @param writable whether the connection accepts more data.
+   */
+  default void handleChannelWritabilityChanged(
+      AbstractNioChannel channel, SelectionKey key, boolean writable) {
+    // no-op
+  }
 }
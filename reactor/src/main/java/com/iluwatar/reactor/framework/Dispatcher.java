@@ -54,6 +54,15 @@ public interface Dispatcher {
    */
   void onChannelReadEvent(AbstractNioChannel channel, Object readObject, SelectionKey key);
 
+  /**
+   * This hook method is called when the reactor closes a channel, after which no more read events
+   * are dispatched for <code>key</code>. The implementation should release any state it keeps for
+   * the channel.
+   *
+   * @param key of the closed channel
+   */
+  default void onChannelClosed(SelectionKey key) {}
+
   /**
    * Stops dispatching events and cleans up any acquired resources such as threads.
    *
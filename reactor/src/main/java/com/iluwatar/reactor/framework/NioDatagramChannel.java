@@ -128,6 +128,15 @@ public class NioDatagramChannel extends AbstractNioChannel {
     super.write(data, key);
   }
 
+  /** Counts the payload of a {@link DatagramPacket} towards the write buffer water marks. */
+  @Override
+  protected int sizeOf(Object data) {
+    if (data instanceof DatagramPacket packet) {
+      return packet.getData().remaining();
+    }
+    return super.sizeOf(data);
+  }
+
   /** Container of data used for {@link NioDatagramChannel} to communicate with remote peer. */
   @Getter
   public static class DatagramPacket {
@@ -25,9 +25,11 @@
 package com.iluwatar.reactor.framework;
 
 import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
@@ -45,6 +47,12 @@ import lombok.extern.slf4j.Slf4j;
  * <p>Implementation: A NIO reactor runs in its own thread when it is started using {@link #start()}
  * method. {@link NioReactor} uses {@link Selector} for realizing Synchronous Event De-multiplexing.
  *
+ * <p>A single selector thread saturates one core long before the network does. A reactor created
+ * with worker reactors ({@link #NioReactor(Dispatcher, int)}) therefore only accepts connections
+ * and hands every accepted {@link SocketChannel} round-robin to one of its workers. Each worker
+ * runs its own {@link Selector} and pending command queue in its own thread and de-multiplexes the
+ * reads and writes of the connections it owns.
+ *
  * <p>NOTE: This is one of the ways to implement NIO reactor, and it does not take care of all
  * possible edge cases which are required in a real application. This implementation is meant to
  * demonstrate the fundamental concepts that lie behind Reactor pattern.
@@ -65,6 +73,12 @@ public class NioReactor {
 
   private final ExecutorService reactorMain = Executors.newSingleThreadExecutor();
 
+  /** Worker reactors that accepted connections are handed to, empty in single reactor mode. */
+  private final NioReactor[] workers;
+
+  /** Worker that receives the next accepted connection, only used by the reactor thread. */
+  private int nextWorker;
+
   /**
    * Creates a reactor which will use provided {@code dispatcher} to dispatch events. The
    * application can provide various implementations of dispatcher which suits its needs.
@@ -73,12 +87,32 @@ public class NioReactor {
    * @throws IOException if any I/O error occurs.
    */
   public NioReactor(Dispatcher dispatcher) throws IOException {
+    this(dispatcher, 0);
+  }
+
+  /**
+   * Creates an acceptor reactor with {@code workerCount} worker reactors. The acceptor hands the
+   * accepted connections round-robin to the workers, all of which use the provided {@code
+   * dispatcher}. With zero workers the reactor handles the accepted connections itself.
+   *
+   * @param dispatcher a non-null dispatcher used to dispatch events on registered channels.
+   * @param workerCount number of worker reactors.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioReactor(Dispatcher dispatcher, int workerCount) throws IOException {
     this.dispatcher = dispatcher;
     this.selector = Selector.open();
+    this.workers = new NioReactor[workerCount];
+    for (var i = 0; i < workerCount; i++) {
+      workers[i] = new NioReactor(dispatcher);
+    }
   }
 
-  /** Starts the reactor event loop in a new thread. */
+  /** Starts the worker reactors and the reactor event loop, each in a new thread. */
   public void start() {
+    for (var worker : workers) {
+      worker.start();
+    }
     reactorMain.execute(
         () -> {
           try {
@@ -103,6 +137,9 @@ public class NioReactor {
       reactorMain.shutdownNow();
     }
     selector.close();
+    for (var worker : workers) {
+      worker.stop();
+    }
     LOGGER.info("Reactor stopped");
   }
 
@@ -124,8 +161,8 @@ public class NioReactor {
   }
 
   private void eventLoop() throws IOException {
-    // honor interrupt request
-    while (!Thread.interrupted()) {
+    // honor interrupt and stop requests
+    while (!Thread.interrupted() && !reactorMain.isShutdown()) {
       // honor any pending commands first
       processPendingCommands();
 
@@ -169,16 +206,24 @@ public class NioReactor {
   private void processKey(SelectionKey key) throws IOException {
     if (key.isAcceptable()) {
       onChannelAcceptable(key);
-    } else if (key.isReadable()) {
+      return;
+    }
+    // a connection may be interested in reading and writing at the same time
+    if (key.isReadable()) {
       onChannelReadable(key);
-    } else if (key.isWritable()) {
+    }
+    if (key.isValid() && key.isWritable()) {
       onChannelWritable(key);
     }
   }
 
-  private static void onChannelWritable(SelectionKey key) throws IOException {
+  private void onChannelWritable(SelectionKey key) {
     var channel = (AbstractNioChannel) key.attachment();
-    channel.flush(key);
+    try {
+      channel.flush(key);
+    } catch (IOException e) {
+      closeChannel(key);
+    }
   }
 
   private void onChannelReadable(SelectionKey key) {
@@ -187,11 +232,17 @@ public class NioReactor {
       var readObject = ((AbstractNioChannel) key.attachment()).read(key);
       dispatchReadEvent(key, readObject);
     } catch (IOException e) {
-      try {
-        key.channel().close();
-      } catch (IOException e1) {
-        LOGGER.error("error closing channel", e1);
-      }
+      closeChannel(key);
+    }
+  }
+
+  private void closeChannel(SelectionKey key) {
+    ((AbstractNioChannel) key.attachment()).discardPendingWrites(key);
+    dispatcher.onChannelClosed(key);
+    try {
+      key.channel().close();
+    } catch (IOException e1) {
+      LOGGER.error("error closing channel", e1);
     }
   }
 
@@ -205,9 +256,35 @@ public class NioReactor {
   private void onChannelAcceptable(SelectionKey key) throws IOException {
     var serverSocketChannel = (ServerSocketChannel) key.channel();
     var socketChannel = serverSocketChannel.accept();
+    if (socketChannel == null) {
+      return;
+    }
     socketChannel.configureBlocking(false);
-    var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
-    readKey.attach(key.attachment());
+    var channel = (AbstractNioChannel) key.attachment();
+    if (workers.length == 0) {
+      var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
+      readKey.attach(channel);
+      return;
+    }
+    var worker = workers[nextWorker];
+    nextWorker = (nextWorker + 1) % workers.length;
+    worker.registerAccepted(socketChannel, channel);
+  }
+
+  /*
+   * Queues the registration of a connection accepted by the acceptor reactor. A selector only
+   * allows registrations while it is not blocked in select, so the worker thread registers it.
+   */
+  private void registerAccepted(SocketChannel socketChannel, AbstractNioChannel channel) {
+    pendingCommands.add(
+        () -> {
+          try {
+            socketChannel.register(selector, SelectionKey.OP_READ, channel);
+          } catch (ClosedChannelException e) {
+            LOGGER.error("accepted channel closed before registration", e);
+          }
+        });
+    selector.wakeup();
   }
 
   /**
@@ -221,8 +298,38 @@ public class NioReactor {
    * @param interestedOps the new interest operations.
    */
   public void changeOps(SelectionKey key, int interestedOps) {
-    pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
-    selector.wakeup();
+    var owner = ownerOf(key);
+    owner.pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
+    owner.selector.wakeup();
+  }
+
+  /*
+   * Queues the re-evaluation of the interested operations of a connection, see
+   * AbstractNioChannel#interestOps. Evaluating them in the reactor thread ensures that the latest
+   * state of the pending writes wins, whichever thread requested the change.
+   */
+  void refreshOps(SelectionKey key) {
+    var owner = ownerOf(key);
+    owner.pendingCommands.add(
+        () -> {
+          if (key.isValid()) {
+            key.interestOps(((AbstractNioChannel) key.attachment()).interestOps(key));
+          }
+        });
+    owner.selector.wakeup();
+  }
+
+  /*
+   * Keys of accepted connections belong to the selector of a worker reactor, whose event loop has
+   * to apply the change.
+   */
+  private NioReactor ownerOf(SelectionKey key) {
+    for (var worker : workers) {
+      if (key.selector() == worker.selector) {
+        return worker;
+      }
+    }
+    return this;
   }
 
   /** A command that changes the interested operations of the key provided. */
@@ -236,7 +343,9 @@ public class NioReactor {
     }
 
     public void run() {
-      key.interestOps(interestedOps);
+      if (key.isValid()) {
+        key.interestOps(interestedOps);
+      }
     }
 
     @Override
@@ -31,6 +31,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -41,6 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 public class NioServerSocketChannel extends AbstractNioChannel {
 
   private final int port;
+  private final ByteBufferPool bufferPool;
 
   /**
    * Creates a {@link ServerSocketChannel} which will bind at provided port and use <code>handler
@@ -54,8 +56,25 @@ public class NioServerSocketChannel extends AbstractNioChannel {
    * @throws IOException if any I/O error occurs.
    */
   public NioServerSocketChannel(int port, ChannelHandler handler) throws IOException {
+    this(port, handler, null);
+  }
+
+  /**
+   * Creates a {@link ServerSocketChannel} which reads incoming data into buffers taken from {@code
+   * bufferPool}. The read data is handed to the <code>handler</code> as a {@link PooledByteBuffer},
+   * which the handler has to release or write back.
+   *
+   * @param port the port on which channel will be bound to accept incoming connection requests.
+   * @param handler the handler that will handle incoming requests on this channel.
+   * @param bufferPool the pool read buffers are taken from, or null to allocate a heap buffer per
+   *     read.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioServerSocketChannel(int port, ChannelHandler handler, ByteBufferPool bufferPool)
+      throws IOException {
     super(handler, ServerSocketChannel.open());
     this.port = port;
+    this.bufferPool = bufferPool;
   }
 
   @Override
@@ -75,12 +94,16 @@ public class NioServerSocketChannel extends AbstractNioChannel {
   }
 
   /**
-   * Reads and returns {@link ByteBuffer} from the underlying {@link SocketChannel} represented by
-   * the <code>key</code>. Due to the fact that there is a dedicated channel for each client
-   * connection we don't need to store the sender.
+   * Reads and returns a {@link PooledByteBuffer} from the underlying {@link SocketChannel}
+   * represented by the <code>key</code>. Due to the fact that there is a dedicated channel for each
+   * client connection we don't need to store the sender. Without a buffer pool the data is read
+   * into a new heap buffer, which is wrapped as an unpooled buffer.
    */
   @Override
-  public ByteBuffer read(SelectionKey key) throws IOException {
+  public PooledByteBuffer read(SelectionKey key) throws IOException {
+    if (bufferPool != null) {
+      return readPooled(key);
+    }
     var socketChannel = (SocketChannel) key.channel();
     var buffer = ByteBuffer.allocate(1024);
     var read = socketChannel.read(buffer);
@@ -88,7 +111,25 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     if (read == -1) {
       throw new IOException("Socket closed");
     }
-    return buffer;
+    return new PooledByteBuffer(buffer, null);
+  }
+
+  private PooledByteBuffer readPooled(SelectionKey key) throws IOException {
+    var pooled = bufferPool.acquire();
+    var buffer = pooled.getBuffer();
+    int read;
+    try {
+      read = ((SocketChannel) key.channel()).read(buffer);
+    } catch (IOException e) {
+      pooled.release();
+      throw e;
+    }
+    if (read == -1) {
+      pooled.release();
+      throw new IOException("Socket closed");
+    }
+    buffer.flip();
+    return pooled;
   }
 
   /**
@@ -110,7 +151,34 @@ public class NioServerSocketChannel extends AbstractNioChannel {
    */
   @Override
   protected void doWrite(Object pendingWrite, SelectionKey key) throws IOException {
-    var pendingBuffer = (ByteBuffer) pendingWrite;
-    ((SocketChannel) key.channel()).write(pendingBuffer);
+    ((SocketChannel) key.channel()).write(toByteBuffer(pendingWrite));
+  }
+
+  /**
+   * Writes all pending buffers with a single gathering write, repeating it while the socket keeps
+   * accepting data.
+   */
+  @Override
+  protected int doWrite(List<Object> pendingWrites, SelectionKey key) throws IOException {
+    var buffers = new ByteBuffer[pendingWrites.size()];
+    for (var i = 0; i < buffers.length; i++) {
+      buffers[i] = toByteBuffer(pendingWrites.get(i));
+    }
+    var socketChannel = (SocketChannel) key.channel();
+    var offset = 0;
+    while (offset < buffers.length) {
+      if (!buffers[offset].hasRemaining()) {
+        offset++;
+      } else if (socketChannel.write(buffers, offset, buffers.length - offset) == 0) {
+        break;
+      }
+    }
+    return offset;
+  }
+
+  private static ByteBuffer toByteBuffer(Object pendingWrite) {
+    return pendingWrite instanceof PooledByteBuffer pooled
+        ? pooled.getBuffer()
+        : (ByteBuffer) pendingWrite;
   }
 }
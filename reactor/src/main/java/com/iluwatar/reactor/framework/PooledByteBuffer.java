@@ -0,0 +1,108 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A reference counted {@link ByteBuffer} taken from a {@link ByteBufferPool}. Whoever holds a
+ * reference must {@link #release()} it when done. A {@link ChannelHandler} receiving a pooled
+ * buffer from {@link AbstractNioChannel#read(java.nio.channels.SelectionKey)} owns it and either
+ * releases it or passes the ownership on by writing it back with {@link
+ * AbstractNioChannel#write(Object, java.nio.channels.SelectionKey)}, which releases the buffer once
+ * it has been written. Use {@link #retain()} to share the buffer with another owner.
+ */
+public final class PooledByteBuffer {
+
+  private final ByteBuffer buffer;
+  private final ByteBufferPool pool;
+  private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+  /**
+   * Wraps a buffer.
+   *
+   * @param buffer the wrapped buffer.
+   * @param pool pool the buffer returns to, or null for an unpooled buffer.
+   */
+  PooledByteBuffer(ByteBuffer buffer, ByteBufferPool pool) {
+    this.buffer = buffer;
+    this.pool = pool;
+  }
+
+  /**
+   * Get buffer.
+   *
+   * @return the wrapped buffer, only valid while a reference is held.
+   */
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Get reference count.
+   *
+   * @return the current number of references.
+   */
+  public int getReferenceCount() {
+    return referenceCount.get();
+  }
+
+  /**
+   * Adds a reference.
+   *
+   * @return this
+   * @throws IllegalStateException if the buffer has already been released.
+   */
+  public PooledByteBuffer retain() {
+    int count;
+    do {
+      count = referenceCount.get();
+      // a released buffer may already be reused by another owner, so it must not come back
+      if (count <= 0) {
+        throw new IllegalStateException("Buffer already released");
+      }
+    } while (!referenceCount.compareAndSet(count, count + 1));
+    return this;
+  }
+
+  /**
+   * Drops a reference, returning the buffer to its pool when it was the last one.
+   *
+   * @return true if the buffer has been returned to the pool.
+   * @throws IllegalStateException if the buffer has already been released.
+   */
+  public boolean release() {
+    var count = referenceCount.decrementAndGet();
+    if (count < 0) {
+      throw new IllegalStateException("Buffer already released");
+    }
+    if (count == 0 && pool != null) {
+      pool.recycle(buffer);
+      return true;
+    }
+    return false;
+  }
+}
@@ -31,7 +31,8 @@ import java.nio.channels.SelectionKey;
  * small applications where there are limited clients. Using this implementation limits the
  * scalability because the I/O thread performs the application specific processing.
  *
- * <p>For better performance use {@link ThreadPoolDispatcher}.
+ * <p>For better performance use {@link ThreadPoolDispatcher}, or {@link VirtualThreadDispatcher}
+ * when handlers block.
  *
  * @see ThreadPoolDispatcher
  */
@@ -0,0 +1,143 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import java.nio.channels.SelectionKey;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatches every read event on its own virtual thread. Unlike {@link ThreadPoolDispatcher} the
+ * number of events handled concurrently is not capped by a pool size, so handlers that block, for
+ * example on a database call, park a cheap virtual thread instead of occupying a platform thread.
+ *
+ * <p>Events of different connections are always handled concurrently. By default events of the same
+ * connection are handled concurrently as well, which means a handler may see them out of order. An
+ * ordered dispatcher instead hands the events of a connection one at a time, in the order they were
+ * read, to a single virtual thread that runs as long as events of that connection are waiting.
+ *
+ * @see ThreadPoolDispatcher
+ */
+@Slf4j
+public class VirtualThreadDispatcher implements Dispatcher {
+
+  private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+  private final boolean orderedPerChannel;
+  private final Map<SelectionKey, SerialQueue> queues = new ConcurrentHashMap<>();
+
+  /** Creates a dispatcher that does not order the events of a connection. */
+  public VirtualThreadDispatcher() {
+    this(false);
+  }
+
+  /**
+   * Creates a dispatcher.
+   *
+   * @param orderedPerChannel whether the events of a connection are handled one at a time in the
+   *     order they were read.
+   */
+  public VirtualThreadDispatcher(boolean orderedPerChannel) {
+    this.orderedPerChannel = orderedPerChannel;
+  }
+
+  /**
+   * Starts a virtual thread handling the read event, or queues it behind the events of the same
+   * connection that are still being handled. <br>
+   * Note that this is a non-blocking call and returns immediately.
+   */
+  @Override
+  public void onChannelReadEvent(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+    Runnable event = () -> channel.getHandler().handleChannelRead(channel, readObject, key);
+    if (!orderedPerChannel) {
+      executorService.execute(event);
+      return;
+    }
+    var queue = queues.computeIfAbsent(key, k -> new SerialQueue());
+    queue.events.add(event);
+    if (queue.running.compareAndSet(false, true)) {
+      executorService.execute(() -> drain(queue));
+    }
+  }
+
+  /*
+   * Handles the queued events of a connection. An event queued after the queue was found empty but
+   * before the running flag was cleared is picked up by the second check, so no event is stranded.
+   * A failing handler is logged, it must not leave the flag set and stall the connection.
+   */
+  private void drain(SerialQueue queue) {
+    do {
+      Runnable event;
+      while ((event = queue.events.poll()) != null) {
+        try {
+          event.run();
+        } catch (RuntimeException e) {
+          LOGGER.error("error handling read event", e);
+        }
+      }
+      queue.running.set(false);
+    } while (!queue.events.isEmpty() && queue.running.compareAndSet(false, true));
+  }
+
+  /**
+   * Forgets the event queue of the closed connection. Events already queued are still handled by
+   * the virtual thread draining them.
+   */
+  @Override
+  public void onChannelClosed(SelectionKey key) {
+    queues.remove(key);
+  }
+
+  /* Number of connections with an event queue, for tests. */
+  int queuedConnections() {
+    return queues.size();
+  }
+
+  /**
+   * Stops accepting events and waits for the events being handled.
+   *
+   * @throws InterruptedException if interrupted while waiting for the events being handled.
+   */
+  @Override
+  public void stop() throws InterruptedException {
+    executorService.shutdown();
+    if (!executorService.awaitTermination(4, TimeUnit.SECONDS)) {
+      executorService.shutdownNow();
+    }
+    queues.clear();
+  }
+
+  /** Events of a single connection waiting to be handled. */
+  private static final class SerialQueue {
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+  }
+}
@@ -24,11 +24,15 @@
  */
 package com.iluwatar.reactor.app;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.iluwatar.reactor.framework.SameThreadDispatcher;
 import com.iluwatar.reactor.framework.ThreadPoolDispatcher;
+import com.iluwatar.reactor.framework.VirtualThreadDispatcher;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
@@ -102,4 +106,118 @@ class ReactorTest {
     app.stop();
     LOGGER.info("testAppUsingSameThreadDispatcher stop");
   }
+
+  /**
+   * Test the application using virtual thread dispatcher.
+   *
+   * @throws IOException if any I/O error occurs.
+   * @throws InterruptedException if interrupted while stopping the application.
+   */
+  @Test
+  void testAppUsingVirtualThreadDispatcher() throws IOException, InterruptedException {
+    LOGGER.info("testAppUsingVirtualThreadDispatcher start");
+    var app = new App(new VirtualThreadDispatcher(true));
+    app.start();
+
+    assertNotNull(app);
+
+    var client = new AppClient();
+    client.start();
+
+    assertNotNull(client);
+
+    // allow clients to send requests. Artificial delay.
+    try {
+      Thread.sleep(2000);
+    } catch (InterruptedException e) {
+      LOGGER.error("sleep interrupted", e);
+    }
+
+    client.stop();
+
+    app.stop();
+    LOGGER.info("testAppUsingVirtualThreadDispatcher stop");
+  }
+
+  /**
+   * Test the application using an acceptor reactor with worker reactors.
+   *
+   * @throws IOException if any I/O error occurs.
+   * @throws InterruptedException if interrupted while stopping the application.
+   */
+  @Test
+  void testAppUsingWorkerReactors() throws IOException, InterruptedException {
+    LOGGER.info("testAppUsingWorkerReactors start");
+    var app = new App(new ThreadPoolDispatcher(2), 2);
+    app.start();
+
+    assertNotNull(app);
+
+    var client = new AppClient();
+    client.start();
+
+    assertNotNull(client);
+
+    // allow clients to send requests. Artificial delay.
+    try {
+      Thread.sleep(2000);
+    } catch (InterruptedException e) {
+      LOGGER.error("sleep interrupted", e);
+    }
+
+    client.stop();
+
+    app.stop();
+    LOGGER.info("testAppUsingWorkerReactors stop");
+  }
+
+  /**
+   * Test that the load generator echoes through worker reactors.
+   *
+   * @throws IOException if the echo server fails to start.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  @Test
+  void testLoadGeneratorWithWorkerReactors()
+      throws IOException, InterruptedException, ExecutionException {
+    var result = new LoadGeneratorClient(4, 5, 10).run(2);
+
+    assertEquals(2, result.workerReactors());
+    assertTrue(result.connectionsPerSecond() > 0);
+    assertTrue(result.p99LatencyMicros() > 0);
+  }
+
+  /**
+   * Test that the load generator echoes through pooled direct buffers.
+   *
+   * @throws IOException if the echo server fails to start.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  @Test
+  void testLoadGeneratorWithPooledBuffers()
+      throws IOException, InterruptedException, ExecutionException {
+    var result = new LoadGeneratorClient(4, 5, 10).run(1, true);
+
+    assertEquals(1, result.workerReactors());
+    assertTrue(result.p99LatencyMicros() > 0);
+  }
+
+  /**
+   * Test that blocking handlers on virtual threads outperform a small thread pool.
+   *
+   * @throws IOException if the server fails to start.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  @Test
+  void testDispatcherBenchmarkWithBlockingHandler()
+      throws IOException, InterruptedException, ExecutionException {
+    var benchmark = new DispatcherBenchmark(40, 3, 20);
+    var pooled = benchmark.run(DispatcherBenchmark.DispatcherType.THREAD_POOL, 2);
+    var virtual = benchmark.run(DispatcherBenchmark.DispatcherType.VIRTUAL_THREAD, 2);
+
+    assertTrue(virtual.requestsPerSecond() > pooled.requestsPerSecond());
+  }
 }
@@ -0,0 +1,83 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ByteBufferPool} and {@link PooledByteBuffer}. */
+class ByteBufferPoolTest {
+
+  @Test
+  void buffersAreSlicedFromDirectSlabs() {
+    var pool = new ByteBufferPool(128, 4, 2);
+    assertEquals(8, pool.getFreeBufferCount());
+
+    var pooled = pool.acquire();
+    assertTrue(pooled.getBuffer().isDirect());
+    assertEquals(128, pooled.getBuffer().capacity());
+    assertEquals(7, pool.getFreeBufferCount());
+  }
+
+  @Test
+  void bufferReturnsToPoolWhenLastReferenceIsReleased() {
+    var pool = new ByteBufferPool(64, 1, 1);
+    var pooled = pool.acquire();
+    pooled.retain();
+
+    assertFalse(pooled.release());
+    assertEquals(0, pool.getFreeBufferCount());
+    assertTrue(pooled.release());
+    assertEquals(1, pool.getFreeBufferCount());
+    assertThrows(IllegalStateException.class, pooled::release);
+  }
+
+  @Test
+  void releasedBufferCannotBeRetained() {
+    var pool = new ByteBufferPool(64, 1, 1);
+    var pooled = pool.acquire();
+    pooled.release();
+
+    assertThrows(IllegalStateException.class, pooled::retain);
+    assertEquals(0, pooled.getReferenceCount());
+  }
+
+  @Test
+  void exhaustedPoolFallsBackToUnpooledBuffers() {
+    var pool = new ByteBufferPool(64, 1, 1);
+    pool.acquire();
+
+    var unpooled = pool.acquire();
+
+    assertFalse(unpooled.getBuffer().isDirect());
+    assertEquals(1, pool.getUnpooledAllocationCount());
+    assertFalse(unpooled.release());
+    assertEquals(0, pool.getFreeBufferCount());
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link VirtualThreadDispatcher}. */
+class VirtualThreadDispatcherTest {
+
+  private static final int EVENTS = 1000;
+
+  @Test
+  void eventsOfConnectionAreHandledInOrder() throws Exception {
+    var handled = Collections.synchronizedList(new ArrayList<Integer>());
+    var done = new CountDownLatch(EVENTS);
+    var channel =
+        new NioServerSocketChannel(
+            16695,
+            (c, readObject, key) -> {
+              handled.add((Integer) readObject);
+              done.countDown();
+            });
+    var dispatcher = new VirtualThreadDispatcher(true);
+    try (var selector = Selector.open()) {
+      var key = openKey(selector);
+      for (var i = 0; i < EVENTS; i++) {
+        dispatcher.onChannelReadEvent(channel, i, key);
+      }
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+      for (var i = 0; i < EVENTS; i++) {
+        assertEquals(i, handled.get(i));
+      }
+    } finally {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  void blockingHandlersDoNotCapConcurrency() throws Exception {
+    var connections = 200;
+    var allBlocked = new CountDownLatch(connections);
+    var channel =
+        new NioServerSocketChannel(
+            16696,
+            (c, readObject, key) -> {
+              allBlocked.countDown();
+              try {
+                // only returns once every connection has a handler blocked at the same time
+                allBlocked.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    var dispatcher = new VirtualThreadDispatcher(true);
+    try (var selector = Selector.open()) {
+      var keys = new ArrayList<SelectionKey>();
+      for (var i = 0; i < connections; i++) {
+        keys.add(openKey(selector));
+      }
+      keys.forEach(key -> dispatcher.onChannelReadEvent(channel, List.of(), key));
+      assertTrue(allBlocked.await(5, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  void failingHandlerDoesNotStallConnection() throws Exception {
+    var handled = new CountDownLatch(1);
+    var channel =
+        new NioServerSocketChannel(
+            16698,
+            (c, readObject, key) -> {
+              if ((Integer) readObject == 0) {
+                throw new IllegalStateException("handler failure");
+              }
+              handled.countDown();
+            });
+    var dispatcher = new VirtualThreadDispatcher(true);
+    try (var selector = Selector.open()) {
+      var key = openKey(selector);
+      dispatcher.onChannelReadEvent(channel, 0, key);
+      // dispatched after the failing event, once its queue may have been drained
+      Thread.sleep(50);
+      dispatcher.onChannelReadEvent(channel, 1, key);
+      assertTrue(handled.await(5, TimeUnit.SECONDS));
+    } finally {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  void queuesOfClosedConnectionsAreRemoved() throws Exception {
+    var connections = 50;
+    var handled = new CountDownLatch(connections);
+    var channel = new NioServerSocketChannel(16697, (c, readObject, key) -> handled.countDown());
+    var dispatcher = new VirtualThreadDispatcher(true);
+    try (var selector = Selector.open()) {
+      var keys = new ArrayList<SelectionKey>();
+      for (var i = 0; i < connections; i++) {
+        keys.add(openKey(selector));
+      }
+      keys.forEach(key -> dispatcher.onChannelReadEvent(channel, List.of(), key));
+      assertTrue(handled.await(5, TimeUnit.SECONDS));
+      assertEquals(connections, dispatcher.queuedConnections());
+
+      // the connections are closed while idle, after their events were handled
+      for (var key : keys) {
+        key.channel().close();
+        dispatcher.onChannelClosed(key);
+      }
+      assertEquals(0, dispatcher.queuedConnections());
+    } finally {
+      dispatcher.stop();
+    }
+  }
+
+  private static SelectionKey openKey(Selector selector) throws IOException {
+    var source = Pipe.open().source();
+    source.configureBlocking(false);
+    return source.register(selector, SelectionKey.OP_READ);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the write buffer water marks of {@link AbstractNioChannel}. */
+class WriteBufferWaterMarkTest {
+
+  private static final int PORT = 16690;
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int CHUNKS = 16;
+
+  @Test
+  void waterMarksMustBeOrdered() throws IOException {
+    var channel = new NioServerSocketChannel(PORT, (c, readObject, key) -> {});
+    assertThrows(
+        IllegalArgumentException.class, () -> channel.setWriteBufferWaterMarks(2, 1, false));
+    assertThrows(
+        IllegalArgumentException.class, () -> channel.setWriteBufferWaterMarks(-1, 1, false));
+  }
+
+  @Test
+  void writeToClosedConnectionReleasesBuffer() throws IOException {
+    var channel = new NioServerSocketChannel(PORT, (c, readObject, key) -> {});
+    var pool = new ByteBufferPool(64, 1, 1);
+    try (var selector = Selector.open();
+        var socket = SocketChannel.open()) {
+      socket.configureBlocking(false);
+      var key = socket.register(selector, SelectionKey.OP_READ);
+      key.cancel();
+
+      channel.write(pool.acquire(), key);
+
+      assertEquals(1, pool.getFreeBufferCount());
+      assertEquals(0, channel.getPendingWriteBytes(key));
+    }
+  }
+
+  @Test
+  void slowPeerTurnsConnectionUnwritableUntilDrained() throws Exception {
+    var unwritable = new CountDownLatch(1);
+    var replied = new CountDownLatch(1);
+    var writable = new CountDownLatch(1);
+    var connectionKey = new AtomicReference<SelectionKey>();
+    var writableAfterReply = new AtomicBoolean(true);
+    var handler =
+        new ChannelHandler() {
+          @Override
+          public void handleChannelRead(
+              AbstractNioChannel channel, Object readObject, SelectionKey key) {
+            connectionKey.set(key);
+            // reply far more than the high water mark to a peer that does not read yet
+            for (var i = 0; i < CHUNKS; i++) {
+              channel.write(ByteBuffer.allocate(CHUNK_SIZE), key);
+            }
+            // nothing has been flushed yet as the reactor thread is still running this handler
+            writableAfterReply.set(channel.isWritable(key));
+            replied.countDown();
+          }
+
+          @Override
+          public void handleChannelWritabilityChanged(
+              AbstractNioChannel channel, SelectionKey key, boolean isWritable) {
+            (isWritable ? writable : unwritable).countDown();
+          }
+        };
+    var channel = new NioServerSocketChannel(PORT, handler);
+    channel.setWriteBufferWaterMarks(CHUNK_SIZE, 4L * CHUNK_SIZE, true);
+    channel.bind();
+    var reactor = new NioReactor(new SameThreadDispatcher());
+    reactor.registerChannel(channel).start();
+
+    try (var client = SocketChannel.open(new InetSocketAddress("localhost", PORT))) {
+      client.write(ByteBuffer.wrap(new byte[] {1}));
+      assertTrue(replied.await(5, TimeUnit.SECONDS));
+      assertEquals(0, unwritable.getCount());
+      assertFalse(writableAfterReply.get());
+
+      var received = 0;
+      var buffer = ByteBuffer.allocate(CHUNK_SIZE);
+      while (received < CHUNKS * CHUNK_SIZE) {
+        buffer.clear();
+        received += client.read(buffer);
+      }
+      assertTrue(writable.await(5, TimeUnit.SECONDS));
+      assertTrue(channel.isWritable(connectionKey.get()));
+      assertEquals(0, channel.getPendingWriteBytes(connectionKey.get()));
+    } finally {
+      reactor.stop();
+    }
+  }
+}
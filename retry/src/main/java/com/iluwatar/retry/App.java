@@ -24,6 +24,9 @@
  */
 package com.iluwatar.retry;
 
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,7 +55,9 @@ import org.slf4j.LoggerFactory;
  * load.
  *
  * <p>To keep the calling code as decoupled as possible from this workaround, we have implemented
- * the retry mechanism as a {@link BusinessOperation} named {@link Retry}.
+ * the retry mechanism as a {@link BusinessOperation} named {@link Retry}. When many requests may be
+ * retrying at once, the {@link AsyncRetryExecutor} waits on a shared timer instead of sleeping
+ * threads, and its {@link RetryBudget} keeps the retries from multiplying the load.
  *
  * @see <a href="https://docs.microsoft.com/en-us/azure/architecture/patterns/retry">Retry pattern
  *     (Microsoft Azure Docs)</a>
@@ -73,6 +78,7 @@ public final class App {
     errorNoRetry();
     errorWithRetry();
     errorWithRetryExponentialBackoff();
+    errorWithAsyncRetry();
   }
 
   private static void noErrors() throws Exception {
@@ -121,4 +127,33 @@ public final class App {
                 + "the result %s after a number of attempts %s",
             customerId, retry.attempts()));
   }
+
+  private static void errorWithAsyncRetry() throws Exception {
+    final var timer = Executors.newSingleThreadScheduledExecutor();
+    try {
+      final var retry =
+          new AsyncRetryExecutor(
+              timer, ForkJoinPool.commonPool(), new RetryBudget(0.1, 10, Duration.ofSeconds(10)));
+      final var customerId =
+          retry
+              .execute(
+                  "findCustomer",
+                  RetryPolicy.of(
+                      6, // 6 attempts
+                      Backoff.decorrelatedJitter(100, 30000), // 100 ms to 30 s between attempts
+                      e -> CustomerNotFoundException.class.isAssignableFrom(e.getClass())),
+                  new FindCustomer(
+                      "123",
+                      new CustomerNotFoundException(NOT_FOUND),
+                      new CustomerNotFoundException(NOT_FOUND)))
+              .get();
+      LOG.info(
+          String.format(
+              "Retrying asynchronously keeps the calling thread free and yields the result %s "
+                  + "after a number of attempts %s",
+              customerId, retry.metrics("findCustomer").getAttempts()));
+    } finally {
+      timer.shutdown();
+    }
+  }
 }
@@ -0,0 +1,209 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries operations asynchronously. Unlike {@link Retry} and {@link RetryExponentialBackoff}, no
+ * thread sleeps between attempts: every retry is scheduled on a timer shared by all operations,
+ * which merely hands the next attempt over when its delay has passed. A retry storm therefore only
+ * costs pending timer tasks, not parked request threads.
+ *
+ * <p>All operations share a {@link RetryBudget}, which stops retries once they make up too large a
+ * share of the load, and every operation name gets its own {@link RetryMetrics}.
+ */
+public final class AsyncRetryExecutor {
+  private final ScheduledExecutorService timer;
+  private final Executor workers;
+  private final RetryBudget budget;
+  private final ConcurrentHashMap<String, RetryMetrics> metrics = new ConcurrentHashMap<>();
+
+  /**
+   * Ctor.
+   *
+   * @param timer schedules the retries, its tasks never block
+   * @param workers runs blocking {@link BusinessOperation}s
+   * @param budget limits the retries across all operations
+   */
+  public AsyncRetryExecutor(ScheduledExecutorService timer, Executor workers, RetryBudget budget) {
+    this.timer = timer;
+    this.workers = workers;
+    this.budget = budget;
+  }
+
+  /**
+   * Performs a blocking operation on the workers, retrying it according to the policy.
+   *
+   * @param operationName name the metrics are kept under
+   * @param policy when and how often to retry
+   * @param op the operation
+   * @param <T> the operation's return type
+   * @return the operation's result, or its last failure with the earlier ones suppressed
+   */
+  public <T> CompletableFuture<T> execute(
+      String operationName, RetryPolicy policy, BusinessOperation<T> op) {
+    return executeAsync(
+        operationName,
+        policy,
+        () ->
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    return op.perform();
+                  } catch (BusinessException e) {
+                    throw new CompletionException(e);
+                  }
+                },
+                workers));
+  }
+
+  /**
+   * Performs an asynchronous operation, retrying it according to the policy. The operation is
+   * started on the calling thread for the first attempt and on the timer for the retries, so it
+   * must not block.
+   *
+   * @param operationName name the metrics are kept under
+   * @param policy when and how often to retry
+   * @param op starts the operation
+   * @param <T> the operation's return type
+   * @return the operation's result, or its last failure with the earlier ones suppressed
+   */
+  public <T> CompletableFuture<T> executeAsync(
+      String operationName, RetryPolicy policy, Supplier<? extends CompletionStage<T>> op) {
+    var execution = new Execution<>(metrics(operationName), policy, op);
+    budget.onRequest();
+    execution.attempt();
+    return execution.result;
+  }
+
+  /**
+   * The metrics of an operation.
+   *
+   * @param operationName name of the operation
+   * @return the operation's metrics, empty if it has not been executed yet
+   */
+  public RetryMetrics metrics(String operationName) {
+    return metrics.computeIfAbsent(operationName, name -> new RetryMetrics());
+  }
+
+  /**
+   * A single call of an operation. Its attempts follow each other, each one started after the
+   * previous one completed, so its fields need no synchronization.
+   */
+  private final class Execution<T> {
+    private final RetryMetrics metrics;
+    private final RetryPolicy policy;
+    private final Supplier<? extends CompletionStage<T>> op;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final long start = System.nanoTime();
+    private final List<Exception> errors = new ArrayList<>();
+    private int attempts;
+    private long previousDelay;
+
+    Execution(RetryMetrics metrics, RetryPolicy policy, Supplier<? extends CompletionStage<T>> op) {
+      this.metrics = metrics;
+      this.policy = policy;
+      this.op = op;
+    }
+
+    void attempt() {
+      if (result.isDone()) {
+        // cancelled by the caller
+        return;
+      }
+      attempts++;
+      metrics.onAttempt();
+      CompletionStage<T> stage;
+      try {
+        stage = op.get();
+      } catch (RuntimeException e) {
+        stage = CompletableFuture.failedFuture(e);
+      }
+      stage.whenComplete(
+          (value, error) -> {
+            if (error == null) {
+              metrics.onCompleted(true, attempts, System.nanoTime() - start);
+              result.complete(value);
+            } else {
+              onFailure(unwrap(error));
+            }
+          });
+    }
+
+    private void onFailure(Throwable error) {
+      if (!(error instanceof Exception e)) {
+        complete(error);
+        return;
+      }
+      errors.add(e);
+      if (attempts >= policy.maxAttempts() || !policy.retryOn().test(e) || result.isDone()) {
+        complete(e);
+        return;
+      }
+      if (!budget.tryAcquireRetry()) {
+        metrics.onRetryDenied();
+        complete(e);
+        return;
+      }
+      long delay = policy.backoff().delayMillis(attempts, previousDelay);
+      previousDelay = delay;
+      try {
+        timer.schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException rejected) {
+        complete(e);
+      }
+    }
+
+    private void complete(Throwable error) {
+      for (var earlier : errors) {
+        if (earlier != error) {
+          error.addSuppressed(earlier);
+        }
+      }
+      metrics.onCompleted(false, attempts, System.nanoTime() - start);
+      result.completeExceptionally(error);
+    }
+
+    private Throwable unwrap(Throwable error) {
+      while ((error instanceof CompletionException || error instanceof ExecutionException)
+          && error.getCause() != null) {
+        error = error.getCause();
+      }
+      return error;
+    }
+  }
+}
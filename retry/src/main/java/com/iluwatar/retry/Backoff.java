@@ -0,0 +1,100 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes how long to wait before retrying an operation.
+ *
+ * <p>Spreading the retries of many callers out randomly keeps them from hitting a recovering system
+ * all at once. The jittered strategies follow the AWS Architecture Blog post on exponential backoff
+ * and jitter.
+ */
+@FunctionalInterface
+public interface Backoff {
+
+  /**
+   * Computes the delay before a retry.
+   *
+   * @param retry number of the retry, 1 for the first one
+   * @param previousDelay delay before the previous retry in milliseconds, 0 before the first one
+   * @return delay in milliseconds
+   */
+  long delayMillis(int retry, long previousDelay);
+
+  /**
+   * The same delay before every retry.
+   *
+   * @param delay delay in milliseconds
+   * @return the backoff
+   */
+  static Backoff fixed(long delay) {
+    if (delay < 0) {
+      throw new IllegalArgumentException("delay must not be negative");
+    }
+    return (retry, previousDelay) -> delay;
+  }
+
+  /**
+   * A random delay between zero and an exponentially growing ceiling.
+   *
+   * @param base ceiling before the first retry, in milliseconds
+   * @param cap largest delay, in milliseconds
+   * @return the backoff
+   */
+  static Backoff fullJitter(long base, long cap) {
+    checkBounds(base, cap);
+    return (retry, previousDelay) -> {
+      int doublings = retry - 1;
+      long ceiling =
+          doublings < Long.numberOfLeadingZeros(base) - 1 ? Math.min(cap, base << doublings) : cap;
+      return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    };
+  }
+
+  /**
+   * A random delay between the base and three times the previous delay. The delays grow about as
+   * fast as with {@link #fullJitter}, but are spread out more evenly.
+   *
+   * @param base shortest delay, in milliseconds
+   * @param cap largest delay, in milliseconds
+   * @return the backoff
+   */
+  static Backoff decorrelatedJitter(long base, long cap) {
+    checkBounds(base, cap);
+    return (retry, previousDelay) -> {
+      long previous = Math.max(previousDelay, base);
+      long upper = previous > cap / 3 ? cap : 3 * previous;
+      return ThreadLocalRandom.current().nextLong(base, upper + 1);
+    };
+  }
+
+  private static void checkBounds(long base, long cap) {
+    if (base < 1 || cap < base) {
+      throw new IllegalArgumentException("base must be positive and at most cap");
+    }
+  }
+}
@@ -24,10 +24,10 @@
  */
 package com.iluwatar.retry;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
@@ -61,7 +61,7 @@ public final class Retry<T> implements BusinessOperation<T> {
     this.delay = delay;
     this.attempts = new AtomicInteger();
     this.test = Arrays.stream(ignoreTests).reduce(Predicate::or).orElse(e -> false);
-    this.errors = new ArrayList<>();
+    this.errors = new CopyOnWriteArrayList<>();
   }
 
   /**
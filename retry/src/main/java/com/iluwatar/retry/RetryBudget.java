@@ -0,0 +1,136 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the retries across all operations to a share of the requests, so that a failing system is
+ * not flooded by retries on top of the regular load. Within a sliding window, retries may make up
+ * at most {@code maxRetryRatio} times the number of requests, plus a small number of retries per
+ * second to let callers with little traffic retry at all.
+ *
+ * <p>The window is kept in one bucket per second with {@link LongAdder} counters. Checking and
+ * taking a retry are not one atomic step, so concurrent retries may overshoot the budget by up to
+ * their number.
+ */
+public class RetryBudget {
+
+  /** A budget that allows every retry. */
+  public static final RetryBudget UNLIMITED =
+      new RetryBudget(Double.POSITIVE_INFINITY, 0, Duration.ofSeconds(1));
+
+  private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double maxRetryRatio;
+  private final long minRetries;
+  private final int seconds;
+  private final LongSupplier nanoClock;
+  private final AtomicReferenceArray<Bucket> buckets;
+
+  /**
+   * Ctor.
+   *
+   * @param maxRetryRatio retries allowed per request
+   * @param minRetriesPerSecond retries allowed regardless of the number of requests
+   * @param window length of the sliding window, in whole seconds
+   */
+  public RetryBudget(double maxRetryRatio, int minRetriesPerSecond, Duration window) {
+    this(maxRetryRatio, minRetriesPerSecond, window, System::nanoTime);
+  }
+
+  RetryBudget(
+      double maxRetryRatio, int minRetriesPerSecond, Duration window, LongSupplier nanoClock) {
+    if (!(maxRetryRatio >= 0) || minRetriesPerSecond < 0 || window.toSeconds() < 1) {
+      throw new IllegalArgumentException("invalid retry budget");
+    }
+    this.maxRetryRatio = maxRetryRatio;
+    this.seconds = (int) window.toSeconds();
+    this.minRetries = (long) minRetriesPerSecond * seconds;
+    this.nanoClock = nanoClock;
+    this.buckets = new AtomicReferenceArray<>(seconds);
+  }
+
+  /** Counts a request, which is the first attempt of an operation. */
+  public void onRequest() {
+    if (!Double.isInfinite(maxRetryRatio)) {
+      bucket(nanoClock.getAsLong()).requests.increment();
+    }
+  }
+
+  /**
+   * Takes a retry from the budget, if there is one left.
+   *
+   * @return true if the retry may be made
+   */
+  public boolean tryAcquireRetry() {
+    if (Double.isInfinite(maxRetryRatio)) {
+      return true;
+    }
+    long now = nanoClock.getAsLong();
+    long oldest = Math.floorDiv(now, BUCKET_NANOS) - seconds;
+    long requests = 0;
+    long retries = 0;
+    for (int i = 0; i < seconds; i++) {
+      Bucket bucket = buckets.get(i);
+      if (bucket != null && bucket.epoch > oldest) {
+        requests += bucket.requests.sum();
+        retries += bucket.retries.sum();
+      }
+    }
+    if (retries >= minRetries + maxRetryRatio * requests) {
+      return false;
+    }
+    bucket(now).retries.increment();
+    return true;
+  }
+
+  private Bucket bucket(long now) {
+    long epoch = Math.floorDiv(now, BUCKET_NANOS);
+    int index = (int) Math.floorMod(epoch, seconds);
+    Bucket bucket = buckets.get(index);
+    while (bucket == null || bucket.epoch < epoch) {
+      Bucket fresh = new Bucket(epoch);
+      bucket = buckets.compareAndSet(index, bucket, fresh) ? fresh : buckets.get(index);
+    }
+    // a late caller may find a newer bucket, counting in it is close enough
+    return bucket;
+  }
+
+  /** Requests and retries within one second. */
+  private static final class Bucket {
+    private final long epoch;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    Bucket(long epoch) {
+      this.epoch = epoch;
+    }
+  }
+}
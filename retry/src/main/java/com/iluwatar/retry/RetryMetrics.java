@@ -0,0 +1,114 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters of the calls of one operation made through an {@link AsyncRetryExecutor}. */
+public class RetryMetrics {
+
+  private final LongAdder successfulWithoutRetry = new LongAdder();
+  private final LongAdder successfulWithRetry = new LongAdder();
+  private final LongAdder failedWithoutRetry = new LongAdder();
+  private final LongAdder failedWithRetry = new LongAdder();
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder retriesDeniedByBudget = new LongAdder();
+  private final LongAdder totalLatencyNanos = new LongAdder();
+  private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+  void onAttempt() {
+    attempts.increment();
+  }
+
+  void onRetryDenied() {
+    retriesDeniedByBudget.increment();
+  }
+
+  void onCompleted(boolean successful, int attemptsMade, long latencyNanos) {
+    if (successful) {
+      (attemptsMade == 1 ? successfulWithoutRetry : successfulWithRetry).increment();
+    } else {
+      (attemptsMade == 1 ? failedWithoutRetry : failedWithRetry).increment();
+    }
+    totalLatencyNanos.add(latencyNanos);
+    maxLatencyNanos.accumulate(latencyNanos);
+  }
+
+  public long getSuccessfulCallsWithoutRetry() {
+    return successfulWithoutRetry.sum();
+  }
+
+  public long getSuccessfulCallsWithRetry() {
+    return successfulWithRetry.sum();
+  }
+
+  public long getFailedCallsWithoutRetry() {
+    return failedWithoutRetry.sum();
+  }
+
+  public long getFailedCallsWithRetry() {
+    return failedWithRetry.sum();
+  }
+
+  /**
+   * The number of completed calls.
+   *
+   * @return successful and failed calls, with or without retries
+   */
+  public long getCalls() {
+    return getSuccessfulCallsWithoutRetry()
+        + getSuccessfulCallsWithRetry()
+        + getFailedCallsWithoutRetry()
+        + getFailedCallsWithRetry();
+  }
+
+  /**
+   * The number of attempts, including those of calls still in progress.
+   *
+   * @return first attempts and retries
+   */
+  public long getAttempts() {
+    return attempts.sum();
+  }
+
+  public long getRetriesDeniedByBudget() {
+    return retriesDeniedByBudget.sum();
+  }
+
+  /**
+   * The mean time from starting a call to its completion, retries and delays included.
+   *
+   * @return mean latency in nanoseconds, zero before any call completed
+   */
+  public long getMeanLatencyNanos() {
+    long calls = getCalls();
+    return calls == 0 ? 0 : totalLatencyNanos.sum() / calls;
+  }
+
+  public long getMaxLatencyNanos() {
+    return maxLatencyNanos.get();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * When and how often an {@link AsyncRetryExecutor} retries an operation.
+ *
+ * @param maxAttempts largest number of attempts, including the first one
+ * @param backoff delay before every retry
+ * @param retryOn test whether a failure is worth retrying
+ */
+public record RetryPolicy(int maxAttempts, Backoff backoff, Predicate<Exception> retryOn) {
+
+  /** Validates the policy. */
+  public RetryPolicy {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+  }
+
+  /**
+   * Creates a policy.
+   *
+   * @param maxAttempts largest number of attempts, including the first one
+   * @param backoff delay before every retry
+   * @param retryTests tests to check whether a failure can be retried. No failures will be retried
+   *     if no tests are given
+   * @return the policy
+   */
+  @SafeVarargs
+  public static RetryPolicy of(
+      int maxAttempts, Backoff backoff, Predicate<Exception>... retryTests) {
+    return new RetryPolicy(
+        maxAttempts, backoff, Arrays.stream(retryTests).reduce(Predicate::or).orElse(e -> false));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link AsyncRetryExecutor}. */
+class AsyncRetryExecutorTest {
+  private ScheduledExecutorService timer;
+
+  @BeforeEach
+  void setUp() {
+    timer = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    timer.shutdownNow();
+  }
+
+  private AsyncRetryExecutor executor(RetryBudget budget) {
+    // attempts run on the timer thread as well, so a sleeping attempt would stall all others
+    return new AsyncRetryExecutor(timer, timer, budget);
+  }
+
+  private static RetryPolicy retryNotFound(int maxAttempts, long delay) {
+    return RetryPolicy.of(
+        maxAttempts,
+        Backoff.fixed(delay),
+        e -> CustomerNotFoundException.class.isAssignableFrom(e.getClass()));
+  }
+
+  /** Should succeed once the recoverable errors are over, and count the attempts. */
+  @Test
+  void succeedsAfterRetries() throws Exception {
+    final var retry = executor(RetryBudget.UNLIMITED);
+    final var op =
+        new FindCustomer(
+            "123",
+            new CustomerNotFoundException("not found"),
+            new CustomerNotFoundException("still not found"));
+
+    assertThat(retry.execute("find", retryNotFound(3, 10), op).get(), is("123"));
+    assertThat(retry.metrics("find").getAttempts(), is(3L));
+    assertThat(retry.metrics("find").getSuccessfulCallsWithRetry(), is(1L));
+  }
+
+  /** Should fail on the first error that is not to be retried, with the earlier ones suppressed. */
+  @Test
+  void failsOnUnrecoverableError() {
+    final var recoverable = new CustomerNotFoundException("not found");
+    final var unrecoverable = new DatabaseNotAvailableException("database down");
+    final var retry = executor(RetryBudget.UNLIMITED);
+
+    final var thrown =
+        assertThrows(
+            ExecutionException.class,
+            () ->
+                retry
+                    .execute(
+                        "find",
+                        retryNotFound(5, 0),
+                        new FindCustomer("123", recoverable, unrecoverable))
+                    .get());
+    assertThat(thrown.getCause(), is(sameInstance(unrecoverable)));
+    assertThat(thrown.getCause().getSuppressed()[0], is(sameInstance(recoverable)));
+    assertThat(retry.metrics("find").getFailedCallsWithRetry(), is(1L));
+  }
+
+  /** Delays are waited out on the timer, so many calls wait at the same time on a single thread. */
+  @Test
+  void retriesWithoutSleepingThreads() throws Exception {
+    final var retry = executor(RetryBudget.UNLIMITED);
+    final var calls = new ArrayList<CompletableFuture<String>>();
+    long start = System.nanoTime();
+    for (int i = 0; i < 100; i++) {
+      calls.add(
+          retry.execute(
+              "find",
+              retryNotFound(3, 100),
+              new FindCustomer(
+                  "c" + i,
+                  new CustomerNotFoundException("not found"),
+                  new CustomerNotFoundException("not found"))));
+    }
+    for (int i = 0; i < calls.size(); i++) {
+      assertThat(calls.get(i).get(5, TimeUnit.SECONDS), is("c" + i));
+    }
+    // sleeping in turn would have taken 100 calls * 2 retries * 100 ms
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), is(true));
+    assertThat(retry.metrics("find").getAttempts(), is(300L));
+  }
+
+  /** Should stop retrying once the retries make up too large a share of the requests. */
+  @Test
+  void stopsRetryingWhenBudgetIsSpent() {
+    final var retry = executor(new RetryBudget(0.5, 0, Duration.ofSeconds(10)));
+    final var failure = new CustomerNotFoundException("not found");
+    final BusinessOperation<String> alwaysFailing =
+        () -> {
+          throw failure;
+        };
+
+    for (int i = 0; i < 4; i++) {
+      var thrown =
+          assertThrows(
+              ExecutionException.class,
+              () -> retry.execute("find", retryNotFound(2, 0), alwaysFailing).get());
+      assertThat(thrown.getCause(), is(instanceOf(CustomerNotFoundException.class)));
+    }
+    // two retries for four requests
+    assertThat(retry.metrics("find").getAttempts(), is(6L));
+    assertThat(retry.metrics("find").getRetriesDeniedByBudget(), is(2L));
+  }
+
+  /** A cancelled call should not be attempted again. */
+  @Test
+  void cancelledCallIsNotRetried() throws Exception {
+    final var retry = executor(RetryBudget.UNLIMITED);
+    final var attempts = new AtomicInteger();
+    final var call =
+        retry.executeAsync(
+            "find",
+            retryNotFound(3, 200),
+            () -> {
+              attempts.incrementAndGet();
+              return CompletableFuture.failedFuture(new CustomerNotFoundException("not found"));
+            });
+    call.cancel(false);
+    Thread.sleep(400);
+    assertThat(attempts.get(), is(1));
+  }
+}
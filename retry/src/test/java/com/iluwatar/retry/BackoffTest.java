@@ -0,0 +1,68 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link Backoff}. */
+class BackoffTest {
+
+  /** Full jitter should stay below the doubling ceiling and the cap. */
+  @Test
+  void fullJitterStaysBelowCeiling() {
+    final var backoff = Backoff.fullJitter(100, 1000);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(backoff.delayMillis(1, 0) <= 100, is(true));
+      assertThat(backoff.delayMillis(3, 0) <= 400, is(true));
+      assertThat(backoff.delayMillis(100, 0) <= 1000, is(true));
+    }
+  }
+
+  /** Decorrelated jitter should stay between the base and three times the previous delay. */
+  @Test
+  void decorrelatedJitterGrowsFromPreviousDelay() {
+    final var backoff = Backoff.decorrelatedJitter(100, 1000);
+    long previous = 0;
+    for (int retry = 1; retry < 1000; retry++) {
+      long delay = backoff.delayMillis(retry, previous);
+      assertThat(delay >= 100, is(true));
+      assertThat(delay <= Math.min(1000, 3 * Math.max(previous, 100)), is(true));
+      previous = delay;
+    }
+    assertThat(backoff.delayMillis(1, Long.MAX_VALUE) <= 1000, is(true));
+  }
+
+  /** Should reject bounds that cannot be met. */
+  @Test
+  void rejectsInvalidBounds() {
+    assertThrows(IllegalArgumentException.class, () -> Backoff.fullJitter(0, 10));
+    assertThrows(IllegalArgumentException.class, () -> Backoff.decorrelatedJitter(100, 10));
+    assertThrows(IllegalArgumentException.class, () -> Backoff.fixed(-1));
+  }
+}
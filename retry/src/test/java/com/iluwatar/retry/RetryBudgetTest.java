@@ -0,0 +1,79 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.retry;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RetryBudget}. */
+class RetryBudgetTest {
+  private final AtomicLong clock = new AtomicLong();
+
+  /** Should allow retries in proportion to the requests, on top of the minimum. */
+  @Test
+  void allowsRetriesInProportionToRequests() {
+    final var budget = new RetryBudget(0.2, 1, Duration.ofSeconds(2), clock::get);
+    for (int i = 0; i < 10; i++) {
+      budget.onRequest();
+    }
+    // 2 retries for 10 requests plus 1 per second over 2 seconds
+    for (int i = 0; i < 4; i++) {
+      assertThat(budget.tryAcquireRetry(), is(true));
+    }
+    assertThat(budget.tryAcquireRetry(), is(false));
+  }
+
+  /** Requests and retries should leave the window as it slides. */
+  @Test
+  void forgetsRequestsOutsideWindow() {
+    final var budget = new RetryBudget(1, 0, Duration.ofSeconds(2), clock::get);
+    budget.onRequest();
+    assertThat(budget.tryAcquireRetry(), is(true));
+    assertThat(budget.tryAcquireRetry(), is(false));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    budget.onRequest();
+    assertThat(budget.tryAcquireRetry(), is(true));
+
+    // the first request and its retry are gone, the second request's retry is still counted
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(budget.tryAcquireRetry(), is(false));
+    budget.onRequest();
+    assertThat(budget.tryAcquireRetry(), is(true));
+  }
+
+  /** The unlimited budget should never deny a retry. */
+  @Test
+  void unlimitedBudget() {
+    for (int i = 0; i < 1000; i++) {
+      assertThat(RetryBudget.UNLIMITED.tryAcquireRetry(), is(true));
+    }
+  }
+}
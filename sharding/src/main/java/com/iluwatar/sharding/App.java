@@ -84,5 +84,19 @@ public class App {
     shard1.clearData();
     shard2.clearData();
     shard3.clearData();
+
+    var consistentHashShardManager = new ConsistentHashShardManager();
+    consistentHashShardManager.addNewShard(shard1);
+    consistentHashShardManager.addNewShard(shard2);
+    consistentHashShardManager.storeData(data1);
+    consistentHashShardManager.storeData(data2);
+    consistentHashShardManager.storeData(data3);
+    consistentHashShardManager.storeData(data4);
+    // only the data in the ranges taken over by the new shard moves
+    consistentHashShardManager.addNewShard(shard3);
+
+    shard1.clearData();
+    shard2.clearData();
+    shard3.clearData();
   }
 }
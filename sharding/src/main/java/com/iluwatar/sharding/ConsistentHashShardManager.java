@@ -0,0 +1,267 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ShardManager with consistent hashing strategy. Every shard is placed on a hash ring at a number
+ * of virtual nodes and a key is stored in the shard owning the first virtual node following the
+ * hash of the key. Unlike {@link HashShardManager}, adding or removing a shard only remaps the keys
+ * in the ring ranges next to its virtual nodes, about {@code 1 / shardCount} of all keys, and the
+ * virtual nodes spread the load evenly across the shards.
+ *
+ * <p>Adding or removing a shard rebalances the data right away. The keys in the affected ranges are
+ * first copied to their new shard, then the new ring is published and finally the keys are deleted
+ * from their old shard, so a key can be read through {@link #getDataByKey(int)} at any point of the
+ * migration. Scatter-gather queries only see the keys a shard owns on the ring, and are run again
+ * if the ring changed meanwhile, so they see every key exactly once while keys are being moved.
+ */
+@Slf4j
+public class ConsistentHashShardManager extends ShardManager {
+
+  /** Default number of virtual nodes per shard. */
+  public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+  private final int virtualNodes;
+
+  private volatile NavigableMap<Integer, Integer> ring = Collections.emptyNavigableMap();
+
+  private long keysMoved;
+
+  public ConsistentHashShardManager() {
+    this(DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * Constructor of ConsistentHashShardManager.
+   *
+   * @param virtualNodes number of virtual nodes per shard.
+   */
+  public ConsistentHashShardManager(final int virtualNodes) {
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException("Number of virtual nodes must be positive");
+    }
+    this.virtualNodes = virtualNodes;
+  }
+
+  /**
+   * Add a shard to the ring and move the keys of the ranges it takes over to it.
+   *
+   * @param shard new shard instance.
+   * @return {@code true} if succeed to add the new instance. {@code false} if the shardId is
+   *     already existed.
+   */
+  @Override
+  public synchronized boolean addNewShard(final Shard shard) {
+    if (shardMap.containsKey(shard.getId())) {
+      return false;
+    }
+    var newRing = new TreeMap<>(ring);
+    for (var i = 0; i < virtualNodes; i++) {
+      newRing.putIfAbsent(virtualNodeHash(shard.getId(), i), shard.getId());
+    }
+    var sources = new ArrayList<>(shardMap.values());
+    super.addNewShard(shard);
+    rebalance(sources, newRing);
+    return true;
+  }
+
+  /**
+   * Remove a shard from the ring after moving its keys to the shards taking over its ranges.
+   *
+   * @param shardId Id of shard instance to remove.
+   * @return {@code true} if removed. {@code false} if the shardId is not existed.
+   */
+  @Override
+  public synchronized boolean removeShardById(final int shardId) {
+    var shard = shardMap.get(shardId);
+    if (shard == null) {
+      return false;
+    }
+    var newRing = new TreeMap<>(ring);
+    newRing.values().removeIf(id -> id == shardId);
+    if (newRing.isEmpty() && shard.getSize() > 0) {
+      throw new IllegalStateException("Cannot remove the last shard holding data");
+    }
+    rebalance(List.of(shard), newRing);
+    return super.removeShardById(shardId);
+  }
+
+  @Override
+  public synchronized int storeData(final Data data) {
+    var shardId = allocateShard(data);
+    var shard = shardMap.get(shardId);
+    shard.storeData(data);
+    LOGGER.info(data + " is stored in Shard " + shardId);
+    return shardId;
+  }
+
+  /**
+   * Read data from the shard owning its key.
+   *
+   * @param key data key
+   * @return the data or {@code null} if not stored
+   */
+  public Data getDataByKey(final int key) {
+    while (true) {
+      var current = ring;
+      var shard = shardMap.get(ownerOf(current, key));
+      var data = shard == null ? null : shard.getDataById(key);
+      // a miss on a ring replaced meanwhile may be a key that has just been moved, look again
+      if (data != null || current == ring) {
+        return data;
+      }
+    }
+  }
+
+  /**
+   * Evaluate a query on all shards in parallel and merge the results. Every shard only shows the
+   * keys it owns on the ring, so keys being moved are not seen twice.
+   *
+   * @param shardQuery the query evaluated on every shard
+   * @param merger merges the results of two shards
+   * @param identity the result if there are no shards
+   * @param executor runs the queries of the shards
+   * @param <R> type of the result
+   * @return the merged result
+   */
+  @Override
+  public <R> R scatterGather(
+      final Function<Shard, R> shardQuery,
+      final BinaryOperator<R> merger,
+      final R identity,
+      final Executor executor) {
+    while (true) {
+      var current = ring;
+      var result =
+          super.scatterGather(
+              shard ->
+                  shardQuery.apply(shard.filterKeys(key -> ownerOf(current, key) == shard.getId())),
+              merger,
+              identity,
+              executor);
+      // keys may have been deleted from their old shard under a newer ring, look again
+      if (current == ring) {
+        return result;
+      }
+    }
+  }
+
+  @Override
+  protected int allocateShard(final Data data) {
+    return ownerOf(ring, data.getKey());
+  }
+
+  /**
+   * Get the total number of keys moved between shards by rebalancing.
+   *
+   * @return number of moved keys.
+   */
+  public synchronized long getKeysMoved() {
+    return keysMoved;
+  }
+
+  /**
+   * Get the number of keys stored per shard.
+   *
+   * @return number of keys by shard id.
+   */
+  public synchronized Map<Integer, Integer> getShardLoads() {
+    var loads = new HashMap<Integer, Integer>();
+    shardMap.forEach((id, shard) -> loads.put(id, shard.getSize()));
+    return loads;
+  }
+
+  /**
+   * Get the load skew, the number of keys of the fullest shard divided by the average number of
+   * keys per shard. A perfectly balanced store has a skew of 1.
+   *
+   * @return the load skew, or 1 if no data is stored.
+   */
+  public synchronized double getLoadSkew() {
+    var loads = getShardLoads().values();
+    var total = loads.stream().mapToLong(Integer::longValue).sum();
+    if (total == 0) {
+      return 1;
+    }
+    var max = loads.stream().mapToInt(Integer::intValue).max().orElse(0);
+    return max / ((double) total / loads.size());
+  }
+
+  /*
+   * Copies the keys of the sources owned by another shard on the new ring, publishes the new ring
+   * and deletes the copied keys from the sources.
+   */
+  private void rebalance(List<Shard> sources, NavigableMap<Integer, Integer> newRing) {
+    var moved = new HashMap<Shard, List<Integer>>();
+    for (var source : sources) {
+      for (var key : source.getKeys()) {
+        var target = newRing.isEmpty() ? source.getId() : ownerOf(newRing, key);
+        if (target != source.getId()) {
+          shardMap.get(target).storeData(source.getDataById(key));
+          moved.computeIfAbsent(source, s -> new ArrayList<>()).add(key);
+        }
+      }
+    }
+    ring = Collections.unmodifiableNavigableMap(newRing);
+    moved.forEach((source, keys) -> keys.forEach(source::removeData));
+    var count = moved.values().stream().mapToInt(List::size).sum();
+    keysMoved += count;
+    LOGGER.info("Rebalancing moved {} keys", count);
+  }
+
+  private static int ownerOf(NavigableMap<Integer, Integer> ring, int key) {
+    if (ring.isEmpty()) {
+      throw new IllegalStateException("No shard available");
+    }
+    var node = ring.ceilingEntry(mix(key));
+    return node != null ? node.getValue() : ring.firstEntry().getValue();
+  }
+
+  private static int virtualNodeHash(int shardId, int replica) {
+    return mix(mix(shardId) * 31 + replica);
+  }
+
+  /* The finalizer of MurmurHash3, spreading consecutive keys over the whole ring. */
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
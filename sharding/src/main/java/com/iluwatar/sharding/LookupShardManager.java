@@ -25,8 +25,8 @@
 package com.iluwatar.sharding;
 
 import java.security.SecureRandom;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -36,7 +36,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class LookupShardManager extends ShardManager {
 
-  private final Map<Integer, Integer> lookupMap = new HashMap<>();
+  private final Map<Integer, Integer> lookupMap = new ConcurrentHashMap<>();
 
   @Override
   public int storeData(Data data) {
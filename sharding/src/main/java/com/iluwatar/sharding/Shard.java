@@ -24,20 +24,50 @@
  */
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.Getter;
 
-/** The Shard class stored data in a HashMap. */
+/**
+ * The Shard class stored data in a ConcurrentHashMap, so that it can be read and written by many
+ * threads at once.
+ */
 public class Shard {
 
   @Getter private final int id;
 
   private final Map<Integer, Data> dataStore;
 
+  /* Keys visible through this shard, null for all of them. */
+  private final IntPredicate keyFilter;
+
   public Shard(final int id) {
+    this(id, new ConcurrentHashMap<>(), null);
+  }
+
+  private Shard(final int id, final Map<Integer, Data> dataStore, final IntPredicate keyFilter) {
     this.id = id;
-    this.dataStore = new HashMap<>();
+    this.dataStore = dataStore;
+    this.keyFilter = keyFilter;
+  }
+
+  /**
+   * Get a view of this shard that only shows the keys matching a filter. The view shares the data
+   * of this shard.
+   *
+   * @param keyFilter the keys to show
+   * @return the filtered view
+   */
+  public Shard filterKeys(final IntPredicate keyFilter) {
+    return new Shard(id, dataStore, keyFilter);
   }
 
   public void storeData(Data data) {
@@ -49,6 +79,54 @@ public class Shard {
   }
 
   public Data getDataById(final int id) {
-    return dataStore.get(id);
+    return keyFilter == null || keyFilter.test(id) ? dataStore.get(id) : null;
+  }
+
+  public Data removeData(final int id) {
+    return dataStore.remove(id);
+  }
+
+  /**
+   * Get the keys of the stored data.
+   *
+   * @return a copy of the keys.
+   */
+  public Set<Integer> getKeys() {
+    if (keyFilter == null) {
+      return new HashSet<>(dataStore.keySet());
+    }
+    return dataStore.keySet().stream()
+        .filter(keyFilter::test)
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  public int getSize() {
+    return keyFilter == null ? dataStore.size() : (int) data().count();
+  }
+
+  /**
+   * Find the stored data matching a predicate.
+   *
+   * @param predicate the predicate
+   * @return the matching data
+   */
+  public List<Data> findData(final Predicate<Data> predicate) {
+    return data().filter(predicate).toList();
+  }
+
+  /**
+   * Aggregate the stored data without copying it.
+   *
+   * @param collector the aggregation
+   * @param <R> type of the aggregated result
+   * @return the aggregated result
+   */
+  public <R> R collect(final Collector<? super Data, ?, R> collector) {
+    return data().collect(collector);
+  }
+
+  private Stream<Data> data() {
+    var data = dataStore.values().stream();
+    return keyFilter == null ? data : data.filter(d -> keyFilter.test(d.getKey()));
   }
 }
@@ -24,18 +24,30 @@
  */
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import lombok.extern.slf4j.Slf4j;
 
-/** Abstract class for ShardManager. */
+/**
+ * Abstract class for ShardManager. Shards can be added, removed and looked up concurrently, and
+ * scatter-gather queries evaluate a query on all shards in parallel and merge the results.
+ */
 @Slf4j
 public abstract class ShardManager {
 
   protected Map<Integer, Shard> shardMap;
 
   public ShardManager() {
-    shardMap = new HashMap<>();
+    shardMap = new ConcurrentHashMap<>();
   }
 
   /**
@@ -46,13 +58,7 @@ public abstract class ShardManager {
    *     already existed.
    */
   public boolean addNewShard(final Shard shard) {
-    var shardId = shard.getId();
-    if (!shardMap.containsKey(shardId)) {
-      shardMap.put(shardId, shard);
-      return true;
-    } else {
-      return false;
-    }
+    return shardMap.putIfAbsent(shard.getId(), shard) == null;
   }
 
   /**
@@ -62,12 +68,7 @@ public abstract class ShardManager {
    * @return {@code true} if removed. {@code false} if the shardId is not existed.
    */
   public boolean removeShardById(final int shardId) {
-    if (shardMap.containsKey(shardId)) {
-      shardMap.remove(shardId);
-      return true;
-    } else {
-      return false;
-    }
+    return shardMap.remove(shardId) != null;
   }
 
   /**
@@ -80,6 +81,72 @@ public abstract class ShardManager {
     return shardMap.get(shardId);
   }
 
+  /**
+   * Find the data matching a predicate in all shards, searching the shards in parallel on the
+   * common pool.
+   *
+   * @param predicate the predicate
+   * @return the matching data of all shards
+   */
+  public List<Data> query(final Predicate<Data> predicate) {
+    return scatterGather(
+        shard -> shard.findData(predicate),
+        (left, right) -> {
+          var merged = new ArrayList<Data>(left.size() + right.size());
+          merged.addAll(left);
+          merged.addAll(right);
+          return merged;
+        },
+        List.of());
+  }
+
+  /**
+   * Evaluate a query on all shards in parallel on the common pool and merge the results.
+   *
+   * @param shardQuery the query evaluated on every shard
+   * @param merger merges the results of two shards
+   * @param identity the result if there are no shards
+   * @param <R> type of the result
+   * @return the merged result
+   */
+  public <R> R scatterGather(
+      final Function<Shard, R> shardQuery, final BinaryOperator<R> merger, final R identity) {
+    return scatterGather(shardQuery, merger, identity, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Evaluate a query on all shards in parallel and merge the results.
+   *
+   * @param shardQuery the query evaluated on every shard
+   * @param merger merges the results of two shards
+   * @param identity the result if there are no shards
+   * @param executor runs the queries of the shards
+   * @param <R> type of the result
+   * @return the merged result
+   */
+  public <R> R scatterGather(
+      final Function<Shard, R> shardQuery,
+      final BinaryOperator<R> merger,
+      final R identity,
+      final Executor executor) {
+    var futures =
+        shardMap.values().stream()
+            .map(shard -> CompletableFuture.supplyAsync(() -> shardQuery.apply(shard), executor))
+            .toList();
+    var result = identity;
+    try {
+      for (var future : futures) {
+        result = merger.apply(result, future.join());
+      }
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return result;
+  }
+
   /**
    * Store data in proper shard instance.
    *
@@ -0,0 +1,159 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how the sharded store scales with the number of shards and client threads. Every run
+ * loads a {@link ConsistentHashShardManager} and then reports the throughput of a mixed workload of
+ * point reads and writes and the latency of a scatter-gather aggregation over all shards.
+ */
+@Slf4j
+public class ShardingBenchmark {
+
+  private static final int KEYS = 200_000;
+  private static final int WRITE_PERCENT = 10;
+
+  private final int operationsPerThread;
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param shards number of shards.
+   * @param threads number of client threads.
+   * @param operationsPerSecond point reads and writes per second.
+   * @param scatterGatherMillis duration of a scatter-gather aggregation in milliseconds.
+   */
+  public record Result(
+      int shards, int threads, double operationsPerSecond, double scatterGatherMillis) {}
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param operationsPerThread point operations run by every client thread.
+   */
+  public ShardingBenchmark(int operationsPerThread) {
+    this.operationsPerThread = operationsPerThread;
+  }
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails.
+   */
+  public static void main(String[] args) throws Exception {
+    var benchmark = new ShardingBenchmark(500_000);
+    for (var shards : List.of(1, 2, 4, 8, 16)) {
+      for (var threads : List.of(1, 2, 4, 8)) {
+        var result = benchmark.run(shards, threads);
+        LOGGER.info(
+            "shards: {}, threads: {}, operations/sec: {}, scatter-gather: {} ms",
+            result.shards(),
+            result.threads(),
+            String.format("%.0f", result.operationsPerSecond()),
+            String.format("%.2f", result.scatterGatherMillis()));
+      }
+    }
+  }
+
+  /**
+   * Runs the workload against a store of the given number of shards.
+   *
+   * @param shards number of shards.
+   * @param threads number of client threads, also the parallelism of the scatter-gather.
+   * @return the measured result.
+   * @throws InterruptedException if interrupted while waiting for the clients.
+   * @throws ExecutionException if any client fails.
+   */
+  public Result run(int shards, int threads) throws InterruptedException, ExecutionException {
+    var manager = new ConsistentHashShardManager();
+    for (var id = 1; id <= shards; id++) {
+      manager.addNewShard(new Shard(id));
+    }
+    for (var key = 0; key < KEYS; key++) {
+      store(manager, new Data(key, "data" + key, Data.DataType.values()[key % 3]));
+    }
+
+    var executor = Executors.newFixedThreadPool(threads);
+    var pool = new ForkJoinPool(threads);
+    try {
+      var clients = new ArrayList<Callable<Void>>();
+      for (var t = 0; t < threads; t++) {
+        clients.add(
+            () -> {
+              var random = ThreadLocalRandom.current();
+              for (var i = 0; i < operationsPerThread; i++) {
+                var key = random.nextInt(KEYS);
+                if (random.nextInt(100) < WRITE_PERCENT) {
+                  store(manager, new Data(key, "updated", Data.DataType.TYPE_1));
+                } else {
+                  manager.getDataByKey(key);
+                }
+              }
+              return null;
+            });
+      }
+      var start = System.nanoTime();
+      for (var future : executor.invokeAll(clients)) {
+        future.get();
+      }
+      var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+      var rounds = 10;
+      start = System.nanoTime();
+      for (var i = 0; i < rounds; i++) {
+        manager.scatterGather(
+            shard ->
+                shard.collect(
+                    Collectors.filtering(
+                        data -> data.getType() == Data.DataType.TYPE_1, Collectors.counting())),
+            Long::sum,
+            0L,
+            pool);
+      }
+      var scatterGatherMillis = (System.nanoTime() - start) / 1e6 / rounds;
+      return new Result(
+          shards, threads, threads * operationsPerThread / elapsedSeconds, scatterGatherMillis);
+    } finally {
+      executor.shutdown();
+      pool.shutdown();
+    }
+  }
+
+  /* Stores without the per record logging of storeData, which would dominate the measurement. */
+  private static void store(ConsistentHashShardManager manager, Data data) {
+    manager.getShardById(manager.allocateShard(data)).storeData(data);
+  }
+}
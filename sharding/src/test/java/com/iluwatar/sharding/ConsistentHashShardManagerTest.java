@@ -0,0 +1,151 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for ConsistentHashShardManager class. */
+class ConsistentHashShardManagerTest {
+
+  private static final int KEYS = 10_000;
+
+  private ConsistentHashShardManager manager;
+
+  /** Initialize manager with four shards holding data. */
+  @BeforeEach
+  void setup() {
+    manager = new ConsistentHashShardManager();
+    for (var id = 1; id <= 4; id++) {
+      manager.addNewShard(new Shard(id));
+    }
+    for (var key = 0; key < KEYS; key++) {
+      manager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+    }
+  }
+
+  @Test
+  void testStoreData() {
+    var data = new Data(KEYS, "test", Data.DataType.TYPE_2);
+    var shardId = manager.storeData(data);
+    assertEquals(data, manager.getShardById(shardId).getDataById(KEYS));
+    assertEquals(data, manager.getDataByKey(KEYS));
+  }
+
+  @Test
+  void testLoadIsBalanced() {
+    assertEquals(0, manager.getKeysMoved());
+    assertTrue(manager.getLoadSkew() < 1.3, "skew " + manager.getLoadSkew());
+  }
+
+  @Test
+  void testAddingShardMovesOnlyItsShare() {
+    assertTrue(manager.addNewShard(new Shard(5)));
+    assertFalse(manager.addNewShard(new Shard(5)));
+
+    var moved = manager.getKeysMoved();
+    // about a fifth of the keys move to the new shard, and only to it
+    assertTrue(moved > KEYS / 10 && moved < KEYS / 3, "moved " + moved);
+    assertEquals(moved, (long) manager.getShardLoads().get(5));
+    assertAllKeysReadable();
+  }
+
+  @Test
+  void testRemovingShardMovesOnlyItsKeys() {
+    long load = manager.getShardLoads().get(2);
+
+    assertTrue(manager.removeShardById(2));
+
+    assertEquals(load, manager.getKeysMoved());
+    assertEquals(3, manager.getShardLoads().size());
+    assertAllKeysReadable();
+  }
+
+  @Test
+  void testReadsDuringRebalancing() throws InterruptedException {
+    var failures = new int[1];
+    var reader =
+        new Thread(
+            () -> {
+              for (var round = 0; round < 20; round++) {
+                for (var key = 0; key < KEYS; key += 7) {
+                  if (manager.getDataByKey(key) == null) {
+                    failures[0]++;
+                  }
+                }
+              }
+            });
+    reader.start();
+    for (var id = 5; id <= 8; id++) {
+      manager.addNewShard(new Shard(id));
+    }
+    manager.removeShardById(1);
+    reader.join();
+
+    assertEquals(0, failures[0]);
+  }
+
+  @Test
+  void testQueriesDuringRebalancing() throws InterruptedException {
+    var failures = new AtomicInteger();
+    var reader =
+        new Thread(
+            () -> {
+              for (var round = 0; round < 50; round++) {
+                var matches = manager.query(data -> true);
+                var distinct = matches.stream().map(Data::getKey).distinct().count();
+                long count =
+                    manager.scatterGather(
+                        shard -> shard.collect(Collectors.counting()), Long::sum, 0L);
+                if (matches.size() != KEYS || distinct != KEYS || count != KEYS) {
+                  failures.incrementAndGet();
+                }
+              }
+            });
+    reader.start();
+    for (var id = 5; id <= 8; id++) {
+      manager.addNewShard(new Shard(id));
+    }
+    manager.removeShardById(1);
+    manager.removeShardById(6);
+    reader.join();
+
+    assertEquals(0, failures.get());
+  }
+
+  private void assertAllKeysReadable() {
+    var stored = manager.getShardLoads().values().stream().mapToInt(Integer::intValue).sum();
+    assertEquals(KEYS, stored);
+    for (var key = 0; key < KEYS; key++) {
+      assertEquals(key, manager.getDataByKey(key).getKey());
+    }
+  }
+}
@@ -25,10 +25,13 @@
 package com.iluwatar.sharding;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -82,6 +85,46 @@ class ShardManagerTest {
     assertEquals(shard, tmpShard);
   }
 
+  @Test
+  void testScatterGatherQuery() {
+    for (var id = 1; id <= 4; id++) {
+      var shard = new Shard(id);
+      shardManager.addNewShard(shard);
+      for (var key = id * 100; key < id * 100 + 10; key++) {
+        shard.storeData(
+            new Data(key, "data", key % 2 == 0 ? Data.DataType.TYPE_1 : Data.DataType.TYPE_2));
+      }
+    }
+
+    var matches = shardManager.query(data -> data.getType() == Data.DataType.TYPE_1);
+    assertEquals(20, matches.size());
+    assertTrue(matches.stream().allMatch(data -> data.getKey() % 2 == 0));
+
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      long count =
+          shardManager.scatterGather(
+              shard -> shard.collect(Collectors.counting()), Long::sum, 0L, executor);
+      assertEquals(40, count);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testScatterGatherPropagatesFailure() {
+    shardManager.addNewShard(new Shard(1));
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            shardManager.scatterGather(
+                shard -> {
+                  throw new IllegalStateException("shard down");
+                },
+                (left, right) -> left,
+                null));
+  }
+
   static class TestShardManager extends ShardManager {
 
     @Override
@@ -25,10 +25,14 @@
 package com.iluwatar.sharding;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -74,4 +78,43 @@ class ShardTest {
       fail("Fail to modify field access.");
     }
   }
+
+  @Test
+  void testConcurrentStoreData() throws Exception {
+    var executor = Executors.newFixedThreadPool(4);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (var t = 0; t < 4; t++) {
+        var offset = t * 1000;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (var key = offset; key < offset + 1000; key++) {
+                    shard.storeData(new Data(key, "data", Data.DataType.TYPE_1));
+                    shard.getDataById(key);
+                  }
+                }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(4000, shard.getSize());
+    assertEquals(1000, shard.findData(stored -> stored.getKey() < 1000).size());
+  }
+
+  @Test
+  void testFilterKeys() {
+    for (var key = 0; key < 10; key++) {
+      shard.storeData(new Data(key, "data", Data.DataType.TYPE_1));
+    }
+    var even = shard.filterKeys(key -> key % 2 == 0);
+    assertEquals(5, even.getSize());
+    assertEquals(5, even.getKeys().size());
+    assertEquals(5, even.findData(data -> true).size());
+    assertNull(even.getDataById(1));
+    assertEquals(10, shard.getSize());
+  }
 }
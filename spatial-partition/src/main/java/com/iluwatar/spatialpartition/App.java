@@ -27,6 +27,7 @@ package com.iluwatar.spatialpartition;
 import java.security.SecureRandom;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -49,8 +50,10 @@ import lombok.extern.slf4j.Slf4j;
  * to handle collision (handleCollision(obj)), and will be extended by any object whose position has
  * to be kept track of in the quadtree. The <b>{@link SpatialPartitionGeneric}</b> abstract class
  * has 2 fields - a hashmap containing all objects (we use hashmap for faster lookups, insertion and
- * deletion) and a quadtree, and contains an abstract method which defines how to handle
- * interactions between objects using the quadtree.
+ * deletion) and a {@link SpatialIndex}, and contains an abstract method which defines how to handle
+ * interactions between objects using the index. Besides the quadtree, a {@link SpatialHashGrid} and
+ * a {@link BoundingVolumeHierarchy} implement the index, each suiting other data, as the {@link
+ * SpatialIndexBenchmark} shows.
  *
  * <p>Using the quadtree data structure will reduce the time complexity of finding the objects
  * within a certain range from <b>O(n^2) to O(nlogn)</b>, increasing the speed of computations
@@ -104,6 +107,31 @@ public class App {
     bubbles.keySet().forEach(key -> LOGGER.info("Bubble {} not popped", key));
   }
 
+  static void withParallelSpatialPartition(
+      int height, int width, int numOfMovements, Map<Integer, Bubble> bubbles) {
+    // creating a quadtree that follows the moving bubbles instead of being filled every frame
+    var rect = new Rect(width / 2D, height / 2D, width, height);
+    var quadTree = new DynamicQuadTree(rect, 4);
+    bubbles.values().forEach(quadTree::insert);
+    var sp = new SpatialPartitionBubbles(bubbles, quadTree);
+
+    // will run numOfMovement times or till all bubbles have popped
+    while (numOfMovements > 0 && !bubbles.isEmpty()) {
+      // all bubbles move first, then their collisions are handled at once
+      bubbles
+          .values()
+          .forEach(
+              bubble -> {
+                bubble.move();
+                quadTree.relocate(bubble);
+              });
+      sp.handleCollisionsInParallel(ForkJoinPool.commonPool());
+      numOfMovements--;
+    }
+    // bubbles not popped
+    bubbles.keySet().forEach(key -> LOGGER.info("Bubble {} not popped", key));
+  }
+
   /**
    * Program entry point.
    *
@@ -112,11 +140,13 @@ public class App {
   public static void main(String[] args) {
     var bubbles1 = new ConcurrentHashMap<Integer, Bubble>();
     var bubbles2 = new ConcurrentHashMap<Integer, Bubble>();
+    var bubbles3 = new ConcurrentHashMap<Integer, Bubble>();
     var rand = new SecureRandom();
     for (int i = 0; i < 10000; i++) {
       var b = new Bubble(rand.nextInt(300), rand.nextInt(300), i, rand.nextInt(2) + 1);
       bubbles1.put(i, b);
       bubbles2.put(i, b);
+      bubbles3.put(i, new Bubble(b.coordinateX, b.coordinateY, i, b.radius));
       LOGGER.info(
           "Bubble {} with radius {} added at ({},{})", i, b.radius, b.coordinateX, b.coordinateY);
     }
@@ -127,7 +157,11 @@ public class App {
     var start2 = System.currentTimeMillis();
     App.withSpatialPartition(300, 300, 20, bubbles2);
     var end2 = System.currentTimeMillis();
+    var start3 = System.currentTimeMillis();
+    App.withParallelSpatialPartition(300, 300, 20, bubbles3);
+    var end3 = System.currentTimeMillis();
     LOGGER.info("Without spatial partition takes {} ms", (end1 - start1));
     LOGGER.info("With spatial partition takes {} ms", (end2 - start2));
+    LOGGER.info("With parallel spatial partition takes {} ms", (end3 - start3));
   }
 }
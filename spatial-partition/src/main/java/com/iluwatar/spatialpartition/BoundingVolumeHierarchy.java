@@ -0,0 +1,417 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index that groups nearby points into a binary tree of bounding boxes. Unlike the cells
+ * of a quadtree or grid, a box only spans the points it holds, so the tree follows strongly skewed
+ * data, such as dense clusters or points along a line, without any empty cells in between.
+ *
+ * <p>A point is inserted into the leaf whose box grows least by it, and a full leaf is split at the
+ * median of its longer side. Removing a point shrinks the boxes above its leaf and merges an empty
+ * leaf away. Inserting points one by one yields a less balanced tree than splitting all of them at
+ * once, which {@link #bulkLoad(Point[])} and {@link #rebuild()} do.
+ */
+public class BoundingVolumeHierarchy implements SpatialIndex {
+
+  private final int capacity;
+  private final Map<Integer, Node> leaves = new HashMap<>();
+  private Node root;
+
+  /**
+   * Creates an empty hierarchy.
+   *
+   * @param capacity the number of points a leaf holds before it is split.
+   */
+  public BoundingVolumeHierarchy(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  /** Inserts a point, or relocates it if it is already part of the hierarchy. */
+  @Override
+  public boolean insert(Point p) {
+    if (leaves.containsKey(p.id)) {
+      return relocate(p);
+    }
+    var x = p.coordinateX;
+    var y = p.coordinateY;
+    if (root == null) {
+      root = new Node(null, x, y);
+    }
+    var node = root;
+    node.include(x, y);
+    while (node.left != null) {
+      node = cheaperToGrow(node.left, node.right, x, y);
+      node.include(x, y);
+    }
+    node.addPoint(p);
+    leaves.put(p.id, node);
+    if (node.size > capacity && !node.isSinglePoint()) {
+      split(node);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove(Point p) {
+    var leaf = leaves.remove(p.id);
+    if (leaf == null) {
+      return false;
+    }
+    leaf.removePoint(p);
+    if (leaf.size > 0) {
+      refit(leaf);
+      return true;
+    }
+    var parent = leaf.parent;
+    if (parent == null) {
+      root = null;
+      return true;
+    }
+    // the sibling of the empty leaf takes the place of their parent
+    var sibling = parent.left == leaf ? parent.right : parent.left;
+    var grandparent = parent.parent;
+    sibling.parent = grandparent;
+    if (grandparent == null) {
+      root = sibling;
+    } else {
+      if (grandparent.left == parent) {
+        grandparent.left = sibling;
+      } else {
+        grandparent.right = sibling;
+      }
+      refit(grandparent);
+    }
+    return true;
+  }
+
+  /** Moves a point to another leaf only if it has left the box of the leaf it is held by. */
+  @Override
+  public boolean relocate(Point p) {
+    var leaf = leaves.get(p.id);
+    if (leaf == null) {
+      return false;
+    }
+    if (leaf.contains(p.coordinateX, p.coordinateY)) {
+      return true;
+    }
+    remove(p);
+    return insert(p);
+  }
+
+  @Override
+  public Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
+    if (root != null) {
+      query(
+          root,
+          r.coordinateX - r.width / 2,
+          r.coordinateY - r.height / 2,
+          r.coordinateX + r.width / 2,
+          r.coordinateY + r.height / 2,
+          relevantPoints);
+    }
+    return relevantPoints;
+  }
+
+  @Override
+  public List<Point> nearest(double x, double y, int k) {
+    var nearest = new NearestPoints(x, y, k);
+    if (root != null) {
+      nearest(root, nearest);
+    }
+    return nearest.toList();
+  }
+
+  @Override
+  public int size() {
+    return leaves.size();
+  }
+
+  /** Builds the whole hierarchy again by splitting all of its points at once. */
+  public void rebuild() {
+    var points = new Point[leaves.size()];
+    if (root != null) {
+      collect(root, points, 0);
+    }
+    bulkLoad(points);
+  }
+
+  /**
+   * Replaces the content of the hierarchy with the given points, splitting all of them at once.
+   *
+   * @param points the points, which are reordered in place.
+   */
+  public void bulkLoad(Point[] points) {
+    leaves.clear();
+    root = points.length == 0 ? null : build(null, points, 0, points.length);
+  }
+
+  /**
+   * Depth of the deepest leaf, one for a single leaf.
+   *
+   * @return the depth, zero for an empty hierarchy.
+   */
+  int depth() {
+    return depth(root);
+  }
+
+  private Node build(Node parent, Point[] points, int from, int to) {
+    var node = new Node(parent, points[from].coordinateX, points[from].coordinateY);
+    for (var i = from + 1; i < to; i++) {
+      node.include(points[i].coordinateX, points[i].coordinateY);
+    }
+    if (to - from <= capacity || node.isSinglePoint()) {
+      node.points = new Point[Math.max(to - from, capacity)];
+      System.arraycopy(points, from, node.points, 0, to - from);
+      node.size = to - from;
+      for (var i = from; i < to; i++) {
+        leaves.put(points[i].id, node);
+      }
+      return node;
+    }
+    var middle = (from + to) >>> 1;
+    select(points, from, to, middle, node.isWide());
+    node.left = build(node, points, from, middle);
+    node.right = build(node, points, middle, to);
+    return node;
+  }
+
+  private static int collect(Node node, Point[] into, int offset) {
+    if (node.left == null) {
+      System.arraycopy(node.points, 0, into, offset, node.size);
+      return offset + node.size;
+    }
+    return collect(node.right, into, collect(node.left, into, offset));
+  }
+
+  /*
+   * Partially orders the points, like a quicksort that only descends into the part holding the
+   * middle, so that the points before the middle are no greater on the axis than the ones after.
+   */
+  private static void select(Point[] points, int from, int to, int middle, boolean byX) {
+    var low = from;
+    var high = to - 1;
+    while (low < high) {
+      var pivot = coordinate(points[(low + high) >>> 1], byX);
+      var i = low;
+      var j = high;
+      while (i <= j) {
+        while (coordinate(points[i], byX) < pivot) {
+          i++;
+        }
+        while (coordinate(points[j], byX) > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          var swap = points[i];
+          points[i++] = points[j];
+          points[j--] = swap;
+        }
+      }
+      if (middle <= j) {
+        high = j;
+      } else if (middle >= i) {
+        low = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private static int coordinate(Point p, boolean byX) {
+    return byX ? p.coordinateX : p.coordinateY;
+  }
+
+  private void split(Node leaf) {
+    var points = Arrays.copyOf(leaf.points, leaf.size);
+    var replacement = build(leaf.parent, points, 0, points.length);
+    leaf.points = null;
+    leaf.size = 0;
+    leaf.left = replacement.left;
+    leaf.right = replacement.right;
+    leaf.left.parent = leaf;
+    leaf.right.parent = leaf;
+    // points that have moved since their last relocation may lie outside the box of the leaf
+    refit(leaf);
+  }
+
+  private static Node cheaperToGrow(Node a, Node b, int x, int y) {
+    var growthA = a.perimeterWith(x, y) - a.perimeter();
+    var growthB = b.perimeterWith(x, y) - b.perimeter();
+    if (growthA != growthB) {
+      return growthA < growthB ? a : b;
+    }
+    return a.perimeter() <= b.perimeter() ? a : b;
+  }
+
+  private static void refit(Node node) {
+    for (; node != null; node = node.parent) {
+      node.fit();
+    }
+  }
+
+  private static void query(
+      Node node,
+      double minX,
+      double minY,
+      double maxX,
+      double maxY,
+      Collection<Point> relevantPoints) {
+    if (node.maxX < minX || node.minX > maxX || node.maxY < minY || node.minY > maxY) {
+      return;
+    }
+    if (node.left != null) {
+      query(node.left, minX, minY, maxX, maxY, relevantPoints);
+      query(node.right, minX, minY, maxX, maxY, relevantPoints);
+      return;
+    }
+    for (var i = 0; i < node.size; i++) {
+      var p = node.points[i];
+      if (p.coordinateX >= minX
+          && p.coordinateX <= maxX
+          && p.coordinateY >= minY
+          && p.coordinateY <= maxY) {
+        relevantPoints.add(p);
+      }
+    }
+  }
+
+  private static void nearest(Node node, NearestPoints nearest) {
+    if (!nearest.mayImprove(node.minX, node.minY, node.maxX, node.maxY)) {
+      return;
+    }
+    if (node.left == null) {
+      for (var i = 0; i < node.size; i++) {
+        nearest.offer(node.points[i]);
+      }
+      return;
+    }
+    var left = nearest.boxDistance(node.left.minX, node.left.minY, node.left.maxX, node.left.maxY);
+    var right =
+        nearest.boxDistance(node.right.minX, node.right.minY, node.right.maxX, node.right.maxY);
+    // the nearer child first, as the candidates it yields let the search skip the other
+    nearest(left <= right ? node.left : node.right, nearest);
+    nearest(left <= right ? node.right : node.left, nearest);
+  }
+
+  private static int depth(Node node) {
+    if (node == null) {
+      return 0;
+    }
+    return 1 + Math.max(depth(node.left), depth(node.right));
+  }
+
+  /* A node of the hierarchy, either a leaf holding points or an inner node with two children. */
+  private static final class Node {
+    Node parent;
+    Node left;
+    Node right;
+    Point[] points;
+    int size;
+    int minX;
+    int minY;
+    int maxX;
+    int maxY;
+
+    Node(Node parent, int x, int y) {
+      this.parent = parent;
+      this.minX = x;
+      this.minY = y;
+      this.maxX = x;
+      this.maxY = y;
+    }
+
+    boolean contains(int x, int y) {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    void include(int x, int y) {
+      minX = Math.min(minX, x);
+      minY = Math.min(minY, y);
+      maxX = Math.max(maxX, x);
+      maxY = Math.max(maxY, y);
+    }
+
+    boolean isSinglePoint() {
+      return minX == maxX && minY == maxY;
+    }
+
+    boolean isWide() {
+      return maxX - minX >= maxY - minY;
+    }
+
+    long perimeter() {
+      return (long) maxX - minX + maxY - minY;
+    }
+
+    long perimeterWith(int x, int y) {
+      return (long) Math.max(maxX, x) - Math.min(minX, x) + Math.max(maxY, y) - Math.min(minY, y);
+    }
+
+    /* Shrinks the box to the points or children, which may have moved or been removed. */
+    void fit() {
+      if (left != null) {
+        minX = Math.min(left.minX, right.minX);
+        minY = Math.min(left.minY, right.minY);
+        maxX = Math.max(left.maxX, right.maxX);
+        maxY = Math.max(left.maxY, right.maxY);
+        return;
+      }
+      minX = maxX = points[0].coordinateX;
+      minY = maxY = points[0].coordinateY;
+      for (var i = 1; i < size; i++) {
+        include(points[i].coordinateX, points[i].coordinateY);
+      }
+    }
+
+    void addPoint(Point p) {
+      if (points == null) {
+        points = new Point[4];
+      } else if (size == points.length) {
+        points = Arrays.copyOf(points, size * 2);
+      }
+      points[size++] = p;
+    }
+
+    void removePoint(Point p) {
+      for (var i = 0; i < size; i++) {
+        if (points[i].id == p.id) {
+          points[i] = points[--size];
+          points[size] = null;
+          return;
+        }
+      }
+    }
+  }
+}
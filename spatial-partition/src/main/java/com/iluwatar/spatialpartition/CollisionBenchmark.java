@@ -0,0 +1,125 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the speedup of the parallel collision pass of {@link SpatialPartitionBubbles} with the
+ * number of threads, and checks that every thread count pops the same bubbles in the same order.
+ * The bubbles are not popped, so that the logging of every pop does not dominate the measurement.
+ */
+@Slf4j
+public class CollisionBenchmark {
+
+  private static final int BUBBLES = 100_000;
+  private static final int ROUNDS = 10;
+
+  /**
+   * Result of the runs with one number of threads.
+   *
+   * @param threads the parallelism of the pool.
+   * @param millis duration of a collision pass in milliseconds.
+   * @param speedup the speedup over a single thread.
+   */
+  public record Result(int threads, double millis, double speedup) {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   */
+  public static void main(String[] args) {
+    for (var result : run(BUBBLES, List.of(1, 2, 4, 8, 16, 32), 42)) {
+      LOGGER.info(
+          "threads: {}, collision pass: {} ms, speedup: {}",
+          result.threads(),
+          String.format("%.1f", result.millis()),
+          String.format("%.2f", result.speedup()));
+    }
+  }
+
+  /**
+   * Runs the collision pass over the same bubbles with pools of the given sizes.
+   *
+   * @param count the number of bubbles.
+   * @param threadCounts the pool sizes, the first of which the speedup is relative to.
+   * @param seed seed of the bubble positions.
+   * @return the result for every pool size.
+   * @throws IllegalStateException if a pool size pops other bubbles than the first one.
+   */
+  public static List<Result> run(int count, List<Integer> threadCounts, long seed) {
+    // about 20 square units per bubble, dense enough for a good share of collisions
+    var side = (int) Math.sqrt(count * 20.0);
+    var random = new Random(seed);
+    var bubbles = new HashMap<Integer, Bubble>();
+    var index = new DynamicQuadTree(new Rect(side / 2D, side / 2D, side, side), 8);
+    for (var i = 0; i < count; i++) {
+      var bubble = new Bubble(random.nextInt(side), random.nextInt(side), i, random.nextInt(2) + 1);
+      bubbles.put(i, bubble);
+      index.insert(bubble);
+    }
+    var partition = new SpatialPartitionBubbles(bubbles, index);
+
+    // warms up the JIT compiler, so that the first pool size is not measured mostly interpreted
+    for (var round = 0; round < ROUNDS; round++) {
+      SpatialPartitionBubbles.resolveCollisions(
+          partition.findCollisions(ForkJoinPool.commonPool()));
+    }
+
+    List<Integer> expected = null;
+    var baseline = 0.0;
+    var results = new ArrayList<Result>();
+    for (var threads : threadCounts) {
+      var pool = new ForkJoinPool(threads);
+      try {
+        // the first pass also starts the threads of the pool
+        var popped = SpatialPartitionBubbles.resolveCollisions(partition.findCollisions(pool));
+        if (expected == null) {
+          expected = popped;
+        } else if (!expected.equals(popped)) {
+          throw new IllegalStateException(threads + " threads popped other bubbles");
+        }
+        var start = System.nanoTime();
+        for (var round = 0; round < ROUNDS; round++) {
+          SpatialPartitionBubbles.resolveCollisions(partition.findCollisions(pool));
+        }
+        var millis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        if (baseline == 0) {
+          baseline = millis;
+        }
+        results.add(new Result(threads, millis, baseline / millis));
+      } finally {
+        pool.shutdown();
+      }
+    }
+    return results;
+  }
+}
@@ -0,0 +1,522 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A quadtree for moving objects. {@link QuadTree} has no way to remove or move a point, so a field
+ * of moving objects has to be put into a new tree every frame. This tree keeps track of the leaf
+ * holding every point instead:
+ *
+ * <ul>
+ *   <li>{@link #relocate(Point)} moves a point only once it has left the bounds of its leaf, which
+ *       for small steps is a single bounds check.
+ *   <li>{@link #remove(Point)} merges a subtree back into one leaf when it holds no more than half
+ *       of the capacity, so that a tree does not keep the shape of a crowd that has moved on.
+ *   <li>{@link #bulkLoad(Point[])} builds the tree in one pass from points sorted in the Z-order of
+ *       the tree by {@link #sort(Point[])}, as the points of every node form a contiguous range.
+ * </ul>
+ *
+ * <p>Points are only held by leaves, in plain arrays. The bounds of a node are kept as fields and
+ * split points lying on the centre lines of a node into its east and north children, so that every
+ * point belongs to exactly one leaf.
+ */
+public class DynamicQuadTree implements SpatialIndex {
+
+  /** Depth at which leaves no longer divide, which also bounds the bits of the Z-order code. */
+  static final int MAX_DEPTH = 16;
+
+  /* Quadrants are numbered in Z-order, one bit for the east half and one for the north half. */
+  private static final int EAST = 1;
+  private static final int NORTH = 2;
+  private static final int SOUTHWEST = 0;
+  private static final int SOUTHEAST = EAST;
+  private static final int NORTHWEST = NORTH;
+  private static final int NORTHEAST = NORTH | EAST;
+
+  private final int capacity;
+  private final Node root;
+  private final Map<Integer, Node> leaves = new HashMap<>();
+
+  DynamicQuadTree(Rect boundary, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.root =
+        new Node(
+            null,
+            0,
+            boundary.coordinateX - boundary.width / 2,
+            boundary.coordinateY - boundary.height / 2,
+            boundary.coordinateX + boundary.width / 2,
+            boundary.coordinateY + boundary.height / 2,
+            true,
+            true);
+  }
+
+  /** Inserts a point, or relocates it if it is already part of the tree. */
+  @Override
+  public boolean insert(Point p) {
+    if (leaves.containsKey(p.id)) {
+      return relocate(p);
+    }
+    if (!root.contains(p.coordinateX, p.coordinateY)) {
+      return false;
+    }
+    insert(root, p);
+    return true;
+  }
+
+  @Override
+  public boolean remove(Point p) {
+    var leaf = leaves.remove(p.id);
+    if (leaf == null) {
+      return false;
+    }
+    leaf.removePoint(p);
+    for (var node = leaf; node != null; node = node.parent) {
+      node.count--;
+    }
+    mergeUnderfull(leaf.parent);
+    return true;
+  }
+
+  /**
+   * Updates the tree after a point has moved. Nothing changes while the point stays within the
+   * bounds of its leaf. Otherwise the point is removed and inserted again below the nearest node
+   * that still contains it.
+   */
+  @Override
+  public boolean relocate(Point p) {
+    var leaf = leaves.get(p.id);
+    if (leaf == null) {
+      return false;
+    }
+    var x = p.coordinateX;
+    var y = p.coordinateY;
+    if (leaf.contains(x, y)) {
+      return true;
+    }
+    leaf.removePoint(p);
+    var ancestor = leaf;
+    while (ancestor != null && !ancestor.contains(x, y)) {
+      ancestor.count--;
+      ancestor = ancestor.parent;
+    }
+    if (ancestor == null) {
+      leaves.remove(p.id);
+      mergeUnderfull(leaf.parent);
+      return false;
+    }
+    // the counts from the common ancestor up to the root are unchanged
+    ancestor.count--;
+    insert(ancestor, p);
+    // merging first could detach the ancestor the point is inserted below
+    mergeUnderfull(leaf.parent);
+    return true;
+  }
+
+  @Override
+  public Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
+    query(
+        root,
+        r.coordinateX - r.width / 2,
+        r.coordinateY - r.height / 2,
+        r.coordinateX + r.width / 2,
+        r.coordinateY + r.height / 2,
+        relevantPoints);
+    return relevantPoints;
+  }
+
+  /**
+   * Sorts the points into the Z-order of this tree, as required by {@link #bulkLoad(Point[])}.
+   * Points outside the boundary of the tree are sorted to the end.
+   *
+   * @param points the points to sort in place.
+   */
+  void sort(Point[] points) {
+    // sorts the codes together with the original index in a single primitive array, flipping the
+    // sign bit so that the signed sort orders the 32 bit codes as unsigned
+    var keys = new long[points.length];
+    var inside = 0;
+    var outside = new Point[points.length];
+    var outsideCount = 0;
+    for (var i = 0; i < points.length; i++) {
+      var code = zOrderCode(points[i]);
+      if (code < 0) {
+        outside[outsideCount++] = points[i];
+      } else {
+        keys[inside++] = (code << 32 | i) ^ Long.MIN_VALUE;
+      }
+    }
+    Arrays.sort(keys, 0, inside);
+    var sorted = new Point[points.length];
+    for (var i = 0; i < inside; i++) {
+      sorted[i] = points[(int) keys[i]];
+    }
+    System.arraycopy(outside, 0, sorted, inside, outsideCount);
+    System.arraycopy(sorted, 0, points, 0, points.length);
+  }
+
+  /**
+   * Replaces the content of the tree with the given points, building every node at once instead of
+   * dividing leaves as they fill up. Points outside the boundary of the tree are left out.
+   *
+   * @param sortedPoints the points in the order established by {@link #sort(Point[])}.
+   * @throws IllegalArgumentException if the points are not in that order.
+   */
+  void bulkLoad(Point[] sortedPoints) {
+    var end = 0;
+    while (end < sortedPoints.length
+        && root.contains(sortedPoints[end].coordinateX, sortedPoints[end].coordinateY)) {
+      end++;
+    }
+    for (var i = end; i < sortedPoints.length; i++) {
+      if (root.contains(sortedPoints[i].coordinateX, sortedPoints[i].coordinateY)) {
+        throw new IllegalArgumentException("points are not sorted in Z-order");
+      }
+    }
+    clear();
+    try {
+      build(root, sortedPoints, 0, end);
+    } catch (IllegalArgumentException e) {
+      clear();
+      throw e;
+    }
+  }
+
+  @Override
+  public List<Point> nearest(double x, double y, int k) {
+    var nearest = new NearestPoints(x, y, k);
+    nearest(root, nearest);
+    return nearest.toList();
+  }
+
+  @Override
+  public int size() {
+    return root.count;
+  }
+
+  /**
+   * Number of nodes, leaves and inner nodes, of the tree.
+   *
+   * @return the number of nodes.
+   */
+  int nodeCount() {
+    return nodeCount(root);
+  }
+
+  private void insert(Node node, Point p) {
+    var x = p.coordinateX;
+    var y = p.coordinateY;
+    node.count++;
+    while (node.children != null) {
+      node = node.children[node.quadrantOf(x, y)];
+      node.count++;
+    }
+    node.addPoint(p);
+    leaves.put(p.id, node);
+    if (node.size > capacity && node.depth < MAX_DEPTH) {
+      divide(node);
+    }
+  }
+
+  private void divide(Node leaf) {
+    var points = leaf.points;
+    var size = leaf.size;
+    leaf.createChildren();
+    leaf.points = null;
+    leaf.size = 0;
+    for (var i = 0; i < size; i++) {
+      var p = points[i];
+      var child = leaf.children[leaf.quadrantOf(p.coordinateX, p.coordinateY)];
+      child.count++;
+      child.addPoint(p);
+      leaves.put(p.id, child);
+    }
+    // all points may have landed in the same child
+    for (var child : leaf.children) {
+      if (child.size > capacity && child.depth < MAX_DEPTH) {
+        divide(child);
+      }
+    }
+  }
+
+  /* Collapses the highest ancestor whose subtree has become small enough into a single leaf. */
+  private void mergeUnderfull(Node node) {
+    Node mergeable = null;
+    for (; node != null; node = node.parent) {
+      if (node.count <= capacity / 2) {
+        mergeable = node;
+      }
+    }
+    if (mergeable == null) {
+      return;
+    }
+    var points = new Point[capacity];
+    var size = collect(mergeable, points, 0);
+    mergeable.children = null;
+    mergeable.points = points;
+    mergeable.size = size;
+    for (var i = 0; i < size; i++) {
+      leaves.put(points[i].id, mergeable);
+    }
+  }
+
+  private static int collect(Node node, Point[] into, int offset) {
+    if (node.children == null) {
+      if (node.size > 0) {
+        System.arraycopy(node.points, 0, into, offset, node.size);
+      }
+      return offset + node.size;
+    }
+    for (var child : node.children) {
+      offset = collect(child, into, offset);
+    }
+    return offset;
+  }
+
+  /* Builds a subtree, verifying the order as the quadrants of every node have to be ascending. */
+  private void build(Node node, Point[] points, int from, int to) {
+    node.count = to - from;
+    if (to - from <= capacity || node.depth == MAX_DEPTH) {
+      node.points = new Point[Math.max(to - from, capacity)];
+      System.arraycopy(points, from, node.points, 0, to - from);
+      node.size = to - from;
+      for (var i = from; i < to; i++) {
+        leaves.put(points[i].id, node);
+      }
+      return;
+    }
+    node.createChildren();
+    var start = from;
+    var quadrant = SOUTHWEST;
+    for (var i = from; i < to; i++) {
+      var next = node.quadrantOf(points[i].coordinateX, points[i].coordinateY);
+      if (next < quadrant) {
+        throw new IllegalArgumentException("points are not sorted in Z-order");
+      }
+      if (next > quadrant) {
+        build(node.children[quadrant], points, start, i);
+        start = i;
+        quadrant = next;
+      }
+    }
+    build(node.children[quadrant], points, start, to);
+  }
+
+  private void clear() {
+    leaves.clear();
+    root.children = null;
+    root.points = null;
+    root.size = 0;
+    root.count = 0;
+  }
+
+  /*
+   * Interleaves the quadrants of the point on the way down to the maximum depth, using the same
+   * comparisons as the insertion so that sorting and dividing always agree. Returns -1 for a point
+   * outside the tree.
+   */
+  private long zOrderCode(Point p) {
+    var x = p.coordinateX;
+    var y = p.coordinateY;
+    if (!root.contains(x, y)) {
+      return -1;
+    }
+    var minX = root.minX;
+    var minY = root.minY;
+    var maxX = root.maxX;
+    var maxY = root.maxY;
+    long code = 0;
+    for (var depth = 0; depth < MAX_DEPTH; depth++) {
+      var midX = (minX + maxX) / 2;
+      var midY = (minY + maxY) / 2;
+      var quadrant = SOUTHWEST;
+      if (x >= midX) {
+        quadrant |= EAST;
+        minX = midX;
+      } else {
+        maxX = midX;
+      }
+      if (y >= midY) {
+        quadrant |= NORTH;
+        minY = midY;
+      } else {
+        maxY = midY;
+      }
+      code = code << 2 | quadrant;
+    }
+    return code;
+  }
+
+  private static void query(
+      Node node,
+      double minX,
+      double minY,
+      double maxX,
+      double maxY,
+      Collection<Point> relevantPoints) {
+    if (node.count == 0
+        || node.maxX < minX
+        || node.minX > maxX
+        || node.maxY < minY
+        || node.minY > maxY) {
+      return;
+    }
+    if (node.children != null) {
+      for (var child : node.children) {
+        query(child, minX, minY, maxX, maxY, relevantPoints);
+      }
+      return;
+    }
+    for (var i = 0; i < node.size; i++) {
+      var p = node.points[i];
+      if (p.coordinateX >= minX
+          && p.coordinateX <= maxX
+          && p.coordinateY >= minY
+          && p.coordinateY <= maxY) {
+        relevantPoints.add(p);
+      }
+    }
+  }
+
+  private static void nearest(Node node, NearestPoints nearest) {
+    if (node.count == 0 || !nearest.mayImprove(node.minX, node.minY, node.maxX, node.maxY)) {
+      return;
+    }
+    if (node.children == null) {
+      for (var i = 0; i < node.size; i++) {
+        nearest.offer(node.points[i]);
+      }
+      return;
+    }
+    // the nearer children first, as the candidates they yield let the search skip the others
+    var order = node.children.clone();
+    Arrays.sort(
+        order,
+        Comparator.comparingDouble(
+            (Node child) -> nearest.boxDistance(child.minX, child.minY, child.maxX, child.maxY)));
+    for (var child : order) {
+      nearest(child, nearest);
+    }
+  }
+
+  private static int nodeCount(Node node) {
+    var count = 1;
+    if (node.children != null) {
+      for (var child : node.children) {
+        count += nodeCount(child);
+      }
+    }
+    return count;
+  }
+
+  /*
+   * A node of the tree. Its bounds include the minimum and exclude the maximum, except for the
+   * maximum of the boundary of the tree, which the closed flags include.
+   */
+  private static final class Node {
+    final Node parent;
+    final int depth;
+    final double minX;
+    final double minY;
+    final double maxX;
+    final double maxY;
+    final boolean closedX;
+    final boolean closedY;
+    Node[] children;
+    Point[] points;
+    int size;
+    int count;
+
+    Node(
+        Node parent,
+        int depth,
+        double minX,
+        double minY,
+        double maxX,
+        double maxY,
+        boolean closedX,
+        boolean closedY) {
+      this.parent = parent;
+      this.depth = depth;
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+      this.closedX = closedX;
+      this.closedY = closedY;
+    }
+
+    boolean contains(double x, double y) {
+      return x >= minX
+          && (x < maxX || closedX && x == maxX)
+          && y >= minY
+          && (y < maxY || closedY && y == maxY);
+    }
+
+    int quadrantOf(double x, double y) {
+      return (y >= (minY + maxY) / 2 ? NORTH : 0) | (x >= (minX + maxX) / 2 ? EAST : 0);
+    }
+
+    void createChildren() {
+      var midX = (minX + maxX) / 2;
+      var midY = (minY + maxY) / 2;
+      var childDepth = depth + 1;
+      children = new Node[4];
+      children[SOUTHWEST] = new Node(this, childDepth, minX, minY, midX, midY, false, false);
+      children[SOUTHEAST] = new Node(this, childDepth, midX, minY, maxX, midY, closedX, false);
+      children[NORTHWEST] = new Node(this, childDepth, minX, midY, midX, maxY, false, closedY);
+      children[NORTHEAST] = new Node(this, childDepth, midX, midY, maxX, maxY, closedX, closedY);
+    }
+
+    void addPoint(Point p) {
+      if (points == null) {
+        points = new Point[4];
+      } else if (size == points.length) {
+        points = Arrays.copyOf(points, size * 2);
+      }
+      points[size++] = p;
+    }
+
+    void removePoint(Point p) {
+      for (var i = 0; i < size; i++) {
+        if (points[i].id == p.id) {
+          points[i] = points[--size];
+          points[size] = null;
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the k points nearest to a location, as offered by a search of a {@link SpatialIndex}.
+ * The candidates are held in a heap with the farthest on top, so that a search can skip any part of
+ * its index lying farther away than the worst candidate once k candidates have been found.
+ */
+final class NearestPoints {
+
+  private final double x;
+  private final double y;
+  private final int k;
+  private final Comparator<Point> farthestFirst;
+  private final PriorityQueue<Point> candidates;
+
+  NearestPoints(double x, double y, int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k must not be negative: " + k);
+    }
+    this.x = x;
+    this.y = y;
+    this.k = k;
+    this.farthestFirst =
+        Comparator.comparingDouble(this::distance).thenComparingInt((Point p) -> p.id).reversed();
+    this.candidates = new PriorityQueue<>(Math.max(k, 1), farthestFirst);
+  }
+
+  void offer(Point p) {
+    if (k == 0) {
+      return;
+    }
+    if (candidates.size() < k) {
+      candidates.add(p);
+    } else if (farthestFirst.compare(p, candidates.peek()) > 0) {
+      candidates.poll();
+      candidates.add(p);
+    }
+  }
+
+  /**
+   * Squared distance of the worst candidate, which any point has to beat to become a candidate.
+   *
+   * @return the squared distance, or infinity while fewer than k candidates have been found.
+   */
+  double worstDistance() {
+    if (k == 0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    return candidates.size() < k ? Double.POSITIVE_INFINITY : distance(candidates.peek());
+  }
+
+  /* Whether a box may hold a point that becomes a candidate, false if it is entirely farther. */
+  boolean mayImprove(double minX, double minY, double maxX, double maxY) {
+    return boxDistance(minX, minY, maxX, maxY) <= worstDistance();
+  }
+
+  /* Squared distance from the location to the nearest point of a box, zero inside the box. */
+  double boxDistance(double minX, double minY, double maxX, double maxY) {
+    var dx = Math.max(Math.max(minX - x, x - maxX), 0);
+    var dy = Math.max(Math.max(minY - y, y - maxY), 0);
+    return dx * dx + dy * dy;
+  }
+
+  double distance(Point p) {
+    var dx = p.coordinateX - x;
+    var dy = p.coordinateY - y;
+    return dx * dx + dy * dy;
+  }
+
+  List<Point> toList() {
+    var nearest = new ArrayList<>(candidates);
+    nearest.sort(Collections.reverseOrder(farthestFirst));
+    return nearest;
+  }
+}
@@ -26,14 +26,18 @@ package com.iluwatar.spatialpartition;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * The quadtree data structure is being used to keep track of the objects' locations. It has the
  * insert(Point) and query(range) methods to insert a new object and find the objects within a
  * certain (rectangular) range respectively.
+ *
+ * <p>As the quadtree does not know where a point is held, removing and thus relocating a point
+ * searches all of its nodes. {@link DynamicQuadTree} is the better choice for moving points.
  */
-public class QuadTree {
+public class QuadTree implements SpatialIndex {
   Rect boundary;
   int capacity;
   boolean divided;
@@ -54,25 +58,40 @@ public class QuadTree {
     this.southeast = null;
   }
 
-  void insert(Point p) {
+  @Override
+  public boolean insert(Point p) {
     if (this.boundary.contains(p)) {
       if (this.points.size() < this.capacity) {
         points.put(p.id, p);
+        return true;
       } else {
         if (!this.divided) {
           this.divide();
         }
         if (this.northwest.boundary.contains(p)) {
-          this.northwest.insert(p);
+          return this.northwest.insert(p);
         } else if (this.northeast.boundary.contains(p)) {
-          this.northeast.insert(p);
+          return this.northeast.insert(p);
         } else if (this.southwest.boundary.contains(p)) {
-          this.southwest.insert(p);
+          return this.southwest.insert(p);
         } else if (this.southeast.boundary.contains(p)) {
-          this.southeast.insert(p);
+          return this.southeast.insert(p);
         }
       }
     }
+    return false;
+  }
+
+  @Override
+  public boolean remove(Point p) {
+    if (this.points.remove(p.id) != null) {
+      return true;
+    }
+    return this.divided
+        && (this.northwest.remove(p)
+            || this.northeast.remove(p)
+            || this.southwest.remove(p)
+            || this.southeast.remove(p));
   }
 
   void divide() {
@@ -91,7 +110,8 @@ public class QuadTree {
     this.divided = true;
   }
 
-  Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
+  @Override
+  public Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
     // could also be a circle instead of a rectangle
     if (this.boundary.intersects(r)) {
       this.points.values().stream().filter(r::contains).forEach(relevantPoints::add);
@@ -104,4 +124,42 @@ public class QuadTree {
     }
     return relevantPoints;
   }
+
+  @Override
+  public List<Point> nearest(double x, double y, int k) {
+    var nearest = new NearestPoints(x, y, k);
+    nearest(nearest);
+    return nearest.toList();
+  }
+
+  @Override
+  public int size() {
+    var size = this.points.size();
+    if (this.divided) {
+      size +=
+          this.northwest.size()
+              + this.northeast.size()
+              + this.southwest.size()
+              + this.southeast.size();
+    }
+    return size;
+  }
+
+  private void nearest(NearestPoints nearest) {
+    var b = this.boundary;
+    if (!nearest.mayImprove(
+        b.coordinateX - b.width / 2,
+        b.coordinateY - b.height / 2,
+        b.coordinateX + b.width / 2,
+        b.coordinateY + b.height / 2)) {
+      return;
+    }
+    this.points.values().forEach(nearest::offer);
+    if (this.divided) {
+      this.northwest.nearest(nearest);
+      this.northeast.nearest(nearest);
+      this.southwest.nearest(nearest);
+      this.southeast.nearest(nearest);
+    }
+  }
 }
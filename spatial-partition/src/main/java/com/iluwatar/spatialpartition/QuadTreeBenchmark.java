@@ -0,0 +1,175 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the insert, query and update rates of {@link QuadTree} and {@link DynamicQuadTree} for a
+ * field of moving {@link Bubble}s. The update of a frame rebuilds a {@link QuadTree} from scratch,
+ * as it cannot move points, while the {@link DynamicQuadTree} relocates every bubble. Moving the
+ * bubbles themselves is not part of the measurement.
+ */
+@Slf4j
+public class QuadTreeBenchmark {
+
+  private static final int CAPACITY = 8;
+  private static final int ROUNDS = 5;
+
+  /**
+   * Rates of a single tree, in operations per second.
+   *
+   * @param tree name of the tree.
+   * @param inserts inserted points per second.
+   * @param queries range queries per second.
+   * @param updates updated points per second.
+   */
+  public record Result(String tree, double inserts, double queries, double updates) {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   */
+  public static void main(String[] args) {
+    // warms up the JIT compiler, so that the first measurement is not mostly interpreted
+    run(100_000, 7);
+    for (var bubbles : List.of(10_000, 100_000)) {
+      for (var result : run(bubbles, 42)) {
+        LOGGER.info(
+            "bubbles: {}, tree: {}, inserts/sec: {}, queries/sec: {}, updates/sec: {}",
+            bubbles,
+            result.tree(),
+            String.format("%.0f", result.inserts()),
+            String.format("%.0f", result.queries()),
+            String.format("%.0f", result.updates()));
+      }
+    }
+  }
+
+  /**
+   * Measures both trees, plus the bulk load of the {@link DynamicQuadTree}, on the same field.
+   *
+   * @param count number of bubbles.
+   * @param seed seed of the bubble positions and moves.
+   * @return the results of the rebuilt quadtree, the dynamic quadtree and its bulk load.
+   */
+  public static List<Result> run(int count, long seed) {
+    // about 100 square units per bubble keeps the density of the field the same for any count
+    var side = (int) Math.sqrt(count * 100.0);
+    var field = new Rect(side / 2D, side / 2D, side, side);
+    var random = new Random(seed);
+    var bubbles = new Bubble[count];
+    for (var i = 0; i < count; i++) {
+      bubbles[i] = new Bubble(random.nextInt(side), random.nextInt(side), i, random.nextInt(2) + 1);
+    }
+
+    // insert
+    var start = System.nanoTime();
+    for (var round = 0; round < ROUNDS; round++) {
+      var tree = new QuadTree(field, CAPACITY);
+      for (var bubble : bubbles) {
+        tree.insert(bubble);
+      }
+    }
+    var quadTreeInserts = rate(count * ROUNDS, start);
+    start = System.nanoTime();
+    for (var round = 0; round < ROUNDS; round++) {
+      var tree = new DynamicQuadTree(field, CAPACITY);
+      for (var bubble : bubbles) {
+        tree.insert(bubble);
+      }
+    }
+    var dynamicInserts = rate(count * ROUNDS, start);
+    start = System.nanoTime();
+    for (var round = 0; round < ROUNDS; round++) {
+      var tree = new DynamicQuadTree(field, CAPACITY);
+      Point[] sorted = bubbles.clone();
+      tree.sort(sorted);
+      tree.bulkLoad(sorted);
+    }
+    var bulkInserts = rate(count * ROUNDS, start);
+
+    // query
+    var quadTree = new QuadTree(field, CAPACITY);
+    var dynamicTree = new DynamicQuadTree(field, CAPACITY);
+    for (var bubble : bubbles) {
+      quadTree.insert(bubble);
+      dynamicTree.insert(bubble);
+    }
+    var found = new ArrayList<Point>();
+    start = System.nanoTime();
+    for (var bubble : bubbles) {
+      found.clear();
+      quadTree.query(rangeOf(bubble), found);
+    }
+    var quadTreeQueries = rate(count, start);
+    start = System.nanoTime();
+    for (var bubble : bubbles) {
+      found.clear();
+      dynamicTree.query(rangeOf(bubble), found);
+    }
+    var dynamicQueries = rate(count, start);
+
+    // update
+    long quadTreeNanos = 0;
+    long dynamicNanos = 0;
+    for (var round = 0; round < ROUNDS; round++) {
+      for (var bubble : bubbles) {
+        bubble.coordinateX += random.nextInt(3) - 1;
+        bubble.coordinateY += random.nextInt(3) - 1;
+      }
+      start = System.nanoTime();
+      quadTree = new QuadTree(field, CAPACITY);
+      for (var bubble : bubbles) {
+        quadTree.insert(bubble);
+      }
+      quadTreeNanos += System.nanoTime() - start;
+      start = System.nanoTime();
+      for (var bubble : bubbles) {
+        dynamicTree.relocate(bubble);
+      }
+      dynamicNanos += System.nanoTime() - start;
+    }
+    var quadTreeUpdates = count * ROUNDS / (quadTreeNanos / 1e9);
+    var dynamicUpdates = count * ROUNDS / (dynamicNanos / 1e9);
+
+    return List.of(
+        new Result("QuadTree", quadTreeInserts, quadTreeQueries, quadTreeUpdates),
+        new Result("DynamicQuadTree", dynamicInserts, dynamicQueries, dynamicUpdates),
+        new Result("DynamicQuadTree bulk load", bulkInserts, dynamicQueries, dynamicUpdates));
+  }
+
+  private static Rect rangeOf(Bubble bubble) {
+    return new Rect(bubble.coordinateX, bubble.coordinateY, 2D * bubble.radius, 2D * bubble.radius);
+  }
+
+  private static double rate(long operations, long startNanos) {
+    return operations / ((System.nanoTime() - startNanos) / 1e9);
+  }
+}
@@ -51,9 +51,10 @@ public class Rect {
   }
 
   boolean intersects(Rect other) {
-    return !(this.coordinateX + this.width / 2 <= other.coordinateX - other.width / 2
-        || this.coordinateX - this.width / 2 >= other.coordinateX + other.width / 2
-        || this.coordinateY + this.height / 2 <= other.coordinateY - other.height / 2
-        || this.coordinateY - this.height / 2 >= other.coordinateY + other.height / 2);
+    // rectangles that only touch intersect too, as both contain the points on their edges
+    return !(this.coordinateX + this.width / 2 < other.coordinateX - other.width / 2
+        || this.coordinateX - this.width / 2 > other.coordinateX + other.width / 2
+        || this.coordinateY + this.height / 2 < other.coordinateY - other.height / 2
+        || this.coordinateY - this.height / 2 > other.coordinateY + other.height / 2);
   }
 }
@@ -0,0 +1,356 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index dividing the plane into square cells of a fixed size, of which only the occupied
+ * ones are stored. For dense points of a similar size, with a cell about the size of a typical
+ * query, inserting, moving and finding a point only touch a few cells and never a tree.
+ *
+ * <p>The cells are found in an open addressing hash table keyed by a primitive int, which packs the
+ * lower 16 bits of both cell coordinates. Cells that far apart share a key and thus a cell, which
+ * costs some filtering but never a wrong result, as the points of a cell are always checked against
+ * their own coordinates. A cell that becomes empty is unlinked from the table, so the table only
+ * holds the occupied cells however far the points wander.
+ */
+public class SpatialHashGrid implements SpatialIndex {
+
+  private static final int INITIAL_SLOTS = 64;
+
+  private final double cellSize;
+  private final Map<Integer, Cell> cellOfPoint = new HashMap<>();
+  private int[] keys = new int[INITIAL_SLOTS];
+  private Cell[] slots = new Cell[INITIAL_SLOTS];
+  private int used;
+  private int size;
+
+  // range of the cell coordinates that have ever been occupied, which bounds a nearest search
+  private int minCellX = Integer.MAX_VALUE;
+  private int minCellY = Integer.MAX_VALUE;
+  private int maxCellX = Integer.MIN_VALUE;
+  private int maxCellY = Integer.MIN_VALUE;
+
+  /**
+   * Creates an empty grid.
+   *
+   * @param cellSize the width and height of a cell.
+   */
+  public SpatialHashGrid(double cellSize) {
+    if (!(cellSize > 0)) {
+      throw new IllegalArgumentException("cell size must be positive: " + cellSize);
+    }
+    this.cellSize = cellSize;
+  }
+
+  /** Inserts a point, or relocates it if it is already part of the grid. */
+  @Override
+  public boolean insert(Point p) {
+    if (cellOfPoint.containsKey(p.id)) {
+      return relocate(p);
+    }
+    add(cellAt(cellCoordinate(p.coordinateX), cellCoordinate(p.coordinateY)), p);
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(Point p) {
+    var cell = cellOfPoint.remove(p.id);
+    if (cell == null) {
+      return false;
+    }
+    removePoint(cell, p);
+    size--;
+    return true;
+  }
+
+  /** Moves a point to another cell only if it has left the cell it is held by. */
+  @Override
+  public boolean relocate(Point p) {
+    var cell = cellOfPoint.get(p.id);
+    if (cell == null) {
+      return false;
+    }
+    var cellX = cellCoordinate(p.coordinateX);
+    var cellY = cellCoordinate(p.coordinateY);
+    if (cell.key == key(cellX, cellY)) {
+      return true;
+    }
+    removePoint(cell, p);
+    add(cellAt(cellX, cellY), p);
+    return true;
+  }
+
+  @Override
+  public Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
+    var minX = r.coordinateX - r.width / 2;
+    var minY = r.coordinateY - r.height / 2;
+    var maxX = r.coordinateX + r.width / 2;
+    var maxY = r.coordinateY + r.height / 2;
+    var fromX = Math.max(cellCoordinate(minX), minCellX);
+    var fromY = Math.max(cellCoordinate(minY), minCellY);
+    var toX = Math.min(cellCoordinate(maxX), maxCellX);
+    var toY = Math.min(cellCoordinate(maxY), maxCellY);
+    if (fromX > toX || fromY > toY) {
+      return relevantPoints;
+    }
+    if ((long) (toX - fromX + 1) * (toY - fromY + 1) > used
+        || toX - fromX > 0xFFFF
+        || toY - fromY > 0xFFFF) {
+      // a range covering more cells than are occupied is faster checked cell by cell, and a range
+      // wider than the keys would visit a shared cell more than once
+      for (var i = 0; i < slots.length; i++) {
+        if (slots[i] != null) {
+          slots[i].query(minX, minY, maxX, maxY, relevantPoints);
+        }
+      }
+      return relevantPoints;
+    }
+    for (var cellX = fromX; cellX <= toX; cellX++) {
+      for (var cellY = fromY; cellY <= toY; cellY++) {
+        var cell = find(key(cellX, cellY));
+        if (cell != null) {
+          cell.query(minX, minY, maxX, maxY, relevantPoints);
+        }
+      }
+    }
+    return relevantPoints;
+  }
+
+  /**
+   * Searches the rings of cells around the location, one ring after the other, until the points
+   * found are nearer than any point of the next ring can be. Once a ring has more cells than are
+   * occupied, as for sparse points, all occupied cells are searched instead.
+   */
+  @Override
+  public List<Point> nearest(double x, double y, int k) {
+    var nearest = new NearestPoints(x, y, k);
+    if (size == 0) {
+      return nearest.toList();
+    }
+    var centreX = cellCoordinate(x);
+    var centreY = cellCoordinate(y);
+    for (var ring = 0; ; ring++) {
+      if (8L * ring > used) {
+        return nearestOfAll(x, y, k);
+      }
+      var fromX = centreX - ring;
+      var toX = centreX + ring;
+      var fromY = centreY - ring;
+      var toY = centreY + ring;
+      for (var cellX = fromX; cellX <= toX; cellX++) {
+        var step = cellX == fromX || cellX == toX ? 1 : toY - fromY;
+        for (var cellY = fromY; cellY <= toY; cellY += Math.max(step, 1)) {
+          nearest(cellX, cellY, nearest);
+        }
+      }
+      var nextRingDistance = ring * cellSize;
+      var covered = fromX <= minCellX && fromY <= minCellY && toX >= maxCellX && toY >= maxCellY;
+      if (covered || nearest.worstDistance() < nextRingDistance * nextRingDistance) {
+        return nearest.toList();
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private List<Point> nearestOfAll(double x, double y, int k) {
+    var nearest = new NearestPoints(x, y, k);
+    for (var cell : slots) {
+      if (cell != null) {
+        for (var i = 0; i < cell.size; i++) {
+          nearest.offer(cell.points[i]);
+        }
+      }
+    }
+    return nearest.toList();
+  }
+
+  private void nearest(int cellX, int cellY, NearestPoints nearest) {
+    var cell = find(key(cellX, cellY));
+    if (cell == null) {
+      return;
+    }
+    for (var i = 0; i < cell.size; i++) {
+      var p = cell.points[i];
+      // a cell shared by cells far apart is visited once for each of them
+      if (cellCoordinate(p.coordinateX) == cellX && cellCoordinate(p.coordinateY) == cellY) {
+        nearest.offer(p);
+      }
+    }
+  }
+
+  /* Number of cells in the table, for tests. */
+  int occupiedCells() {
+    return used;
+  }
+
+  private void removePoint(Cell cell, Point p) {
+    cell.removePoint(p);
+    if (cell.size == 0) {
+      unlink(cell);
+    }
+  }
+
+  private void add(Cell cell, Point p) {
+    cell.addPoint(p);
+    cellOfPoint.put(p.id, cell);
+  }
+
+  private int cellCoordinate(double coordinate) {
+    return (int) Math.floor(coordinate / cellSize);
+  }
+
+  private static int key(int cellX, int cellY) {
+    return cellX << 16 | cellY & 0xFFFF;
+  }
+
+  private static int slotOf(int key, int length) {
+    // spreads the packed coordinates over the table, whose length is a power of two
+    return (key * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(length) + 1;
+  }
+
+  private Cell find(int key) {
+    for (var slot = slotOf(key, slots.length); ; slot = slot + 1 & slots.length - 1) {
+      var cell = slots[slot];
+      if (cell == null || keys[slot] == key) {
+        return cell;
+      }
+    }
+  }
+
+  private Cell cellAt(int cellX, int cellY) {
+    minCellX = Math.min(minCellX, cellX);
+    minCellY = Math.min(minCellY, cellY);
+    maxCellX = Math.max(maxCellX, cellX);
+    maxCellY = Math.max(maxCellY, cellY);
+    var key = key(cellX, cellY);
+    var cell = find(key);
+    if (cell != null) {
+      return cell;
+    }
+    if (2 * (used + 1) > slots.length) {
+      resize();
+    }
+    cell = new Cell(key);
+    var slot = slotOf(key, slots.length);
+    while (slots[slot] != null) {
+      slot = slot + 1 & slots.length - 1;
+    }
+    keys[slot] = key;
+    slots[slot] = cell;
+    used++;
+    return cell;
+  }
+
+  /*
+   * Removes the cell from the table. The cells probed after it are shifted back into the hole where
+   * their home slot allows, so that every cell stays reachable without tombstones.
+   */
+  private void unlink(Cell cell) {
+    var mask = slots.length - 1;
+    var hole = slotOf(cell.key, slots.length);
+    while (slots[hole] != cell) {
+      hole = hole + 1 & mask;
+    }
+    for (var next = hole + 1 & mask; slots[next] != null; next = next + 1 & mask) {
+      var home = slotOf(keys[next], slots.length);
+      if ((next - home & mask) >= (next - hole & mask)) {
+        slots[hole] = slots[next];
+        keys[hole] = keys[next];
+        hole = next;
+      }
+    }
+    slots[hole] = null;
+    keys[hole] = 0;
+    used--;
+  }
+
+  private void resize() {
+    var oldSlots = slots;
+    slots = new Cell[oldSlots.length * 2];
+    keys = new int[slots.length];
+    for (var cell : oldSlots) {
+      if (cell != null) {
+        var slot = slotOf(cell.key, slots.length);
+        while (slots[slot] != null) {
+          slot = slot + 1 & slots.length - 1;
+        }
+        keys[slot] = cell.key;
+        slots[slot] = cell;
+      }
+    }
+  }
+
+  /* The points of a cell, in a plain array. */
+  private static final class Cell {
+    final int key;
+    Point[] points = new Point[4];
+    int size;
+
+    Cell(int key) {
+      this.key = key;
+    }
+
+    void addPoint(Point p) {
+      if (size == points.length) {
+        points = Arrays.copyOf(points, size * 2);
+      }
+      points[size++] = p;
+    }
+
+    void removePoint(Point p) {
+      for (var i = 0; i < size; i++) {
+        if (points[i].id == p.id) {
+          points[i] = points[--size];
+          points[size] = null;
+          return;
+        }
+      }
+    }
+
+    void query(
+        double minX, double minY, double maxX, double maxY, Collection<Point> relevantPoints) {
+      for (var i = 0; i < size; i++) {
+        var p = points[i];
+        if (p.coordinateX >= minX
+            && p.coordinateX <= maxX
+            && p.coordinateY >= minY
+            && p.coordinateY <= maxY) {
+          relevantPoints.add(p);
+        }
+      }
+    }
+  }
+}
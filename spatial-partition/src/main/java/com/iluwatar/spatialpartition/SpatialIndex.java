@@ -0,0 +1,93 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A data structure that finds the points lying in a certain area. Which one is fastest depends on
+ * the data: a {@link QuadTree} or {@link DynamicQuadTree} adapts to any distribution, a {@link
+ * SpatialHashGrid} is hard to beat for dense points of a similar size, and a {@link
+ * BoundingVolumeHierarchy} follows strongly skewed data most closely.
+ *
+ * <p>The index holds on to the points it is given. After a point has moved, {@link
+ * #relocate(Point)} has to be called before the index is queried again.
+ */
+public interface SpatialIndex {
+
+  /**
+   * Inserts a point.
+   *
+   * @param p the point.
+   * @return false if the point could not be inserted, as it lies outside the area of the index.
+   */
+  boolean insert(Point p);
+
+  /**
+   * Removes a point.
+   *
+   * @param p the point.
+   * @return false if the point was not part of the index.
+   */
+  boolean remove(Point p);
+
+  /**
+   * Updates the index after a point has moved.
+   *
+   * @param p the point.
+   * @return false if the point was not part of the index, or it no longer is as it has left the
+   *     area of the index.
+   */
+  default boolean relocate(Point p) {
+    return remove(p) && insert(p);
+  }
+
+  /**
+   * Finds the points within a rectangular range, including its edges.
+   *
+   * @param r the range.
+   * @param relevantPoints the collection the points found are added to.
+   * @return the collection passed in.
+   */
+  Collection<Point> query(Rect r, Collection<Point> relevantPoints);
+
+  /**
+   * Finds the points nearest to a location.
+   *
+   * @param x the x coordinate of the location.
+   * @param y the y coordinate of the location.
+   * @param k the number of points to find.
+   * @return up to k points ordered by their distance, nearest first, and by id at equal distance.
+   */
+  List<Point> nearest(double x, double y, int k);
+
+  /**
+   * Number of points held by the index.
+   *
+   * @return the number of points.
+   */
+  int size();
+}
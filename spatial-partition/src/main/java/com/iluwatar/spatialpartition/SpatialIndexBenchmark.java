@@ -0,0 +1,227 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the {@link SpatialIndex} implementations on differently distributed points. For every
+ * distribution and number of points it reports the rates of building the index, of range queries
+ * around the points, of nearest neighbour searches and of relocating every point after a move. The
+ * quadtree and the grid are built by inserting the points one by one, the hierarchy by a bulk load.
+ */
+@Slf4j
+public class SpatialIndexBenchmark {
+
+  private static final int CAPACITY = 8;
+  private static final int QUERIES = 20_000;
+  private static final int QUERY_SIZE = 8;
+  private static final int NEAREST = 8;
+
+  /** How the points are spread over the field. */
+  public enum Distribution {
+    /** Evenly over the whole field. */
+    UNIFORM,
+    /** In a few dense clusters. */
+    CLUSTERED,
+    /** Along the diagonal of the field. */
+    LINEAR
+  }
+
+  /**
+   * Rates of a single index, in operations per second.
+   *
+   * @param distribution the distribution of the points.
+   * @param points the number of points.
+   * @param index name of the index.
+   * @param inserts points inserted per second while building the index.
+   * @param queries range queries per second.
+   * @param nearest nearest neighbour searches per second.
+   * @param updates points relocated per second.
+   */
+  public record Result(
+      Distribution distribution,
+      int points,
+      String index,
+      double inserts,
+      double queries,
+      double nearest,
+      double updates) {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   */
+  public static void main(String[] args) {
+    // warms up the JIT compiler, so that the first measurements are not mostly interpreted
+    for (var distribution : Distribution.values()) {
+      run(distribution, 20_000, 7);
+    }
+    for (var distribution : Distribution.values()) {
+      for (var count : List.of(1_000, 10_000, 100_000)) {
+        for (var result : run(distribution, count, 42)) {
+          LOGGER.info(
+              "{} {} {}: inserts/sec: {}, queries/sec: {}, nearest/sec: {}, updates/sec: {}",
+              result.distribution(),
+              result.points(),
+              result.index(),
+              String.format("%.0f", result.inserts()),
+              String.format("%.0f", result.queries()),
+              String.format("%.0f", result.nearest()),
+              String.format("%.0f", result.updates()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Measures every index on the same points.
+   *
+   * @param distribution the distribution of the points.
+   * @param count the number of points.
+   * @param seed seed of the positions and moves of the points.
+   * @return the result of every index.
+   */
+  public static List<Result> run(Distribution distribution, int count, long seed) {
+    // about 100 square units per point keeps the average density the same for any count
+    var side = (int) Math.sqrt(count * 100.0);
+    var field = new Rect(side / 2D, side / 2D, side, side);
+    var indexes = new LinkedHashMap<String, Function<Bubble[], SpatialIndex>>();
+    indexes.put(
+        "DynamicQuadTree", bubbles -> insertAll(new DynamicQuadTree(field, CAPACITY), bubbles));
+    indexes.put("SpatialHashGrid", bubbles -> insertAll(new SpatialHashGrid(QUERY_SIZE), bubbles));
+    indexes.put(
+        "BoundingVolumeHierarchy",
+        bubbles -> {
+          var hierarchy = new BoundingVolumeHierarchy(CAPACITY);
+          hierarchy.bulkLoad(bubbles.clone());
+          return hierarchy;
+        });
+
+    var results = new ArrayList<Result>();
+    for (Map.Entry<String, Function<Bubble[], SpatialIndex>> entry : indexes.entrySet()) {
+      // every index gets the same points and moves
+      var random = new Random(seed);
+      var bubbles = bubbles(distribution, count, side, random);
+
+      var start = System.nanoTime();
+      var index = entry.getValue().apply(bubbles);
+      var inserts = rate(count, start);
+
+      var found = new ArrayList<Point>();
+      start = System.nanoTime();
+      for (var i = 0; i < QUERIES; i++) {
+        var bubble = bubbles[i % count];
+        found.clear();
+        index.query(
+            new Rect(bubble.coordinateX, bubble.coordinateY, QUERY_SIZE, QUERY_SIZE), found);
+      }
+      var queries = rate(QUERIES, start);
+
+      start = System.nanoTime();
+      for (var i = 0; i < QUERIES; i++) {
+        var bubble = bubbles[i % count];
+        index.nearest(bubble.coordinateX, bubble.coordinateY, NEAREST);
+      }
+      var nearest = rate(QUERIES, start);
+
+      var rounds = 5;
+      long updateNanos = 0;
+      for (var round = 0; round < rounds; round++) {
+        for (var bubble : bubbles) {
+          bubble.coordinateX = Math.clamp(bubble.coordinateX + random.nextInt(3) - 1, 0, side);
+          bubble.coordinateY = Math.clamp(bubble.coordinateY + random.nextInt(3) - 1, 0, side);
+        }
+        start = System.nanoTime();
+        for (var bubble : bubbles) {
+          index.relocate(bubble);
+        }
+        updateNanos += System.nanoTime() - start;
+      }
+      var updates = (double) count * rounds / (updateNanos / 1e9);
+      results.add(
+          new Result(distribution, count, entry.getKey(), inserts, queries, nearest, updates));
+    }
+    return results;
+  }
+
+  /**
+   * Creates bubbles spread over a square field.
+   *
+   * @param distribution how the bubbles are spread.
+   * @param count the number of bubbles.
+   * @param side the side of the field.
+   * @param random the source of the positions.
+   * @return the bubbles.
+   */
+  static Bubble[] bubbles(Distribution distribution, int count, int side, Random random) {
+    var bubbles = new Bubble[count];
+    var clusters = new int[16][2];
+    for (var cluster : clusters) {
+      cluster[0] = random.nextInt(side);
+      cluster[1] = random.nextInt(side);
+    }
+    for (var i = 0; i < count; i++) {
+      int x;
+      int y;
+      switch (distribution) {
+        case CLUSTERED -> {
+          var cluster = clusters[random.nextInt(clusters.length)];
+          x = cluster[0] + (int) (random.nextGaussian() * side / 100);
+          y = cluster[1] + (int) (random.nextGaussian() * side / 100);
+        }
+        case LINEAR -> {
+          x = random.nextInt(side);
+          y = x + random.nextInt(5) - 2;
+        }
+        default -> {
+          x = random.nextInt(side);
+          y = random.nextInt(side);
+        }
+      }
+      bubbles[i] =
+          new Bubble(Math.clamp(x, 0, side), Math.clamp(y, 0, side), i, random.nextInt(2) + 1);
+    }
+    return bubbles;
+  }
+
+  private static <T extends SpatialIndex> T insertAll(T index, Bubble[] bubbles) {
+    for (var bubble : bubbles) {
+      index.insert(bubble);
+    }
+    return index;
+  }
+
+  private static double rate(long operations, long startNanos) {
+    return operations / ((System.nanoTime() - startNanos) / 1e9);
+  }
+}
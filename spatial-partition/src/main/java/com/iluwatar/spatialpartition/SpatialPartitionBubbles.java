@@ -25,20 +25,33 @@
 package com.iluwatar.spatialpartition;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This class extends the generic SpatialPartition abstract class and is used in our example to keep
  * track of all the bubbles that collide, pop and stay un-popped.
+ *
+ * <p>Besides handling the collisions of one bubble after the other, it can handle the collisions of
+ * all bubbles at once in two phases. First the pairs of touching bubbles are found in parallel,
+ * which only reads the bubbles and the spatial index. Then a single thread pops the bubbles in
+ * order of their ids, so that the result does not depend on the number of threads.
  */
 public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
 
+  /* Bubbles up to which a task searches for collisions itself instead of forking. */
+  private static final int BUBBLES_PER_TASK = 1024;
+
   private final Map<Integer, Bubble> bubbles;
-  private final QuadTree bubblesQuadTree;
+  private final SpatialIndex bubblesIndex;
 
-  SpatialPartitionBubbles(Map<Integer, Bubble> bubbles, QuadTree bubblesQuadTree) {
+  SpatialPartitionBubbles(Map<Integer, Bubble> bubbles, SpatialIndex bubblesIndex) {
     this.bubbles = bubbles;
-    this.bubblesQuadTree = bubblesQuadTree;
+    this.bubblesIndex = bubblesIndex;
   }
 
   void handleCollisionsUsingQt(Bubble b) {
@@ -46,8 +59,157 @@ public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
     // centre of bubble and length = radius of bubble
     var rect = new Rect(b.coordinateX, b.coordinateY, 2D * b.radius, 2D * b.radius);
     var quadTreeQueryResult = new ArrayList<Point>();
-    this.bubblesQuadTree.query(rect, quadTreeQueryResult);
+    this.bubblesIndex.query(rect, quadTreeQueryResult);
     // handling these collisions
     b.handleCollision(quadTreeQueryResult, this.bubbles);
   }
+
+  /**
+   * Handles the collisions of all bubbles at their current positions, popping the bubbles that
+   * {@link #resolveCollisions(long[])} selects and removing them from the spatial index.
+   *
+   * @param pool the pool the touching bubbles are searched in.
+   * @return the ids of the popped bubbles, in the order they popped.
+   */
+  List<Integer> handleCollisionsInParallel(ForkJoinPool pool) {
+    var popped = resolveCollisions(findCollisions(pool));
+    for (var id : popped) {
+      var bubble = this.bubbles.get(id);
+      this.bubblesIndex.remove(bubble);
+      bubble.pop(this.bubbles);
+    }
+    return popped;
+  }
+
+  /**
+   * Finds all pairs of touching bubbles in parallel. The bubbles are split into ranges handled by
+   * separate tasks. With a {@link DynamicQuadTree} as index the ranges follow its Z-order, so that
+   * every task covers a few subtrees and mostly queries nodes the other tasks do not touch.
+   *
+   * @param pool the pool the tasks run in.
+   * @return every pair once, as the smaller id in the upper and the greater id in the lower half of
+   *     a long, in ascending order.
+   */
+  long[] findCollisions(ForkJoinPool pool) {
+    var all = this.bubbles.values().toArray(new Bubble[0]);
+    if (this.bubblesIndex instanceof DynamicQuadTree tree) {
+      Point[] points = all;
+      tree.sort(points);
+    }
+    var maxRadius = 0;
+    for (var bubble : all) {
+      maxRadius = Math.max(maxRadius, bubble.radius);
+    }
+    var pairs =
+        pool.invoke(new FindCollisionsTask(this.bubblesIndex, all, 0, all.length, maxRadius));
+    // the order of the pairs depends on the split into tasks, their sorted order does not
+    Arrays.sort(pairs);
+    return pairs;
+  }
+
+  /**
+   * Selects the bubbles popped by the touching pairs. The bubbles are visited in order of their
+   * ids, and like {@link Bubble#handleCollision} a bubble that is still there pops together with
+   * all bubbles still there that it touches.
+   *
+   * @param pairs the pairs found by {@link #findCollisions(ForkJoinPool)}.
+   * @return the ids of the popped bubbles, in the order they pop.
+   */
+  static List<Integer> resolveCollisions(long[] pairs) {
+    // both directions of every pair, grouped by the bubble visited
+    var touching = new long[pairs.length * 2];
+    for (var i = 0; i < pairs.length; i++) {
+      touching[2 * i] = pairs[i];
+      touching[2 * i + 1] = pair(second(pairs[i]), first(pairs[i]));
+    }
+    Arrays.sort(touching);
+    var popped = new HashSet<Integer>();
+    var order = new ArrayList<Integer>();
+    var i = 0;
+    while (i < touching.length) {
+      var id = first(touching[i]);
+      var end = i;
+      while (end < touching.length && first(touching[end]) == id) {
+        end++;
+      }
+      if (!popped.contains(id)) {
+        var collided = false;
+        for (var j = i; j < end; j++) {
+          var other = second(touching[j]);
+          if (popped.add(other)) {
+            order.add(other);
+            collided = true;
+          }
+        }
+        if (collided) {
+          popped.add(id);
+          order.add(id);
+        }
+      }
+      i = end;
+    }
+    return order;
+  }
+
+  private static long pair(int first, int second) {
+    return (long) first << 32 | Integer.toUnsignedLong(second);
+  }
+
+  private static int first(long pair) {
+    return (int) (pair >> 32);
+  }
+
+  private static int second(long pair) {
+    return (int) pair;
+  }
+
+  /* Finds the touching pairs of a range of bubbles, each pair from the side of its smaller id. */
+  private static final class FindCollisionsTask extends RecursiveTask<long[]> {
+    private final SpatialIndex index;
+    private final Bubble[] bubbles;
+    private final int from;
+    private final int to;
+    private final int maxRadius;
+
+    FindCollisionsTask(SpatialIndex index, Bubble[] bubbles, int from, int to, int maxRadius) {
+      this.index = index;
+      this.bubbles = bubbles;
+      this.from = from;
+      this.to = to;
+      this.maxRadius = maxRadius;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (to - from > BUBBLES_PER_TASK) {
+        var middle = (from + to) >>> 1;
+        var left = new FindCollisionsTask(index, bubbles, from, middle, maxRadius);
+        left.fork();
+        var right = new FindCollisionsTask(index, bubbles, middle, to, maxRadius).compute();
+        var leftPairs = left.join();
+        var pairs = Arrays.copyOf(leftPairs, leftPairs.length + right.length);
+        System.arraycopy(right, 0, pairs, leftPairs.length, right.length);
+        return pairs;
+      }
+      var pairs = new long[16];
+      var size = 0;
+      var candidates = new ArrayList<Point>();
+      for (var i = from; i < to; i++) {
+        var bubble = bubbles[i];
+        // a bubble touches another as far away as the sum of both radii
+        var reach = 2D * (bubble.radius + maxRadius);
+        candidates.clear();
+        index.query(new Rect(bubble.coordinateX, bubble.coordinateY, reach, reach), candidates);
+        for (var candidate : candidates) {
+          if (candidate.id > bubble.id && bubble.touches((Bubble) candidate)) {
+            if (size == pairs.length) {
+              pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = pair(bubble.id, candidate.id);
+          }
+        }
+      }
+      return Arrays.copyOf(pairs, size);
+    }
+  }
 }
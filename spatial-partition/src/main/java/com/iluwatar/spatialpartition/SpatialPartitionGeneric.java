@@ -28,17 +28,18 @@ import java.util.Map;
 
 /**
  * This abstract class has 2 fields, one of which is a hashtable containing all objects that
- * currently exist on the field and a quadtree which keeps track of locations.
+ * currently exist on the field and a spatial index, such as a quadtree, which keeps track of
+ * locations.
  *
  * @param <T> T will be type of object (that extends Point)
  */
 public abstract class SpatialPartitionGeneric<T> {
 
   Map<Integer, T> playerPositions;
-  QuadTree quadTree;
+  SpatialIndex spatialIndex;
 
   /**
-   * handles collisions for object obj using quadtree.
+   * handles collisions for object obj using the spatial index.
    *
    * @param obj is the object for which collisions need to be checked
    */
@@ -0,0 +1,159 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/** Testing DynamicQuadTree class. */
+class DynamicQuadTreeTest {
+
+  private static final Rect FIELD = new Rect(150, 150, 300, 300);
+
+  @Test
+  void queryFindsSamePointsAsScan() {
+    var bubbles = bubbles(500, new Random(1));
+    var tree = new DynamicQuadTree(FIELD, 4);
+    bubbles.forEach(tree::insert);
+    assertEquals(500, tree.size());
+    assertQueriesMatchScan(tree, bubbles, new Random(2));
+  }
+
+  @Test
+  void pointsOnTheBoundaryAreFound() {
+    var corner = new Bubble(300, 300, 1, 1);
+    var centre = new Bubble(150, 150, 2, 1);
+    var tree = new DynamicQuadTree(FIELD, 1);
+    assertTrue(tree.insert(corner));
+    assertTrue(tree.insert(centre));
+    assertFalse(tree.insert(new Bubble(301, 0, 3, 1)));
+    assertEquals(ids(List.of(corner, centre)), ids(tree.query(FIELD, new ArrayList<>())));
+  }
+
+  @Test
+  void relocateKeepsTreeConsistentWithMovingPoints() {
+    var random = new Random(3);
+    var bubbles = bubbles(1000, random);
+    var tree = new DynamicQuadTree(FIELD, 4);
+    bubbles.forEach(tree::insert);
+    for (var frame = 0; frame < 50; frame++) {
+      for (var bubble : bubbles) {
+        bubble.coordinateX = Math.clamp(bubble.coordinateX + random.nextInt(11) - 5, 0, 300);
+        bubble.coordinateY = Math.clamp(bubble.coordinateY + random.nextInt(11) - 5, 0, 300);
+        assertTrue(tree.relocate(bubble));
+      }
+    }
+    assertEquals(1000, tree.size());
+    assertQueriesMatchScan(tree, bubbles, random);
+  }
+
+  @Test
+  void relocateOutOfTheFieldRemovesThePoint() {
+    var bubble = new Bubble(10, 10, 1, 1);
+    var tree = new DynamicQuadTree(FIELD, 4);
+    tree.insert(bubble);
+    bubble.coordinateX = -1;
+    assertFalse(tree.relocate(bubble));
+    assertEquals(0, tree.size());
+    assertFalse(tree.remove(bubble));
+  }
+
+  @Test
+  void removingPointsMergesUnderfullNodes() {
+    var bubbles = bubbles(200, new Random(4));
+    var tree = new DynamicQuadTree(FIELD, 4);
+    bubbles.forEach(tree::insert);
+    assertTrue(tree.nodeCount() > 1);
+
+    var remaining = new ArrayList<>(bubbles.subList(0, 2));
+    bubbles.subList(2, bubbles.size()).forEach(b -> assertTrue(tree.remove(b)));
+    assertEquals(2, tree.size());
+    assertEquals(1, tree.nodeCount());
+    assertEquals(ids(remaining), ids(tree.query(FIELD, new ArrayList<>())));
+  }
+
+  @Test
+  void bulkLoadBuildsSameContentAsInsertion() {
+    var random = new Random(5);
+    var bubbles = bubbles(2000, random);
+    bubbles.add(new Bubble(400, 400, 2000, 1));
+    var tree = new DynamicQuadTree(FIELD, 4);
+    var sorted = bubbles.toArray(new Point[0]);
+    tree.sort(sorted);
+    tree.bulkLoad(sorted);
+    assertEquals(2000, tree.size());
+    bubbles.remove(2000);
+    assertQueriesMatchScan(tree, bubbles, random);
+
+    // a bulk loaded tree keeps supporting updates
+    for (var bubble : bubbles) {
+      bubble.coordinateX = random.nextInt(300);
+      assertTrue(tree.relocate(bubble));
+    }
+    assertQueriesMatchScan(tree, bubbles, random);
+  }
+
+  @Test
+  void bulkLoadRejectsUnsortedPoints() {
+    var tree = new DynamicQuadTree(FIELD, 1);
+    Point[] points = {new Bubble(290, 290, 1, 1), new Bubble(10, 10, 2, 1)};
+    assertThrows(IllegalArgumentException.class, () -> tree.bulkLoad(points));
+    assertEquals(0, tree.size());
+  }
+
+  private static List<Bubble> bubbles(int count, Random random) {
+    var bubbles = new ArrayList<Bubble>();
+    for (var i = 0; i < count; i++) {
+      bubbles.add(new Bubble(random.nextInt(300), random.nextInt(300), i, random.nextInt(2) + 1));
+    }
+    return bubbles;
+  }
+
+  private static void assertQueriesMatchScan(
+      DynamicQuadTree tree, List<Bubble> bubbles, Random random) {
+    for (var i = 0; i < 100; i++) {
+      var range = new Rect(random.nextInt(300), random.nextInt(300), 60, 40);
+      var expected = bubbles.stream().filter(range::contains).collect(Collectors.toList());
+      assertEquals(ids(expected), ids(tree.query(range, new ArrayList<>())));
+    }
+  }
+
+  private static Set<Integer> ids(Collection<? extends Point> points) {
+    var ids = new HashSet<Integer>();
+    points.forEach(p -> assertTrue(ids.add(p.id)));
+    return ids;
+  }
+}
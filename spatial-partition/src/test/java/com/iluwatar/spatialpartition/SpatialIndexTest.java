@@ -0,0 +1,206 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.spatialpartition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Testing the SpatialIndex implementations against a scan of all points. */
+class SpatialIndexTest {
+
+  private static final Rect FIELD = new Rect(150, 150, 300, 300);
+
+  static Stream<Supplier<SpatialIndex>> dataProvider() {
+    return Stream.of(
+        () -> new QuadTree(FIELD, 4),
+        () -> new DynamicQuadTree(FIELD, 4),
+        () -> new SpatialHashGrid(10),
+        () -> new BoundingVolumeHierarchy(4));
+  }
+
+  @ParameterizedTest
+  @MethodSource("dataProvider")
+  void queryAndNearestMatchScan(Supplier<SpatialIndex> indexSupplier) {
+    var random = new Random(1);
+    var bubbles = bubbles(1000, random);
+    var index = indexSupplier.get();
+    bubbles.forEach(b -> assertTrue(index.insert(b)));
+    assertEquals(1000, index.size());
+    assertMatchesScan(index, bubbles, random);
+  }
+
+  @ParameterizedTest
+  @MethodSource("dataProvider")
+  void removedPointsAreNoLongerFound(Supplier<SpatialIndex> indexSupplier) {
+    var random = new Random(2);
+    var bubbles = bubbles(500, random);
+    var index = indexSupplier.get();
+    bubbles.forEach(index::insert);
+    var removed = bubbles.subList(0, 400);
+    removed.forEach(b -> assertTrue(index.remove(b)));
+    removed.forEach(b -> assertFalse(index.remove(b)));
+    removed.clear();
+    assertEquals(100, index.size());
+    assertMatchesScan(index, bubbles, random);
+  }
+
+  @ParameterizedTest
+  @MethodSource("dataProvider")
+  void relocatedPointsAreFoundAtTheirNewPosition(Supplier<SpatialIndex> indexSupplier) {
+    var random = new Random(3);
+    var bubbles = bubbles(500, random);
+    var index = indexSupplier.get();
+    bubbles.forEach(index::insert);
+    for (var frame = 0; frame < 20; frame++) {
+      for (var bubble : bubbles) {
+        bubble.coordinateX = Math.clamp(bubble.coordinateX + random.nextInt(21) - 10, 0, 300);
+        bubble.coordinateY = Math.clamp(bubble.coordinateY + random.nextInt(21) - 10, 0, 300);
+      }
+      bubbles.forEach(b -> assertTrue(index.relocate(b)));
+    }
+    assertEquals(500, index.size());
+    assertMatchesScan(index, bubbles, random);
+  }
+
+  @ParameterizedTest
+  @MethodSource("dataProvider")
+  void nearestBreaksTiesById(Supplier<SpatialIndex> indexSupplier) {
+    var index = indexSupplier.get();
+    List.of(new Bubble(10, 20, 3, 1), new Bubble(20, 10, 1, 1), new Bubble(0, 10, 2, 1))
+        .forEach(index::insert);
+    assertEquals(List.of(1, 2), ids(index.nearest(10, 10, 2)));
+    assertEquals(List.of(1, 2, 3), ids(index.nearest(10, 10, 5)));
+    assertEquals(List.of(), ids(index.nearest(10, 10, 0)));
+  }
+
+  @Test
+  void gridHandlesNegativeAndDistantCells() {
+    var grid = new SpatialHashGrid(10);
+    var near = new Bubble(-5, -5, 1, 1);
+    // 65536 cells apart, so both share the key of a cell
+    var far = new Bubble(655_355, -5, 2, 1);
+    grid.insert(near);
+    grid.insert(far);
+    assertEquals(List.of(1), ids(grid.query(new Rect(0, 0, 20, 20), new ArrayList<>())));
+    assertEquals(List.of(1, 2), ids(grid.nearest(0, 0, 2)));
+    assertEquals(List.of(2), ids(grid.nearest(655_350, 0, 1)));
+  }
+
+  @Test
+  void gridUnlinksEmptyCells() {
+    var random = new Random(4);
+    var bubbles = bubbles(500, random);
+    var grid = new SpatialHashGrid(10);
+    bubbles.forEach(grid::insert);
+    var occupied = grid.occupiedCells();
+    // the bubbles wander far off, leaving every cell they were in behind
+    for (var frame = 0; frame < 50; frame++) {
+      for (var bubble : bubbles) {
+        bubble.coordinateX += 30;
+      }
+      bubbles.forEach(grid::relocate);
+      assertTrue(grid.occupiedCells() <= occupied);
+    }
+    for (var bubble : bubbles) {
+      bubble.coordinateX -= 50 * 30;
+    }
+    bubbles.forEach(grid::relocate);
+    assertEquals(occupied, grid.occupiedCells());
+    assertMatchesScan(grid, bubbles, random);
+
+    bubbles.forEach(grid::remove);
+    assertEquals(0, grid.occupiedCells());
+  }
+
+  @Test
+  void rebuiltHierarchyIsBalanced() {
+    var random = new Random(4);
+    var bubbles = bubbles(4096, random);
+    var hierarchy = new BoundingVolumeHierarchy(4);
+    // points inserted along a line make a deep hierarchy
+    bubbles.sort(Comparator.comparingInt(b -> b.coordinateX));
+    bubbles.forEach(hierarchy::insert);
+    hierarchy.rebuild();
+    assertEquals(11, hierarchy.depth());
+    assertEquals(4096, hierarchy.size());
+    assertMatchesScan(hierarchy, bubbles, random);
+  }
+
+  private static List<Bubble> bubbles(int count, Random random) {
+    var bubbles = new ArrayList<Bubble>();
+    for (var i = 0; i < count; i++) {
+      bubbles.add(new Bubble(random.nextInt(300), random.nextInt(300), i, random.nextInt(2) + 1));
+    }
+    return bubbles;
+  }
+
+  private static void assertMatchesScan(SpatialIndex index, List<Bubble> bubbles, Random random) {
+    for (var i = 0; i < 50; i++) {
+      var range = new Rect(random.nextInt(300), random.nextInt(300), 60, 40);
+      var expected = bubbles.stream().filter(range::contains).collect(Collectors.toList());
+      assertEquals(idSet(expected), idSet(index.query(range, new ArrayList<>())));
+
+      var x = random.nextInt(300);
+      var y = random.nextInt(300);
+      var nearest =
+          bubbles.stream()
+              .sorted(
+                  Comparator.comparingDouble((Bubble b) -> distance(b, x, y))
+                      .thenComparingInt(b -> b.id))
+              .limit(10)
+              .collect(Collectors.toList());
+      assertEquals(ids(nearest), ids(index.nearest(x, y, 10)));
+    }
+  }
+
+  private static double distance(Point p, double x, double y) {
+    return (p.coordinateX - x) * (p.coordinateX - x) + (p.coordinateY - y) * (p.coordinateY - y);
+  }
+
+  private static List<Integer> ids(Collection<? extends Point> points) {
+    return points.stream().map(p -> p.id).collect(Collectors.toList());
+  }
+
+  private static Set<Integer> idSet(Collection<? extends Point> points) {
+    var ids = new HashSet<Integer>();
+    points.forEach(p -> assertTrue(ids.add(p.id)));
+    return ids;
+  }
+}
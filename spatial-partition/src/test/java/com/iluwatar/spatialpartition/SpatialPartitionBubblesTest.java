@@ -24,10 +24,17 @@
  */
 package com.iluwatar.spatialpartition;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
 
 /** Testing SpatialPartition_Bubbles class. */
@@ -58,4 +65,77 @@ class SpatialPartitionBubblesTest {
     assertNull(bubbles.get(3));
     assertNull(bubbles.get(4));
   }
+
+  @Test
+  void handleCollisionsInParallelPopsInOrderOfIds() {
+    var bubbles = new HashMap<Integer, Bubble>();
+    bubbles.put(1, new Bubble(10, 10, 1, 3));
+    bubbles.put(2, new Bubble(5, 5, 2, 1));
+    bubbles.put(3, new Bubble(9, 9, 3, 1));
+    bubbles.put(4, new Bubble(8, 8, 4, 2));
+    var index = new DynamicQuadTree(new Rect(10, 10, 20, 20), 4);
+    bubbles.values().forEach(index::insert);
+    var sp = new SpatialPartitionBubbles(bubbles, index);
+    var pool = new ForkJoinPool(2);
+    try {
+      // b1 pops together with b3 and b4, which b3 would have touched too
+      assertEquals(List.of(3, 4, 1), sp.handleCollisionsInParallel(pool));
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(List.of(2), List.copyOf(bubbles.keySet()));
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void findCollisionsFindsEveryTouchingPair() {
+    var bubbles = bubbles(2000, new Random(1));
+    var expected = new ArrayList<Long>();
+    for (var a : bubbles.values()) {
+      for (var b : bubbles.values()) {
+        if (a.id < b.id && a.touches(b)) {
+          expected.add((long) a.id << 32 | b.id);
+        }
+      }
+    }
+    expected.sort(null);
+    var index = new BoundingVolumeHierarchy(4);
+    bubbles.values().forEach(index::insert);
+    var pool = new ForkJoinPool(4);
+    try {
+      var pairs = new SpatialPartitionBubbles(bubbles, index).findCollisions(pool);
+      assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), pairs);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void parallelCollisionsDoNotDependOnTheNumberOfThreads() {
+    List<Integer> expected = null;
+    for (var threads : List.of(1, 2, 3, 8)) {
+      var bubbles = bubbles(5000, new Random(2));
+      var index = new DynamicQuadTree(new Rect(150, 150, 300, 300), 4);
+      bubbles.values().forEach(index::insert);
+      var pool = new ForkJoinPool(threads);
+      try {
+        var popped = new SpatialPartitionBubbles(bubbles, index).handleCollisionsInParallel(pool);
+        if (expected == null) {
+          expected = popped;
+        }
+        assertEquals(expected, popped);
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  private static Map<Integer, Bubble> bubbles(int count, Random random) {
+    var bubbles = new HashMap<Integer, Bubble>();
+    for (var i = 0; i < count; i++) {
+      bubbles.put(
+          i, new Bubble(random.nextInt(300), random.nextInt(300), i, random.nextInt(2) + 1));
+    }
+    return bubbles;
+  }
 }
@@ -24,7 +24,6 @@
  */
 package com.iluwatar.throttling;
 
-import com.iluwatar.throttling.timer.ThrottleTimerImpl;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
@@ -38,7 +37,9 @@ import lombok.extern.slf4j.Slf4j;
  * <p>In this example there is a {@link Bartender} serving beer to {@link BarCustomer}s. This is a
  * time based throttling, i.e. only a certain number of calls are allowed per second. ({@link
  * BarCustomer}) is the service tenant class having a name and the number of calls allowed. ({@link
- * Bartender}) is the service which is consumed by the tenants and is throttled.
+ * Bartender}) is the service which is consumed by the tenants and is throttled. The {@link
+ * SlidingWindowThrottler} limits every customer to its calls within any second, without a timer
+ * resetting the counts.
  */
 @Slf4j
 public class App {
@@ -49,14 +50,14 @@ public class App {
    * @param args main arguments
    */
   public static void main(String[] args) {
-    var callsCount = new CallsCount();
-    var human = new BarCustomer("young human", 2, callsCount);
-    var dwarf = new BarCustomer("dwarf soldier", 4, callsCount);
+    var human = new BarCustomer("young human", 2);
+    var dwarf = new BarCustomer("dwarf soldier", 4);
+    var service = new Bartender(new SlidingWindowThrottler(1, TimeUnit.SECONDS));
 
     var executorService = Executors.newFixedThreadPool(2);
 
-    executorService.execute(() -> makeServiceCalls(human, callsCount));
-    executorService.execute(() -> makeServiceCalls(dwarf, callsCount));
+    executorService.execute(() -> makeServiceCalls(human, service));
+    executorService.execute(() -> makeServiceCalls(dwarf, service));
 
     executorService.shutdown();
     try {
@@ -69,9 +70,7 @@ public class App {
   }
 
   /** Make calls to the bartender. */
-  private static void makeServiceCalls(BarCustomer barCustomer, CallsCount callsCount) {
-    var timer = new ThrottleTimerImpl(1000, callsCount);
-    var service = new Bartender(timer, callsCount);
+  private static void makeServiceCalls(BarCustomer barCustomer, Bartender service) {
     // Sleep is introduced to keep the output in check and easy to view and analyze the results.
     IntStream.range(0, 50)
         .forEach(
@@ -42,11 +42,23 @@ public class BarCustomer {
    * @throws InvalidParameterException If number of calls is less than 0, throws exception.
    */
   public BarCustomer(String name, int allowedCallsPerSecond, CallsCount callsCount) {
+    this(name, allowedCallsPerSecond);
+    callsCount.addTenant(name);
+  }
+
+  /**
+   * Constructor for a customer of a {@link Bartender} with a {@link SlidingWindowThrottler}, which
+   * needs no tenants registered ahead.
+   *
+   * @param name Name of the BarCustomer
+   * @param allowedCallsPerSecond The number of calls allowed for this particular tenant.
+   * @throws InvalidParameterException If number of calls is less than 0, throws exception.
+   */
+  public BarCustomer(String name, int allowedCallsPerSecond) {
     if (allowedCallsPerSecond < 0) {
       throw new InvalidParameterException("Number of calls less than 0 not allowed");
     }
     this.name = name;
     this.allowedCallsPerSecond = allowedCallsPerSecond;
-    callsCount.addTenant(name);
   }
 }
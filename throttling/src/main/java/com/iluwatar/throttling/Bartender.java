@@ -36,13 +36,23 @@ import org.slf4j.LoggerFactory;
 class Bartender {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Bartender.class);
-  private final CallsCount callsCount;
+  private final TenantQuota quota;
 
   public Bartender(Throttler timer, CallsCount callsCount) {
-    this.callsCount = callsCount;
+    this(callsCount);
     timer.start();
   }
 
+  /**
+   * Constructor for a bartender limiting the customers with a quota, such as a {@link
+   * SlidingWindowThrottler} instead of counts reset by a timer.
+   *
+   * @param quota quota shared by the bartenders of the bar
+   */
+  public Bartender(TenantQuota quota) {
+    this.quota = quota;
+  }
+
   /**
    * Orders a drink from the bartender.
    *
@@ -50,13 +60,12 @@ class Bartender {
    */
   public int orderDrink(BarCustomer barCustomer) {
     var tenantName = barCustomer.getName();
-    var count = callsCount.getCount(tenantName);
-    if (count >= barCustomer.getAllowedCallsPerSecond()) {
+    var allowed = barCustomer.getAllowedCallsPerSecond();
+    if (!quota.tryAcquire(tenantName, allowed)) {
       LOGGER.error("I'm sorry {}, you've had enough for today!", tenantName);
       return -1;
     }
-    callsCount.incrementCount(tenantName);
-    LOGGER.debug("Serving beer to {} : [{} consumed] ", barCustomer.getName(), count + 1);
+    LOGGER.debug("Serving beer to {}", tenantName);
     return getRandomCustomerId();
   }
 
@@ -29,9 +29,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 
-/** A class to keep track of the counter of different Tenants. */
+/**
+ * A class to keep track of the counter of different Tenants. As a {@link TenantQuota}, it limits
+ * the calls of a tenant until the counts are reset.
+ */
 @Slf4j
-public final class CallsCount {
+public final class CallsCount implements TenantQuota {
   private final Map<String, AtomicLong> tenantCallsCount = new ConcurrentHashMap<>();
 
   /**
@@ -52,6 +55,31 @@ public final class CallsCount {
     tenantCallsCount.get(tenantName).incrementAndGet();
   }
 
+  /**
+   * Increment the count of the specified tenant unless it has reached the limit. Unlike checking
+   * the count before incrementing it, concurrent calls cannot both pass the last remaining call.
+   *
+   * @param tenantName name of the tenant.
+   * @param limit maximum count of the tenant.
+   * @return whether the count was incremented.
+   */
+  public boolean tryIncrementCount(String tenantName, long limit) {
+    var count = tenantCallsCount.get(tenantName);
+    long current;
+    do {
+      current = count.get();
+      if (current >= limit) {
+        return false;
+      }
+    } while (!count.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  @Override
+  public boolean tryAcquire(String tenantName, int quota) {
+    return tryIncrementCount(tenantName, quota);
+  }
+
   /**
    * Get count of tenant based on tenant name.
    *
@@ -64,7 +92,7 @@ public final class CallsCount {
 
   /** Resets the count of all the tenants in the map. */
   public void reset() {
-    tenantCallsCount.replaceAll((k, v) -> new AtomicLong(0));
+    tenantCallsCount.values().forEach(count -> count.set(0));
     LOGGER.info("reset counters");
   }
 }
@@ -0,0 +1,224 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles the calls of many tenants, each to its own quota of calls per period. Unlike {@link
+ * CallsCount}, which a timer resets for all tenants at once, the quota applies to a window sliding
+ * along with the calls: the calls of the current period are added to the share of the previous
+ * period's calls that the sliding window still covers, assuming those were spread evenly. A tenant
+ * therefore cannot make twice its quota around the end of a period.
+ *
+ * <p>The state of a tenant is a single long packing the index of the current period with the counts
+ * of the current and the previous period, so checking and counting a call is a single
+ * compare-and-set. Tenants do not contend with each other, and there is no timer to reset them.
+ * Tenants that had no call admitted for a whole period are no different from new ones, so they are
+ * evicted once in a while by a caller, which keeps the memory bound to the recently active tenants.
+ * Their rejection count is dropped along with them.
+ */
+public final class SlidingWindowThrottler implements TenantQuota {
+  /** Largest quota, as a count takes 20 bits. */
+  public static final int MAX_QUOTA = (1 << 20) - 1;
+
+  private static final int COUNT_BITS = 20;
+  private static final int PERIOD_MASK = (1 << 23) - 1;
+  private static final long EVICTED = Long.MIN_VALUE;
+
+  private final long periodNanos;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private final AtomicLong lastSweep;
+  private final ConcurrentHashMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Constructor.
+   *
+   * @param period length of the period the quotas apply to
+   * @param timeUnit period time unit
+   */
+  public SlidingWindowThrottler(long period, TimeUnit timeUnit) {
+    this(timeUnit.toNanos(period), System::nanoTime);
+  }
+
+  SlidingWindowThrottler(long periodNanos, LongSupplier nanoClock) {
+    if (periodNanos <= 0) {
+      throw new IllegalArgumentException("period must be positive");
+    }
+    this.periodNanos = periodNanos;
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+    this.lastSweep = new AtomicLong(startNanos);
+  }
+
+  /**
+   * Counts a call of the tenant if it is within its quota.
+   *
+   * @param tenantName name of the tenant
+   * @param quota number of calls the tenant may make within any period
+   * @return whether the call is allowed
+   */
+  @Override
+  public boolean tryAcquire(String tenantName, int quota) {
+    if (quota < 0 || quota > MAX_QUOTA) {
+      throw new IllegalArgumentException("quota must be between 0 and " + MAX_QUOTA);
+    }
+    long now = nanoClock.getAsLong();
+    long elapsed = now - startNanos;
+    int period = (int) (elapsed / periodNanos) & PERIOD_MASK;
+    // the share of the previous period still covered by the window sliding up to now
+    double overlap = (double) (periodNanos - elapsed % periodNanos) / periodNanos;
+
+    Tenant tenant = tenants.get(tenantName);
+    int result;
+    while (true) {
+      if (tenant == null) {
+        tenant = tenants.computeIfAbsent(tenantName, k -> new Tenant());
+      }
+      result = tenant.tryAcquire(period, overlap, quota);
+      if (result != Tenant.EVICTED) {
+        break;
+      }
+      // helps the sweep that evicted it, so that a new one can take its place
+      tenants.remove(tenantName, tenant);
+      tenant = null;
+    }
+    if (result == Tenant.ADMITTED) {
+      admitted.increment();
+    } else {
+      tenant.rejected.increment();
+      rejected.increment();
+    }
+    evictIdleTenants(now, period);
+    return result == Tenant.ADMITTED;
+  }
+
+  private void evictIdleTenants(long now, int period) {
+    long last = lastSweep.get();
+    // a single caller every other period pays for the sweep
+    if (now - last >= 2 * periodNanos && lastSweep.compareAndSet(last, now)) {
+      tenants.values().removeIf(tenant -> tenant.evictIfIdle(period));
+    }
+  }
+
+  /** Evicts the tenants that had no call admitted for a whole period. */
+  public void evictIdleTenants() {
+    long elapsed = nanoClock.getAsLong() - startNanos;
+    int period = (int) (elapsed / periodNanos) & PERIOD_MASK;
+    tenants.values().removeIf(tenant -> tenant.evictIfIdle(period));
+  }
+
+  /**
+   * Gets the number of rejected calls of a tenant since it was last evicted.
+   *
+   * @param tenantName name of the tenant
+   * @return the number of rejected calls, zero for an unknown tenant
+   */
+  public long getRejectedCalls(String tenantName) {
+    Tenant tenant = tenants.get(tenantName);
+    return tenant == null ? 0 : tenant.rejected.sum();
+  }
+
+  public long getTotalAdmittedCalls() {
+    return admitted.sum();
+  }
+
+  public long getTotalRejectedCalls() {
+    return rejected.sum();
+  }
+
+  public int getTenantCount() {
+    return tenants.size();
+  }
+
+  /** Sliding window of a tenant. */
+  private static final class Tenant {
+    static final int ADMITTED = 1;
+    static final int REJECTED = 0;
+    static final int EVICTED = -1;
+
+    private final AtomicLong state = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+
+    int tryAcquire(int period, double overlap, int quota) {
+      while (true) {
+        long current = state.get();
+        if (current == SlidingWindowThrottler.EVICTED) {
+          return EVICTED;
+        }
+        int count;
+        int previousCount;
+        int age = (period - periodOf(current)) & PERIOD_MASK;
+        if (age == 0) {
+          count = countOf(current);
+          previousCount = previousCountOf(current);
+        } else if (age == 1) {
+          count = 0;
+          previousCount = countOf(current);
+        } else {
+          count = 0;
+          previousCount = 0;
+        }
+        if (previousCount * overlap + count + 1 > quota) {
+          return REJECTED;
+        }
+        if (state.compareAndSet(current, pack(period, previousCount, count + 1))) {
+          return ADMITTED;
+        }
+      }
+    }
+
+    boolean evictIfIdle(int period) {
+      long current = state.get();
+      return current != SlidingWindowThrottler.EVICTED
+          && ((period - periodOf(current)) & PERIOD_MASK) > 1
+          && state.compareAndSet(current, SlidingWindowThrottler.EVICTED);
+    }
+  }
+
+  // the top bit is left clear, so that no state equals EVICTED
+  private static long pack(int period, int previousCount, int count) {
+    return (long) period << 2 * COUNT_BITS | (long) previousCount << COUNT_BITS | count;
+  }
+
+  private static int periodOf(long state) {
+    return (int) (state >>> 2 * COUNT_BITS) & PERIOD_MASK;
+  }
+
+  private static int previousCountOf(long state) {
+    return (int) (state >>> COUNT_BITS) & MAX_QUOTA;
+  }
+
+  private static int countOf(long state) {
+    return (int) state & MAX_QUOTA;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling;
+
+import com.iluwatar.throttling.timer.ThrottleTimerImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares the throughput of {@link CallsCount}, reset every second by a {@link ThrottleTimerImpl},
+ * and {@link SlidingWindowThrottler} when many threads make calls for randomly chosen tenants. The
+ * calls count the way the {@link Bartender} originally did, by checking the count of the tenant
+ * before incrementing it. Logging is left out, so that only the throttling itself is measured.
+ */
+@Slf4j
+public final class ThrottlingBenchmark {
+
+  private static final int TENANTS = 10_000;
+  private static final int QUOTA = 100;
+  private static final long WARM_UP_MILLIS = 500;
+
+  /** A throttled call, true if it is allowed. */
+  private interface Call {
+    boolean run(String tenantName);
+  }
+
+  /**
+   * Result of a single benchmark run.
+   *
+   * @param throttler name of the throttler
+   * @param threads number of calling threads
+   * @param callsPerSecond calls per second, across all threads
+   * @param admittedPerSecond allowed calls per second, across all threads
+   */
+  public record Result(
+      String throttler, int threads, double callsPerSecond, double admittedPerSecond) {}
+
+  private ThrottlingBenchmark() {}
+
+  /**
+   * Benchmark entry.
+   *
+   * @param args program runtime arguments
+   * @throws Exception if any run fails
+   */
+  public static void main(String[] args) throws Exception {
+    for (int threads : List.of(1, 4, 16)) {
+      for (Result result : run(threads, 1000)) {
+        LOGGER.info(
+            "{} threads: {}, calls/sec: {}, admitted/sec: {}",
+            result.throttler(),
+            result.threads(),
+            String.format("%.0f", result.callsPerSecond()),
+            String.format("%.0f", result.admittedPerSecond()));
+      }
+    }
+  }
+
+  /**
+   * Runs both throttlers with {@value #TENANTS} tenants, each allowed {@value #QUOTA} calls per
+   * second.
+   *
+   * @param threads number of calling threads
+   * @param durationMillis duration of every run
+   * @return the result of both throttlers
+   * @throws Exception if any run fails
+   */
+  public static List<Result> run(int threads, long durationMillis) throws Exception {
+    var tenantNames = new String[TENANTS];
+    var callsCount = new CallsCount();
+    for (int i = 0; i < TENANTS; i++) {
+      tenantNames[i] = "tenant-" + i;
+      callsCount.addTenant(tenantNames[i]);
+    }
+    new ThrottleTimerImpl(1000, callsCount).start();
+    var throttler = new SlidingWindowThrottler(1, TimeUnit.SECONDS);
+
+    Call checkThenIncrement =
+        tenantName -> {
+          if (callsCount.getCount(tenantName) >= QUOTA) {
+            return false;
+          }
+          callsCount.incrementCount(tenantName);
+          return true;
+        };
+    Call slidingWindow = tenantName -> throttler.tryAcquire(tenantName, QUOTA);
+    measure(checkThenIncrement, tenantNames, threads, WARM_UP_MILLIS);
+    measure(slidingWindow, tenantNames, threads, WARM_UP_MILLIS);
+    var results = new ArrayList<Result>();
+    results.add(measure("CallsCount", checkThenIncrement, tenantNames, threads, durationMillis));
+    results.add(
+        measure("SlidingWindowThrottler", slidingWindow, tenantNames, threads, durationMillis));
+    return results;
+  }
+
+  private static Result measure(
+      String name, Call call, String[] tenantNames, int threads, long durationMillis)
+      throws Exception {
+    var rates = measure(call, tenantNames, threads, durationMillis);
+    return new Result(name, threads, rates[0], rates[1]);
+  }
+
+  private static double[] measure(Call call, String[] tenantNames, int threads, long durationMillis)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder calls = new LongAdder();
+    LongAdder admitted = new LongAdder();
+    CountDownLatch started = new CountDownLatch(threads);
+    try {
+      List<Future<?>> callers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        callers.add(
+            executor.submit(
+                (Callable<Void>)
+                    () -> {
+                      var random = ThreadLocalRandom.current();
+                      started.countDown();
+                      long count = 0;
+                      long allowed = 0;
+                      while (running.get()) {
+                        if (call.run(tenantNames[random.nextInt(tenantNames.length)])) {
+                          allowed++;
+                        }
+                        count++;
+                      }
+                      calls.add(count);
+                      admitted.add(allowed);
+                      return null;
+                    }));
+      }
+      started.await();
+      long start = System.nanoTime();
+      Thread.sleep(durationMillis);
+      running.set(false);
+      for (Future<?> caller : callers) {
+        caller.get();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      return new double[] {calls.sum() / seconds, admitted.sum() / seconds};
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
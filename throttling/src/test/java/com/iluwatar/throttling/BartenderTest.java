@@ -25,8 +25,10 @@
 package com.iluwatar.throttling;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.iluwatar.throttling.timer.Throttler;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
@@ -47,4 +49,24 @@ class BartenderTest {
     var counter = callsCount.getCount(tenant.getName());
     assertEquals(2, counter, "Counter limit must be reached");
   }
+
+  @Test
+  void slidingWindowCustomerApiTest() {
+    var tenant = new BarCustomer("pirate", 2);
+    var throttler = new SlidingWindowThrottler(1, TimeUnit.HOURS);
+    var service = new Bartender(throttler);
+
+    var served = IntStream.range(0, 5).map(i -> service.orderDrink(tenant)).filter(id -> id > 0);
+    assertEquals(2, served.count(), "Only the allowed drinks must be served");
+    assertEquals(3, throttler.getRejectedCalls(tenant.getName()));
+  }
+
+  @Test
+  void quotaDecidesWhoIsServed() {
+    TenantQuota soberOnly = (tenantName, quota) -> !tenantName.equals("pirate");
+    var service = new Bartender(soberOnly);
+
+    assertEquals(-1, service.orderDrink(new BarCustomer("pirate", 2)));
+    assertTrue(service.orderDrink(new BarCustomer("sailor", 2)) > 0);
+  }
 }
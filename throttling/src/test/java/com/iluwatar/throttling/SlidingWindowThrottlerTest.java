@@ -0,0 +1,142 @@
+/*
+ * This project is licensed under the MIT license. Module model-view-viewmodel is using ZK framework licensed under LGPL (see lgpl-3.0.txt).
+ *
+ * The MIT License
+ * Copyright © 2014-2022 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.iluwatar.throttling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Tests the sliding window of the {@link SlidingWindowThrottler}. */
+class SlidingWindowThrottlerTest {
+
+  private static final long PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong();
+  private final SlidingWindowThrottler throttler = new SlidingWindowThrottler(PERIOD, clock::get);
+
+  @Test
+  void shouldAllowQuotaPerTenant() {
+    IntStream.range(0, 3).forEach(i -> assertTrue(throttler.tryAcquire("pirate", 3)));
+    assertFalse(throttler.tryAcquire("pirate", 3));
+    assertTrue(throttler.tryAcquire("parrot", 1));
+    assertFalse(throttler.tryAcquire("parrot", 1));
+
+    assertEquals(1, throttler.getRejectedCalls("pirate"));
+    assertEquals(1, throttler.getRejectedCalls("parrot"));
+    assertEquals(4, throttler.getTotalAdmittedCalls());
+    assertEquals(2, throttler.getTotalRejectedCalls());
+  }
+
+  @Test
+  void shouldWeighInPreviousPeriod() {
+    IntStream.range(0, 4).forEach(i -> assertTrue(throttler.tryAcquire("pirate", 4)));
+
+    // a quarter into the next period, three quarters of the previous calls still count
+    clock.set(PERIOD + PERIOD / 4);
+    assertTrue(throttler.tryAcquire("pirate", 4));
+    assertFalse(throttler.tryAcquire("pirate", 4));
+
+    // three quarters in, one of the previous calls still counts
+    clock.set(PERIOD + 3 * PERIOD / 4);
+    assertTrue(throttler.tryAcquire("pirate", 4));
+    assertTrue(throttler.tryAcquire("pirate", 4));
+    assertFalse(throttler.tryAcquire("pirate", 4));
+  }
+
+  @Test
+  void shouldForgetCallsAfterTwoPeriods() {
+    IntStream.range(0, 2).forEach(i -> throttler.tryAcquire("pirate", 2));
+    assertFalse(throttler.tryAcquire("pirate", 2));
+
+    clock.set(2 * PERIOD);
+    IntStream.range(0, 2).forEach(i -> assertTrue(throttler.tryAcquire("pirate", 2)));
+  }
+
+  @Test
+  void shouldRejectEveryCallWithoutQuota() {
+    assertFalse(throttler.tryAcquire("pirate", 0));
+    assertThrows(IllegalArgumentException.class, () -> throttler.tryAcquire("pirate", -1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> throttler.tryAcquire("pirate", SlidingWindowThrottler.MAX_QUOTA + 1));
+  }
+
+  @Test
+  void shouldEvictIdleTenants() {
+    IntStream.range(0, 100).forEach(i -> throttler.tryAcquire("tenant-" + i, 1));
+    clock.set(PERIOD);
+    throttler.tryAcquire("pirate", 1);
+    throttler.evictIdleTenants();
+    assertEquals(101, throttler.getTenantCount(), "calls of the previous period still count");
+
+    // the caller after two periods sweeps the tenants idle since the last period
+    clock.set(2 * PERIOD);
+    throttler.tryAcquire("pirate", 1);
+    assertEquals(1, throttler.getTenantCount());
+    assertTrue(throttler.tryAcquire("tenant-0", 1));
+  }
+
+  @Test
+  void shouldNotExceedQuotaUnderContention() throws Exception {
+    var threads = 8;
+    var executor = Executors.newFixedThreadPool(threads);
+    var admitted = new LongAdder();
+    var start = new CountDownLatch(1);
+    try {
+      var callers =
+          IntStream.range(0, threads)
+              .mapToObj(
+                  t ->
+                      executor.submit(
+                          () -> {
+                            start.await();
+                            for (int i = 0; i < 1000; i++) {
+                              if (throttler.tryAcquire("tenant-" + i % 10, 50)) {
+                                admitted.increment();
+                              }
+                            }
+                            return null;
+                          }))
+              .toList();
+      start.countDown();
+      for (var caller : callers) {
+        caller.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(500, admitted.sum());
+    assertEquals(7500, throttler.getTotalRejectedCalls());
+  }
+}